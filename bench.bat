@@ -0,0 +1,14 @@
+@echo off
+echo Compilando Simulador Tomasulo...
+
+if not exist bin mkdir bin
+
+javac -encoding UTF-8 -d bin src/simulador/*.java src/gui/*.java src/cli/*.java src/benchmark/*.java
+
+if %ERRORLEVEL% == 0 (
+    echo Executando benchmarks...
+    java -cp bin benchmark.SimuladorBenchmark %*
+) else (
+    echo Erro na compilacao!
+    pause
+)
@@ -3,7 +3,7 @@ echo Compilando Simulador Tomasulo...
 
 if not exist bin mkdir bin
 
-javac -d bin src/simulador/*.java src/gui/*.java
+javac -encoding UTF-8 -d bin src/simulador/*.java src/gui/*.java src/cli/*.java
 
 if %ERRORLEVEL% == 0 (
     echo Compilacao concluida com sucesso!
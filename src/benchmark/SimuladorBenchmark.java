@@ -0,0 +1,404 @@
+package benchmark;
+
+import simulador.*;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+/**
+ * Suíte de benchmarks dos caminhos críticos do simulador:
+ * vazão de proximoCiclo(), vazão do InstructionParser e do carregador de
+ * programas binários, custo de reiniciar() e bytes alocados por ciclo simulado.
+ * Uma simulação que termina o programa sem devolver todos os registradores
+ * físicos à lista livre interrompe a suíte.
+ *
+ * Uso: java -cp bin benchmark.SimuladorBenchmark [opções]
+ *   --rob 8,16,32          tamanhos de ROB
+ *   --estacoes 3,8         estações por classe de operação
+ *   --escala 1,100         fatores de replicação dos programas sintéticos
+ *   --gerado 10000         tamanhos dos programas do GeradorProgramas
+ *   --ilp 1,2,4,8          distâncias RAW médias para a curva de IPC x ILP
+ *   --aquecimento 3        iterações de aquecimento
+ *   --iteracoes 5          iterações medidas
+ *   --dir .                diretório dos programas de exemplo
+ *   --csv arquivo.csv      grava os resultados
+ *   --comparar base.csv    compara com uma execução anterior
+ *   --tolerancia 10        regressão máxima aceita (%)
+ */
+public class SimuladorBenchmark {
+    private static final String[] EXEMPLOS = {
+        "exemplo.txt", "exemplo_dependencias.txt", "exemplo_memoria.txt", "exemplo_simples.txt",
+        "kernels/liberacao_registradores.txt" // desvios tomados que cancelam STOREs já emitidos
+    };
+    // Programas sem desvios, que podem ser replicados sem alterar alvos de BEQ
+    private static final String[] BASE_SINTETICO = {
+        "exemplo_dependencias.txt", "exemplo_memoria.txt"
+    };
+
+    private int[] tamanhosRob = {8, 32};
+    private int[] numEstacoes = {3, 8};
+    private int[] escalas = {1, 100};
+    private int[] tamanhosGerados = {10000};
+    private int[] distanciasIlp = {1, 2, 4, 8, 12};
+    private int aquecimento = 3;
+    private int iteracoes = 5;
+    private String diretorio = ".";
+    private String arquivoCsv;
+    private String arquivoBase;
+    private double tolerancia = 10.0;
+
+    private final List<Resultado> resultados = new ArrayList<>();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Resultado de uma medição (uma linha do relatório)
+     */
+    static class Resultado {
+        final String nome;
+        final double valor;
+        final String unidade;
+        final boolean maiorMelhor;
+
+        Resultado(String nome, double valor, String unidade, boolean maiorMelhor) {
+            this.nome = nome;
+            this.valor = valor;
+            this.unidade = unidade;
+            this.maiorMelhor = maiorMelhor;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        SimuladorBenchmark bench = new SimuladorBenchmark();
+        bench.lerArgumentos(args);
+        bench.executar();
+        bench.imprimir();
+        if (bench.arquivoCsv != null) {
+            bench.gravarCsv(bench.arquivoCsv);
+        }
+        if (bench.arquivoBase != null && bench.comparar(bench.arquivoBase) > 0) {
+            System.exit(1);
+        }
+    }
+
+    private void lerArgumentos(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String valor = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--rob": tamanhosRob = lerLista(valor); i++; break;
+                case "--estacoes": numEstacoes = lerLista(valor); i++; break;
+                case "--escala": escalas = lerLista(valor); i++; break;
+                case "--gerado": tamanhosGerados = lerLista(valor); i++; break;
+                case "--ilp": distanciasIlp = lerLista(valor); i++; break;
+                case "--aquecimento": aquecimento = Integer.parseInt(valor); i++; break;
+                case "--iteracoes": iteracoes = Integer.parseInt(valor); i++; break;
+                case "--dir": diretorio = valor; i++; break;
+                case "--csv": arquivoCsv = valor; i++; break;
+                case "--comparar": arquivoBase = valor; i++; break;
+                case "--tolerancia": tolerancia = Double.parseDouble(valor); i++; break;
+                default:
+                    throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+            }
+        }
+    }
+
+    private static int[] lerLista(String texto) {
+        String[] partes = texto.split(",");
+        int[] valores = new int[partes.length];
+        for (int i = 0; i < partes.length; i++) {
+            valores[i] = Integer.parseInt(partes[i].trim());
+        }
+        return valores;
+    }
+
+    /**
+     * Executa todas as medições
+     */
+    public void executar() throws IOException {
+        Map<String, List<Instrucao>> programas = carregarProgramas();
+
+        for (Map.Entry<String, List<Instrucao>> programa : programas.entrySet()) {
+            for (int rob : tamanhosRob) {
+                for (int estacoes : numEstacoes) {
+                    ConfiguracaoSimulador config = new ConfiguracaoSimulador();
+                    config.setTamanhoRob(rob);
+                    config.setNumEstacoes(estacoes);
+                    config.setLimiteCiclos(Integer.MAX_VALUE - 1);
+                    medirCiclos(programa.getKey(), programa.getValue(), config);
+                }
+            }
+        }
+
+        for (int rob : tamanhosRob) {
+            for (int estacoes : numEstacoes) {
+                ConfiguracaoSimulador config = new ConfiguracaoSimulador();
+                config.setTamanhoRob(rob);
+                config.setNumEstacoes(estacoes);
+                medirReiniciar(programas.get(nomeSintetico(maiorEscala())), config);
+            }
+        }
+
+        for (int escala : escalas) {
+            medirParser(escala);
+        }
+
+        for (int tamanho : tamanhosGerados) {
+            for (int distancia : distanciasIlp) {
+                medirIpc(tamanho, distancia);
+            }
+        }
+    }
+
+    /**
+     * Caracteriza o IPC simulado em função da distância média das dependências
+     * (mais distância, mais paralelismo disponível)
+     */
+    private void medirIpc(int tamanho, int distancia) {
+        GeradorProgramas gerador = new GeradorProgramas();
+        gerador.setTamanho(tamanho);
+        gerador.setDistanciaMedia(distancia);
+        List<Instrucao> programa = gerador.gerarInstrucoes();
+
+        for (int rob : tamanhosRob) {
+            for (int estacoes : numEstacoes) {
+                ConfiguracaoSimulador config = new ConfiguracaoSimulador();
+                config.setTamanhoRob(rob);
+                config.setNumEstacoes(estacoes);
+                config.setLimiteCiclos(Integer.MAX_VALUE - 1);
+                Simulador simulador = new Simulador(config);
+                simulador.carregarInstrucoes(programa);
+                while (!simulador.isSimulacaoCompleta()) {
+                    simulador.proximoCiclo();
+                }
+                resultados.add(new Resultado("ipc/gerado-" + tamanho + "/distancia=" + distancia + "/" + config,
+                        simulador.calcularIPC(), "IPC", true));
+            }
+        }
+    }
+
+    /**
+     * Mede a vazão de proximoCiclo() em ciclos simulados por segundo e a
+     * alocação por ciclo, executando o programa até o fim a cada iteração.
+     */
+    private void medirCiclos(String nome, List<Instrucao> programa, ConfiguracaoSimulador config) {
+        Simulador simulador = new Simulador(config);
+        simulador.carregarInstrucoes(programa);
+
+        long ciclos = 0;
+        long nanos = 0;
+        long bytes = 0;
+        for (int i = 0; i < aquecimento + iteracoes; i++) {
+            simulador.reiniciar();
+            long bytesInicio = bytesAlocados();
+            long inicio = System.nanoTime();
+            while (!simulador.isSimulacaoCompleta()) {
+                simulador.proximoCiclo();
+            }
+            long fim = System.nanoTime();
+            long bytesFim = bytesAlocados();
+            if (i >= aquecimento) {
+                ciclos += simulador.getCicloAtual();
+                nanos += fim - inicio;
+                bytes += bytesFim - bytesInicio;
+            }
+        }
+
+        int livres = ((List<?>) simulador.getRegisterStatus().get("livres")).size();
+        int fisicos = config.getNumRegistradoresPrivados() + 1;
+        if (simulador.getTotalCiclos() > 0 && livres != fisicos) {
+            throw new IllegalStateException(nome + " terminou com " + livres + " de " + fisicos
+                    + " registradores físicos livres (" + config + ")");
+        }
+
+        String prefixo = "ciclos/" + nome + "/" + config;
+        resultados.add(new Resultado(prefixo + "/vazao", ciclos * 1e9 / nanos, "ciclos/s", true));
+        resultados.add(new Resultado(prefixo + "/alocacao", (double) bytes / ciclos, "B/ciclo", false));
+    }
+
+    /**
+     * Mede o custo médio de reiniciar() com um programa carregado
+     */
+    private void medirReiniciar(List<Instrucao> programa, ConfiguracaoSimulador config) {
+        Simulador simulador = new Simulador(config);
+        simulador.carregarInstrucoes(programa);
+        int repeticoes = 1000;
+
+        long nanos = 0;
+        for (int i = 0; i < aquecimento + iteracoes; i++) {
+            long inicio = System.nanoTime();
+            for (int r = 0; r < repeticoes; r++) {
+                simulador.reiniciar();
+            }
+            long fim = System.nanoTime();
+            if (i >= aquecimento) {
+                nanos += fim - inicio;
+            }
+        }
+
+        resultados.add(new Resultado("reiniciar/" + programa.size() + " instr/" + config,
+                nanos / 1000.0 / ((long) repeticoes * iteracoes), "us/op", false));
+    }
+
+    /**
+     * Mede a vazão de InstructionParser.lerInstrucoes em linhas por segundo
+     */
+    private void medirParser(int escala) throws IOException {
+        File arquivo = File.createTempFile("bench", ".txt");
+        arquivo.deleteOnExit();
+        int linhas = 0;
+        try (PrintWriter writer = new PrintWriter(new FileWriter(arquivo))) {
+            for (int i = 0; i < escala; i++) {
+                for (String nome : BASE_SINTETICO) {
+                    for (String linha : lerLinhas(nome)) {
+                        writer.println(linha);
+                        linhas++;
+                    }
+                }
+            }
+        }
+
+        long nanos = 0;
+        for (int i = 0; i < aquecimento + iteracoes; i++) {
+            long inicio = System.nanoTime();
+            InstructionParser.lerInstrucoes(arquivo.getPath());
+            long fim = System.nanoTime();
+            if (i >= aquecimento) {
+                nanos += fim - inicio;
+            }
+        }
+
+        resultados.add(new Resultado("parser/" + nomeSintetico(escala),
+                (double) linhas * iteracoes * 1e9 / nanos, "linhas/s", true));
+
+        // Mesmo programa pré-montado no formato binário
+        File binario = File.createTempFile("bench", ProgramaBinario.EXTENSAO);
+        binario.deleteOnExit();
+        ProgramaBinario.montar(arquivo.getPath(), binario.getPath());
+        nanos = 0;
+        for (int i = 0; i < aquecimento + iteracoes; i++) {
+            long inicio = System.nanoTime();
+            ProgramaBinario.carregar(binario.getPath());
+            long fim = System.nanoTime();
+            if (i >= aquecimento) {
+                nanos += fim - inicio;
+            }
+        }
+
+        resultados.add(new Resultado("binario/" + nomeSintetico(escala),
+                (double) linhas * iteracoes * 1e9 / nanos, "linhas/s", true));
+    }
+
+    /**
+     * Carrega os exemplos do repositório e gera as versões sintéticas escaladas
+     */
+    private Map<String, List<Instrucao>> carregarProgramas() throws IOException {
+        Map<String, List<Instrucao>> programas = new LinkedHashMap<>();
+        for (String nome : EXEMPLOS) {
+            programas.put(nome, InstructionParser.lerInstrucoes(caminho(nome)));
+        }
+        for (int escala : escalas) {
+            List<Instrucao> programa = new ArrayList<>();
+            for (int i = 0; i < escala; i++) {
+                for (String nome : BASE_SINTETICO) {
+                    for (String linha : lerLinhas(nome)) {
+                        programa.add(InstructionParser.parsearInstrucao(linha));
+                    }
+                }
+            }
+            programas.put(nomeSintetico(escala), programa);
+        }
+        for (int tamanho : tamanhosGerados) {
+            GeradorProgramas gerador = new GeradorProgramas();
+            gerador.setTamanho(tamanho);
+            programas.put("gerado-" + tamanho, gerador.gerarInstrucoes());
+        }
+        return programas;
+    }
+
+    private List<String> lerLinhas(String nome) throws IOException {
+        List<String> linhas = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(caminho(nome)))) {
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                linha = linha.trim();
+                if (!linha.isEmpty() && !linha.startsWith("#") && !linha.startsWith("//")) {
+                    linhas.add(linha);
+                }
+            }
+        }
+        return linhas;
+    }
+
+    private String caminho(String nome) {
+        return new File(diretorio, nome).getPath();
+    }
+
+    private static String nomeSintetico(int escala) {
+        return "sintetico-x" + escala;
+    }
+
+    private int maiorEscala() {
+        int maior = escalas[0];
+        for (int escala : escalas) {
+            maior = Math.max(maior, escala);
+        }
+        return maior;
+    }
+
+    @SuppressWarnings("restriction")
+    private long bytesAlocados() {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private void imprimir() {
+        for (Resultado r : resultados) {
+            System.out.printf(Locale.ROOT, "%-90s %16.2f %s%n", r.nome, r.valor, r.unidade);
+        }
+    }
+
+    private void gravarCsv(String arquivo) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(arquivo))) {
+            writer.println("nome;valor;unidade;maiorMelhor");
+            for (Resultado r : resultados) {
+                writer.printf(Locale.ROOT, "%s;%.4f;%s;%b%n", r.nome, r.valor, r.unidade, r.maiorMelhor);
+            }
+        }
+    }
+
+    /**
+     * Compara os resultados com uma execução anterior gravada em CSV
+     * @return número de regressões acima da tolerância
+     */
+    private int comparar(String arquivo) throws IOException {
+        Map<String, Double> base = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(arquivo))) {
+            String linha = reader.readLine(); // cabeçalho
+            while ((linha = reader.readLine()) != null) {
+                String[] partes = linha.split(";");
+                base.put(partes[0], Double.parseDouble(partes[1]));
+            }
+        }
+
+        int regressoes = 0;
+        for (Resultado r : resultados) {
+            Double anterior = base.get(r.nome);
+            if (anterior == null || anterior == 0) {
+                continue;
+            }
+            double variacao = (r.valor - anterior) / anterior * 100.0;
+            boolean piorou = r.maiorMelhor ? variacao < -tolerancia : variacao > tolerancia;
+            if (piorou) {
+                regressoes++;
+                System.out.printf(Locale.ROOT, "REGRESSÃO %s: %.2f -> %.2f %s (%+.1f%%)%n",
+                        r.nome, anterior, r.valor, r.unidade, variacao);
+            }
+        }
+        System.out.println(regressoes == 0 ? "Nenhuma regressão acima de " + tolerancia + "%"
+                : regressoes + " regressão(ões) encontrada(s)");
+        return regressoes;
+    }
+}
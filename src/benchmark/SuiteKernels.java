@@ -0,0 +1,322 @@
+package benchmark;
+
+import simulador.*;
+import java.io.*;
+import java.util.*;
+
+/**
+ * Executa a suíte de kernels de referência (diretório kernels/) na configuração
+ * padrão e compara ciclos e IPC com os valores esperados em kernels/esperado.txt
+ * e o estado final (registradores e memória) com o emulador funcional.
+ * Cada kernel também é montado no formato binário e recarregado, e o programa
+ * carregado precisa ser igual ao original; o programa reordenado pelo
+ * EscalonadorEstatico precisa chegar ao mesmo estado final que o original.
+ * Também informa a velocidade do simulador (ciclos simulados por segundo).
+ *
+ * Uso: java -cp bin benchmark.SuiteKernels [--dir kernels] [--repeticoes 20] [--atualizar]
+ */
+public class SuiteKernels {
+    private static final String ARQUIVO_ESPERADO = "esperado.txt";
+    private static final double TOLERANCIA_IPC = 0.0005;
+
+    /**
+     * Valores de referência de um kernel
+     */
+    static class Esperado {
+        final String kernel;
+        final int ciclos;
+        final int instrucoes;
+        final double ipc;
+
+        Esperado(String kernel, int ciclos, int instrucoes, double ipc) {
+            this.kernel = kernel;
+            this.ciclos = ciclos;
+            this.instrucoes = instrucoes;
+            this.ipc = ipc;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String diretorio = "kernels";
+        int repeticoes = 20;
+        boolean atualizar = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--dir": diretorio = args[++i]; break;
+                case "--repeticoes": repeticoes = Integer.parseInt(args[++i]); break;
+                case "--atualizar": atualizar = true; break;
+                default:
+                    throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+            }
+        }
+
+        File arquivoEsperado = new File(diretorio, ARQUIVO_ESPERADO);
+        if (atualizar) {
+            gravarEsperados(diretorio, arquivoEsperado);
+            return;
+        }
+
+        int desvios = 0;
+        long ciclosTotais = 0;
+        long nanosTotais = 0;
+        System.out.printf("%-30s %8s %8s %8s %8s %14s  %s%n",
+                "Kernel", "Ciclos", "Esperado", "IPC", "Esperado", "Ciclos/s", "Situação");
+        for (Esperado esperado : lerEsperados(arquivoEsperado)) {
+            Simulador simulador = criarSimulador(new File(diretorio, esperado.kernel).getPath());
+            long nanos = medir(simulador, repeticoes);
+            ciclosTotais += (long) simulador.getCicloAtual() * repeticoes;
+            nanosTotais += nanos;
+
+            String problema = conferir(simulador, esperado);
+            if (problema != null) {
+                desvios++;
+            }
+            System.out.printf(Locale.ROOT, "%-30s %8d %8d %8.3f %8.3f %14.0f  %s%n",
+                    esperado.kernel, simulador.getTotalCiclos(), esperado.ciclos,
+                    simulador.calcularIPC(), esperado.ipc,
+                    (double) simulador.getCicloAtual() * repeticoes * 1e9 / nanos,
+                    problema == null ? "OK" : problema);
+        }
+        System.out.printf(Locale.ROOT, "Velocidade média do simulador: %.0f ciclos/s%n",
+                ciclosTotais * 1e9 / Math.max(1, nanosTotais));
+
+        if (desvios > 0) {
+            System.out.println(desvios + " kernel(s) com desvio em relação aos valores esperados");
+            System.exit(1);
+        }
+        System.out.println("Todos os kernels conferem com os valores esperados");
+    }
+
+    /*
+     * Confere o kernel executado: estado final igual ao do emulador funcional,
+     * todos os registradores físicos de volta à lista livre, contadores de
+     * desempenho coerentes com os ciclos e commits do simulador, programa igual
+     * depois de montado e recarregado do formato binário, programa escalonado
+     * equivalente ao original e ciclos e IPC iguais aos esperados
+     * @return descrição do primeiro problema (null se conferir)
+     */
+    private static String conferir(Simulador simulador, Esperado esperado) throws IOException {
+        List<String> diferencas = EmuladorFuncional.conferir(simulador, 1);
+        if (!diferencas.isEmpty()) {
+            return "ESTADO FINAL (" + diferencas.get(0) + ")";
+        }
+        int livres = ((List<?>) simulador.getRegisterStatus().get("livres")).size();
+        int fisicos = simulador.getConfiguracao().getNumRegistradoresPrivados() + 1;
+        if (livres != fisicos) {
+            return "REGISTRADORES FÍSICOS (" + livres + " de " + fisicos + " livres no fim)";
+        }
+        String contadores = conferirContadores(simulador);
+        if (contadores != null) {
+            return "CONTADORES (" + contadores + ")";
+        }
+        String binario = conferirBinario(simulador.getInstrucoes());
+        if (binario != null) {
+            return "FORMATO BINÁRIO (" + binario + ")";
+        }
+        String escalonado = conferirEscalonamento(simulador);
+        if (escalonado != null) {
+            return "ESCALONAMENTO (" + escalonado + ")";
+        }
+        if (simulador.getTotalCiclos() != esperado.ciclos
+                || simulador.getInstrucoesExecutadas() != esperado.instrucoes
+                || Math.abs(simulador.calcularIPC() - esperado.ipc) > TOLERANCIA_IPC) {
+            return "DESVIO (" + simulador.getInstrucoesExecutadas() + "/" + esperado.instrucoes + " instruções)";
+        }
+        return null;
+    }
+
+    /*
+     * Confere os contadores de desempenho com o simulador: ciclos iguais a
+     * getTotalCiclos() + 2, um slot por posição de emissão de cada ciclo, cada
+     * histograma por ciclo somando os ciclos, os commits por ciclo somando as
+     * instruções commitadas e, com uma unidade não pipelined por estação, a
+     * ocupação das unidades igual à utilização das estações
+     * @return descrição da primeira diferença (null se conferir)
+     */
+    private static String conferirContadores(Simulador simulador) {
+        ContadoresDesempenho contadores = simulador.getContadores();
+        long ciclos = contadores.getCiclos();
+        if (ciclos != simulador.getTotalCiclos() + 2) {
+            return ciclos + " ciclos para " + simulador.getTotalCiclos() + " do simulador";
+        }
+        long slots = 0;
+        for (ComponenteCPI componente : ComponenteCPI.values()) {
+            slots += contadores.getSlots(componente);
+        }
+        if (slots != contadores.getLarguraEmissao() * ciclos) {
+            return slots + " slots em " + ciclos + " ciclos";
+        }
+        Map<String, long[]> histogramas = new LinkedHashMap<>();
+        histogramas.put("ROB", contadores.getHistogramaRob());
+        for (int c = 0; c < ContadoresDesempenho.NOMES_CLASSES.length; c++) {
+            histogramas.put("estações " + ContadoresDesempenho.NOMES_CLASSES[c], contadores.getHistogramaEstacoes(c));
+        }
+        histogramas.put("emitidas", contadores.getHistogramaEmissao());
+        histogramas.put("commitadas", contadores.getHistogramaCommit());
+        if (contadores.getHistogramaMshr().length > 1) {
+            histogramas.put("MSHRs", contadores.getHistogramaMshr());
+        }
+        for (Map.Entry<String, long[]> histograma : histogramas.entrySet()) {
+            long soma = 0;
+            for (long n : histograma.getValue()) {
+                soma += n;
+            }
+            if (soma != ciclos) {
+                return "histograma " + histograma.getKey() + " soma " + soma + " de " + ciclos + " ciclos";
+            }
+        }
+        long[] commitadas = contadores.getHistogramaCommit();
+        long commits = 0;
+        for (int k = 0; k < commitadas.length; k++) {
+            commits += k * commitadas[k];
+        }
+        if (commits != contadores.getInstrucoesCommitadas() || commits != simulador.getInstrucoesExecutadas()) {
+            return "commitadas por ciclo somam " + commits + " de " + simulador.getInstrucoesExecutadas() + " instruções";
+        }
+        ConfiguracaoSimulador config = simulador.getConfiguracao();
+        for (int c = 0; c < ContadoresDesempenho.NOMES_CLASSES.length; c++) {
+            if (config.getNumUnidades(c) == 0 && config.getIntervaloIniciacao(c) == 0
+                    && Math.abs(contadores.getOcupacaoUnidades(c) - contadores.getUtilizacao(c)) > 1e-9) {
+                return "unidades " + ContadoresDesempenho.NOMES_CLASSES[c] + " com ocupação "
+                        + contadores.getOcupacaoUnidades(c) + " e utilização " + contadores.getUtilizacao(c);
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Monta as instruções em um arquivo binário temporário e confere o
+     * programa recarregado instrução a instrução
+     * @return descrição da primeira diferença (null se conferir)
+     */
+    private static String conferirBinario(List<Instrucao> instrucoes) throws IOException {
+        File arquivo = File.createTempFile("kernel", ProgramaBinario.EXTENSAO);
+        try {
+            List<Instrucao> carregadas;
+            try {
+                ProgramaBinario.montar(instrucoes, arquivo.getPath());
+                carregadas = ProgramaBinario.carregar(arquivo.getPath());
+            } catch (IllegalArgumentException | IOException e) {
+                return e.getMessage();
+            }
+            if (carregadas.size() != instrucoes.size()) {
+                return carregadas.size() + " de " + instrucoes.size() + " instruções";
+            }
+            for (int i = 0; i < instrucoes.size(); i++) {
+                Instrucao original = instrucoes.get(i);
+                Instrucao carregada = carregadas.get(i);
+                if (!original.textoCanonico().equals(carregada.textoCanonico())
+                        || original.getLinhaOrigem() != carregada.getLinhaOrigem()) {
+                    return "instrução " + (i + 1) + ": " + carregada.textoCanonico();
+                }
+            }
+            return null;
+        } finally {
+            arquivo.delete();
+        }
+    }
+
+    /*
+     * Executa funcionalmente o programa original e a cópia escalonada e
+     * compara registradores e memória no fim
+     * @return descrição da primeira diferença (null se conferir)
+     */
+    private static String conferirEscalonamento(Simulador simulador) {
+        ConfiguracaoSimulador config = simulador.getConfiguracao();
+        List<Instrucao> escalonado;
+        try {
+            escalonado = new EscalonadorEstatico(config).escalonar(simulador.getInstrucoes());
+        } catch (RuntimeException e) {
+            return e.toString();
+        }
+        EmuladorFuncional original = new EmuladorFuncional(simulador.getInstrucoes(), config);
+        EmuladorFuncional reordenado = new EmuladorFuncional(escalonado, config);
+        original.executar(Long.MAX_VALUE);
+        reordenado.executar(Long.MAX_VALUE);
+        for (int i = 0; i < EmuladorFuncional.NUM_REGISTRADORES; i++) {
+            if (original.isDefinido(i) != reordenado.isDefinido(i)
+                    || Float.floatToIntBits(original.getRegistrador(i))
+                            != Float.floatToIntBits(reordenado.getRegistrador(i))) {
+                return "R" + i + ": " + reordenado.getRegistrador(i)
+                        + ", esperado " + original.getRegistrador(i);
+            }
+        }
+        List<Integer> enderecos = reordenado.getMemoria().diferencas(original.getMemoria(), 1);
+        if (!enderecos.isEmpty()) {
+            return "Mem[" + enderecos.get(0) + "]: " + reordenado.getMemoria().ler(enderecos.get(0))
+                    + ", esperado " + original.getMemoria().ler(enderecos.get(0));
+        }
+        return null;
+    }
+
+    /**
+     * Configuração padrão da máquina, com os limites de detecção de loop
+     * ampliados para permitir laços longos
+     */
+    static ConfiguracaoSimulador configuracaoKernels() {
+        ConfiguracaoSimulador config = new ConfiguracaoSimulador();
+        config.setLimiteCiclos(1_000_000);
+        config.setLimiteInstrucao(Integer.MAX_VALUE);
+        return config;
+    }
+
+    private static Simulador criarSimulador(String arquivo) throws IOException {
+        Simulador simulador = new Simulador(configuracaoKernels());
+        simulador.carregarInstrucoes(arquivo);
+        return simulador;
+    }
+
+    /**
+     * Executa o kernel várias vezes e devolve o tempo total gasto em nanossegundos.
+     * O simulador termina no estado da última execução.
+     */
+    private static long medir(Simulador simulador, int repeticoes) {
+        long nanos = 0;
+        for (int i = 0; i < repeticoes; i++) {
+            simulador.reiniciar();
+            long inicio = System.nanoTime();
+            simulador.executarCompleto();
+            nanos += System.nanoTime() - inicio;
+        }
+        return Math.max(1, nanos);
+    }
+
+    private static List<Esperado> lerEsperados(File arquivo) throws IOException {
+        List<Esperado> esperados = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(arquivo))) {
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                linha = linha.trim();
+                if (linha.isEmpty() || linha.startsWith("#")) {
+                    continue;
+                }
+                String[] partes = linha.split("\\s+");
+                esperados.add(new Esperado(partes[0], Integer.parseInt(partes[1]),
+                        Integer.parseInt(partes[2]), Double.parseDouble(partes[3])));
+            }
+        }
+        return esperados;
+    }
+
+    /**
+     * Regrava o arquivo de valores esperados a partir da simulação atual
+     */
+    private static void gravarEsperados(String diretorio, File arquivo) throws IOException {
+        File[] kernels = new File(diretorio).listFiles(
+                (dir, nome) -> nome.endsWith(".txt") && !nome.equals(ARQUIVO_ESPERADO));
+        Arrays.sort(kernels);
+        try (PrintWriter writer = new PrintWriter(arquivo, "UTF-8")) {
+            writer.println("# Valores esperados na configuração padrão (ROB 8, 3 estações por classe)");
+            writer.println("# Gerado com: java -cp bin benchmark.SuiteKernels --atualizar");
+            writer.println("# kernel ciclos instrucoes ipc");
+            for (File kernel : kernels) {
+                Simulador simulador = criarSimulador(kernel.getPath());
+                simulador.executarCompleto();
+                writer.printf(Locale.ROOT, "%s %d %d %.4f%n", kernel.getName(),
+                        simulador.getTotalCiclos(), simulador.getInstrucoesExecutadas(),
+                        simulador.calcularIPC());
+            }
+        }
+        System.out.println("Valores esperados gravados em " + arquivo.getPath());
+    }
+}
@@ -0,0 +1,406 @@
+package cli;
+
+import simulador.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import javax.management.JMException;
+
+/**
+ * Interface de linha de comando do simulador Tomasulo: carrega um programa,
+ * mostra os erros de parse e executa a simulação até o fim.
+ *
+ * Uso: java -cp bin cli.SimuladorCLI programa.txt [opções]
+ *   --rob N                tamanho do ROB
+ *   --estacoes N           estações por classe de operação
+ *   --largura N            instruções emitidas e commitadas por ciclo
+ *   --largura-emissao N    instruções emitidas por ciclo
+ *   --largura-commit N     instruções commitadas por ciclo
+ *   --cdb N                barramentos de resultado por ciclo (padrão: sem limite)
+ *   --politica-cdb P       arbitragem dos CDBs: antiga (padrão) ou classe
+ *   --prioridade-cdb L     ordem das classes para a política classe (ex.: load:mul:add:branch)
+ *   --unidades C=N:...     unidades funcionais por classe (ex.: mul=1:load=2; padrão: uma por estação)
+ *   --intervalo C=N:...    intervalo de iniciação por classe (0 = não pipelined, o padrão)
+ *   --portas P             atribuição de unidades: livre (padrão) ou emissao
+ *   --preditor P           preditor de desvios: nao-tomado (padrão), tomado, btfn, bimodal, gshare ou torneio
+ *   --entradas-preditor N  contadores por tabela do preditor dinâmico (potência de 2, padrão 1024)
+ *   --historico N          bits de histórico global do gshare e do torneio (padrão 10)
+ *   --btb N                entradas do BTB (padrão 64; 0 = alvo sempre disponível na busca)
+ *   --lsq N                entradas da fila de loads e stores (padrão: o tamanho do ROB)
+ *   --l1 T[:V[:L[:C]]]     cache L1 de T palavras, V vias, linhas de L palavras e C ciclos
+ *                          por acerto (padrão: sem caches, latência fixa; 2 vias, 4, 4)
+ *   --l2 T[:V[:L[:C]]]     cache L2 (padrão 1024:4:8:8; 0 = sem L2)
+ *   --latencia-memoria N   ciclos somados por uma falta na última cache (padrão 40)
+ *   --mshr N               faltas da L1 em andamento ao mesmo tempo (padrão 4)
+ *   --substituicao P       substituição nas caches: lru (padrão), fifo ou aleatoria
+ *   --limite-ciclos N      limite de ciclos para detectar loop
+ *   --limite-instrucao N   limite de reexecuções de uma instrução
+ *   --estrito              não simula se houver erros de parse
+ *   --log                  imprime o log de execução
+ *   --cpi-json arquivo     exporta a pilha de CPI e os contadores em JSON
+ *   --perfil N             mostra as N instruções que mais custaram ciclos
+ *   --perfil-fases         mede o tempo de host em cada fase do ciclo
+ *   --jmx nome             publica as métricas ao vivo em um MBean JMX
+ *   --caminho-critico      compara o IPC simulado com o limite de fluxo de dados
+ *   --escalonar            reordena os blocos básicos (list scheduling) antes de simular
+ *   --konata arquivo       exporta o pipeline no formato de log do Konata
+ *   --janela INICIO:FIM    exporta só as instruções emitidas nesses ciclos
+ *   --trace arquivo        grava o trace de temporização (simulador.ComparadorExecucoes)
+ *   --energia              estima energia por instrução e potência média
+ *   --tabela-energia arq   tabela de energia por evento (implica --energia)
+ *   --energia-json arquivo exporta a estimativa de energia em JSON (implica --energia)
+ *   --amostragem P:W:U     simula por amostragem: a cada P instruções, W de aquecimento
+ *                          e U medidas em modo detalhado, o resto em modo funcional
+ *   --avancar N            executa as N primeiras instruções em modo funcional (fast-forward)
+ *   --conferir             confere o estado final com o emulador funcional
+ *   --checkpoint arquivo   grava o estado da simulação periodicamente nesse arquivo
+ *   --intervalo-checkpoint N  ciclos entre checkpoints (padrão 1000000)
+ *   --retomar arquivo      continua a simulação de um checkpoint do mesmo programa
+ *                          (a configuração vem do checkpoint)
+ */
+public class SimuladorCLI {
+    private static final long LIMITE_CAMINHO_CRITICO = 100_000_000L;
+    private static final int INTERVALO_CHECKPOINT = 1_000_000;
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Uso: java -cp bin cli.SimuladorCLI programa.txt [opções]");
+            System.exit(1);
+        }
+
+        String arquivo = null;
+        boolean estrito = false;
+        boolean imprimirLog = false;
+        String arquivoCpi = null;
+        int linhasPerfil = 0;
+        boolean perfilFases = false;
+        String nomeJmx = null;
+        boolean caminhoCritico = false;
+        boolean escalonar = false;
+        String arquivoKonata = null;
+        String arquivoTrace = null;
+        boolean energia = false;
+        String tabelaEnergia = null;
+        String arquivoEnergia = null;
+        long[] amostragem = null;
+        long avancar = 0;
+        boolean conferir = false;
+        String arquivoCheckpoint = null;
+        int intervaloCheckpoint = INTERVALO_CHECKPOINT;
+        String arquivoRetomar = null;
+        boolean limiteCiclosDefinido = false;
+        int inicioJanela = 0;
+        int fimJanela = Integer.MAX_VALUE;
+        ConfiguracaoSimulador config = new ConfiguracaoSimulador();
+        config.setLimiteCiclos(1_000_000);
+        config.setLimiteInstrucao(Integer.MAX_VALUE);
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--rob": config.setTamanhoRob(Integer.parseInt(args[++i])); break;
+                case "--estacoes": config.setNumEstacoes(Integer.parseInt(args[++i])); break;
+                case "--largura": config.setLargura(Integer.parseInt(args[++i])); break;
+                case "--largura-emissao": config.setLarguraEmissao(Integer.parseInt(args[++i])); break;
+                case "--largura-commit": config.setLarguraCommit(Integer.parseInt(args[++i])); break;
+                case "--cdb": config.setNumCdbs(Integer.parseInt(args[++i])); break;
+                case "--politica-cdb": config.setPoliticaCdb(PoliticaCdb.daChave(args[++i])); break;
+                case "--prioridade-cdb": config.setPrioridadeCdb(args[++i]); break;
+                case "--unidades": config.definirPorClasse(args[++i], false); break;
+                case "--intervalo": config.definirPorClasse(args[++i], true); break;
+                case "--portas": config.setPortas(args[++i]); break;
+                case "--preditor": config.setPreditor(TipoPreditor.daChave(args[++i])); break;
+                case "--entradas-preditor": config.setEntradasPreditor(Integer.parseInt(args[++i])); break;
+                case "--historico": config.setBitsHistorico(Integer.parseInt(args[++i])); break;
+                case "--btb": config.setEntradasBtb(Integer.parseInt(args[++i])); break;
+                case "--lsq": config.setTamanhoFilaMemoria(Integer.parseInt(args[++i])); break;
+                case "--l1": config.definirCache(1, args[++i]); break;
+                case "--l2": config.definirCache(2, args[++i]); break;
+                case "--latencia-memoria": config.setLatenciaMemoria(Integer.parseInt(args[++i])); break;
+                case "--mshr": config.setNumMshrs(Integer.parseInt(args[++i])); break;
+                case "--substituicao": config.setPoliticaSubstituicao(PoliticaSubstituicao.daChave(args[++i])); break;
+                case "--limite-ciclos":
+                    config.setLimiteCiclos(Integer.parseInt(args[++i]));
+                    limiteCiclosDefinido = true;
+                    break;
+                case "--limite-instrucao": config.setLimiteInstrucao(Integer.parseInt(args[++i])); break;
+                case "--estrito": estrito = true; break;
+                case "--log": imprimirLog = true; break;
+                case "--cpi-json": arquivoCpi = args[++i]; break;
+                case "--perfil-fases": perfilFases = true; break;
+                case "--jmx": nomeJmx = args[++i]; break;
+                case "--caminho-critico": caminhoCritico = true; break;
+                case "--escalonar": escalonar = true; break;
+                case "--konata": arquivoKonata = args[++i]; break;
+                case "--trace": arquivoTrace = args[++i]; break;
+                case "--energia": energia = true; break;
+                case "--avancar": avancar = Long.parseLong(args[++i]); break;
+                case "--conferir": conferir = true; break;
+                case "--checkpoint": arquivoCheckpoint = args[++i]; break;
+                case "--intervalo-checkpoint": intervaloCheckpoint = Integer.parseInt(args[++i]); break;
+                case "--retomar": arquivoRetomar = args[++i]; break;
+                case "--tabela-energia": tabelaEnergia = args[++i]; energia = true; break;
+                case "--energia-json": arquivoEnergia = args[++i]; energia = true; break;
+                case "--amostragem": {
+                    String[] partes = args[++i].split(":");
+                    amostragem = new long[] {
+                        Long.parseLong(partes[0]), Long.parseLong(partes[1]), Long.parseLong(partes[2])
+                    };
+                    break;
+                }
+                case "--janela": {
+                    String[] partes = args[++i].split(":");
+                    inicioJanela = Integer.parseInt(partes[0]);
+                    fimJanela = Integer.parseInt(partes[1]);
+                    break;
+                }
+                case "--perfil":
+                    linhasPerfil = Integer.parseInt(args[++i]);
+                    config.setPerfilInstrucoes(true);
+                    break;
+                default:
+                    if (args[i].startsWith("--")) {
+                        System.err.println("Opção desconhecida: " + args[i]);
+                        System.exit(1);
+                    }
+                    arquivo = args[i];
+            }
+        }
+
+        if (amostragem != null && (arquivoCheckpoint != null || arquivoRetomar != null)) {
+            System.err.println("Checkpoints não são suportados com --amostragem");
+            System.exit(1);
+        }
+        if (amostragem != null && !limiteCiclosDefinido) {
+            // Só os ciclos detalhados contam; o padrão de 1M cortaria programas longos
+            config.setLimiteCiclos(Integer.MAX_VALUE);
+        }
+
+        ModeloEnergia modeloEnergia = null;
+        if (energia) {
+            try {
+                modeloEnergia = tabelaEnergia != null ? ModeloEnergia.carregar(tabelaEnergia) : new ModeloEnergia();
+            } catch (IOException e) {
+                System.err.println("Erro ao carregar tabela de energia: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+
+        Simulador simulador = new Simulador(config);
+        try {
+            simulador.carregarInstrucoes(arquivo);
+        } catch (IOException e) {
+            System.err.println("Erro ao carregar arquivo: " + e.getMessage());
+            System.exit(1);
+        }
+
+        List<Diagnostico> diagnosticos = simulador.getDiagnosticos();
+        for (Diagnostico diagnostico : diagnosticos) {
+            System.err.println(arquivo + ":" + diagnostico.getLinha() + ":" + diagnostico.getColuna()
+                    + ": erro: " + diagnostico.getMensagem());
+        }
+        if (!diagnosticos.isEmpty() && estrito) {
+            System.err.println(diagnosticos.size() + " erro(s); simulação não executada");
+            System.exit(2);
+        }
+
+        int ciclosSemEscalonamento = -1;
+        EscalonadorEstatico escalonador = null;
+        if (escalonar) {
+            Simulador original = new Simulador(config);
+            original.carregarInstrucoes(simulador.getInstrucoes());
+            original.executarCompleto();
+            ciclosSemEscalonamento = original.getTotalCiclos();
+            escalonador = new EscalonadorEstatico(config);
+            simulador.carregarInstrucoes(escalonador.escalonar(simulador.getInstrucoes()));
+        }
+
+        int cicloRetomado = -1;
+        if (arquivoRetomar != null) {
+            try {
+                simulador = Checkpoint.restaurar(arquivoRetomar, simulador.getInstrucoes());
+            } catch (IOException e) {
+                System.err.println("Erro ao retomar " + arquivoRetomar + ": " + e.getMessage());
+                System.exit(1);
+            }
+            cicloRetomado = simulador.getCicloAtual();
+        }
+
+        ExportadorKonata exportador = null;
+        if (arquivoKonata != null) {
+            try {
+                exportador = new ExportadorKonata(arquivoKonata, inicioJanela, fimJanela);
+            } catch (IOException e) {
+                System.err.println("Erro ao criar " + arquivoKonata + ": " + e.getMessage());
+                System.exit(1);
+            }
+            simulador.adicionarObservador(exportador);
+        }
+        TraceExecucao.Gravador gravadorTrace = null;
+        if (arquivoTrace != null) {
+            try {
+                gravadorTrace = new TraceExecucao.Gravador(arquivoTrace);
+            } catch (IOException e) {
+                System.err.println("Erro ao criar " + arquivoTrace + ": " + e.getMessage());
+                System.exit(1);
+            }
+            simulador.adicionarObservador(gravadorTrace);
+        }
+
+        simulador.getProfilerFases().setHabilitado(perfilFases);
+        if (nomeJmx != null) {
+            try {
+                simulador.registrarMonitor(nomeJmx);
+            } catch (JMException e) {
+                System.err.println("Erro ao registrar MBean: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        if (avancar > 0 && arquivoRetomar == null) {
+            simulador.executarFuncional(avancar);
+        }
+        SimulacaoAmostrada simulacaoAmostrada = null;
+        if (amostragem != null) {
+            simulacaoAmostrada = new SimulacaoAmostrada(simulador, amostragem[0], amostragem[1], amostragem[2]);
+            simulacaoAmostrada.executar();
+        } else if (arquivoCheckpoint != null) {
+            executarComCheckpoints(simulador, arquivoCheckpoint, intervaloCheckpoint);
+        } else {
+            simulador.executarCompleto();
+        }
+        if (exportador != null) {
+            try {
+                exportador.close();
+            } catch (IOException e) {
+                System.err.println("Erro ao gravar " + arquivoKonata + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        if (gravadorTrace != null) {
+            try {
+                gravadorTrace.gravarFim(simulador.getTotalCiclos());
+                gravadorTrace.close();
+            } catch (IOException e) {
+                System.err.println("Erro ao gravar " + arquivoTrace + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+
+        if (imprimirLog) {
+            for (String linha : simulador.getLogExecucao()) {
+                System.out.println(linha);
+            }
+        }
+        if (simulacaoAmostrada != null) {
+            // Os contadores do simulador cobrem só as partes detalhadas
+            System.out.println("Configuração: " + simulador.getConfiguracao());
+            System.out.print(simulacaoAmostrada.resumo());
+        } else {
+            imprimirEstatisticas(simulador);
+        }
+
+        if (cicloRetomado >= 0) {
+            System.out.println("Retomada do checkpoint " + arquivoRetomar + " no ciclo " + cicloRetomado);
+        }
+        if (avancar > 0) {
+            System.out.println("Instruções avançadas em modo funcional: " + simulador.getInstrucoesFuncionais());
+        }
+        if (conferir) {
+            List<String> diferencas = EmuladorFuncional.conferir(simulador, 20);
+            System.out.println();
+            if (diferencas.isEmpty()) {
+                System.out.println("Estado final confere com a execução funcional");
+            } else {
+                System.out.println("Estado final difere da execução funcional:");
+                for (String diferenca : diferencas) {
+                    System.out.println("  " + diferenca);
+                }
+            }
+        }
+
+        if (escalonador != null) {
+            System.out.println();
+            System.out.println("Escalonamento estático: " + escalonador.getBlocos() + " blocos, "
+                    + escalonador.getInstrucoesMovidas() + " instruções movidas");
+            System.out.println(String.format(Locale.ROOT, "Ciclos antes: %d, depois: %d (speedup %.3f)",
+                    ciclosSemEscalonamento, simulador.getTotalCiclos(),
+                    simulador.getTotalCiclos() == 0 ? 0.0
+                            : (double) ciclosSemEscalonamento / simulador.getTotalCiclos()));
+        }
+
+        if (linhasPerfil > 0) {
+            System.out.println();
+            System.out.println("Instruções que mais custaram ciclos (issue até commit):");
+            System.out.print(simulador.getPerfil().relatorio(simulador.getInstrucoes(), linhasPerfil));
+        }
+        if (caminhoCritico) {
+            AnalisadorCaminhoCritico analisador =
+                    AnalisadorCaminhoCritico.analisar(simulador.getInstrucoes(), LIMITE_CAMINHO_CRITICO);
+            System.out.println();
+            System.out.print(analisador.resumo(simulador.calcularIPC()));
+        }
+        if (perfilFases) {
+            System.out.println();
+            System.out.print(simulador.getProfilerFases().resumo());
+        }
+        if (modeloEnergia != null) {
+            System.out.println();
+            System.out.print(modeloEnergia.relatorio(simulador));
+        }
+
+        if (arquivoCpi != null) {
+            try {
+                Files.write(Paths.get(arquivoCpi),
+                        simulador.getContadores().paraJson().getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                System.err.println("Erro ao gravar " + arquivoCpi + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        if (arquivoEnergia != null) {
+            try {
+                Files.write(Paths.get(arquivoEnergia),
+                        modeloEnergia.paraJson(simulador).getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                System.err.println("Erro ao gravar " + arquivoEnergia + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+
+    /*
+     * Executa até o fim gravando um checkpoint a cada intervalo ciclos; o
+     * arquivo é substituído atomicamente, então sempre há um checkpoint válido
+     */
+    private static void executarComCheckpoints(Simulador simulador, String arquivo, int intervalo) {
+        while (!simulador.isSimulacaoCompleta()) {
+            int alvo = (int) Math.min(Integer.MAX_VALUE, (long) simulador.getCicloAtual() + intervalo);
+            simulador.executarAteCiclo(alvo);
+            if (simulador.isSimulacaoCompleta()) {
+                break;
+            }
+            if (simulador.getCicloAtual() < alvo) {
+                return; // interrompida pela proteção contra loop infinito
+            }
+            try {
+                Checkpoint.gravar(simulador, arquivo);
+            } catch (IOException e) {
+                System.err.println("Erro ao gravar checkpoint " + arquivo + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+
+    private static void imprimirEstatisticas(Simulador simulador) {
+        System.out.println("Configuração: " + simulador.getConfiguracao());
+        System.out.println("Instruções carregadas: " + simulador.getTotalInstrucoes());
+        System.out.println("Total de ciclos: " + simulador.getTotalCiclos());
+        System.out.println("Instruções executadas: " + simulador.getInstrucoesExecutadas());
+        System.out.println("Ciclos de bolha: " + simulador.getCiclosBolha());
+        System.out.println(String.format(Locale.ROOT, "IPC: %.4f", simulador.calcularIPC()));
+        System.out.println();
+        System.out.print(simulador.getContadores().resumo());
+    }
+}
@@ -17,6 +17,7 @@ import java.util.Map;
  */
 public class SimuladorMain extends JFrame {
     private Simulador simulador;
+    private File arquivoCarregado;
     
     // Componentes da interface
     private JTable tabelaInstrucoes;
@@ -28,8 +29,13 @@ public class SimuladorMain extends JFrame {
     private JLabel labelIPC;
     private JLabel labelInstrucoes;
     private JLabel labelCiclosBolha;
+    private JLabel labelLargura;
+    private JLabel labelDesvios;
     private JButton btnCarregar;
+    private JButton btnRecarregar;
+    private JButton btnCicloAnterior;
     private JButton btnProximoCiclo;
+    private JButton btnIrParaCiclo;
     private JButton btnExecutarCompleto;
     private JButton btnReiniciar;
     private JProgressBar progressBar;
@@ -41,7 +47,12 @@ public class SimuladorMain extends JFrame {
     private DefaultTableModel modeloRegistradores;
     
     public SimuladorMain() {
-        simulador = new Simulador();
+        this(new ConfiguracaoSimulador());
+    }
+
+    public SimuladorMain(ConfiguracaoSimulador configuracao) {
+        simulador = new Simulador(configuracao);
+        simulador.setHistorico(new HistoricoCiclos());
         inicializarInterface();
         atualizarInterface();
     }
@@ -76,10 +87,22 @@ public class SimuladorMain extends JFrame {
         btnCarregar = new JButton("Carregar Arquivo");
         btnCarregar.addActionListener(e -> carregarArquivo());
         
+        btnRecarregar = new JButton("Recarregar Arquivo");
+        btnRecarregar.addActionListener(e -> recarregarArquivo());
+        btnRecarregar.setEnabled(false);
+        
+        btnCicloAnterior = new JButton("Ciclo Anterior");
+        btnCicloAnterior.addActionListener(e -> cicloAnterior());
+        btnCicloAnterior.setEnabled(false);
+        
         btnProximoCiclo = new JButton("Próximo Ciclo");
         btnProximoCiclo.addActionListener(e -> proximoCiclo());
         btnProximoCiclo.setEnabled(false);
         
+        btnIrParaCiclo = new JButton("Ir para Ciclo...");
+        btnIrParaCiclo.addActionListener(e -> irParaCiclo());
+        btnIrParaCiclo.setEnabled(false);
+        
         btnExecutarCompleto = new JButton("Executar Completo");
         btnExecutarCompleto.addActionListener(e -> executarCompleto());
         btnExecutarCompleto.setEnabled(false);
@@ -93,14 +116,19 @@ public class SimuladorMain extends JFrame {
         labelIPC = new JLabel("IPC: 0.00");
         labelInstrucoes = new JLabel("Instruções: 0/0");
         labelCiclosBolha = new JLabel("Ciclos Bolha: 0");
+        labelLargura = new JLabel("Emitidas: 0/0  Commits: 0/0");
+        labelDesvios = new JLabel("Previsão: 0/0 desvios");
         
         progressBar = new JProgressBar(0, 100);
         progressBar.setStringPainted(true);
         progressBar.setString("0%");
         
         painel.add(btnCarregar);
+        painel.add(btnRecarregar);
         painel.add(new JSeparator(SwingConstants.VERTICAL));
+        painel.add(btnCicloAnterior);
         painel.add(btnProximoCiclo);
+        painel.add(btnIrParaCiclo);
         painel.add(btnExecutarCompleto);
         painel.add(btnReiniciar);
         painel.add(new JSeparator(SwingConstants.VERTICAL));
@@ -108,6 +136,8 @@ public class SimuladorMain extends JFrame {
         painel.add(labelIPC);
         painel.add(labelInstrucoes);
         painel.add(labelCiclosBolha);
+        painel.add(labelLargura);
+        painel.add(labelDesvios);
         painel.add(progressBar);
         
         return painel;
@@ -243,12 +273,13 @@ public class SimuladorMain extends JFrame {
         fileChooser.setFileFilter(new javax.swing.filechooser.FileFilter() {
             @Override
             public boolean accept(File f) {
-                return f.isDirectory() || f.getName().toLowerCase().endsWith(".txt");
+                String nome = f.getName().toLowerCase();
+                return f.isDirectory() || nome.endsWith(".txt") || nome.endsWith(ProgramaBinario.EXTENSAO);
             }
             
             @Override
             public String getDescription() {
-                return "Arquivos de texto (*.txt)";
+                return "Programas (*.txt, *" + ProgramaBinario.EXTENSAO + ")";
             }
         });
         
@@ -257,14 +288,22 @@ public class SimuladorMain extends JFrame {
             File arquivo = fileChooser.getSelectedFile();
             try {
                 simulador.carregarInstrucoes(arquivo.getAbsolutePath());
+                arquivoCarregado = arquivo;
+                btnRecarregar.setEnabled(true);
                 btnProximoCiclo.setEnabled(true);
+                btnIrParaCiclo.setEnabled(true);
                 btnExecutarCompleto.setEnabled(true);
                 btnReiniciar.setEnabled(true);
                 atualizarInterface();
-                JOptionPane.showMessageDialog(this, 
-                    "Arquivo carregado com sucesso!\n" + 
-                    simulador.getTotalInstrucoes() + " instruções carregadas.",
-                    "Sucesso", JOptionPane.INFORMATION_MESSAGE);
+                List<Diagnostico> diagnosticos = simulador.getDiagnosticos();
+                if (diagnosticos.isEmpty()) {
+                    JOptionPane.showMessageDialog(this, 
+                        "Arquivo carregado com sucesso!\n" + 
+                        simulador.getTotalInstrucoes() + " instruções carregadas.",
+                        "Sucesso", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    mostrarDiagnosticos(diagnosticos);
+                }
             } catch (IOException e) {
                 JOptionPane.showMessageDialog(this, 
                     "Erro ao carregar arquivo:\n" + e.getMessage(),
@@ -273,6 +312,53 @@ public class SimuladorMain extends JFrame {
         }
     }
     
+    /**
+     * Carrega de novo o arquivo editado, retomando a simulação do ciclo em
+     * que a primeira instrução alterada foi buscada
+     */
+    private void recarregarArquivo() {
+        try {
+            int ciclo = simulador.atualizarInstrucoes(arquivoCarregado.getAbsolutePath());
+            boolean completa = simulador.isSimulacaoCompleta();
+            btnProximoCiclo.setEnabled(!completa);
+            btnExecutarCompleto.setEnabled(!completa);
+            atualizarInterface();
+            List<Diagnostico> diagnosticos = simulador.getDiagnosticos();
+            if (diagnosticos.isEmpty()) {
+                JOptionPane.showMessageDialog(this,
+                    "Arquivo recarregado: simulação retomada do ciclo " + ciclo + ".",
+                    "Sucesso", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                mostrarDiagnosticos(diagnosticos);
+            }
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, 
+                "Erro ao carregar arquivo:\n" + e.getMessage(),
+                "Erro", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    /**
+     * Mostra os erros de parse do arquivo carregado (as linhas inválidas são ignoradas)
+     */
+    private void mostrarDiagnosticos(List<Diagnostico> diagnosticos) {
+        StringBuilder texto = new StringBuilder();
+        for (Diagnostico diagnostico : diagnosticos) {
+            texto.append(diagnostico).append("\n");
+        }
+
+        JTextArea area = new JTextArea(texto.toString(), Math.min(diagnosticos.size(), 15), 60);
+        area.setEditable(false);
+        area.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JPanel painel = new JPanel(new BorderLayout(5, 5));
+        painel.add(new JLabel(simulador.getTotalInstrucoes() + " instruções carregadas, "
+                + diagnosticos.size() + " linha(s) ignorada(s) por erro:"), BorderLayout.NORTH);
+        painel.add(new JScrollPane(area), BorderLayout.CENTER);
+
+        JOptionPane.showMessageDialog(this, painel, "Erros no arquivo", JOptionPane.WARNING_MESSAGE);
+    }
+    
     private void proximoCiclo() {
         simulador.proximoCiclo();
         atualizarInterface();
@@ -294,9 +380,45 @@ public class SimuladorMain extends JFrame {
         }
     }
     
+    /**
+     * Volta um ciclo pelo histórico de snapshots do simulador
+     */
+    private void cicloAnterior() {
+        simulador.voltarCiclo();
+        btnProximoCiclo.setEnabled(true);
+        btnExecutarCompleto.setEnabled(true);
+        atualizarInterface();
+    }
+    
+    private void irParaCiclo() {
+        String texto = JOptionPane.showInputDialog(this, "Ir para o ciclo:",
+                String.valueOf(simulador.getCicloAtual()));
+        if (texto == null) {
+            return;
+        }
+        int ciclo;
+        try {
+            ciclo = Integer.parseInt(texto.trim());
+        } catch (NumberFormatException e) {
+            ciclo = -1;
+        }
+        if (ciclo < 0) {
+            JOptionPane.showMessageDialog(this, "Ciclo inválido: " + texto,
+                "Erro", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        simulador.irParaCiclo(ciclo);
+        boolean completa = simulador.isSimulacaoCompleta();
+        btnProximoCiclo.setEnabled(!completa);
+        btnExecutarCompleto.setEnabled(!completa);
+        atualizarInterface();
+    }
+    
     private void executarCompleto() {
         btnProximoCiclo.setEnabled(false);
         btnExecutarCompleto.setEnabled(false);
+        btnCicloAnterior.setEnabled(false);
+        btnIrParaCiclo.setEnabled(false);
         
         // Executa em thread separada para não bloquear a UI
         SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
@@ -308,6 +430,7 @@ public class SimuladorMain extends JFrame {
             
             @Override
             protected void done() {
+                btnIrParaCiclo.setEnabled(true);
                 atualizarInterface();
                 JOptionPane.showMessageDialog(SimuladorMain.this,
                     String.format("Simulação completa!\n\nEstatísticas:\n" +
@@ -340,6 +463,7 @@ public class SimuladorMain extends JFrame {
         atualizarTabelaRegistradores();
         atualizarEstatisticas();
         atualizarLog();
+        btnCicloAnterior.setEnabled(simulador.getCicloAtual() > 0);
     }
     
     private void atualizarTabelaInstrucoes() {
@@ -466,6 +590,13 @@ public class SimuladorMain extends JFrame {
         labelInstrucoes.setText(String.format("Instruções: %d/%d", 
             simulador.getInstrucoesExecutadas(), simulador.getTotalInstrucoes()));
         labelCiclosBolha.setText("Ciclos Bolha: " + simulador.getCiclosBolha());
+        // Instruções emitidas e commitadas no último ciclo, sobre a largura
+        labelLargura.setText(String.format("Emitidas: %d/%d  Commits: %d/%d",
+            simulador.getEmitidasNoCiclo(), simulador.getConfiguracao().getLarguraEmissao(),
+            simulador.getCommitadasNoCiclo(), simulador.getConfiguracao().getLarguraCommit()));
+        // Desvios commitados com a previsão certa, sobre o total
+        ContadoresDesempenho contadores = simulador.getContadores();
+        labelDesvios.setText(String.format("Previsão: %d/%d desvios", contadores.getAcertosPrevisao(), contadores.getDesvios()));
         
         // Atualiza barra de progresso
         if (simulador.getTotalInstrucoes() > 0) {
@@ -474,7 +605,7 @@ public class SimuladorMain extends JFrame {
             progressBar.setString(progresso + "%");
         }
         // Exibe alerta visual se houve detecção de loop
-        if (simulador.getTotalCiclos() == 0 && simulador.isSimulacaoCompleta()) {
+        if (simulador.getTotalCiclos() == 0 && simulador.isSimulacaoCompleta() && simulador.getTotalInstrucoes() > 0) {
             progressBar.setForeground(Color.RED);
             progressBar.setString("Timeout!");
             labelCiclo.setText("Ciclo: 0 (Timeout)");
@@ -497,9 +628,16 @@ public class SimuladorMain extends JFrame {
         areaLog.setCaretPosition(areaLog.getDocument().getLength());
     }
     
+    /**
+     * Uso: java -cp bin gui.SimuladorMain [chave=valor,...] (ConfiguracaoSimulador.aplicar)
+     */
     public static void main(String[] args) {
+        ConfiguracaoSimulador configuracao = new ConfiguracaoSimulador();
+        if (args.length > 0) {
+            configuracao.aplicar(args[0]);
+        }
         SwingUtilities.invokeLater(() -> {
-            new SimuladorMain().setVisible(true);
+            new SimuladorMain(configuracao).setVisible(true);
         });
     }
 }
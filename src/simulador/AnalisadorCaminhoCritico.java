@@ -0,0 +1,156 @@
+package simulador;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Analisador do limite de fluxo de dados de um programa.
+ *
+ * Recebe a sequência dinâmica de instruções (em ordem de programa) e monta,
+ * sem guardá-lo, o grafo de dependências verdadeiras por registradores e por
+ * memória (STORE -> LOAD no mesmo endereço). Cada instrução começa quando
+ * seus produtores terminam e leva a latência configurada da operação; o maior
+ * tempo de término é o caminho crítico e instruções / caminho crítico é o IPC
+ * ideal de uma máquina com recursos ilimitados e previsão perfeita. Custo
+ * O(1) por instrução; a memória usada cresce só com os endereços escritos.
+ */
+public class AnalisadorCaminhoCritico {
+    private final long[] prontoRegistrador = new long[EmuladorFuncional.NUM_REGISTRADORES];
+    private final Map<Integer, Long> prontoMemoria = new HashMap<>();
+    private long instrucoes;
+    private long caminhoCritico;
+    private long somaLatencias;
+    private boolean interrompido;
+
+    /**
+     * Registra a próxima instrução dinâmica
+     * @param endereco endereço efetivo para LOAD/STORE (ignorado nas demais)
+     */
+    public void registrar(Instrucao inst, int endereco) {
+        OpCode op = inst.getOp();
+        long inicio = 0;
+        if (op == OpCode.STORE) {
+            // STORE lê o valor (reg1) e a base (reg2)
+            inicio = Math.max(pronto(inst.getReg1()), pronto(inst.getReg2()));
+        } else {
+            inicio = pronto(inst.getReg1());
+            if (!op.hasImmediate()) {
+                inicio = Math.max(inicio, pronto(inst.getReg2()));
+            }
+        }
+        if (op == OpCode.LOAD) {
+            Long store = prontoMemoria.get(endereco);
+            if (store != null) {
+                inicio = Math.max(inicio, store);
+            }
+        }
+
+        long termino = inicio + inst.getCiclosDuracao();
+        if (op == OpCode.STORE) {
+            prontoMemoria.put(endereco, termino);
+        } else if (inst.podeEscrever() && inst.getRd() != null) {
+            prontoRegistrador[InstructionParser.numeroRegistrador(inst.getRd())] = termino;
+        }
+
+        instrucoes++;
+        somaLatencias += inst.getCiclosDuracao();
+        if (termino > caminhoCritico) {
+            caminhoCritico = termino;
+        }
+    }
+
+    private long pronto(String registrador) {
+        return registrador == null ? 0 : prontoRegistrador[InstructionParser.numeroRegistrador(registrador)];
+    }
+
+    /**
+     * Executa o programa no EmuladorFuncional (mesma semântica e estado
+     * inicial do Simulador) e analisa a sequência dinâmica resultante
+     * @param limiteInstrucoes número máximo de instruções dinâmicas analisadas
+     */
+    public static AnalisadorCaminhoCritico analisar(List<Instrucao> programa, long limiteInstrucoes) {
+        AnalisadorCaminhoCritico analisador = new AnalisadorCaminhoCritico();
+        EmuladorFuncional emulador = new EmuladorFuncional(programa);
+        while (!emulador.isConcluido()) {
+            if (analisador.instrucoes >= limiteInstrucoes) {
+                analisador.interrompido = true;
+                break;
+            }
+            Instrucao inst = emulador.passo();
+            analisador.registrar(inst, inst.getOp().isMemoryOperation() ? emulador.getUltimoEndereco() : 0);
+        }
+        return analisador;
+    }
+
+    /**
+     * Reinicia a análise
+     */
+    public void zerar() {
+        Arrays.fill(prontoRegistrador, 0);
+        prontoMemoria.clear();
+        instrucoes = 0;
+        caminhoCritico = 0;
+        somaLatencias = 0;
+        interrompido = false;
+    }
+
+    // Consultas
+
+    public long getInstrucoes() {
+        return instrucoes;
+    }
+
+    /**
+     * Comprimento do caminho crítico em ciclos
+     */
+    public long getCaminhoCritico() {
+        return caminhoCritico;
+    }
+
+    /**
+     * Ciclos se todas as instruções executassem em série
+     */
+    public long getSomaLatencias() {
+        return somaLatencias;
+    }
+
+    /**
+     * Indica se a análise parou no limite de instruções
+     */
+    public boolean isInterrompido() {
+        return interrompido;
+    }
+
+    /**
+     * IPC máximo permitido pelas dependências do programa
+     */
+    public double getIPCIdeal() {
+        return caminhoCritico == 0 ? 0.0 : (double) instrucoes / caminhoCritico;
+    }
+
+    /**
+     * Fração do limite de fluxo de dados atingida por um IPC simulado
+     */
+    public double fracaoDoLimite(double ipcSimulado) {
+        double ideal = getIPCIdeal();
+        return ideal == 0 ? 0.0 : ipcSimulado / ideal;
+    }
+
+    /**
+     * Resumo da análise comparada ao IPC simulado
+     */
+    public String resumo(double ipcSimulado) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Instruções dinâmicas: %d%s%n", instrucoes,
+                interrompido ? " (limite atingido)" : ""));
+        sb.append(String.format(Locale.ROOT, "Caminho crítico: %d ciclos (execução serial: %d ciclos)%n",
+                caminhoCritico, somaLatencias));
+        sb.append(String.format(Locale.ROOT, "IPC ideal (fluxo de dados): %.4f%n", getIPCIdeal()));
+        sb.append(String.format(Locale.ROOT, "IPC simulado: %.4f (%.1f%% do limite)%n",
+                ipcSimulado, 100 * fracaoDoLimite(ipcSimulado)));
+        return sb.toString();
+    }
+}
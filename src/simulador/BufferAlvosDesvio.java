@@ -0,0 +1,57 @@
+package simulador;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Buffer de alvos de desvio (BTB) de mapeamento direto: guarda o alvo dos
+ * desvios tomados já commitados, indexado pela posição do desvio. Na busca,
+ * um desvio previsto tomado só redireciona o PC se o alvo estiver no BTB;
+ * sem ele a busca segue em sequência.
+ */
+public class BufferAlvosDesvio {
+    private final int[] posicoes; // etiqueta: posição do desvio (-1 = entrada vazia)
+    private final int[] alvos;
+
+    public BufferAlvosDesvio(int entradas) {
+        this.posicoes = new int[entradas];
+        this.alvos = new int[entradas];
+        Arrays.fill(posicoes, -1);
+    }
+
+    /**
+     * Alvo guardado para o desvio na posição pc (-1 se ausente)
+     */
+    public int buscar(int pc) {
+        int i = pc % posicoes.length;
+        return posicoes[i] == pc ? alvos[i] : -1;
+    }
+
+    void registrar(int pc, int alvo) {
+        int i = pc % posicoes.length;
+        posicoes[i] = pc;
+        alvos[i] = alvo;
+    }
+
+    public int getEntradas() {
+        return posicoes.length;
+    }
+
+    void gravarEstado(DataOutput saida) throws IOException {
+        for (int i = 0; i < posicoes.length; i++) {
+            Checkpoint.gravarVarInt(saida, posicoes[i] + 1);
+            if (posicoes[i] >= 0) {
+                Checkpoint.gravarVarInt(saida, alvos[i] + 1);
+            }
+        }
+    }
+
+    void lerEstado(DataInput entrada) throws IOException {
+        for (int i = 0; i < posicoes.length; i++) {
+            posicoes[i] = Checkpoint.lerVarInt(entrada) - 1;
+            alvos[i] = posicoes[i] >= 0 ? Checkpoint.lerVarInt(entrada) - 1 : 0;
+        }
+    }
+}
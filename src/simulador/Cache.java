@@ -0,0 +1,161 @@
+package simulador;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Um nível de cache associativa por conjunto. Só as etiquetas são guardadas
+ * (os valores continuam na Memoria): a cache decide se um acesso acerta e
+ * qual linha sai em uma falta.
+ *
+ * Tamanho e linha são em palavras e, como a associatividade, potências de 2.
+ * Toda falta aloca a linha, também na escrita, no lugar de uma linha inválida
+ * do conjunto ou da escolhida pela PoliticaSubstituicao. A escolha
+ * pseudoaleatória usa um gerador com estado no checkpoint, então a simulação
+ * continua determinística.
+ */
+public class Cache {
+    private final String nome;
+    private final int associatividade;
+    private final int bitsLinha;
+    private final int mascaraConjunto;
+    private final PoliticaSubstituicao politica;
+    private final int[] linhas;       // número da linha (endereço >> bitsLinha) por via, conjunto a conjunto
+    private final boolean[] validas;
+    private final long[] marcas;      // último uso (LRU) ou alocação (FIFO)
+    private long relogio;
+    private int sorteio;              // estado do xorshift (ALEATORIA)
+
+    /**
+     * @throws IllegalArgumentException Se a geometria não formar ao menos um conjunto
+     */
+    public Cache(String nome, int tamanho, int associatividade, int linha, PoliticaSubstituicao politica) {
+        if (Integer.bitCount(tamanho) != 1 || Integer.bitCount(associatividade) != 1
+                || Integer.bitCount(linha) != 1 || tamanho < associatividade * linha) {
+            throw new IllegalArgumentException("Cache " + nome + " inválida: " + tamanho + " palavras, "
+                    + associatividade + " vias, linhas de " + linha + " palavras");
+        }
+        this.nome = nome;
+        this.associatividade = associatividade;
+        this.bitsLinha = Integer.numberOfTrailingZeros(linha);
+        this.mascaraConjunto = tamanho / (associatividade * linha) - 1;
+        this.politica = politica;
+        this.linhas = new int[tamanho / linha];
+        this.validas = new boolean[linhas.length];
+        this.marcas = new long[linhas.length];
+        this.sorteio = 1;
+    }
+
+    /**
+     * Linha de memória que contém o endereço
+     */
+    public int linha(int endereco) {
+        return endereco >> bitsLinha;
+    }
+
+    /**
+     * Indica se a linha do endereço está na cache, sem alterar o estado
+     */
+    public boolean contem(int endereco) {
+        return via(linha(endereco)) >= 0;
+    }
+
+    /*
+     * Acessa o endereço: em uma falta a linha é alocada
+     * @return true se acertou
+     */
+    boolean acessar(int endereco) {
+        int linha = linha(endereco);
+        int i = via(linha);
+        if (i >= 0) {
+            if (politica == PoliticaSubstituicao.LRU) {
+                marcas[i] = ++relogio;
+            }
+            return true;
+        }
+        i = vitima(linha & mascaraConjunto);
+        linhas[i] = linha;
+        validas[i] = true;
+        marcas[i] = ++relogio;
+        return false;
+    }
+
+    /*
+     * Posição da linha no vetor de vias (-1 se ausente)
+     */
+    private int via(int linha) {
+        int inicio = (linha & mascaraConjunto) * associatividade;
+        for (int i = inicio; i < inicio + associatividade; i++) {
+            if (validas[i] && linhas[i] == linha) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Via do conjunto que recebe uma linha nova
+     */
+    private int vitima(int conjunto) {
+        int inicio = conjunto * associatividade;
+        int escolhida = inicio;
+        for (int i = inicio; i < inicio + associatividade; i++) {
+            if (!validas[i]) {
+                return i;
+            }
+            if (marcas[i] < marcas[escolhida]) {
+                escolhida = i;
+            }
+        }
+        if (politica == PoliticaSubstituicao.ALEATORIA) {
+            sorteio ^= sorteio << 13;
+            sorteio ^= sorteio >>> 17;
+            sorteio ^= sorteio << 5;
+            escolhida = inicio + (sorteio & (associatividade - 1));
+        }
+        return escolhida;
+    }
+
+    void gravarEstado(DataOutput saida) throws IOException {
+        for (int i = 0; i < linhas.length; i++) {
+            saida.writeBoolean(validas[i]);
+            if (validas[i]) {
+                saida.writeInt(linhas[i]);
+                Checkpoint.gravarVarLong(saida, marcas[i]);
+            }
+        }
+        Checkpoint.gravarVarLong(saida, relogio);
+        saida.writeInt(sorteio);
+    }
+
+    void lerEstado(DataInput entrada) throws IOException {
+        for (int i = 0; i < linhas.length; i++) {
+            validas[i] = entrada.readBoolean();
+            linhas[i] = validas[i] ? entrada.readInt() : 0;
+            marcas[i] = validas[i] ? Checkpoint.lerVarLong(entrada) : 0;
+        }
+        relogio = Checkpoint.lerVarLong(entrada);
+        sorteio = entrada.readInt();
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public int getTamanho() {
+        return linhas.length << bitsLinha;
+    }
+
+    public int getAssociatividade() {
+        return associatividade;
+    }
+
+    public int getTamanhoLinha() {
+        return 1 << bitsLinha;
+    }
+
+    public int getConjuntos() {
+        return mascaraConjunto + 1;
+    }
+}
@@ -0,0 +1,347 @@
+package simulador;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Checkpoint binário do estado completo de uma simulação, para retomar a
+ * execução depois (por exemplo, após a máquina ser preemptada) com
+ * continuação idêntica bit a bit.
+ *
+ * Layout (big-endian): MAGICO, VERSAO, configuração, tamanho e assinatura do
+ * programa, tamanho e bytes do estado do Simulador (registradores, mapa de
+ * renomeação, lista livre, ROB, estações, fila de loads e stores, PC,
+ * preditor de desvios, caches, contadores e estado das instruções) e as
+ * páginas de memória sujas (número e TAMANHO_PAGINA floats cada). O arquivo
+ * é escrito por um FileChannel em um temporário e renomeado no fim, então um
+ * checkpoint interrompido não substitui o anterior. O log de execução, os
+ * observadores e o monitor JMX não fazem parte do estado.
+ */
+public class Checkpoint {
+    public static final int MAGICO = 0x544F4D43; // "TOMC"
+    public static final int VERSAO = 10;
+
+    private static final int BYTES_PAGINA = Memoria.TAMANHO_PAGINA * Float.BYTES;
+
+    private Checkpoint() {
+    }
+
+    /**
+     * Grava o estado atual da simulação (entre dois ciclos)
+     */
+    public static void gravar(Simulador simulador, String arquivo) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream estado = new DataOutputStream(bytes);
+        simulador.gravarEstado(estado);
+        estado.flush();
+
+        ByteArrayOutputStream cabecalho = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(cabecalho);
+        saida.writeInt(MAGICO);
+        saida.writeInt(VERSAO);
+        gravarConfiguracao(saida, simulador.getConfiguracao());
+        saida.writeInt(simulador.getTotalInstrucoes());
+        saida.writeLong(assinatura(simulador.getInstrucoes()));
+        saida.writeInt(bytes.size());
+        saida.flush();
+
+        Path destino = Paths.get(arquivo);
+        Path temporario = Paths.get(arquivo + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            escreverTudo(canal, ByteBuffer.wrap(cabecalho.toByteArray()));
+            escreverTudo(canal, ByteBuffer.wrap(bytes.toByteArray()));
+
+            Memoria memoria = simulador.getMemoria();
+            int[] sujas = memoria.getPaginasSujas();
+            ByteBuffer pagina = ByteBuffer.allocateDirect(Integer.BYTES + BYTES_PAGINA);
+            pagina.putInt(sujas.length).flip();
+            escreverTudo(canal, pagina);
+            for (int numero : sujas) {
+                pagina.clear();
+                pagina.putInt(numero);
+                pagina.asFloatBuffer().put(memoria.pagina(numero));
+                pagina.position(pagina.limit()).flip();
+                escreverTudo(canal, pagina);
+            }
+            canal.force(true);
+        }
+        Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Cria um simulador com a configuração do checkpoint, carrega o programa
+     * (o mesmo usado na gravação) e restaura o estado salvo
+     */
+    public static Simulador restaurar(String arquivo, List<Instrucao> programa) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(arquivo), StandardOpenOption.READ)) {
+            ByteBuffer numeros = lerTudo(canal, 2 * Integer.BYTES);
+            if (numeros.getInt() != MAGICO) {
+                throw new IOException("Arquivo não é um checkpoint: " + arquivo);
+            }
+            int versao = numeros.getInt();
+            if (versao != VERSAO) {
+                throw new IOException("Versão de checkpoint não suportada: " + versao);
+            }
+
+            DataInputStream cabecalho = new DataInputStream(new ByteArrayInputStream(
+                    lerTudo(canal, BYTES_CONFIGURACAO + Integer.BYTES + Long.BYTES + Integer.BYTES).array()));
+            ConfiguracaoSimulador configuracao = lerConfiguracao(cabecalho);
+            int tamanho = cabecalho.readInt();
+            long assinatura = cabecalho.readLong();
+            if (tamanho != programa.size() || assinatura != assinatura(programa)) {
+                throw new IOException("O checkpoint foi gravado com outro programa (" + tamanho
+                        + " instruções, carregadas " + programa.size() + ")");
+            }
+            int bytesEstado = cabecalho.readInt();
+
+            Simulador simulador = new Simulador(configuracao);
+            simulador.carregarInstrucoes(programa);
+            simulador.lerEstado(new DataInputStream(new ByteArrayInputStream(lerTudo(canal, bytesEstado).array())));
+
+            Memoria memoria = simulador.getMemoria();
+            int paginas = lerTudo(canal, Integer.BYTES).getInt();
+            for (int p = 0; p < paginas; p++) {
+                ByteBuffer pagina = lerTudo(canal, Integer.BYTES + BYTES_PAGINA);
+                int numero = pagina.getInt();
+                float[] dados = new float[Memoria.TAMANHO_PAGINA];
+                pagina.asFloatBuffer().get(dados);
+                memoria.restaurarPagina(numero, dados);
+            }
+            return simulador;
+        }
+    }
+
+    private static void escreverTudo(FileChannel canal, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+    }
+
+    private static ByteBuffer lerTudo(FileChannel canal, int tamanho) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(tamanho);
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer) < 0) {
+                throw new EOFException("Checkpoint truncado");
+            }
+        }
+        return buffer.flip();
+    }
+
+    // Configuração
+
+    private static final int BYTES_CONFIGURACAO = (29 + 3 * ContadoresDesempenho.NOMES_CLASSES.length) * Integer.BYTES + 2;
+
+    private static void gravarConfiguracao(DataOutput saida, ConfiguracaoSimulador configuracao)
+            throws IOException {
+        saida.writeInt(configuracao.getTamanhoRob());
+        saida.writeInt(configuracao.getNumEstacoesAdd());
+        saida.writeInt(configuracao.getNumEstacoesMul());
+        saida.writeInt(configuracao.getNumEstacoesLoad());
+        saida.writeInt(configuracao.getNumEstacoesBranches());
+        saida.writeInt(configuracao.getNumRegistradoresPrivados());
+        saida.writeInt(configuracao.getNumRegistradoresPublicos());
+        saida.writeInt(configuracao.getLimiteCiclos());
+        saida.writeInt(configuracao.getLimiteInstrucao());
+        saida.writeBoolean(configuracao.isPerfilInstrucoes());
+        saida.writeInt(configuracao.getLarguraEmissao());
+        saida.writeInt(configuracao.getLarguraCommit());
+        saida.writeInt(configuracao.getNumCdbs());
+        saida.writeInt(configuracao.getPoliticaCdb().ordinal());
+        for (int classe : configuracao.getPrioridadeCdb()) {
+            saida.writeInt(classe);
+        }
+        for (int c = 0; c < ContadoresDesempenho.NOMES_CLASSES.length; c++) {
+            saida.writeInt(configuracao.getNumUnidades(c));
+            saida.writeInt(configuracao.getIntervaloIniciacao(c));
+        }
+        saida.writeBoolean(configuracao.isPortaNaEmissao());
+        saida.writeInt(configuracao.getPreditor().ordinal());
+        saida.writeInt(configuracao.getEntradasPreditor());
+        saida.writeInt(configuracao.getBitsHistorico());
+        saida.writeInt(configuracao.getEntradasBtb());
+        saida.writeInt(configuracao.getTamanhoFilaMemoria());
+        saida.writeInt(configuracao.getTamanhoL1());
+        saida.writeInt(configuracao.getAssociatividadeL1());
+        saida.writeInt(configuracao.getLinhaL1());
+        saida.writeInt(configuracao.getLatenciaL1());
+        saida.writeInt(configuracao.getTamanhoL2());
+        saida.writeInt(configuracao.getAssociatividadeL2());
+        saida.writeInt(configuracao.getLinhaL2());
+        saida.writeInt(configuracao.getLatenciaL2());
+        saida.writeInt(configuracao.getLatenciaMemoria());
+        saida.writeInt(configuracao.getNumMshrs());
+        saida.writeInt(configuracao.getPoliticaSubstituicao().ordinal());
+    }
+
+    private static ConfiguracaoSimulador lerConfiguracao(DataInput entrada) throws IOException {
+        ConfiguracaoSimulador configuracao = new ConfiguracaoSimulador();
+        configuracao.setTamanhoRob(entrada.readInt());
+        configuracao.setNumEstacoesAdd(entrada.readInt());
+        configuracao.setNumEstacoesMul(entrada.readInt());
+        configuracao.setNumEstacoesLoad(entrada.readInt());
+        configuracao.setNumEstacoesBranches(entrada.readInt());
+        configuracao.setNumRegistradoresPrivados(entrada.readInt());
+        configuracao.setNumRegistradoresPublicos(entrada.readInt());
+        configuracao.setLimiteCiclos(entrada.readInt());
+        configuracao.setLimiteInstrucao(entrada.readInt());
+        configuracao.setPerfilInstrucoes(entrada.readBoolean());
+        configuracao.setLarguraEmissao(entrada.readInt());
+        configuracao.setLarguraCommit(entrada.readInt());
+        configuracao.setNumCdbs(entrada.readInt());
+        configuracao.setPoliticaCdb(PoliticaCdb.values()[entrada.readInt()]);
+        int[] prioridade = new int[ContadoresDesempenho.NOMES_CLASSES.length];
+        for (int i = 0; i < prioridade.length; i++) {
+            prioridade[i] = entrada.readInt();
+        }
+        configuracao.setPrioridadeCdb(prioridade);
+        for (int c = 0; c < ContadoresDesempenho.NOMES_CLASSES.length; c++) {
+            configuracao.setNumUnidades(c, entrada.readInt());
+            configuracao.setIntervaloIniciacao(c, entrada.readInt());
+        }
+        configuracao.setPortaNaEmissao(entrada.readBoolean());
+        configuracao.setPreditor(TipoPreditor.values()[entrada.readInt()]);
+        configuracao.setEntradasPreditor(entrada.readInt());
+        configuracao.setBitsHistorico(entrada.readInt());
+        configuracao.setEntradasBtb(entrada.readInt());
+        configuracao.setTamanhoFilaMemoria(entrada.readInt());
+        configuracao.setTamanhoL1(entrada.readInt());
+        configuracao.setAssociatividadeL1(entrada.readInt());
+        configuracao.setLinhaL1(entrada.readInt());
+        configuracao.setLatenciaL1(entrada.readInt());
+        configuracao.setTamanhoL2(entrada.readInt());
+        configuracao.setAssociatividadeL2(entrada.readInt());
+        configuracao.setLinhaL2(entrada.readInt());
+        configuracao.setLatenciaL2(entrada.readInt());
+        configuracao.setLatenciaMemoria(entrada.readInt());
+        configuracao.setNumMshrs(entrada.readInt());
+        configuracao.setPoliticaSubstituicao(PoliticaSubstituicao.values()[entrada.readInt()]);
+        return configuracao;
+    }
+
+    /*
+     * Assinatura (FNV-1a de 64 bits) das instruções, para recusar a
+     * restauração com um programa diferente do gravado
+     */
+    private static long assinatura(List<Instrucao> programa) {
+        long hash = 0xcbf29ce484222325L;
+        for (Instrucao inst : programa) {
+            for (int valor : new int[] {inst.getOp().ordinal(), numero(inst.getRd()), numero(inst.getReg1()),
+                    numero(inst.getReg2()), inst.getImediato()}) {
+                hash = (hash ^ valor) * 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    // Campos auxiliares usados pelas classes que gravam estado
+
+    /*
+     * Número de um registrador "Rn" ou "Pn" (-1 para null)
+     */
+    static int numero(String registrador) {
+        return registrador == null ? -1 : InstructionParser.numeroRegistrador(registrador);
+    }
+
+    static void gravarRegistrador(DataOutput saida, String registrador) throws IOException {
+        saida.writeInt(numero(registrador));
+    }
+
+    /**
+     * Lê um registrador gravado por gravarRegistrador, com o prefixo 'R' ou 'P'
+     */
+    static String lerRegistrador(DataInput entrada, char prefixo) throws IOException {
+        int numero = entrada.readInt();
+        if (numero < 0) {
+            return null;
+        }
+        return prefixo == 'R' ? InstructionParser.nomeRegistrador(numero) : prefixo + Integer.toString(numero);
+    }
+
+    static void gravarFloat(DataOutput saida, Float valor) throws IOException {
+        saida.writeBoolean(valor != null);
+        if (valor != null) {
+            saida.writeInt(Float.floatToRawIntBits(valor));
+        }
+    }
+
+    static Float lerFloat(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? Float.intBitsToFloat(entrada.readInt()) : null;
+    }
+
+    /*
+     * Inteiro não negativo em 1 a 5 bytes (7 bits por byte, bit alto = continua);
+     * gravarVarLong faz o mesmo com até 10 bytes
+     */
+    static void gravarVarInt(DataOutput saida, int valor) throws IOException {
+        while ((valor & ~0x7F) != 0) {
+            saida.writeByte((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        saida.writeByte(valor);
+    }
+
+    static int lerVarInt(DataInput entrada) throws IOException {
+        int valor = 0;
+        for (int deslocamento = 0; deslocamento < 35; deslocamento += 7) {
+            int b = entrada.readUnsignedByte();
+            valor |= (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Checkpoint inconsistente: inteiro variável longo demais");
+    }
+
+    static void gravarVarLong(DataOutput saida, long valor) throws IOException {
+        while ((valor & ~0x7FL) != 0) {
+            saida.writeByte((int) (valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        saida.writeByte((int) valor);
+    }
+
+    static long lerVarLong(DataInput entrada) throws IOException {
+        long valor = 0;
+        for (int deslocamento = 0; deslocamento < 70; deslocamento += 7) {
+            int b = entrada.readUnsignedByte();
+            valor |= (long) (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Checkpoint inconsistente: inteiro variável longo demais");
+    }
+
+    static void gravarLongs(DataOutput saida, long[] valores) throws IOException {
+        saida.writeInt(valores.length);
+        for (long valor : valores) {
+            saida.writeLong(valor);
+        }
+    }
+
+    static void lerLongs(DataInput entrada, long[] valores) throws IOException {
+        int tamanho = entrada.readInt();
+        if (tamanho != valores.length) {
+            throw new IOException("Checkpoint inconsistente: vetor de " + tamanho
+                    + " posições, esperado " + valores.length);
+        }
+        for (int i = 0; i < tamanho; i++) {
+            valores[i] = entrada.readLong();
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package simulador;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compara a temporização de duas execuções do mesmo programa, alinhadas
+ * instrução a instrução pela ordem de commit.
+ *
+ * As fontes podem ser duas simulações avançando em passo sincronizado ou dois
+ * traces gravados; em ambos os casos os registros são consumidos em fluxo
+ * (merge), sem carregar as execuções em memória. O resultado mostra a
+ * primeira instrução cujo issue, execução, escrita ou commit difere, a
+ * variação acumulada de ciclos por região do programa (blocos básicos) e como
+ * mudaram as causas de perda de slot da pilha de CPI.
+ */
+public class ComparadorExecucoes {
+    private static final String[] ESTAGIOS = {"issue", "execução", "escrita", "commit"};
+    private static final int NUM_CAUSAS = ComponenteCPI.values().length;
+
+    private final List<Instrucao> programa;
+    private final int[] regiao;          // bloco básico de cada posição do programa
+    private final List<Integer> inicioRegiao = new ArrayList<>();
+
+    // Resultado
+    private long instrucoesComparadas;
+    private long ciclosA;
+    private long ciclosB;
+    private boolean caminhosDivergentes;
+    private long divergencia = -1;       // instrução dinâmica da primeira divergência
+    private int indiceDivergencia = -1;
+    private int estagioDivergencia = -1;
+    private int[] ciclosDivergenciaA;
+    private int[] ciclosDivergenciaB;
+    private final Map<Integer, long[]> deltaRegiao = new HashMap<>();   // região -> {ciclosA, ciclosB}
+    private final Map<Integer, long[]> slotsA = new HashMap<>();        // região -> slots por causa
+    private final Map<Integer, long[]> slotsB = new HashMap<>();
+
+    public ComparadorExecucoes(List<Instrucao> programa) {
+        this.programa = programa;
+        this.regiao = new int[programa.size()];
+        boolean[] lider = EscalonadorEstatico.lideres(programa);
+        int atual = -1;
+        for (int i = 0; i < programa.size(); i++) {
+            if (lider[i]) {
+                atual++;
+                inicioRegiao.add(i);
+            }
+            regiao[i] = atual;
+        }
+    }
+
+    /**
+     * Fonte que avança uma simulação sob demanda, ciclo a ciclo
+     */
+    public static class FonteSimulacao implements TraceExecucao.Fonte, ObservadorPipeline {
+        private final Simulador simulador;
+        private final ArrayDeque<TraceExecucao.Registro> pendentes = new ArrayDeque<>();
+
+        public FonteSimulacao(Simulador simulador) {
+            this.simulador = simulador;
+            simulador.adicionarObservador(this);
+        }
+
+        @Override
+        public TraceExecucao.Registro proximo() {
+            while (pendentes.isEmpty() && !simulador.isSimulacaoCompleta()) {
+                simulador.proximoCiclo();
+            }
+            return pendentes.poll();
+        }
+
+        @Override
+        public int getTotalCiclos() {
+            return simulador.getTotalCiclos();
+        }
+
+        @Override
+        public void aoCommit(ReorderBufferSlot slot, int ciclo) {
+            pendentes.add(TraceExecucao.Registro.commit(slot, ciclo));
+        }
+
+        @Override
+        public void aoPerderSlot(ComponenteCPI causa, int indicePrograma, int ciclo) {
+            pendentes.add(TraceExecucao.Registro.slot(causa, indicePrograma));
+        }
+
+        @Override
+        public void aoCancelar(ReorderBufferSlot slot, int ciclo, ComponenteCPI causa) {
+            pendentes.add(TraceExecucao.Registro.slot(causa, slot.getIndicePrograma()));
+        }
+    }
+
+    /**
+     * Simula o programa nas duas configurações em passo sincronizado
+     */
+    public void comparar(ConfiguracaoSimulador configA, ConfiguracaoSimulador configB) throws IOException {
+        Simulador a = new Simulador(configA);
+        a.carregarInstrucoes(programa);
+        Simulador b = new Simulador(configB);
+        b.carregarInstrucoes(programa);
+        comparar(new FonteSimulacao(a), new FonteSimulacao(b));
+    }
+
+    /**
+     * Compara duas execuções registro a registro
+     */
+    public void comparar(TraceExecucao.Fonte fonteA, TraceExecucao.Fonte fonteB) throws IOException {
+        long ultimoA = 0;
+        long ultimoB = 0;
+        while (true) {
+            TraceExecucao.Registro a = proximoCommit(fonteA, slotsA);
+            TraceExecucao.Registro b = proximoCommit(fonteB, slotsB);
+            if (a == null || b == null) {
+                if (a != null || b != null) {
+                    caminhosDivergentes = true;
+                }
+                // consome o restante para contabilizar as causas de perda de slot
+                while (a != null) {
+                    ultimoA = a.getCicloCommit();
+                    a = proximoCommit(fonteA, slotsA);
+                }
+                while (b != null) {
+                    ultimoB = b.getCicloCommit();
+                    b = proximoCommit(fonteB, slotsB);
+                }
+                break;
+            }
+            if (a.getIndicePrograma() != b.getIndicePrograma()) {
+                // As execuções seguiram caminhos diferentes; o alinhamento deixa de valer
+                caminhosDivergentes = true;
+            }
+
+            int[] ciclosInstA = ciclos(a);
+            int[] ciclosInstB = ciclos(b);
+            if (divergencia < 0) {
+                for (int e = 0; e < ESTAGIOS.length; e++) {
+                    if (ciclosInstA[e] != ciclosInstB[e]) {
+                        divergencia = instrucoesComparadas;
+                        indiceDivergencia = a.getIndicePrograma();
+                        estagioDivergencia = e;
+                        ciclosDivergenciaA = ciclosInstA;
+                        ciclosDivergenciaB = ciclosInstB;
+                        break;
+                    }
+                }
+            }
+
+            // O intervalo desde o commit anterior é atribuído à região da instrução
+            long[] delta = deltaRegiao.computeIfAbsent(regiaoDe(a.getIndicePrograma()), r -> new long[2]);
+            delta[0] += a.getCicloCommit() - ultimoA;
+            delta[1] += b.getCicloCommit() - ultimoB;
+            ultimoA = a.getCicloCommit();
+            ultimoB = b.getCicloCommit();
+            instrucoesComparadas++;
+        }
+        // Totais do simulador (o ciclo do último commit passa deles)
+        ciclosA = fonteA.getTotalCiclos();
+        ciclosB = fonteB.getTotalCiclos();
+    }
+
+    /*
+     * Avança até o próximo commit, acumulando os slots perdidos no caminho
+     */
+    private TraceExecucao.Registro proximoCommit(TraceExecucao.Fonte fonte, Map<Integer, long[]> slots)
+            throws IOException {
+        TraceExecucao.Registro registro;
+        while ((registro = fonte.proximo()) != null && !registro.isCommit()) {
+            slots.computeIfAbsent(regiaoDe(registro.getIndicePrograma()), r -> new long[NUM_CAUSAS])
+                    [registro.getCausa().ordinal()]++;
+        }
+        return registro;
+    }
+
+    private static int[] ciclos(TraceExecucao.Registro registro) {
+        return new int[] {registro.getCicloIssue(), registro.getCicloExecucao(),
+                registro.getCicloEscrita(), registro.getCicloCommit()};
+    }
+
+    /*
+     * Região de uma posição do programa (-1 para "fim do programa")
+     */
+    private int regiaoDe(int indice) {
+        return indice >= 0 && indice < regiao.length ? regiao[indice] : -1;
+    }
+
+    private String nomeRegiao(int r) {
+        if (r < 0) {
+            return "fim do programa";
+        }
+        int inicio = inicioRegiao.get(r);
+        int fim = r + 1 < inicioRegiao.size() ? inicioRegiao.get(r + 1) - 1 : programa.size() - 1;
+        return "linhas " + linha(inicio) + "-" + linha(fim);
+    }
+
+    private int linha(int indice) {
+        int linha = programa.get(indice).getLinhaOrigem();
+        return linha > 0 ? linha : indice + 1;
+    }
+
+    // Consultas
+
+    public long getInstrucoesComparadas() {
+        return instrucoesComparadas;
+    }
+
+    /**
+     * Total de ciclos da execução A (Simulador.getTotalCiclos)
+     */
+    public long getCiclosA() {
+        return ciclosA;
+    }
+
+    /**
+     * Total de ciclos da execução B (Simulador.getTotalCiclos)
+     */
+    public long getCiclosB() {
+        return ciclosB;
+    }
+
+    /**
+     * Indica se as execuções não commitaram a mesma sequência de instruções
+     */
+    public boolean isCaminhosDivergentes() {
+        return caminhosDivergentes;
+    }
+
+    /**
+     * Instrução dinâmica (ordem de commit) da primeira divergência, ou -1
+     */
+    public long getDivergencia() {
+        return divergencia;
+    }
+
+    /**
+     * Variação de ciclos (B - A) acumulada em uma região
+     */
+    public long getDeltaRegiao(int r) {
+        long[] delta = deltaRegiao.get(r);
+        return delta == null ? 0 : delta[1] - delta[0];
+    }
+
+    /**
+     * Total de slots perdidos por causa em cada execução ({A, B})
+     */
+    public long[] getSlots(ComponenteCPI causa) {
+        long[] total = new long[2];
+        for (long[] slots : slotsA.values()) {
+            total[0] += slots[causa.ordinal()];
+        }
+        for (long[] slots : slotsB.values()) {
+            total[1] += slots[causa.ordinal()];
+        }
+        return total;
+    }
+
+    /**
+     * Relatório da comparação
+     * @param regioes número de regiões com maior variação a listar
+     */
+    public String relatorio(int regioes) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Instruções comparadas: %d%n", instrucoesComparadas));
+        sb.append(String.format(Locale.ROOT, "Ciclos: A=%d, B=%d, diferença=%+d%n", ciclosA, ciclosB, ciclosB - ciclosA));
+        if (caminhosDivergentes) {
+            sb.append("Atenção: as execuções commitaram sequências de instruções diferentes\n");
+        }
+        if (divergencia < 0) {
+            sb.append("As linhas do tempo são idênticas\n");
+            return sb.toString();
+        }
+        sb.append(String.format(Locale.ROOT,
+                "Primeira divergência: instrução dinâmica %d (%s: %s), estágio %s: A=%d, B=%d%n",
+                divergencia, "linha " + linha(indiceDivergencia), programa.get(indiceDivergencia),
+                ESTAGIOS[estagioDivergencia], ciclosDivergenciaA[estagioDivergencia],
+                ciclosDivergenciaB[estagioDivergencia]));
+
+        List<Integer> ordem = new ArrayList<>(deltaRegiao.keySet());
+        ordem.sort((r1, r2) -> Long.compare(Math.abs(getDeltaRegiao(r2)), Math.abs(getDeltaRegiao(r1))));
+        sb.append("Regiões com maior variação de ciclos (B - A):\n");
+        for (int i = 0; i < Math.min(regioes, ordem.size()); i++) {
+            int r = ordem.get(i);
+            if (getDeltaRegiao(r) == 0) {
+                break;
+            }
+            long[] delta = deltaRegiao.get(r);
+            sb.append(String.format(Locale.ROOT, "  %-20s %+10d ciclos  (A=%d, B=%d)%n",
+                    nomeRegiao(r), getDeltaRegiao(r), delta[0], delta[1]));
+            long[] causasA = slotsA.getOrDefault(r, new long[NUM_CAUSAS]);
+            long[] causasB = slotsB.getOrDefault(r, new long[NUM_CAUSAS]);
+            for (ComponenteCPI causa : ComponenteCPI.values()) {
+                int c = causa.ordinal();
+                if (causasA[c] != causasB[c]) {
+                    sb.append(String.format(Locale.ROOT, "      %-38s %8d -> %8d%n",
+                            causa.getDescricao(), causasA[c], causasB[c]));
+                }
+            }
+        }
+
+        sb.append("Slots perdidos por causa (A -> B):\n");
+        for (ComponenteCPI causa : ComponenteCPI.values()) {
+            if (causa == ComponenteCPI.BASE) {
+                continue;
+            }
+            long[] total = getSlots(causa);
+            sb.append(String.format(Locale.ROOT, "  %-40s %8d -> %8d (%+d)%n",
+                    causa.getDescricao(), total[0], total[1], total[1] - total[0]));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Compara duas configurações ou dois traces pela linha de comando.
+     *
+     * Uso: java -cp bin simulador.ComparadorExecucoes programa.txt --a rob=8 --b rob=16
+     *      java -cp bin simulador.ComparadorExecucoes programa.txt --traces a.trace b.trace
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Uso: java -cp bin simulador.ComparadorExecucoes programa.txt "
+                    + "(--a chave=valor,... --b chave=valor,... | --traces a" + TraceExecucao.EXTENSAO
+                    + " b" + TraceExecucao.EXTENSAO + ") [--regioes N]");
+            System.exit(1);
+        }
+        ConfiguracaoSimulador configA = configuracaoPadrao();
+        ConfiguracaoSimulador configB = configuracaoPadrao();
+        String traceA = null;
+        String traceB = null;
+        int regioes = 10;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--a": configA.aplicar(args[++i]); break;
+                case "--b": configB.aplicar(args[++i]); break;
+                case "--traces": traceA = args[++i]; traceB = args[++i]; break;
+                case "--regioes": regioes = Integer.parseInt(args[++i]); break;
+                default:
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        ComparadorExecucoes comparador = new ComparadorExecucoes(
+                ProgramaBinario.carregarQualquer(args[0]).getInstrucoes());
+        if (traceA != null) {
+            try (TraceExecucao.Leitor a = new TraceExecucao.Leitor(traceA);
+                 TraceExecucao.Leitor b = new TraceExecucao.Leitor(traceB)) {
+                comparador.comparar(a, b);
+            }
+        } else {
+            System.out.println("A: " + configA);
+            System.out.println("B: " + configB);
+            comparador.comparar(configA, configB);
+        }
+        System.out.print(comparador.relatorio(regioes));
+    }
+
+    private static ConfiguracaoSimulador configuracaoPadrao() {
+        ConfiguracaoSimulador config = new ConfiguracaoSimulador();
+        config.setLimiteCiclos(1_000_000);
+        config.setLimiteInstrucao(Integer.MAX_VALUE);
+        return config;
+    }
+}
@@ -0,0 +1,39 @@
+package simulador;
+
+/**
+ * Enum que representa o destino de cada slot de emissão: útil (instrução
+ * emitida e não cancelada) ou a causa única pela qual o slot foi perdido
+ */
+public enum ComponenteCPI {
+    BASE("Base", "base"),
+    ROB_CHEIO("ROB cheio", "robCheio"),
+    ESTACAO_CHEIA("Estações da classe cheias", "estacaoCheia"),
+    SEM_REGISTRADOR_LIVRE("Lista de registradores livres vazia", "semRegistradorLivre"),
+    FILA_MEMORIA_CHEIA("Fila de loads e stores cheia", "filaMemoriaCheia"),
+    ESPERA_OPERANDOS("Espera por operandos", "esperaOperandos"),
+    FLUSH_DESVIO("Flush de desvio", "flushDesvio"),
+    REPLAY_MEMORIA("Replay por violação de ordem de memória", "replayMemoria"),
+    LATENCIA_MEMORIA("Latência de memória", "latenciaMemoria"),
+    SEM_INSTRUCOES("Sem instruções a emitir", "semInstrucoes");
+
+    private final String descricao;
+    private final String chave; // nome usado na exportação JSON
+
+    ComponenteCPI(String descricao, String chave) {
+        this.descricao = descricao;
+        this.chave = chave;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public String getChave() {
+        return chave;
+    }
+
+    @Override
+    public String toString() {
+        return descricao;
+    }
+}
@@ -0,0 +1,769 @@
+package simulador;
+
+import java.util.Arrays;
+
+/**
+ * Classe que agrupa os parâmetros estruturais do simulador Tomasulo
+ * (tamanho do ROB, número de estações de reserva, registradores e limites).
+ * Os valores padrão reproduzem a máquina didática original.
+ */
+public class ConfiguracaoSimulador {
+    private int tamanhoRob;
+    private int numEstacoesAdd;
+    private int numEstacoesMul;
+    private int numEstacoesLoad;
+    private int numEstacoesBranches;
+    private int numRegistradoresPrivados;
+    private int numRegistradoresPublicos;
+    private int limiteCiclos;     // limite de ciclos para detectar loop
+    private int limiteInstrucao;  // limite de reexecuções de uma mesma instrução
+    private boolean perfilInstrucoes; // coleta o perfil por instrução estática
+    private int larguraEmissao;   // instruções emitidas por ciclo
+    private int larguraCommit;    // instruções retiradas do ROB por ciclo
+    private int numCdbs;          // barramentos de resultado por ciclo (0 = sem limite)
+    private PoliticaCdb politicaCdb;
+    private int[] prioridadeCdb;  // classes em ordem de prioridade (PRIORIDADE_CLASSE)
+    private int[] numUnidades;    // unidades funcionais por classe (0 = uma por estação)
+    private int[] intervaloIniciacao; // por classe (0 = unidade não pipelined)
+    private boolean portaNaEmissao; // porta fixada no issue (senão, qualquer unidade livre)
+    private TipoPreditor preditor;
+    private int entradasPreditor; // contadores por tabela do preditor dinâmico (potência de 2)
+    private int bitsHistorico;    // bits do histórico global (gshare e torneio)
+    private int entradasBtb;      // 0 = sem BTB, alvo sempre disponível na busca
+    private int tamanhoFilaMemoria; // entradas da fila de loads e stores (0 = tamanho do ROB)
+    private int tamanhoL1;        // palavras da cache L1 (0 = sem caches: latência fixa da instrução)
+    private int associatividadeL1;
+    private int linhaL1;          // palavras por linha
+    private int latenciaL1;       // ciclos de um acerto na L1
+    private int tamanhoL2;        // palavras da cache L2 (0 = sem L2)
+    private int associatividadeL2;
+    private int linhaL2;
+    private int latenciaL2;       // ciclos somados por uma falta na L1
+    private int latenciaMemoria;  // ciclos somados por uma falta na última cache
+    private int numMshrs;         // faltas da L1 em andamento ao mesmo tempo
+    private PoliticaSubstituicao politicaSubstituicao;
+
+    public ConfiguracaoSimulador() {
+        this.tamanhoRob = 8;
+        this.numEstacoesAdd = 3;
+        this.numEstacoesMul = 3;
+        this.numEstacoesLoad = 3;
+        this.numEstacoesBranches = 3;
+        this.numRegistradoresPrivados = 32;
+        this.numRegistradoresPublicos = 16;
+        this.limiteCiclos = 100;
+        this.limiteInstrucao = 50;
+        this.perfilInstrucoes = false;
+        this.larguraEmissao = 1;
+        this.larguraCommit = 1;
+        this.numCdbs = 0;
+        this.politicaCdb = PoliticaCdb.MAIS_ANTIGA;
+        this.prioridadeCdb = new int[] {
+            ContadoresDesempenho.CLASSE_LOAD, ContadoresDesempenho.CLASSE_MUL,
+            ContadoresDesempenho.CLASSE_ADD, ContadoresDesempenho.CLASSE_BRANCH
+        };
+        this.numUnidades = new int[ContadoresDesempenho.NOMES_CLASSES.length];
+        this.intervaloIniciacao = new int[ContadoresDesempenho.NOMES_CLASSES.length];
+        this.portaNaEmissao = false;
+        this.preditor = TipoPreditor.NAO_TOMADO;
+        this.entradasPreditor = 1024;
+        this.bitsHistorico = 10;
+        this.entradasBtb = 64;
+        this.tamanhoFilaMemoria = 0;
+        this.tamanhoL1 = 0;
+        this.associatividadeL1 = 2;
+        this.linhaL1 = 4;
+        this.latenciaL1 = 4;
+        this.tamanhoL2 = 1024;
+        this.associatividadeL2 = 4;
+        this.linhaL2 = 8;
+        this.latenciaL2 = 8;
+        this.latenciaMemoria = 40;
+        this.numMshrs = 4;
+        this.politicaSubstituicao = PoliticaSubstituicao.LRU;
+    }
+
+    /**
+     * Cria uma cópia independente desta configuração
+     */
+    public ConfiguracaoSimulador copiar() {
+        ConfiguracaoSimulador copia = new ConfiguracaoSimulador();
+        copia.tamanhoRob = tamanhoRob;
+        copia.numEstacoesAdd = numEstacoesAdd;
+        copia.numEstacoesMul = numEstacoesMul;
+        copia.numEstacoesLoad = numEstacoesLoad;
+        copia.numEstacoesBranches = numEstacoesBranches;
+        copia.numRegistradoresPrivados = numRegistradoresPrivados;
+        copia.numRegistradoresPublicos = numRegistradoresPublicos;
+        copia.limiteCiclos = limiteCiclos;
+        copia.limiteInstrucao = limiteInstrucao;
+        copia.perfilInstrucoes = perfilInstrucoes;
+        copia.larguraEmissao = larguraEmissao;
+        copia.larguraCommit = larguraCommit;
+        copia.numCdbs = numCdbs;
+        copia.politicaCdb = politicaCdb;
+        copia.prioridadeCdb = prioridadeCdb.clone();
+        copia.numUnidades = numUnidades.clone();
+        copia.intervaloIniciacao = intervaloIniciacao.clone();
+        copia.portaNaEmissao = portaNaEmissao;
+        copia.preditor = preditor;
+        copia.entradasPreditor = entradasPreditor;
+        copia.bitsHistorico = bitsHistorico;
+        copia.entradasBtb = entradasBtb;
+        copia.tamanhoFilaMemoria = tamanhoFilaMemoria;
+        copia.tamanhoL1 = tamanhoL1;
+        copia.associatividadeL1 = associatividadeL1;
+        copia.linhaL1 = linhaL1;
+        copia.latenciaL1 = latenciaL1;
+        copia.tamanhoL2 = tamanhoL2;
+        copia.associatividadeL2 = associatividadeL2;
+        copia.linhaL2 = linhaL2;
+        copia.latenciaL2 = latenciaL2;
+        copia.latenciaMemoria = latenciaMemoria;
+        copia.numMshrs = numMshrs;
+        copia.politicaSubstituicao = politicaSubstituicao;
+        return copia;
+    }
+
+    /**
+     * Define o mesmo número de estações para todas as classes de operação
+     */
+    public void setNumEstacoes(int numEstacoes) {
+        this.numEstacoesAdd = numEstacoes;
+        this.numEstacoesMul = numEstacoes;
+        this.numEstacoesLoad = numEstacoes;
+        this.numEstacoesBranches = numEstacoes;
+    }
+
+    /**
+     * Aplica uma lista de parâmetros no formato "chave=valor,chave=valor"
+     * (chaves: rob, estacoes, add, mul, load, branch, fisicos, limite-ciclos,
+     * limite-instrucao, largura, emissao, commit, cdb, politica-cdb,
+     * prioridade-cdb, unidades-CLASSE, intervalo-CLASSE, portas, preditor,
+     * entradas-preditor, historico, btb, lsq, l1, l1-assoc, l1-linha,
+     * l1-latencia, l2, l2-assoc, l2-linha, l2-latencia, latencia-memoria,
+     * mshr, substituicao)
+     * @throws IllegalArgumentException Se a chave ou o valor forem inválidos
+     */
+    public ConfiguracaoSimulador aplicar(String especificacao) {
+        for (String parametro : especificacao.split(",")) {
+            if (parametro.trim().isEmpty()) {
+                continue;
+            }
+            String[] partes = parametro.split("=", 2);
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Parâmetro sem valor: " + parametro);
+            }
+            definir(partes[0].trim(), partes[1].trim());
+        }
+        return this;
+    }
+
+    /**
+     * Define um parâmetro pelo nome
+     * @throws IllegalArgumentException Se a chave ou o valor forem inválidos
+     */
+    public void definir(String chave, String valor) {
+        switch (chave) {
+            case "rob": tamanhoRob = Integer.parseInt(valor); break;
+            case "estacoes": setNumEstacoes(Integer.parseInt(valor)); break;
+            case "add": numEstacoesAdd = Integer.parseInt(valor); break;
+            case "mul": numEstacoesMul = Integer.parseInt(valor); break;
+            case "load": numEstacoesLoad = Integer.parseInt(valor); break;
+            case "branch": numEstacoesBranches = Integer.parseInt(valor); break;
+            case "fisicos": numRegistradoresPrivados = Integer.parseInt(valor); break;
+            case "limite-ciclos": limiteCiclos = Integer.parseInt(valor); break;
+            case "limite-instrucao": limiteInstrucao = Integer.parseInt(valor); break;
+            case "largura": setLargura(Integer.parseInt(valor)); break;
+            case "emissao": setLarguraEmissao(Integer.parseInt(valor)); break;
+            case "commit": setLarguraCommit(Integer.parseInt(valor)); break;
+            case "cdb": setNumCdbs(Integer.parseInt(valor)); break;
+            case "politica-cdb": politicaCdb = PoliticaCdb.daChave(valor); break;
+            case "prioridade-cdb": setPrioridadeCdb(valor); break;
+            case "portas": setPortas(valor); break;
+            case "preditor": preditor = TipoPreditor.daChave(valor); break;
+            case "entradas-preditor": setEntradasPreditor(Integer.parseInt(valor)); break;
+            case "historico": setBitsHistorico(Integer.parseInt(valor)); break;
+            case "btb": setEntradasBtb(Integer.parseInt(valor)); break;
+            case "lsq": setTamanhoFilaMemoria(Integer.parseInt(valor)); break;
+            case "l1": setTamanhoL1(Integer.parseInt(valor)); break;
+            case "l1-assoc": setAssociatividadeL1(Integer.parseInt(valor)); break;
+            case "l1-linha": setLinhaL1(Integer.parseInt(valor)); break;
+            case "l1-latencia": setLatenciaL1(Integer.parseInt(valor)); break;
+            case "l2": setTamanhoL2(Integer.parseInt(valor)); break;
+            case "l2-assoc": setAssociatividadeL2(Integer.parseInt(valor)); break;
+            case "l2-linha": setLinhaL2(Integer.parseInt(valor)); break;
+            case "l2-latencia": setLatenciaL2(Integer.parseInt(valor)); break;
+            case "latencia-memoria": setLatenciaMemoria(Integer.parseInt(valor)); break;
+            case "mshr": setNumMshrs(Integer.parseInt(valor)); break;
+            case "substituicao": politicaSubstituicao = PoliticaSubstituicao.daChave(valor); break;
+            default:
+                if (chave.startsWith("unidades-")) {
+                    setNumUnidades(classe(chave.substring("unidades-".length())), Integer.parseInt(valor));
+                    break;
+                } else if (chave.startsWith("intervalo-")) {
+                    setIntervaloIniciacao(classe(chave.substring("intervalo-".length())), Integer.parseInt(valor));
+                    break;
+                }
+                throw new IllegalArgumentException("Parâmetro de configuração desconhecido: " + chave);
+        }
+    }
+
+    /*
+     * Classe (ContadoresDesempenho.CLASSE_*) pelo nome
+     */
+    private static int classe(String nome) {
+        int classe = Arrays.asList(ContadoresDesempenho.NOMES_CLASSES).indexOf(nome.trim());
+        if (classe < 0) {
+            throw new IllegalArgumentException("Classe de unidade funcional desconhecida: " + nome);
+        }
+        return classe;
+    }
+
+    /**
+     * Aplica uma lista "classe=N:classe=N" (ex.: "mul=1:load=2") com setNumUnidades
+     * ou, se intervalos for true, com setIntervaloIniciacao
+     * @throws IllegalArgumentException Se a classe ou o valor forem inválidos
+     */
+    public void definirPorClasse(String lista, boolean intervalos) {
+        for (String item : lista.split(":")) {
+            String[] partes = item.split("=", 2);
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Esperado classe=N: " + item);
+            }
+            int classe = classe(partes[0]);
+            int valor = Integer.parseInt(partes[1].trim());
+            if (intervalos) {
+                setIntervaloIniciacao(classe, valor);
+            } else {
+                setNumUnidades(classe, valor);
+            }
+        }
+    }
+
+    /**
+     * Define um nível de cache (1 ou 2) no formato "tamanho[:vias[:linha[:latência]]]"
+     * (ex.: "256:2:4:4"); os campos omitidos ficam como estão
+     * @throws IllegalArgumentException Se o nível ou um valor forem inválidos
+     */
+    public void definirCache(int nivel, String especificacao) {
+        String[] partes = especificacao.split(":");
+        if (partes.length > 4 || (nivel != 1 && nivel != 2)) {
+            throw new IllegalArgumentException("Esperado tamanho[:vias[:linha[:latência]]] para a L" + nivel
+                    + ": " + especificacao);
+        }
+        String prefixo = "l" + nivel;
+        String[] chaves = {prefixo, prefixo + "-assoc", prefixo + "-linha", prefixo + "-latencia"};
+        for (int i = 0; i < partes.length; i++) {
+            definir(chaves[i], partes[i].trim());
+        }
+    }
+
+    /**
+     * Define a mesma largura para emissão e commit
+     */
+    public void setLargura(int largura) {
+        setLarguraEmissao(largura);
+        setLarguraCommit(largura);
+    }
+
+    @Override
+    public String toString() {
+        String texto = String.format("ROB=%d, Add=%d, Mul=%d, Load=%d, Branch=%d, Fisicos=%d",
+                tamanhoRob, numEstacoesAdd, numEstacoesMul, numEstacoesLoad,
+                numEstacoesBranches, numRegistradoresPrivados);
+        if (larguraEmissao != 1 || larguraCommit != 1) {
+            texto += String.format(", Emissao=%d, Commit=%d", larguraEmissao, larguraCommit);
+        }
+        if (numCdbs > 0) {
+            texto += String.format(", CDB=%d (%s)", numCdbs, politicaCdb.getChave());
+        }
+        for (int c = 0; c < numUnidades.length; c++) {
+            if (numUnidades[c] > 0) {
+                texto += String.format(", UF-%s=%d/%s", ContadoresDesempenho.NOMES_CLASSES[c], numUnidades[c],
+                        intervaloIniciacao[c] == 0 ? "np" : "ii" + intervaloIniciacao[c]);
+            }
+        }
+        if (preditor != TipoPreditor.NAO_TOMADO) {
+            texto += ", Preditor=" + preditor.getChave();
+            if (preditor.isDinamico()) {
+                texto += String.format("/%d", entradasPreditor);
+                if (preditor != TipoPreditor.BIMODAL) {
+                    texto += String.format("/h%d", bitsHistorico);
+                }
+            }
+            texto += entradasBtb == 0 ? ", BTB ideal" : String.format(", BTB=%d", entradasBtb);
+        }
+        if (tamanhoFilaMemoria > 0) {
+            texto += String.format(", LSQ=%d", tamanhoFilaMemoria);
+        }
+        if (tamanhoL1 > 0) {
+            texto += String.format(", L1=%d/%dv/%d/%dc", tamanhoL1, associatividadeL1, linhaL1, latenciaL1);
+            if (tamanhoL2 > 0) {
+                texto += String.format(", L2=%d/%dv/%d/%dc", tamanhoL2, associatividadeL2, linhaL2, latenciaL2);
+            }
+            texto += String.format(", Mem=%dc, MSHR=%d", latenciaMemoria, numMshrs);
+            if (politicaSubstituicao != PoliticaSubstituicao.LRU) {
+                texto += ", " + politicaSubstituicao.getChave();
+            }
+        }
+        return texto;
+    }
+
+    // Getters e Setters
+    public int getTamanhoRob() {
+        return tamanhoRob;
+    }
+
+    public void setTamanhoRob(int tamanhoRob) {
+        this.tamanhoRob = tamanhoRob;
+    }
+
+    public int getNumEstacoesAdd() {
+        return numEstacoesAdd;
+    }
+
+    public void setNumEstacoesAdd(int numEstacoesAdd) {
+        this.numEstacoesAdd = numEstacoesAdd;
+    }
+
+    public int getNumEstacoesMul() {
+        return numEstacoesMul;
+    }
+
+    public void setNumEstacoesMul(int numEstacoesMul) {
+        this.numEstacoesMul = numEstacoesMul;
+    }
+
+    public int getNumEstacoesLoad() {
+        return numEstacoesLoad;
+    }
+
+    public void setNumEstacoesLoad(int numEstacoesLoad) {
+        this.numEstacoesLoad = numEstacoesLoad;
+    }
+
+    public int getNumEstacoesBranches() {
+        return numEstacoesBranches;
+    }
+
+    public void setNumEstacoesBranches(int numEstacoesBranches) {
+        this.numEstacoesBranches = numEstacoesBranches;
+    }
+
+    public int getNumRegistradoresPrivados() {
+        return numRegistradoresPrivados;
+    }
+
+    public void setNumRegistradoresPrivados(int numRegistradoresPrivados) {
+        this.numRegistradoresPrivados = numRegistradoresPrivados;
+    }
+
+    public int getNumRegistradoresPublicos() {
+        return numRegistradoresPublicos;
+    }
+
+    public void setNumRegistradoresPublicos(int numRegistradoresPublicos) {
+        this.numRegistradoresPublicos = numRegistradoresPublicos;
+    }
+
+    public int getLimiteCiclos() {
+        return limiteCiclos;
+    }
+
+    public void setLimiteCiclos(int limiteCiclos) {
+        this.limiteCiclos = limiteCiclos;
+    }
+
+    public int getLimiteInstrucao() {
+        return limiteInstrucao;
+    }
+
+    public void setLimiteInstrucao(int limiteInstrucao) {
+        this.limiteInstrucao = limiteInstrucao;
+    }
+
+    public boolean isPerfilInstrucoes() {
+        return perfilInstrucoes;
+    }
+
+    public void setPerfilInstrucoes(boolean perfilInstrucoes) {
+        this.perfilInstrucoes = perfilInstrucoes;
+    }
+
+    public int getLarguraEmissao() {
+        return larguraEmissao;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se a largura não for positiva
+     */
+    public void setLarguraEmissao(int larguraEmissao) {
+        if (larguraEmissao < 1) {
+            throw new IllegalArgumentException("Largura de emissão inválida: " + larguraEmissao);
+        }
+        this.larguraEmissao = larguraEmissao;
+    }
+
+    public int getLarguraCommit() {
+        return larguraCommit;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se a largura não for positiva
+     */
+    public void setLarguraCommit(int larguraCommit) {
+        if (larguraCommit < 1) {
+            throw new IllegalArgumentException("Largura de commit inválida: " + larguraCommit);
+        }
+        this.larguraCommit = larguraCommit;
+    }
+
+    public int getNumCdbs() {
+        return numCdbs;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se o número for negativo (0 = sem limite)
+     */
+    public void setNumCdbs(int numCdbs) {
+        if (numCdbs < 0) {
+            throw new IllegalArgumentException("Número de CDBs inválido: " + numCdbs);
+        }
+        this.numCdbs = numCdbs;
+    }
+
+    public PoliticaCdb getPoliticaCdb() {
+        return politicaCdb;
+    }
+
+    public void setPoliticaCdb(PoliticaCdb politicaCdb) {
+        this.politicaCdb = politicaCdb;
+    }
+
+    /**
+     * Classes (ContadoresDesempenho.CLASSE_*) da maior para a menor prioridade
+     */
+    public int[] getPrioridadeCdb() {
+        return prioridadeCdb.clone();
+    }
+
+    /**
+     * Define a prioridade das classes no formato "load:mul:add:branch"; as
+     * classes omitidas ficam depois, na ordem atual
+     * @throws IllegalArgumentException Se uma classe for desconhecida ou repetida
+     */
+    public void setPrioridadeCdb(String ordem) {
+        int[] classes = new int[ContadoresDesempenho.NOMES_CLASSES.length];
+        boolean[] usada = new boolean[classes.length];
+        int n = 0;
+        for (String nome : ordem.split(":")) {
+            int classe = classe(nome);
+            if (usada[classe]) {
+                throw new IllegalArgumentException("Classe inválida na prioridade de CDB: " + nome);
+            }
+            usada[classe] = true;
+            classes[n++] = classe;
+        }
+        for (int classe : prioridadeCdb) {
+            if (!usada[classe]) {
+                classes[n++] = classe;
+            }
+        }
+        prioridadeCdb = classes;
+    }
+
+    public void setPrioridadeCdb(int[] prioridadeCdb) {
+        this.prioridadeCdb = prioridadeCdb.clone();
+    }
+
+    /**
+     * Unidades funcionais da classe (0 = uma unidade privada por estação)
+     */
+    public int getNumUnidades(int classe) {
+        return numUnidades[classe];
+    }
+
+    /**
+     * @throws IllegalArgumentException Se o número for negativo
+     */
+    public void setNumUnidades(int classe, int numUnidades) {
+        if (numUnidades < 0) {
+            throw new IllegalArgumentException("Número de unidades funcionais inválido: " + numUnidades);
+        }
+        this.numUnidades[classe] = numUnidades;
+    }
+
+    /**
+     * Ciclos entre duas operações aceitas por uma unidade da classe
+     * (0 = não pipelined: a unidade fica ocupada pela latência da operação)
+     */
+    public int getIntervaloIniciacao(int classe) {
+        return intervaloIniciacao[classe];
+    }
+
+    /**
+     * @throws IllegalArgumentException Se o intervalo for negativo
+     */
+    public void setIntervaloIniciacao(int classe, int intervaloIniciacao) {
+        if (intervaloIniciacao < 0) {
+            throw new IllegalArgumentException("Intervalo de iniciação inválido: " + intervaloIniciacao);
+        }
+        this.intervaloIniciacao[classe] = intervaloIniciacao;
+    }
+
+    public boolean isPortaNaEmissao() {
+        return portaNaEmissao;
+    }
+
+    public void setPortaNaEmissao(boolean portaNaEmissao) {
+        this.portaNaEmissao = portaNaEmissao;
+    }
+
+    /**
+     * Atribuição de portas: "livre" (qualquer unidade livre da classe ao
+     * iniciar a execução) ou "emissao" (unidade escolhida em rodízio no issue)
+     * @throws IllegalArgumentException Se a política for desconhecida
+     */
+    public void setPortas(String politica) {
+        switch (politica) {
+            case "livre": portaNaEmissao = false; break;
+            case "emissao": portaNaEmissao = true; break;
+            default:
+                throw new IllegalArgumentException("Atribuição de portas desconhecida: " + politica);
+        }
+    }
+
+    public TipoPreditor getPreditor() {
+        return preditor;
+    }
+
+    public void setPreditor(TipoPreditor preditor) {
+        this.preditor = preditor;
+    }
+
+    public int getEntradasPreditor() {
+        return entradasPreditor;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se o número não for uma potência de 2
+     */
+    public void setEntradasPreditor(int entradasPreditor) {
+        if (entradasPreditor < 1 || Integer.bitCount(entradasPreditor) != 1) {
+            throw new IllegalArgumentException("Entradas do preditor devem ser potência de 2: " + entradasPreditor);
+        }
+        this.entradasPreditor = entradasPreditor;
+    }
+
+    public int getBitsHistorico() {
+        return bitsHistorico;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se o número de bits estiver fora de 0..30
+     */
+    public void setBitsHistorico(int bitsHistorico) {
+        if (bitsHistorico < 0 || bitsHistorico > 30) {
+            throw new IllegalArgumentException("Bits de histórico inválidos: " + bitsHistorico);
+        }
+        this.bitsHistorico = bitsHistorico;
+    }
+
+    /**
+     * Entradas do BTB (0 = sem BTB: o alvo de um desvio previsto tomado
+     * está sempre disponível na busca)
+     */
+    public int getEntradasBtb() {
+        return entradasBtb;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se o número for negativo
+     */
+    public void setEntradasBtb(int entradasBtb) {
+        if (entradasBtb < 0) {
+            throw new IllegalArgumentException("Entradas do BTB inválidas: " + entradasBtb);
+        }
+        this.entradasBtb = entradasBtb;
+    }
+
+    /**
+     * Entradas da fila de loads e stores (0 = uma por entrada do ROB, sem
+     * bloquear o issue antes do ROB)
+     */
+    public int getTamanhoFilaMemoria() {
+        return tamanhoFilaMemoria;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se o tamanho for negativo
+     */
+    public void setTamanhoFilaMemoria(int tamanhoFilaMemoria) {
+        if (tamanhoFilaMemoria < 0) {
+            throw new IllegalArgumentException("Tamanho da fila de loads e stores inválido: " + tamanhoFilaMemoria);
+        }
+        this.tamanhoFilaMemoria = tamanhoFilaMemoria;
+    }
+
+    /**
+     * Palavras da cache L1 (0 = sem caches: LOAD e STORE têm a latência fixa
+     * da instrução)
+     */
+    public int getTamanhoL1() {
+        return tamanhoL1;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se o tamanho não for 0 ou uma potência de 2
+     */
+    public void setTamanhoL1(int tamanhoL1) {
+        this.tamanhoL1 = tamanhoCache("L1", tamanhoL1);
+    }
+
+    public int getAssociatividadeL1() {
+        return associatividadeL1;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se a associatividade não for uma potência de 2
+     */
+    public void setAssociatividadeL1(int associatividadeL1) {
+        this.associatividadeL1 = potenciaDe2("Associatividade da L1", associatividadeL1);
+    }
+
+    /**
+     * Palavras por linha da L1
+     */
+    public int getLinhaL1() {
+        return linhaL1;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se a linha não for uma potência de 2
+     */
+    public void setLinhaL1(int linhaL1) {
+        this.linhaL1 = potenciaDe2("Linha da L1", linhaL1);
+    }
+
+    public int getLatenciaL1() {
+        return latenciaL1;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se a latência não for positiva
+     */
+    public void setLatenciaL1(int latenciaL1) {
+        this.latenciaL1 = latencia("L1", latenciaL1);
+    }
+
+    /**
+     * Palavras da cache L2 (0 = sem L2: uma falta na L1 vai à memória)
+     */
+    public int getTamanhoL2() {
+        return tamanhoL2;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se o tamanho não for 0 ou uma potência de 2
+     */
+    public void setTamanhoL2(int tamanhoL2) {
+        this.tamanhoL2 = tamanhoCache("L2", tamanhoL2);
+    }
+
+    public int getAssociatividadeL2() {
+        return associatividadeL2;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se a associatividade não for uma potência de 2
+     */
+    public void setAssociatividadeL2(int associatividadeL2) {
+        this.associatividadeL2 = potenciaDe2("Associatividade da L2", associatividadeL2);
+    }
+
+    public int getLinhaL2() {
+        return linhaL2;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se a linha não for uma potência de 2
+     */
+    public void setLinhaL2(int linhaL2) {
+        this.linhaL2 = potenciaDe2("Linha da L2", linhaL2);
+    }
+
+    /**
+     * Ciclos somados à latência da L1 por uma falta nela
+     */
+    public int getLatenciaL2() {
+        return latenciaL2;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se a latência não for positiva
+     */
+    public void setLatenciaL2(int latenciaL2) {
+        this.latenciaL2 = latencia("L2", latenciaL2);
+    }
+
+    /**
+     * Ciclos somados por uma falta na última cache
+     */
+    public int getLatenciaMemoria() {
+        return latenciaMemoria;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se a latência não for positiva
+     */
+    public void setLatenciaMemoria(int latenciaMemoria) {
+        this.latenciaMemoria = latencia("memória", latenciaMemoria);
+    }
+
+    /**
+     * Faltas da L1 que podem estar em andamento ao mesmo tempo
+     */
+    public int getNumMshrs() {
+        return numMshrs;
+    }
+
+    /**
+     * @throws IllegalArgumentException Se o número não for positivo
+     */
+    public void setNumMshrs(int numMshrs) {
+        if (numMshrs < 1) {
+            throw new IllegalArgumentException("Número de MSHRs inválido: " + numMshrs);
+        }
+        this.numMshrs = numMshrs;
+    }
+
+    public PoliticaSubstituicao getPoliticaSubstituicao() {
+        return politicaSubstituicao;
+    }
+
+    public void setPoliticaSubstituicao(PoliticaSubstituicao politicaSubstituicao) {
+        this.politicaSubstituicao = politicaSubstituicao;
+    }
+
+    private static int tamanhoCache(String nivel, int tamanho) {
+        if (tamanho != 0) {
+            potenciaDe2("Tamanho da " + nivel, tamanho);
+        }
+        return tamanho;
+    }
+
+    private static int potenciaDe2(String nome, int valor) {
+        if (valor < 1 || Integer.bitCount(valor) != 1) {
+            throw new IllegalArgumentException(nome + " deve ser potência de 2: " + valor);
+        }
+        return valor;
+    }
+
+    private static int latencia(String nivel, int latencia) {
+        if (latencia < 1) {
+            throw new IllegalArgumentException("Latência da " + nivel + " inválida: " + latencia);
+        }
+        return latencia;
+    }
+}
@@ -0,0 +1,56 @@
+package simulador;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Contadores de acessos às estruturas do processador (EventoAtividade).
+ *
+ * São sempre contados durante a simulação (um incremento por acesso) e não
+ * dependem da tabela de energia, que é aplicada depois por ModeloEnergia.
+ */
+public class ContadoresAtividade {
+    private static final EventoAtividade[] EVENTOS = EventoAtividade.values();
+
+    private final long[] contagens = new long[EVENTOS.length];
+
+    /**
+     * Zera todos os contadores
+     */
+    public void zerar() {
+        Arrays.fill(contagens, 0);
+    }
+
+    void registrar(EventoAtividade evento) {
+        contagens[evento.ordinal()]++;
+    }
+
+    void registrar(EventoAtividade evento, int quantidade) {
+        contagens[evento.ordinal()] += quantidade;
+    }
+
+    void gravarEstado(DataOutput saida) throws IOException {
+        Checkpoint.gravarLongs(saida, contagens);
+    }
+
+    void lerEstado(DataInput entrada) throws IOException {
+        Checkpoint.lerLongs(entrada, contagens);
+    }
+
+    public long getContagem(EventoAtividade evento) {
+        return contagens[evento.ordinal()];
+    }
+
+    /**
+     * Total de eventos de todas as estruturas
+     */
+    public long getTotal() {
+        long total = 0;
+        for (long contagem : contagens) {
+            total += contagem;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,756 @@
+package simulador;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Contadores de desempenho do simulador.
+ *
+ * Cada slot de emissão de cada ciclo é contado em exatamente um
+ * ComponenteCPI, de modo que a soma dos componentes da pilha de CPI é igual
+ * ao CPI medido. Todo ciclo simulado é amostrado uma vez, então os
+ * histogramas por ciclo somam getCiclos() e as utilizações usam a mesma
+ * contagem. getCiclos() é o getCicloAtual() do Simulador; ao fim de uma
+ * simulação completa de um programa não vazio é getTotalCiclos() + 2, já
+ * que o total do Simulador deixa de fora os dois últimos ciclos. Também
+ * acumula a utilização das unidades funcionais por
+ * classe, histogramas de ocupação do ROB e das estações de reserva e
+ * histogramas de instruções emitidas e commitadas por ciclo, o uso e os
+ * conflitos dos barramentos de resultado (CDB), a ocupação das unidades
+ * funcionais de cada classe, o acerto da previsão de desvios, os
+ * encaminhamentos e replays da fila de loads e stores e os acertos das
+ * caches com a ocupação dos MSHRs.
+ */
+public class ContadoresDesempenho {
+    public static final int CLASSE_ADD = 0;
+    public static final int CLASSE_MUL = 1;
+    public static final int CLASSE_LOAD = 2;
+    public static final int CLASSE_BRANCH = 3;
+    public static final String[] NOMES_CLASSES = {"add", "mul", "load", "branch"};
+
+    private static final ComponenteCPI[] COMPONENTES = ComponenteCPI.values();
+
+    private final int larguraEmissao;
+    private final int[] numEstacoes;
+    private final long[] slots;
+    private final long[] ciclosExecutando;      // estação-ciclos em execução por classe
+    private final long[] histogramaRob;         // ciclos com k entradas ocupadas no ROB
+    private final long[][] histogramaEstacoes;  // ciclos com k estações ocupadas por classe
+    private final long[] histogramaEmissao;     // ciclos com k instruções emitidas
+    private final long[] histogramaCommit;      // ciclos com k instruções commitadas
+    private final int numCdbs;                  // 0 = sem limite
+    private long transmissoesCdb;               // resultados difundidos
+    private final long[] conflitosCdb;          // resultados adiados por falta de CDB, por classe
+    private long ciclosConflitoCdb;             // ciclos com algum resultado adiado
+    private final int[] numUnidades;            // unidades funcionais por classe
+    private final boolean[] unidadesLimitadas;  // false = uma unidade por estação
+    private final long[] iniciosUnidade;        // operações aceitas pelas unidades, por classe
+    private final long[] ciclosUnidadeOcupada;  // unidade-ciclos sem aceitar operação, por classe
+    private final long[] esperaUnidade;         // estação-ciclos prontas sem unidade livre, por classe
+    private final TipoPreditor preditor;
+    private final int entradasBtb;              // 0 = sem BTB
+    private long desvios;                       // desvios commitados
+    private long acertosPrevisao;               // desvios commitados com o caminho previsto correto
+    private long recuperacoes;                  // previsões erradas corrigidas na resolução
+    private long ciclosPenalidade;              // ciclos do issue à resolução dos desvios errados
+    private long consultasBtb;                  // desvios previstos tomados na busca
+    private long falhasBtb;                     // dos quais sem alvo no BTB
+    private long encaminhamentos;               // loads que leram o valor de um store da fila
+    private long cargasEspeculativas;           // loads que leram com store mais antigo sem endereço
+    private long replays;                       // violações de ordem de memória
+    private final int numMshrs;                 // 0 = sem caches
+    private final long[] acessosCache;          // acessos por nível que atendeu (HierarquiaCache.ACERTO_L1, ...)
+    private long esperaMshr;                    // estação-ciclos prontas sem MSHR livre
+    private final long[] histogramaMshr;        // ciclos com k MSHRs ocupados
+    private long ciclos;
+    private long instrucoesCommitadas;
+
+    public ContadoresDesempenho(ConfiguracaoSimulador configuracao) {
+        this.larguraEmissao = configuracao.getLarguraEmissao();
+        this.numEstacoes = new int[] {
+            configuracao.getNumEstacoesAdd(), configuracao.getNumEstacoesMul(),
+            configuracao.getNumEstacoesLoad(), configuracao.getNumEstacoesBranches()
+        };
+        this.slots = new long[COMPONENTES.length];
+        this.ciclosExecutando = new long[NOMES_CLASSES.length];
+        this.histogramaRob = new long[configuracao.getTamanhoRob() + 1];
+        this.histogramaEstacoes = new long[NOMES_CLASSES.length][];
+        for (int c = 0; c < NOMES_CLASSES.length; c++) {
+            histogramaEstacoes[c] = new long[numEstacoes[c] + 1];
+        }
+        this.histogramaEmissao = new long[larguraEmissao + 1];
+        this.histogramaCommit = new long[configuracao.getLarguraCommit() + 1];
+        this.numCdbs = configuracao.getNumCdbs();
+        this.conflitosCdb = new long[NOMES_CLASSES.length];
+        this.numUnidades = new int[NOMES_CLASSES.length];
+        this.unidadesLimitadas = new boolean[NOMES_CLASSES.length];
+        for (int c = 0; c < NOMES_CLASSES.length; c++) {
+            unidadesLimitadas[c] = configuracao.getNumUnidades(c) > 0;
+            numUnidades[c] = unidadesLimitadas[c] ? configuracao.getNumUnidades(c) : numEstacoes[c];
+        }
+        this.iniciosUnidade = new long[NOMES_CLASSES.length];
+        this.ciclosUnidadeOcupada = new long[NOMES_CLASSES.length];
+        this.esperaUnidade = new long[NOMES_CLASSES.length];
+        this.preditor = configuracao.getPreditor();
+        this.entradasBtb = configuracao.getEntradasBtb();
+        this.numMshrs = configuracao.getTamanhoL1() > 0 ? configuracao.getNumMshrs() : 0;
+        this.acessosCache = new long[HierarquiaCache.NOMES_RESULTADOS.length];
+        this.histogramaMshr = new long[numMshrs + 1];
+    }
+
+    /**
+     * Classe de estação de reserva / unidade funcional de uma operação
+     */
+    public static int classeDe(OpCode op) {
+        if (op.isMemoryOperation()) {
+            return CLASSE_LOAD;
+        } else if (op.isMultiplyDivide()) {
+            return CLASSE_MUL;
+        } else if (op.isBranch()) {
+            return CLASSE_BRANCH;
+        }
+        return CLASSE_ADD;
+    }
+
+    /**
+     * Zera todos os contadores
+     */
+    public void zerar() {
+        Arrays.fill(slots, 0);
+        Arrays.fill(ciclosExecutando, 0);
+        Arrays.fill(histogramaRob, 0);
+        for (long[] histograma : histogramaEstacoes) {
+            Arrays.fill(histograma, 0);
+        }
+        Arrays.fill(histogramaEmissao, 0);
+        Arrays.fill(histogramaCommit, 0);
+        transmissoesCdb = 0;
+        Arrays.fill(conflitosCdb, 0);
+        ciclosConflitoCdb = 0;
+        Arrays.fill(iniciosUnidade, 0);
+        Arrays.fill(ciclosUnidadeOcupada, 0);
+        Arrays.fill(esperaUnidade, 0);
+        desvios = 0;
+        acertosPrevisao = 0;
+        recuperacoes = 0;
+        ciclosPenalidade = 0;
+        consultasBtb = 0;
+        falhasBtb = 0;
+        encaminhamentos = 0;
+        cargasEspeculativas = 0;
+        replays = 0;
+        Arrays.fill(acessosCache, 0);
+        esperaMshr = 0;
+        Arrays.fill(histogramaMshr, 0);
+        ciclos = 0;
+        instrucoesCommitadas = 0;
+    }
+
+    void registrarSlot(ComponenteCPI componente) {
+        slots[componente.ordinal()]++;
+    }
+
+    /**
+     * Slots já contados como BASE cujas instruções foram canceladas, pela causa
+     * do cancelamento (FLUSH_DESVIO ou REPLAY_MEMORIA)
+     */
+    void registrarFlush(ComponenteCPI causa, int canceladas) {
+        slots[ComponenteCPI.BASE.ordinal()] -= canceladas;
+        slots[causa.ordinal()] += canceladas;
+    }
+
+    void registrarExecucao(int classe) {
+        ciclosExecutando[classe]++;
+    }
+
+    void registrarTransmissaoCdb() {
+        transmissoesCdb++;
+    }
+
+    /**
+     * Resultados que perderam a arbitragem dos CDBs no ciclo, por classe
+     */
+    void registrarConflitosCdb(int[] adiadosPorClasse) {
+        boolean conflito = false;
+        for (int c = 0; c < adiadosPorClasse.length; c++) {
+            conflitosCdb[c] += adiadosPorClasse[c];
+            conflito |= adiadosPorClasse[c] > 0;
+        }
+        if (conflito) {
+            ciclosConflitoCdb++;
+        }
+    }
+
+    /**
+     * Operação aceita por uma unidade da classe, que fica ocupada pelos ciclos dados
+     */
+    void registrarInicioUnidade(int classe, int ciclosOcupada) {
+        iniciosUnidade[classe]++;
+        ciclosUnidadeOcupada[classe] += ciclosOcupada;
+    }
+
+    /**
+     * Operação cancelada antes do fim da ocupação: os ciclos em que a unidade
+     * não chegou a ficar ocupada deixam de contar
+     */
+    void registrarCancelamentoUnidade(int classe, int ciclosDevolvidos) {
+        ciclosUnidadeOcupada[classe] -= ciclosDevolvidos;
+    }
+
+    void registrarEsperaUnidade(int classe) {
+        esperaUnidade[classe]++;
+    }
+
+    /**
+     * Desvio commitado, com o caminho buscado depois dele certo ou errado
+     */
+    void registrarDesvio(boolean acerto) {
+        desvios++;
+        if (acerto) {
+            acertosPrevisao++;
+        }
+    }
+
+    /**
+     * Previsão errada descoberta na resolução, ciclos depois da emissão do desvio
+     */
+    void registrarRecuperacao(int ciclosPerdidos) {
+        recuperacoes++;
+        ciclosPenalidade += ciclosPerdidos;
+    }
+
+    void registrarConsultaBtb(boolean acerto) {
+        consultasBtb++;
+        if (!acerto) {
+            falhasBtb++;
+        }
+    }
+
+    /**
+     * Load executado: com o valor encaminhado de um store da fila ou não, e
+     * especulativo se passou por store mais antigo de endereço desconhecido
+     */
+    void registrarCarga(boolean encaminhada, boolean especulativa) {
+        if (encaminhada) {
+            encaminhamentos++;
+        }
+        if (especulativa) {
+            cargasEspeculativas++;
+        }
+    }
+
+    void registrarReplay() {
+        replays++;
+    }
+
+    /**
+     * Acesso às caches, pelo nível que o atendeu (HierarquiaCache.ACERTO_L1, ...)
+     */
+    void registrarAcessoCache(int resultado) {
+        acessosCache[resultado]++;
+    }
+
+    void registrarEsperaMshr() {
+        esperaMshr++;
+    }
+
+    void registrarCommit() {
+        instrucoesCommitadas++;
+    }
+
+    /**
+     * Amostras do fim do ciclo (mshrsOcupados = -1 sem caches)
+     */
+    void registrarFimCiclo(int ocupacaoRob, int[] ocupacaoEstacoes, int emitidas, int commitadas,
+            int mshrsOcupados) {
+        ciclos++;
+        histogramaRob[ocupacaoRob]++;
+        histogramaEmissao[emitidas]++;
+        histogramaCommit[commitadas]++;
+        for (int c = 0; c < ocupacaoEstacoes.length; c++) {
+            histogramaEstacoes[c][ocupacaoEstacoes[c]]++;
+        }
+        if (mshrsOcupados >= 0) {
+            histogramaMshr[mshrsOcupados]++;
+        }
+    }
+
+    /*
+     * Estado para checkpoint (a configuração é a mesma na gravação e na leitura)
+     */
+    void gravarEstado(DataOutput saida) throws IOException {
+        Checkpoint.gravarLongs(saida, slots);
+        Checkpoint.gravarLongs(saida, ciclosExecutando);
+        Checkpoint.gravarLongs(saida, histogramaRob);
+        for (long[] histograma : histogramaEstacoes) {
+            Checkpoint.gravarLongs(saida, histograma);
+        }
+        Checkpoint.gravarLongs(saida, histogramaEmissao);
+        Checkpoint.gravarLongs(saida, histogramaCommit);
+        saida.writeLong(transmissoesCdb);
+        Checkpoint.gravarLongs(saida, conflitosCdb);
+        saida.writeLong(ciclosConflitoCdb);
+        Checkpoint.gravarLongs(saida, iniciosUnidade);
+        Checkpoint.gravarLongs(saida, ciclosUnidadeOcupada);
+        Checkpoint.gravarLongs(saida, esperaUnidade);
+        saida.writeLong(desvios);
+        saida.writeLong(acertosPrevisao);
+        saida.writeLong(recuperacoes);
+        saida.writeLong(ciclosPenalidade);
+        saida.writeLong(consultasBtb);
+        saida.writeLong(falhasBtb);
+        saida.writeLong(encaminhamentos);
+        saida.writeLong(cargasEspeculativas);
+        saida.writeLong(replays);
+        Checkpoint.gravarLongs(saida, acessosCache);
+        saida.writeLong(esperaMshr);
+        Checkpoint.gravarLongs(saida, histogramaMshr);
+        saida.writeLong(ciclos);
+        saida.writeLong(instrucoesCommitadas);
+    }
+
+    void lerEstado(DataInput entrada) throws IOException {
+        Checkpoint.lerLongs(entrada, slots);
+        Checkpoint.lerLongs(entrada, ciclosExecutando);
+        Checkpoint.lerLongs(entrada, histogramaRob);
+        for (long[] histograma : histogramaEstacoes) {
+            Checkpoint.lerLongs(entrada, histograma);
+        }
+        Checkpoint.lerLongs(entrada, histogramaEmissao);
+        Checkpoint.lerLongs(entrada, histogramaCommit);
+        transmissoesCdb = entrada.readLong();
+        Checkpoint.lerLongs(entrada, conflitosCdb);
+        ciclosConflitoCdb = entrada.readLong();
+        Checkpoint.lerLongs(entrada, iniciosUnidade);
+        Checkpoint.lerLongs(entrada, ciclosUnidadeOcupada);
+        Checkpoint.lerLongs(entrada, esperaUnidade);
+        desvios = entrada.readLong();
+        acertosPrevisao = entrada.readLong();
+        recuperacoes = entrada.readLong();
+        ciclosPenalidade = entrada.readLong();
+        consultasBtb = entrada.readLong();
+        falhasBtb = entrada.readLong();
+        encaminhamentos = entrada.readLong();
+        cargasEspeculativas = entrada.readLong();
+        replays = entrada.readLong();
+        Checkpoint.lerLongs(entrada, acessosCache);
+        esperaMshr = entrada.readLong();
+        Checkpoint.lerLongs(entrada, histogramaMshr);
+        ciclos = entrada.readLong();
+        instrucoesCommitadas = entrada.readLong();
+    }
+
+    // Consultas
+
+    /**
+     * Ciclos simulados (getCicloAtual() do Simulador; getTotalCiclos() + 2 ao
+     * fim de uma simulação completa de um programa não vazio)
+     */
+    public long getCiclos() {
+        return ciclos;
+    }
+
+    public long getInstrucoesCommitadas() {
+        return instrucoesCommitadas;
+    }
+
+    public int getLarguraEmissao() {
+        return larguraEmissao;
+    }
+
+    public long getSlots(ComponenteCPI componente) {
+        return slots[componente.ordinal()];
+    }
+
+    public double getCPI() {
+        return instrucoesCommitadas == 0 ? 0.0 : (double) ciclos / instrucoesCommitadas;
+    }
+
+    public double getIPC() {
+        return ciclos == 0 ? 0.0 : (double) instrucoesCommitadas / ciclos;
+    }
+
+    /**
+     * Parcela do CPI atribuída a um componente (a soma de todos é o CPI)
+     */
+    public double getComponenteCPI(ComponenteCPI componente) {
+        if (instrucoesCommitadas == 0) {
+            return 0.0;
+        }
+        return (double) slots[componente.ordinal()] / ((long) larguraEmissao * instrucoesCommitadas);
+    }
+
+    /**
+     * Fração dos estação-ciclos da classe em que houve execução
+     */
+    public double getUtilizacao(int classe) {
+        long capacidade = ciclos * numEstacoes[classe];
+        return capacidade == 0 ? 0.0 : (double) ciclosExecutando[classe] / capacidade;
+    }
+
+    public long[] getHistogramaRob() {
+        return histogramaRob.clone();
+    }
+
+    public long[] getHistogramaEstacoes(int classe) {
+        return histogramaEstacoes[classe].clone();
+    }
+
+    /**
+     * Ciclos com k instruções emitidas, para k de 0 à largura de emissão
+     */
+    public long[] getHistogramaEmissao() {
+        return histogramaEmissao.clone();
+    }
+
+    /**
+     * Ciclos com k instruções commitadas, para k de 0 à largura de commit
+     */
+    public long[] getHistogramaCommit() {
+        return histogramaCommit.clone();
+    }
+
+    public long getTransmissoesCdb() {
+        return transmissoesCdb;
+    }
+
+    /**
+     * Resultados adiados por falta de CDB (um por instrução e ciclo de espera)
+     */
+    public long getConflitosCdb(int classe) {
+        return conflitosCdb[classe];
+    }
+
+    public long getCiclosConflitoCdb() {
+        return ciclosConflitoCdb;
+    }
+
+    /**
+     * Fração dos barramento-ciclos usados (0 quando o número de CDBs é ilimitado)
+     */
+    public double getUtilizacaoCdb() {
+        long capacidade = ciclos * numCdbs;
+        return capacidade == 0 ? 0.0 : (double) transmissoesCdb / capacidade;
+    }
+
+    public int getNumUnidades(int classe) {
+        return numUnidades[classe];
+    }
+
+    public long getIniciosUnidade(int classe) {
+        return iniciosUnidade[classe];
+    }
+
+    /**
+     * Fração dos unidade-ciclos da classe em que as unidades não aceitavam
+     * nova operação (em uma unidade pipelined, só o intervalo de iniciação)
+     */
+    public double getOcupacaoUnidades(int classe) {
+        long capacidade = ciclos * numUnidades[classe];
+        return capacidade == 0 ? 0.0 : (double) ciclosUnidadeOcupada[classe] / capacidade;
+    }
+
+    /**
+     * Estação-ciclos em que uma estação pronta da classe esperou por unidade livre
+     */
+    public long getEsperaUnidade(int classe) {
+        return esperaUnidade[classe];
+    }
+
+    public long getDesvios() {
+        return desvios;
+    }
+
+    public long getAcertosPrevisao() {
+        return acertosPrevisao;
+    }
+
+    /**
+     * Fração dos desvios commitados cujo caminho previsto estava certo
+     */
+    public double getTaxaAcertoPrevisao() {
+        return desvios == 0 ? 0.0 : (double) acertosPrevisao / desvios;
+    }
+
+    /**
+     * Previsões erradas corrigidas (inclui desvios do caminho errado que
+     * depois foram cancelados por um desvio mais antigo)
+     */
+    public long getRecuperacoes() {
+        return recuperacoes;
+    }
+
+    /**
+     * Soma, sobre as previsões erradas, dos ciclos entre a emissão do desvio
+     * e a sua resolução, em que a busca seguiu o caminho errado
+     */
+    public long getCiclosPenalidade() {
+        return ciclosPenalidade;
+    }
+
+    public double getPenalidadeMedia() {
+        return recuperacoes == 0 ? 0.0 : (double) ciclosPenalidade / recuperacoes;
+    }
+
+    public long getConsultasBtb() {
+        return consultasBtb;
+    }
+
+    public long getFalhasBtb() {
+        return falhasBtb;
+    }
+
+    /**
+     * Loads que leram o valor de um store mais antigo ainda na fila
+     */
+    public long getEncaminhamentos() {
+        return encaminhamentos;
+    }
+
+    /**
+     * Loads executados antes de todos os stores mais antigos terem endereço
+     */
+    public long getCargasEspeculativas() {
+        return cargasEspeculativas;
+    }
+
+    /**
+     * Violações de ordem de memória, cada uma com o load e as instruções
+     * mais novas reexecutados
+     */
+    public long getReplays() {
+        return replays;
+    }
+
+    /**
+     * Acessos às caches atendidos pelo nível (HierarquiaCache.ACERTO_L1, ...)
+     */
+    public long getAcessosCache(int resultado) {
+        return acessosCache[resultado];
+    }
+
+    public long getAcessosL1() {
+        long total = 0;
+        for (long acessos : acessosCache) {
+            total += acessos;
+        }
+        return total;
+    }
+
+    /**
+     * Fração dos acessos que acertaram na L1 (uma falta secundária conta como falta)
+     */
+    public double getTaxaAcertoL1() {
+        long acessos = getAcessosL1();
+        return acessos == 0 ? 0.0 : (double) acessosCache[HierarquiaCache.ACERTO_L1] / acessos;
+    }
+
+    /**
+     * Acessos à L2: as faltas primárias da L1
+     */
+    public long getAcessosL2() {
+        return acessosCache[HierarquiaCache.ACERTO_L2] + acessosCache[HierarquiaCache.MEMORIA];
+    }
+
+    public double getTaxaAcertoL2() {
+        long acessos = getAcessosL2();
+        return acessos == 0 ? 0.0 : (double) acessosCache[HierarquiaCache.ACERTO_L2] / acessos;
+    }
+
+    /**
+     * Estação-ciclos em que um load ou store pronto esperou por MSHR livre
+     */
+    public long getEsperaMshr() {
+        return esperaMshr;
+    }
+
+    /**
+     * Ciclos com k MSHRs ocupados, para k de 0 ao número de MSHRs (vazio sem caches)
+     */
+    public long[] getHistogramaMshr() {
+        return histogramaMshr.clone();
+    }
+
+    public double getOcupacaoMediaMshr() {
+        return media(histogramaMshr);
+    }
+
+    /*
+     * Média de um histograma indexado pela quantidade
+     */
+    private static double media(long[] histograma) {
+        long ciclos = 0, total = 0;
+        for (int k = 0; k < histograma.length; k++) {
+            ciclos += histograma[k];
+            total += k * histograma[k];
+        }
+        return ciclos == 0 ? 0.0 : (double) total / ciclos;
+    }
+
+    /**
+     * Pilha de CPI em formato texto (uma linha por componente)
+     */
+    public String resumo() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "CPI: %.4f (%d ciclos, %d instruções)%n",
+                getCPI(), ciclos, instrucoesCommitadas));
+        for (ComponenteCPI componente : COMPONENTES) {
+            sb.append(String.format(Locale.ROOT, "  %-40s %10d slots  %8.4f%n",
+                    componente.getDescricao(), getSlots(componente), getComponenteCPI(componente)));
+        }
+        sb.append("Utilização das unidades funcionais:");
+        for (int c = 0; c < NOMES_CLASSES.length; c++) {
+            sb.append(String.format(Locale.ROOT, " %s=%.1f%%", NOMES_CLASSES[c], 100 * getUtilizacao(c)));
+        }
+        sb.append(String.format("%n"));
+        if (larguraEmissao > 1 || histogramaCommit.length > 2) {
+            sb.append(String.format(Locale.ROOT, "Emitidas por ciclo: média %.3f, ciclos com 0..%d = %s%n",
+                    media(histogramaEmissao), larguraEmissao, Arrays.toString(histogramaEmissao)));
+            sb.append(String.format(Locale.ROOT, "Commitadas por ciclo: média %.3f, ciclos com 0..%d = %s%n",
+                    media(histogramaCommit), histogramaCommit.length - 1, Arrays.toString(histogramaCommit)));
+        }
+        for (int c = 0; c < NOMES_CLASSES.length; c++) {
+            if (unidadesLimitadas[c]) {
+                sb.append(String.format(Locale.ROOT, "Unidades %s: %d, ocupação %.1f%%, %d operações,"
+                        + " %d estação-ciclos esperando unidade%n", NOMES_CLASSES[c], numUnidades[c],
+                        100 * getOcupacaoUnidades(c), iniciosUnidade[c], esperaUnidade[c]));
+            }
+        }
+        if (desvios > 0 || recuperacoes > 0) {
+            sb.append(String.format(Locale.ROOT, "Desvios (%s): %d, acerto %.1f%%, %d previsões erradas,"
+                    + " penalidade %d ciclos (média %.2f)%n", preditor.getChave(), desvios,
+                    100 * getTaxaAcertoPrevisao(), recuperacoes, ciclosPenalidade, getPenalidadeMedia()));
+            if (consultasBtb > 0 && entradasBtb > 0) {
+                sb.append(String.format(Locale.ROOT, "BTB: %d entradas, %d consultas, %d falhas%n",
+                        entradasBtb, consultasBtb, falhasBtb));
+            }
+        }
+        if (encaminhamentos > 0 || cargasEspeculativas > 0 || replays > 0) {
+            sb.append(String.format(Locale.ROOT, "Fila de loads e stores: %d encaminhamentos, %d loads especulativos,"
+                    + " %d replays%n", encaminhamentos, cargasEspeculativas, replays));
+        }
+        if (numMshrs > 0) {
+            sb.append(String.format(Locale.ROOT, "Cache L1: %d acessos, acerto %.1f%%, %d faltas secundárias;"
+                    + " L2: %d acessos, acerto %.1f%%; %d da memória%n", getAcessosL1(), 100 * getTaxaAcertoL1(),
+                    acessosCache[HierarquiaCache.FALTA_SECUNDARIA], getAcessosL2(), 100 * getTaxaAcertoL2(),
+                    acessosCache[HierarquiaCache.MEMORIA]));
+            sb.append(String.format(Locale.ROOT, "MSHRs: %d, ocupação média %.3f, %d ciclos com todos ocupados,"
+                    + " %d estação-ciclos esperando MSHR%n", numMshrs, getOcupacaoMediaMshr(),
+                    histogramaMshr[numMshrs], esperaMshr));
+        }
+        if (numCdbs > 0) {
+            sb.append(String.format(Locale.ROOT, "CDB: %d barramentos, utilização %.1f%%, %d ciclos com conflito,"
+                    + " resultados adiados:", numCdbs, 100 * getUtilizacaoCdb(), ciclosConflitoCdb));
+            for (int c = 0; c < NOMES_CLASSES.length; c++) {
+                sb.append(String.format(" %s=%d", NOMES_CLASSES[c], conflitosCdb[c]));
+            }
+            sb.append(String.format("%n"));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Exporta todos os contadores em JSON
+     */
+    public String paraJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"ciclos\": ").append(ciclos).append(",\n");
+        sb.append("  \"instrucoesCommitadas\": ").append(instrucoesCommitadas).append(",\n");
+        sb.append("  \"larguraEmissao\": ").append(larguraEmissao).append(",\n");
+        sb.append("  \"larguraCommit\": ").append(histogramaCommit.length - 1).append(",\n");
+        sb.append("  \"cpi\": ").append(numero(getCPI())).append(",\n");
+        sb.append("  \"ipc\": ").append(numero(getIPC())).append(",\n");
+
+        sb.append("  \"pilhaCPI\": {");
+        for (int i = 0; i < COMPONENTES.length; i++) {
+            sb.append(i == 0 ? "\n" : ",\n");
+            sb.append("    \"").append(COMPONENTES[i].getChave()).append("\": ")
+                    .append(numero(getComponenteCPI(COMPONENTES[i])));
+        }
+        sb.append("\n  },\n");
+
+        sb.append("  \"slots\": {");
+        for (int i = 0; i < COMPONENTES.length; i++) {
+            sb.append(i == 0 ? "\n" : ",\n");
+            sb.append("    \"").append(COMPONENTES[i].getChave()).append("\": ").append(slots[i]);
+        }
+        sb.append("\n  },\n");
+
+        sb.append("  \"utilizacaoUnidades\": {");
+        for (int c = 0; c < NOMES_CLASSES.length; c++) {
+            sb.append(c == 0 ? "\n" : ",\n");
+            sb.append("    \"").append(NOMES_CLASSES[c]).append("\": ").append(numero(getUtilizacao(c)));
+        }
+        sb.append("\n  },\n");
+
+        sb.append("  \"ocupacaoRob\": ").append(Arrays.toString(histogramaRob)).append(",\n");
+        sb.append("  \"ocupacaoEstacoes\": {");
+        for (int c = 0; c < NOMES_CLASSES.length; c++) {
+            sb.append(c == 0 ? "\n" : ",\n");
+            sb.append("    \"").append(NOMES_CLASSES[c]).append("\": ")
+                    .append(Arrays.toString(histogramaEstacoes[c]));
+        }
+        sb.append("\n  },\n");
+        sb.append("  \"unidadesFuncionais\": {");
+        for (int c = 0; c < NOMES_CLASSES.length; c++) {
+            sb.append(c == 0 ? "\n" : ",\n");
+            sb.append("    \"").append(NOMES_CLASSES[c]).append("\": {\"unidades\": ").append(numUnidades[c])
+                    .append(", \"operacoes\": ").append(iniciosUnidade[c])
+                    .append(", \"ocupacao\": ").append(numero(getOcupacaoUnidades(c)))
+                    .append(", \"esperaUnidade\": ").append(esperaUnidade[c]).append("}");
+        }
+        sb.append("\n  },\n");
+        sb.append("  \"cdb\": {\n");
+        sb.append("    \"barramentos\": ").append(numCdbs).append(",\n");
+        sb.append("    \"transmissoes\": ").append(transmissoesCdb).append(",\n");
+        sb.append("    \"utilizacao\": ").append(numero(getUtilizacaoCdb())).append(",\n");
+        sb.append("    \"ciclosComConflito\": ").append(ciclosConflitoCdb).append(",\n");
+        sb.append("    \"adiados\": {");
+        for (int c = 0; c < NOMES_CLASSES.length; c++) {
+            sb.append(c == 0 ? "\n" : ",\n");
+            sb.append("      \"").append(NOMES_CLASSES[c]).append("\": ").append(conflitosCdb[c]);
+        }
+        sb.append("\n    }\n  },\n");
+        sb.append("  \"desvios\": {\n");
+        sb.append("    \"preditor\": \"").append(preditor.getChave()).append("\",\n");
+        sb.append("    \"commitados\": ").append(desvios).append(",\n");
+        sb.append("    \"acertos\": ").append(acertosPrevisao).append(",\n");
+        sb.append("    \"taxaAcerto\": ").append(numero(getTaxaAcertoPrevisao())).append(",\n");
+        sb.append("    \"previsoesErradas\": ").append(recuperacoes).append(",\n");
+        sb.append("    \"ciclosPenalidade\": ").append(ciclosPenalidade).append(",\n");
+        sb.append("    \"penalidadeMedia\": ").append(numero(getPenalidadeMedia())).append(",\n");
+        sb.append("    \"btb\": {\"entradas\": ").append(entradasBtb)
+                .append(", \"consultas\": ").append(consultasBtb)
+                .append(", \"falhas\": ").append(falhasBtb).append("}\n");
+        sb.append("  },\n");
+        sb.append("  \"filaMemoria\": {\"encaminhamentos\": ").append(encaminhamentos)
+                .append(", \"cargasEspeculativas\": ").append(cargasEspeculativas)
+                .append(", \"replays\": ").append(replays).append("},\n");
+        sb.append("  \"cache\": {\n");
+        sb.append("    \"mshrs\": ").append(numMshrs).append(",\n");
+        sb.append("    \"acessos\": {");
+        for (int i = 0; i < acessosCache.length; i++) {
+            sb.append(i == 0 ? "" : ", ");
+            sb.append("\"").append(HierarquiaCache.NOMES_RESULTADOS[i]).append("\": ").append(acessosCache[i]);
+        }
+        sb.append("},\n");
+        sb.append("    \"taxaAcertoL1\": ").append(numero(getTaxaAcertoL1())).append(",\n");
+        sb.append("    \"taxaAcertoL2\": ").append(numero(getTaxaAcertoL2())).append(",\n");
+        sb.append("    \"esperaMshr\": ").append(esperaMshr).append(",\n");
+        sb.append("    \"ocupacaoMediaMshr\": ").append(numero(getOcupacaoMediaMshr())).append(",\n");
+        sb.append("    \"ocupacaoMshr\": ").append(Arrays.toString(histogramaMshr)).append("\n");
+        sb.append("  },\n");
+        sb.append("  \"emitidasPorCiclo\": ").append(Arrays.toString(histogramaEmissao)).append(",\n");
+        sb.append("  \"commitadasPorCiclo\": ").append(Arrays.toString(histogramaCommit)).append("\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static String numero(double valor) {
+        return String.format(Locale.ROOT, "%.6f", valor);
+    }
+}
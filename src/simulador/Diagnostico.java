@@ -0,0 +1,33 @@
+package simulador;
+
+/**
+ * Classe que representa um erro encontrado ao parsear um programa
+ */
+public class Diagnostico {
+    private final int linha;    // Linha do arquivo (1-based)
+    private final int coluna;   // Coluna do erro na linha (1-based)
+    private final String mensagem;
+
+    public Diagnostico(int linha, int coluna, String mensagem) {
+        this.linha = linha;
+        this.coluna = coluna;
+        this.mensagem = mensagem;
+    }
+
+    public int getLinha() {
+        return linha;
+    }
+
+    public int getColuna() {
+        return coluna;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    @Override
+    public String toString() {
+        return "linha " + linha + ", coluna " + coluna + ": " + mensagem;
+    }
+}
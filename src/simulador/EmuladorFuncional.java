@@ -0,0 +1,283 @@
+package simulador;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Interpretador puramente arquitetural do mesmo conjunto de instruções: sem
+ * ROB, estações ou ciclos, só registradores, memória e PC.
+ *
+ * O programa é pré-decodificado em vetores (operação, registradores como
+ * índices, imediato), então o laço de executar não consulta mapas nem aloca.
+ * Usa a mesma semântica e o mesmo estado inicial do Simulador e serve para
+ * avançar rapidamente até o trecho de interesse (Simulador.executarFuncional,
+ * Simulador.importarEstado) e como referência do estado final (conferir).
+ * Registradores nunca escritos fora do estado inicial valem 0.
+ */
+public class EmuladorFuncional {
+    /** Registradores R0 a R999 (limite do parser) */
+    public static final int NUM_REGISTRADORES = 1000;
+
+    private final List<Instrucao> programa;
+    private final OpCode[] ops;
+    private final int[] rd;
+    private final int[] reg1; // -1 quando a instrução não usa o registrador
+    private final int[] reg2;
+    private final int[] imediato;
+
+    private final float[] registradores = new float[NUM_REGISTRADORES];
+    private final boolean[] definido = new boolean[NUM_REGISTRADORES];
+    private Memoria memoria;
+    private int pc;
+    private long instrucoesExecutadas;
+    private int ultimoEndereco; // endereço do último LOAD/STORE de passo()
+
+    /**
+     * Emulador no estado inicial da configuração padrão
+     */
+    public EmuladorFuncional(List<Instrucao> programa) {
+        this(programa, new ConfiguracaoSimulador());
+    }
+
+    /**
+     * Emulador no estado inicial do Simulador com esta configuração
+     */
+    public EmuladorFuncional(List<Instrucao> programa, ConfiguracaoSimulador configuracao) {
+        this(programa, Memoria.inicial());
+        for (int i = 0; i <= configuracao.getNumRegistradoresPublicos(); i++) {
+            setRegistrador(i, i);
+        }
+    }
+
+    /*
+     * Emulador que opera sobre uma memória existente (a do Simulador)
+     */
+    EmuladorFuncional(List<Instrucao> programa, Memoria memoria) {
+        this.programa = programa;
+        this.memoria = memoria;
+        int n = programa.size();
+        ops = new OpCode[n];
+        rd = new int[n];
+        reg1 = new int[n];
+        reg2 = new int[n];
+        imediato = new int[n];
+        for (int i = 0; i < n; i++) {
+            Instrucao inst = programa.get(i);
+            ops[i] = inst.getOp();
+            rd[i] = indice(inst.getRd());
+            reg1[i] = indice(inst.getReg1());
+            reg2[i] = indice(inst.getReg2());
+            imediato[i] = inst.getImediato();
+        }
+    }
+
+    private static int indice(String registrador) {
+        return registrador == null ? -1 : InstructionParser.numeroRegistrador(registrador);
+    }
+
+    /**
+     * Executa até limite instruções (ou o fim do programa)
+     * @return número de instruções executadas
+     */
+    public long executar(long limite) {
+        final float[] r = registradores;
+        final int fim = ops.length;
+        int p = pc;
+        long executadas = 0;
+        while (executadas < limite && p < fim) {
+            int i = p++;
+            float vj = reg1[i] < 0 ? 0.0f : r[reg1[i]];
+            float vk = reg2[i] < 0 ? 0.0f : r[reg2[i]];
+            switch (ops[i]) {
+                case ADD: escrever(i, vj + vk); break;
+                case SUB: escrever(i, vj - vk); break;
+                case MUL: escrever(i, vj * vk); break;
+                case DIV:
+                    if (vk == 0) {
+                        interromper(i, executadas);
+                    }
+                    escrever(i, vj / vk);
+                    break;
+                case ADDI: escrever(i, vj + imediato[i]); break;
+                case SUBI: escrever(i, vj - imediato[i]); break;
+                case MULI: escrever(i, vj * imediato[i]); break;
+                case DIVI:
+                    if (imediato[i] == 0) {
+                        interromper(i, executadas);
+                    }
+                    escrever(i, vj / imediato[i]);
+                    break;
+                case LOAD:
+                    ultimoEndereco = (int) (vj + imediato[i]);
+                    escrever(i, memoria.ler(ultimoEndereco));
+                    break;
+                case STORE:
+                    ultimoEndereco = (int) (vk + imediato[i]);
+                    memoria.escrever(ultimoEndereco, vj);
+                    break;
+                case BEQ:
+                    if (Float.floatToIntBits(vj) == Float.floatToIntBits(vk)) {
+                        p = imediato[i] - 1;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            executadas++;
+        }
+        pc = p;
+        instrucoesExecutadas += executadas;
+        return executadas;
+    }
+
+    /*
+     * Para na instrução i (que não é executada) com divisão por zero
+     */
+    private void interromper(int i, long executadas) {
+        pc = i;
+        instrucoesExecutadas += executadas;
+        throw new RuntimeException("Divisão por zero!");
+    }
+
+    private void escrever(int i, float valor) {
+        registradores[rd[i]] = valor;
+        definido[rd[i]] = true;
+    }
+
+    /**
+     * Executa uma instrução e a devolve (null no fim do programa); para
+     * LOAD/STORE, getUltimoEndereco informa o endereço acessado
+     */
+    public Instrucao passo() {
+        if (isConcluido()) {
+            return null;
+        }
+        Instrucao inst = programa.get(pc);
+        executar(1);
+        return inst;
+    }
+
+    public boolean isConcluido() {
+        return pc < 0 || pc >= ops.length;
+    }
+
+    /**
+     * Compara o estado final de uma simulação com a execução funcional do
+     * mesmo programa pelo mesmo número de instruções: registradores públicos
+     * e, se as duas execuções chegaram ao fim do programa, a memória.
+     * @return diferenças encontradas (vazia se o estado confere)
+     */
+    public static List<String> conferir(Simulador simulador, int limiteDiferencas) {
+        EmuladorFuncional referencia = new EmuladorFuncional(simulador.getInstrucoes(), simulador.getConfiguracao());
+        long instrucoes = simulador.getInstrucoesExecutadas() + simulador.getInstrucoesFuncionais();
+        referencia.executar(instrucoes);
+
+        List<String> diferencas = new ArrayList<>();
+        @SuppressWarnings("unchecked")
+        Map<String, Float> publico = (Map<String, Float>) simulador.getRegisterStatus().get("publico");
+        for (int i = 0; i < NUM_REGISTRADORES && diferencas.size() < limiteDiferencas; i++) {
+            String nome = InstructionParser.nomeRegistrador(i);
+            Float simulado = publico.get(nome);
+            if (simulado == null && !referencia.definido[i]) {
+                continue;
+            }
+            float esperado = referencia.registradores[i];
+            if (simulado == null || Float.floatToIntBits(simulado) != Float.floatToIntBits(esperado)) {
+                diferencas.add(String.format(Locale.ROOT, "%s: simulado %s, esperado %s", nome, simulado, esperado));
+            }
+        }
+
+        boolean fimSimulado = simulador.isProgramaConcluido();
+        if (fimSimulado != referencia.isConcluido()) {
+            diferencas.add("Fim do programa: simulado " + fimSimulado + ", esperado " + referencia.isConcluido()
+                    + " após " + instrucoes + " instruções");
+        } else if (fimSimulado) {
+            for (int endereco : simulador.getMemoria().diferencas(referencia.memoria,
+                    limiteDiferencas - Math.min(limiteDiferencas, diferencas.size()))) {
+                diferencas.add(String.format(Locale.ROOT, "Mem[%d]: simulado %s, esperado %s", endereco,
+                        simulador.getMemoria().ler(endereco), referencia.memoria.ler(endereco)));
+            }
+        }
+        return diferencas;
+    }
+
+    /**
+     * Executa um programa e mostra a velocidade e os registradores finais
+     *
+     * Uso: java -cp bin simulador.EmuladorFuncional programa.txt [--limite N]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Uso: java -cp bin simulador.EmuladorFuncional programa.txt [--limite N]");
+            System.exit(1);
+        }
+        long limite = Long.MAX_VALUE;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--limite")) {
+                limite = Long.parseLong(args[++i]);
+            } else {
+                throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+            }
+        }
+        EmuladorFuncional emulador = new EmuladorFuncional(ProgramaBinario.carregarQualquer(args[0]).getInstrucoes());
+        long inicio = System.nanoTime();
+        emulador.executar(limite);
+        long nanos = Math.max(1, System.nanoTime() - inicio);
+        System.out.printf(Locale.ROOT, "Instruções: %d (%s) em %.3f s, %.1f milhões de instruções/s%n",
+                emulador.getInstrucoesExecutadas(), emulador.isConcluido() ? "fim do programa" : "limite",
+                nanos / 1e9, emulador.getInstrucoesExecutadas() * 1e3 / nanos);
+        StringBuilder registradores = new StringBuilder();
+        for (int i = 0; i < NUM_REGISTRADORES; i++) {
+            if (emulador.definido[i]) {
+                registradores.append(InstructionParser.nomeRegistrador(i)).append('=')
+                        .append(emulador.registradores[i]).append(' ');
+            }
+        }
+        System.out.println(registradores.toString().trim());
+    }
+
+    // Estado
+
+    public int getPc() {
+        return pc;
+    }
+
+    void setPc(int pc) {
+        this.pc = pc;
+    }
+
+    public long getInstrucoesExecutadas() {
+        return instrucoesExecutadas;
+    }
+
+    public int getUltimoEndereco() {
+        return ultimoEndereco;
+    }
+
+    public float getRegistrador(int numero) {
+        return registradores[numero];
+    }
+
+    /**
+     * Indica se o registrador tem valor (estado inicial ou escrito)
+     */
+    public boolean isDefinido(int numero) {
+        return definido[numero];
+    }
+
+    void setRegistrador(int numero, float valor) {
+        registradores[numero] = valor;
+        definido[numero] = true;
+    }
+
+    public Memoria getMemoria() {
+        return memoria;
+    }
+
+    public int getTotalInstrucoes() {
+        return ops.length;
+    }
+}
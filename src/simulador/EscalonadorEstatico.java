@@ -0,0 +1,265 @@
+package simulador;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Passo opcional de escalonamento estático (list scheduling) antes da simulação.
+ *
+ * O programa é dividido em blocos básicos (um bloco termina em um BEQ e começa
+ * em cada alvo de BEQ); dentro de cada bloco as instruções independentes são
+ * reordenadas para afastar consumidores de seus produtores, usando as
+ * latências das operações e o número de estações de cada classe. O BEQ fica
+ * no fim do bloco e os blocos não mudam de posição, então os alvos absolutos
+ * continuam válidos. A ordem respeita dependências RAW, WAR e WAW de
+ * registradores e de memória; dois acessos à memória só são considerados
+ * independentes quando usam a mesma base, com o mesmo valor, e deslocamentos
+ * diferentes. Blocos muito longos são escalonados em janelas de
+ * TAMANHO_JANELA instruções.
+ */
+public class EscalonadorEstatico {
+    private static final int TAMANHO_JANELA = 256;
+
+    private final int[] numEstacoes; // por classe (ContadoresDesempenho.CLASSE_*)
+    private int blocos;
+    private int instrucoesMovidas;
+
+    public EscalonadorEstatico(ConfiguracaoSimulador configuracao) {
+        this.numEstacoes = new int[] {
+            configuracao.getNumEstacoesAdd(), configuracao.getNumEstacoesMul(),
+            configuracao.getNumEstacoesLoad(), configuracao.getNumEstacoesBranches()
+        };
+    }
+
+    /**
+     * Devolve uma cópia escalonada do programa (as instruções originais não são alteradas)
+     */
+    public List<Instrucao> escalonar(List<Instrucao> programa) {
+        int n = programa.size();
+        boolean[] lider = lideres(programa);
+
+        blocos = 0;
+        instrucoesMovidas = 0;
+        List<Instrucao> resultado = new ArrayList<>(n);
+        int inicio = 0;
+        while (inicio < n) {
+            int fim = inicio + 1;
+            while (!lider[fim]) {
+                fim++;
+            }
+            blocos++;
+            // O desvio que encerra o bloco não se move
+            int fimReordenavel = programa.get(fim - 1).getOp().isBranch() ? fim - 1 : fim;
+            for (int janela = inicio; janela < fimReordenavel; janela += TAMANHO_JANELA) {
+                int fimJanela = Math.min(janela + TAMANHO_JANELA, fimReordenavel);
+                for (int indice : escalonarJanela(programa, janela, fimJanela)) {
+                    resultado.add(copiar(programa.get(indice)));
+                }
+            }
+            for (int i = fimReordenavel; i < fim; i++) {
+                resultado.add(copiar(programa.get(i)));
+            }
+            inicio = fim;
+        }
+        return resultado;
+    }
+
+    /**
+     * Marca o início de cada bloco básico: a primeira instrução, cada alvo de
+     * BEQ e cada instrução após um BEQ (a posição n também é marcada)
+     */
+    public static boolean[] lideres(List<Instrucao> programa) {
+        int n = programa.size();
+        boolean[] lider = new boolean[n + 1];
+        lider[0] = true;
+        lider[n] = true;
+        for (int i = 0; i < n; i++) {
+            Instrucao inst = programa.get(i);
+            if (inst.getOp().isBranch()) {
+                lider[i + 1] = true;
+                int alvo = inst.getImediato() - 1;
+                if (alvo >= 0 && alvo < n) {
+                    lider[alvo] = true;
+                }
+            }
+        }
+        return lider;
+    }
+
+    /*
+     * List scheduling de uma janela: a cada passo escolhe a instrução disponível
+     * que pode começar mais cedo, desempatando pela maior altura (caminho até o
+     * fim da janela) e depois pela ordem original
+     */
+    private int[] escalonarJanela(List<Instrucao> programa, int inicio, int fim) {
+        int w = fim - inicio;
+        Instrucao[] insts = new Instrucao[w];
+        for (int i = 0; i < w; i++) {
+            insts[i] = programa.get(inicio + i);
+        }
+
+        // Versão do registrador base de cada acesso à memória (nº de escritas anteriores na janela)
+        int[] versaoBase = new int[w];
+        int[] escritas = new int[EmuladorFuncional.NUM_REGISTRADORES];
+        for (int i = 0; i < w; i++) {
+            String base = base(insts[i]);
+            if (base != null) {
+                versaoBase[i] = escritas[InstructionParser.numeroRegistrador(base)];
+            }
+            if (insts[i].podeEscrever()) {
+                escritas[InstructionParser.numeroRegistrador(insts[i].getRd())]++;
+            }
+        }
+
+        // Arestas i -> j com latência (RAW espera o produtor terminar; WAR/WAW só ordenam)
+        int[][] latencia = new int[w][w];
+        for (int[] linha : latencia) {
+            Arrays.fill(linha, -1);
+        }
+        int[] predecessores = new int[w];
+        for (int j = 0; j < w; j++) {
+            for (int i = 0; i < j; i++) {
+                int lat = dependencia(insts[i], insts[j], versaoBase[i], versaoBase[j]);
+                if (lat >= 0) {
+                    latencia[i][j] = lat;
+                    predecessores[j]++;
+                }
+            }
+        }
+
+        long[] altura = new long[w];
+        for (int i = w - 1; i >= 0; i--) {
+            altura[i] = insts[i].getCiclosDuracao();
+            for (int j = i + 1; j < w; j++) {
+                if (latencia[i][j] >= 0) {
+                    altura[i] = Math.max(altura[i], latencia[i][j] + altura[j]);
+                }
+            }
+        }
+
+        long[] cedo = new long[w];                // menor ciclo permitido pelas dependências
+        boolean[] escalonada = new boolean[w];
+        List<List<Long>> ocupadas = new ArrayList<>(); // término das instruções em execução por classe
+        for (int c = 0; c < numEstacoes.length; c++) {
+            ocupadas.add(new ArrayList<>());
+        }
+
+        int[] ordem = new int[w];
+        long ciclo = 0;
+        for (int passo = 0; passo < w; passo++) {
+            int escolhida = -1;
+            long melhorInicio = Long.MAX_VALUE;
+            for (int j = 0; j < w; j++) {
+                if (escalonada[j] || predecessores[j] > 0) {
+                    continue;
+                }
+                long inicioJ = Math.max(Math.max(ciclo, cedo[j]),
+                        liberacao(ocupadas.get(ContadoresDesempenho.classeDe(insts[j].getOp())),
+                                numEstacoes[ContadoresDesempenho.classeDe(insts[j].getOp())], ciclo));
+                if (inicioJ < melhorInicio
+                        || (inicioJ == melhorInicio && altura[j] > altura[escolhida])) {
+                    escolhida = j;
+                    melhorInicio = inicioJ;
+                }
+            }
+
+            escalonada[escolhida] = true;
+            ordem[passo] = inicio + escolhida;
+            if (escolhida != passo) {
+                instrucoesMovidas++;
+            }
+            long termino = melhorInicio + insts[escolhida].getCiclosDuracao();
+            ocupadas.get(ContadoresDesempenho.classeDe(insts[escolhida].getOp())).add(termino);
+            for (int j = escolhida + 1; j < w; j++) {
+                if (latencia[escolhida][j] >= 0) {
+                    predecessores[j]--;
+                    cedo[j] = Math.max(cedo[j], melhorInicio + Math.max(1, latencia[escolhida][j]));
+                }
+            }
+            ciclo = melhorInicio + 1; // uma emissão por ciclo
+        }
+        return ordem;
+    }
+
+    /*
+     * Primeiro ciclo, a partir de ciclo, em que a classe tem uma estação livre
+     */
+    private static long liberacao(List<Long> terminos, int estacoes, long ciclo) {
+        terminos.removeIf(t -> t <= ciclo);
+        if (terminos.size() < estacoes) {
+            return ciclo;
+        }
+        long menor = Long.MAX_VALUE;
+        for (long t : terminos) {
+            menor = Math.min(menor, t);
+        }
+        return menor;
+    }
+
+    /*
+     * Latência da dependência de j em relação a i (anterior), ou -1 se independentes
+     */
+    private static int dependencia(Instrucao i, Instrucao j, int versaoI, int versaoJ) {
+        String escritaI = i.podeEscrever() ? i.getRd() : null;
+        String escritaJ = j.podeEscrever() ? j.getRd() : null;
+
+        if (escritaI != null && le(j, escritaI)) {
+            return i.getCiclosDuracao(); // RAW
+        }
+        if (escritaJ != null && (le(i, escritaJ) || escritaJ.equals(escritaI))) {
+            return 0; // WAR / WAW
+        }
+        if (i.getOp().isMemoryOperation() && j.getOp().isMemoryOperation()
+                && (i.getOp() == OpCode.STORE || j.getOp() == OpCode.STORE)) {
+            boolean disjuntos = base(i).equals(base(j)) && versaoI == versaoJ
+                    && i.getImediato() != j.getImediato();
+            if (!disjuntos) {
+                return i.getOp() == OpCode.STORE && j.getOp() == OpCode.LOAD ? i.getCiclosDuracao() : 0;
+            }
+        }
+        // Desvios não se movem em relação a nada (só aparecem aqui se não encerram o bloco)
+        if (i.getOp().isBranch() || j.getOp().isBranch()) {
+            return 0;
+        }
+        return -1;
+    }
+
+    /*
+     * Verifica se a instrução lê o registrador
+     */
+    private static boolean le(Instrucao inst, String registrador) {
+        if (registrador.equals(inst.getReg1())) {
+            return true;
+        }
+        boolean usaReg2 = inst.getOp() == OpCode.STORE || inst.getOp().isBranch() || !inst.getOp().hasImmediate();
+        return usaReg2 && registrador.equals(inst.getReg2());
+    }
+
+    /*
+     * Registrador base de um acesso à memória (null para as demais operações)
+     */
+    private static String base(Instrucao inst) {
+        if (inst.getOp() == OpCode.LOAD) {
+            return inst.getReg1();
+        } else if (inst.getOp() == OpCode.STORE) {
+            return inst.getReg2();
+        }
+        return null;
+    }
+
+    private static Instrucao copiar(Instrucao inst) {
+        Instrucao copia = new Instrucao(inst.getOp(), inst.getRd(), inst.getReg1(), inst.getReg2(),
+                inst.getImediato(), inst.getInstrucaoOriginal());
+        copia.setLinhaOrigem(inst.getLinhaOrigem());
+        return copia;
+    }
+
+    public int getBlocos() {
+        return blocos;
+    }
+
+    public int getInstrucoesMovidas() {
+        return instrucoesMovidas;
+    }
+}
@@ -14,6 +14,8 @@ public class EstacaoDeReserva {
     private String dest;  // Nome do registrador privado de destino
     private int imediato; // Valor imediato // Endereço de memória para LOAD/STORE
     private int ciclosRestantes; // Ciclos restantes para completar a operação
+    private int porta;    // Unidade funcional fixada no issue (-1 = qualquer uma livre)
+    private int unidade;  // Unidade funcional em que a operação executa (-1 = não iniciada)
     
     public EstacaoDeReserva(String nome) {
         this.nome = nome;
@@ -26,6 +28,8 @@ public class EstacaoDeReserva {
         this.dest = null;
         this.imediato = 0;
         this.ciclosRestantes = 0;
+        this.porta = -1;
+        this.unidade = -1;
     }
     
     /**
@@ -41,6 +45,8 @@ public class EstacaoDeReserva {
         this.dest = null;
         this.imediato = 0;
         this.ciclosRestantes = 0;
+        this.porta = -1;
+        this.unidade = -1;
     }
     
     /**
@@ -50,10 +56,13 @@ public class EstacaoDeReserva {
         boolean pronto = true;
         if (!busy) pronto = false;
         
-        // Para operações de memória, precisamos apenas do endereço base
-        if (op.isMemoryOperation()) {
+        // Para LOAD, precisamos apenas do endereço base
+        if (op == OpCode.LOAD) {
             pronto = qj == null; // Apenas vj precisa estar pronto
         }
+        else if (op == OpCode.STORE) {
+            pronto = qj == null && qk == null; // Valor (vj) e endereço base (vk)
+        }
         else{
             // Para outras operações, verificamos se todos os operandos estão prontos
             boolean vjPronto = (qj == null);
@@ -156,7 +165,7 @@ public class EstacaoDeReserva {
             case LOAD:
                 return (float) (vj + imediato); // Retorna o endereço calculado
             case STORE:
-                return (float) (vj + imediato); // Retorna o endereço calculado
+                return (float) (vk + imediato); // Retorna o endereço calculado (base em vk)
             case BEQ:
                 return vj.equals(vk) ? 1.0f : 0.0f; // 1 se iguais, 0 se diferentes
             default:
@@ -244,4 +253,20 @@ public class EstacaoDeReserva {
     public void setCiclosRestantes(int ciclosRestantes) {
         this.ciclosRestantes = ciclosRestantes;
     }
+    
+    public int getPorta() {
+        return porta;
+    }
+    
+    public void setPorta(int porta) {
+        this.porta = porta;
+    }
+    
+    public int getUnidade() {
+        return unidade;
+    }
+    
+    public void setUnidade(int unidade) {
+        this.unidade = unidade;
+    }
 }
@@ -0,0 +1,65 @@
+package simulador;
+
+/**
+ * Enum que representa um acesso a uma estrutura do processador, contado pelo
+ * simulador e convertido em energia por ModeloEnergia.
+ *
+ * A energia padrão (pJ por evento) é só uma ordem de grandeza para comparar
+ * configurações; valores calibrados podem ser carregados de uma tabela.
+ */
+public enum EventoAtividade {
+    ESCRITA_ESTACAO("Escrita em estação de reserva", "escritaEstacao", 2.0),
+    DIFUSAO_CDB("Difusão no CDB", "difusaoCdb", 6.0),
+    LEITURA_ROB("Leitura do ROB", "leituraRob", 3.0),
+    ESCRITA_ROB("Escrita no ROB", "escritaRob", 3.5),
+    LEITURA_RENOMEACAO("Leitura da tabela de renomeação", "leituraRenomeacao", 1.0),
+    ESCRITA_RENOMEACAO("Escrita na tabela de renomeação", "escritaRenomeacao", 1.2),
+    LISTA_LIVRE("Operação na lista de registradores livres", "listaLivre", 0.5),
+    LEITURA_REGISTRADOR("Leitura do banco de registradores", "leituraRegistrador", 2.5),
+    ESCRITA_REGISTRADOR("Escrita no banco de registradores", "escritaRegistrador", 3.0),
+    LEITURA_MEMORIA("Leitura da memória", "leituraMemoria", 20.0),
+    ESCRITA_MEMORIA("Escrita na memória", "escritaMemoria", 22.0),
+    EXECUCAO_ADD("Ciclo de execução add", "execucaoAdd", 3.0),
+    EXECUCAO_MUL("Ciclo de execução mul", "execucaoMul", 12.0),
+    EXECUCAO_LOAD("Ciclo de execução load (endereço)", "execucaoLoad", 2.0),
+    EXECUCAO_BRANCH("Ciclo de execução branch", "execucaoBranch", 1.5);
+
+    private static final EventoAtividade[] EXECUCAO_POR_CLASSE = {
+        EXECUCAO_ADD, EXECUCAO_MUL, EXECUCAO_LOAD, EXECUCAO_BRANCH
+    };
+
+    private final String descricao;
+    private final String chave; // nome usado na tabela de energia e no JSON
+    private final double energiaPadrao; // pJ
+
+    EventoAtividade(String descricao, String chave, double energiaPadrao) {
+        this.descricao = descricao;
+        this.chave = chave;
+        this.energiaPadrao = energiaPadrao;
+    }
+
+    /**
+     * Evento de um ciclo de execução na unidade funcional da classe
+     * (ContadoresDesempenho.CLASSE_*)
+     */
+    public static EventoAtividade execucao(int classe) {
+        return EXECUCAO_POR_CLASSE[classe];
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public String getChave() {
+        return chave;
+    }
+
+    public double getEnergiaPadrao() {
+        return energiaPadrao;
+    }
+
+    @Override
+    public String toString() {
+        return descricao;
+    }
+}
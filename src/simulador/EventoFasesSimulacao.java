@@ -0,0 +1,48 @@
+package simulador;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento do JDK Flight Recorder com o tempo de host gasto em cada fase do
+ * ciclo do simulador durante uma janela de ciclos simulados.
+ */
+@Name("simulador.FasesSimulacao")
+@Label("Fases da simulação")
+@Category("Simulador Tomasulo")
+@Description("Tempo de host por fase do ciclo (writeResult, execute, issue, commit) em uma janela de ciclos")
+@StackTrace(false)
+public class EventoFasesSimulacao extends jdk.jfr.Event {
+    @Label("Ciclo inicial")
+    long cicloInicial;
+
+    @Label("Ciclos")
+    long ciclos;
+
+    @Label("writeResult")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanosWriteResult;
+
+    @Label("execute")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanosExecute;
+
+    @Label("issue")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanosIssue;
+
+    @Label("commit")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanosCommit;
+
+    @Label("Ciclos por segundo")
+    double ciclosPorSegundo;
+
+    @Label("Aquecimento")
+    @Description("A janela pertence à fase de aquecimento da simulação")
+    boolean aquecimento;
+}
@@ -0,0 +1,132 @@
+package simulador;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Exporta os eventos de pipeline no formato de log do Konata (Kanata 0004).
+ *
+ * Os eventos são gravados à medida que a simulação avança, sem acumular nada
+ * em memória. Estágios: Is (emitida, aguardando operandos), Ex (execução),
+ * Wr (aguardando o CDB), Cm (resultado escrito, aguardando commit); o commit
+ * retira a instrução e o flush de um desvio a descarta. Só as instruções
+ * emitidas dentro da janela [cicloInicial, cicloFinal] são exportadas (as que
+ * já estavam na janela são acompanhadas até sair do pipeline).
+ */
+public class ExportadorKonata implements ObservadorPipeline, Closeable {
+    private final Writer saida;
+    private final int cicloInicial;
+    private final int cicloFinal;
+    private long cicloEscrito = -1;
+    private long retiradas;
+    private IOException erro;
+
+    public ExportadorKonata(String arquivo) throws IOException {
+        this(arquivo, 0, Integer.MAX_VALUE);
+    }
+
+    public ExportadorKonata(String arquivo, int cicloInicial, int cicloFinal) throws IOException {
+        this(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(arquivo), StandardCharsets.UTF_8),
+                1 << 16), cicloInicial, cicloFinal);
+    }
+
+    public ExportadorKonata(Writer saida, int cicloInicial, int cicloFinal) throws IOException {
+        this.saida = saida;
+        this.cicloInicial = cicloInicial;
+        this.cicloFinal = cicloFinal;
+        saida.write("Kanata\t0004\n");
+    }
+
+    @Override
+    public void aoEmitir(ReorderBufferSlot slot, int ciclo) {
+        if (!naJanela(slot)) {
+            return;
+        }
+        Instrucao inst = slot.getInstrucao();
+        int linha = inst.getLinhaOrigem() > 0 ? inst.getLinhaOrigem() : slot.getIndicePrograma() + 1;
+        escrever(ciclo, "I\t" + slot.getSequencia() + "\t" + slot.getSequencia() + "\t0\n"
+                + "L\t" + slot.getSequencia() + "\t0\t" + linha + ": " + inst + "\n"
+                + "S\t" + slot.getSequencia() + "\t0\tIs\n");
+    }
+
+    @Override
+    public void aoIniciarExecucao(ReorderBufferSlot slot, int ciclo) {
+        if (naJanela(slot)) {
+            escrever(ciclo, "E\t" + slot.getSequencia() + "\t0\tIs\n"
+                    + "S\t" + slot.getSequencia() + "\t0\tEx\n");
+        }
+    }
+
+    @Override
+    public void aoTerminarExecucao(ReorderBufferSlot slot, int ciclo) {
+        if (naJanela(slot)) {
+            escrever(ciclo, "E\t" + slot.getSequencia() + "\t0\tEx\n"
+                    + "S\t" + slot.getSequencia() + "\t0\tWr\n");
+        }
+    }
+
+    @Override
+    public void aoEscreverResultado(ReorderBufferSlot slot, int ciclo) {
+        if (naJanela(slot)) {
+            escrever(ciclo, "E\t" + slot.getSequencia() + "\t0\tWr\n"
+                    + "S\t" + slot.getSequencia() + "\t0\tCm\n");
+        }
+    }
+
+    @Override
+    public void aoCommit(ReorderBufferSlot slot, int ciclo) {
+        if (naJanela(slot)) {
+            escrever(ciclo, "E\t" + slot.getSequencia() + "\t0\tCm\n"
+                    + "R\t" + slot.getSequencia() + "\t" + (retiradas++) + "\t0\n");
+        }
+    }
+
+    @Override
+    public void aoCancelar(ReorderBufferSlot slot, int ciclo) {
+        if (naJanela(slot)) {
+            escrever(ciclo, "R\t" + slot.getSequencia() + "\t0\t1\n");
+        }
+    }
+
+    private boolean naJanela(ReorderBufferSlot slot) {
+        return slot.getCicloIssue() >= cicloInicial && slot.getCicloIssue() <= cicloFinal;
+    }
+
+    /*
+     * Avança o relógio do log até o ciclo do evento e grava as linhas
+     */
+    private void escrever(int ciclo, String linhas) {
+        if (erro != null) {
+            return;
+        }
+        try {
+            if (cicloEscrito < 0) {
+                saida.write("C=\t" + ciclo + "\n");
+                cicloEscrito = ciclo;
+            } else if (ciclo > cicloEscrito) {
+                saida.write("C\t" + (ciclo - cicloEscrito) + "\n");
+                cicloEscrito = ciclo;
+            }
+            saida.write(linhas);
+        } catch (IOException e) {
+            erro = e;
+        }
+    }
+
+    /**
+     * Fecha o arquivo
+     * @throws IOException Se alguma escrita durante a simulação falhou
+     */
+    @Override
+    public void close() throws IOException {
+        saida.close();
+        if (erro != null) {
+            throw erro;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package simulador;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Fila de loads e stores (LSQ): os acessos à memória em voo, em ordem de
+ * programa, alocados no issue e retirados no commit.
+ *
+ * Um store guarda o endereço assim que o registrador base fica disponível e
+ * o valor quando termina a execução, e só escreve na memória no commit. Um
+ * load lê no write result: do store mais novo, entre os mais antigos que ele,
+ * com o mesmo endereço (encaminhamento) ou, sem store assim, da memória; se
+ * esse store ainda não tem o valor, o load espera. Stores mais antigos com
+ * endereço ainda desconhecido são ignorados (desambiguação especulativa);
+ * quando um deles resolve o endereço e um load mais novo já leu o mesmo
+ * endereço de uma fonte mais antiga, a ordem foi violada e o load precisa ser
+ * reexecutado (replay).
+ */
+public class FilaLoadStore {
+
+    /**
+     * Entrada de um load ou store em voo
+     */
+    public static final class Entrada {
+        private ReorderBufferSlot slot;
+        private boolean store;
+        private boolean enderecoConhecido;
+        private int endereco;
+        private Float valor;       // store: valor a escrever no commit
+        private boolean executada; // load: já leu o valor
+        private long fonte;        // load: sequência do store encaminhado (-1 = memória)
+
+        public ReorderBufferSlot getSlot() {
+            return slot;
+        }
+
+        public boolean isStore() {
+            return store;
+        }
+
+        public boolean isEnderecoConhecido() {
+            return enderecoConhecido;
+        }
+
+        public int getEndereco() {
+            return endereco;
+        }
+
+        public Float getValor() {
+            return valor;
+        }
+
+        public boolean isExecutada() {
+            return executada;
+        }
+
+        public long getFonte() {
+            return fonte;
+        }
+    }
+
+    private final Entrada[] entradas; // circular, da mais antiga para a mais nova
+    private int cabeca;
+    private int tamanho;
+
+    public FilaLoadStore(int capacidade) {
+        this.entradas = new Entrada[capacidade];
+        for (int i = 0; i < capacidade; i++) {
+            entradas[i] = new Entrada();
+        }
+    }
+
+    public boolean isCheia() {
+        return tamanho == entradas.length;
+    }
+
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    public int getCapacidade() {
+        return entradas.length;
+    }
+
+    /**
+     * Entrada na posição i a partir da mais antiga
+     */
+    public Entrada get(int i) {
+        return entradas[(cabeca + i) % entradas.length];
+    }
+
+    void alocar(ReorderBufferSlot slot, boolean store) {
+        Entrada entrada = get(tamanho++);
+        entrada.slot = slot;
+        entrada.store = store;
+        entrada.enderecoConhecido = false;
+        entrada.endereco = 0;
+        entrada.valor = null;
+        entrada.executada = false;
+        entrada.fonte = -1;
+    }
+
+    /*
+     * Posição da entrada do slot (-1 se ausente)
+     */
+    int posicao(ReorderBufferSlot slot) {
+        for (int i = 0; i < tamanho; i++) {
+            if (get(i).slot == slot) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    void retirarCabeca() {
+        get(0).slot = null;
+        cabeca = (cabeca + 1) % entradas.length;
+        tamanho--;
+    }
+
+    /*
+     * Descarta as entradas de instruções com sequência a partir da dada
+     * (canceladas por um flush); as mais novas ficam no fim da fila
+     */
+    void descartarDesde(long sequencia) {
+        while (tamanho > 0 && get(tamanho - 1).slot.getSequencia() >= sequencia) {
+            get(--tamanho).slot = null;
+        }
+    }
+
+    /*
+     * Endereço de um store cujo registrador base ficou disponível
+     */
+    void resolverEndereco(int posicao, int endereco) {
+        Entrada store = get(posicao);
+        store.enderecoConhecido = true;
+        store.endereco = endereco;
+    }
+
+    /*
+     * Valor de um store que terminou a execução
+     */
+    void resolverValor(int posicao, Float valor) {
+        get(posicao).valor = valor;
+    }
+
+    /*
+     * Indica se o store que encaminharia o valor ao load (o mais novo entre
+     * os mais antigos com o mesmo endereço conhecido) ainda não tem o valor
+     */
+    boolean aguardaValor(int posicao, int endereco) {
+        for (int i = posicao - 1; i >= 0; i--) {
+            Entrada anterior = get(i);
+            if (anterior.store && anterior.enderecoConhecido && anterior.endereco == endereco) {
+                return anterior.valor == null;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Registra a leitura do load no endereço e devolve o store que encaminha
+     * o valor: o mais novo entre os mais antigos com o mesmo endereço
+     * conhecido (null = o valor vem da memória)
+     */
+    Entrada executarCarga(int posicao, int endereco) {
+        Entrada carga = get(posicao);
+        carga.enderecoConhecido = true;
+        carga.endereco = endereco;
+        carga.executada = true;
+        carga.fonte = -1;
+        for (int i = posicao - 1; i >= 0; i--) {
+            Entrada anterior = get(i);
+            if (anterior.store && anterior.enderecoConhecido && anterior.endereco == endereco) {
+                carga.fonte = anterior.slot.getSequencia();
+                return anterior;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Indica se há store mais antigo que o load com endereço desconhecido,
+     * mais novo que a fonte do valor: a leitura foi especulativa
+     */
+    boolean isEspeculativa(int posicao) {
+        Entrada carga = get(posicao);
+        for (int i = posicao - 1; i >= 0; i--) {
+            Entrada anterior = get(i);
+            if (anterior.store && anterior.slot.getSequencia() <= carga.fonte) {
+                return false;
+            }
+            if (anterior.store && !anterior.enderecoConhecido) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Load mais antigo, mais novo que o store recém-resolvido, que já leu o
+     * mesmo endereço de uma fonte mais antiga que o store (-1 se nenhum)
+     */
+    int violacao(int posicaoStore) {
+        Entrada store = get(posicaoStore);
+        long sequencia = store.slot.getSequencia();
+        for (int i = posicaoStore + 1; i < tamanho; i++) {
+            Entrada carga = get(i);
+            if (!carga.store && carga.executada && carga.endereco == store.endereco && carga.fonte < sequencia) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Estado para checkpoint; os slots são gravados pelo índice no ROB
+     */
+    void gravarEstado(DataOutput saida) throws IOException {
+        Checkpoint.gravarVarInt(saida, tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            Entrada entrada = get(i);
+            Checkpoint.gravarVarInt(saida, entrada.slot.getIndice());
+            saida.writeBoolean(entrada.store);
+            saida.writeBoolean(entrada.enderecoConhecido);
+            saida.writeInt(entrada.endereco);
+            Checkpoint.gravarFloat(saida, entrada.valor);
+            saida.writeBoolean(entrada.executada);
+            saida.writeLong(entrada.fonte);
+        }
+    }
+
+    void lerEstado(DataInput entrada, List<ReorderBufferSlot> rob) throws IOException {
+        cabeca = 0;
+        tamanho = 0;
+        int n = Checkpoint.lerVarInt(entrada);
+        for (int i = 0; i < n; i++) {
+            ReorderBufferSlot slot = rob.get(Checkpoint.lerVarInt(entrada));
+            alocar(slot, entrada.readBoolean());
+            Entrada lida = get(i);
+            lida.enderecoConhecido = entrada.readBoolean();
+            lida.endereco = entrada.readInt();
+            lida.valor = Checkpoint.lerFloat(entrada);
+            lida.executada = entrada.readBoolean();
+            lida.fonte = entrada.readLong();
+        }
+    }
+}
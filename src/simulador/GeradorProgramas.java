@@ -0,0 +1,319 @@
+package simulador;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Gerador de programas sintéticos válidos para o InstructionParser.
+ *
+ * Os parâmetros controlam o tamanho do programa, a mistura de classes de
+ * operação, a distância média das dependências verdadeiras (RAW), o
+ * tamanho e o passo da área de memória acessada e a frequência de desvios.
+ * A saída é determinística para uma mesma semente.
+ *
+ * Convenções do código gerado:
+ * - R1..R14 recebem resultados em rodízio, de modo que uma dependência a
+ *   distância d (d < 14) sempre lê o valor produzido d instruções antes;
+ * - R0 (zero) e R15 (constante 15) nunca são escritos: servem de base para
+ *   LOAD/STORE, divisor seguro para DIV e operandos dos desvios;
+ * - BEQ salta sempre para frente, então todo programa gerado termina.
+ */
+public class GeradorProgramas {
+    private static final int PRIMEIRO_REGISTRADOR = 1;
+    private static final int NUM_REGISTRADORES = 14; // R1..R14
+    private static final String REGISTRADOR_CONSTANTE = "R15";
+
+    private int tamanho;
+    private long semente;
+    private double pesoAlu;
+    private double pesoMulDiv;
+    private double pesoLoad;
+    private double pesoStore;
+    private double pesoDesvio;
+    private double distanciaMedia;       // distância média das dependências RAW
+    private int enderecoBase;
+    private int tamanhoMemoria;          // área de memória acessada (em palavras)
+    private int passoMemoria;            // passo entre acessos consecutivos
+    private double probabilidadeTomado;  // probabilidade de um BEQ ser tomado
+    private int saltoMaximo;             // maior distância de um desvio para frente
+
+    public GeradorProgramas() {
+        this.tamanho = 1000;
+        this.semente = 42;
+        this.pesoAlu = 0.5;
+        this.pesoMulDiv = 0.15;
+        this.pesoLoad = 0.15;
+        this.pesoStore = 0.1;
+        this.pesoDesvio = 0.1;
+        this.distanciaMedia = 4.0;
+        this.enderecoBase = 0;
+        this.tamanhoMemoria = 1024;
+        this.passoMemoria = 1;
+        this.probabilidadeTomado = 0.5;
+        this.saltoMaximo = 4;
+    }
+
+    /**
+     * Escreve o programa gerado, uma instrução por linha
+     */
+    public void gerar(Writer destino) throws IOException {
+        BufferedWriter writer = destino instanceof BufferedWriter
+                ? (BufferedWriter) destino : new BufferedWriter(destino);
+        Estado estado = new Estado();
+        StringBuilder linha = new StringBuilder(32);
+        for (int i = 0; i < tamanho; i++) {
+            linha.setLength(0);
+            proximaInstrucao(estado, i, linha);
+            writer.append(linha).append('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Grava o programa gerado em um arquivo
+     */
+    public void gerar(String nomeArquivo) throws IOException {
+        try (Writer writer = new BufferedWriter(new FileWriter(nomeArquivo), 1 << 16)) {
+            gerar(writer);
+        }
+    }
+
+    /**
+     * Gera o programa já convertido em instruções
+     */
+    public List<Instrucao> gerarInstrucoes() {
+        List<Instrucao> instrucoes = new ArrayList<>(tamanho);
+        Estado estado = new Estado();
+        StringBuilder linha = new StringBuilder(32);
+        for (int i = 0; i < tamanho; i++) {
+            linha.setLength(0);
+            proximaInstrucao(estado, i, linha);
+            instrucoes.add(InstructionParser.parsearInstrucao(linha.toString()));
+        }
+        return instrucoes;
+    }
+
+    /*
+     * Estado interno de uma geração (permite gerar várias vezes com o mesmo objeto)
+     */
+    private class Estado {
+        final Random random = new Random(semente);
+        // Registrador escrito por cada uma das últimas instruções (-1 se não escreveu)
+        final int[] escritos = new int[NUM_REGISTRADORES];
+        int proximoDestino = 0;
+        long acessosMemoria = 0;
+
+        Estado() {
+            Arrays.fill(escritos, -1);
+        }
+    }
+
+    private void proximaInstrucao(Estado estado, int indice, StringBuilder linha) {
+        Random random = estado.random;
+        double total = pesoAlu + pesoMulDiv + pesoLoad + pesoStore + pesoDesvio;
+        double sorteio = random.nextDouble() * total;
+        int destino = -1;
+
+        if ((sorteio -= pesoDesvio) < 0 && indice + 1 < tamanho) {
+            // BEQ R0,R0 é sempre tomado; BEQ R0,R15 nunca é tomado
+            boolean tomado = random.nextDouble() < probabilidadeTomado;
+            int salto = 1 + random.nextInt(Math.max(1, saltoMaximo));
+            int alvo = Math.min(indice + 1 + salto, tamanho) + 1; // alvo é 1-based
+            linha.append("BEQ R0,").append(tomado ? "R0" : REGISTRADOR_CONSTANTE).append(',').append(alvo);
+        } else if (sorteio < 0 || (sorteio -= pesoAlu) < 0) {
+            destino = proximoDestino(estado);
+            switch (random.nextInt(4)) {
+                case 0: registradores(linha, "ADD", destino, fonte(estado, indice), fonte(estado, indice)); break;
+                case 1: registradores(linha, "SUB", destino, fonte(estado, indice), fonte(estado, indice)); break;
+                case 2: imediato(linha, "ADDI", destino, fonte(estado, indice), 1 + random.nextInt(16)); break;
+                default: imediato(linha, "SUBI", destino, fonte(estado, indice), 1 + random.nextInt(16)); break;
+            }
+        } else if ((sorteio -= pesoMulDiv) < 0) {
+            destino = proximoDestino(estado);
+            switch (random.nextInt(4)) {
+                case 0: registradores(linha, "MUL", destino, fonte(estado, indice), fonte(estado, indice)); break;
+                case 1: imediato(linha, "MULI", destino, fonte(estado, indice), 1 + random.nextInt(4)); break;
+                case 2: imediato(linha, "DIVI", destino, fonte(estado, indice), 1 + random.nextInt(4)); break;
+                default:
+                    linha.append("DIV R").append(destino).append(",R").append(fonte(estado, indice))
+                            .append(',').append(REGISTRADOR_CONSTANTE);
+            }
+        } else if ((sorteio -= pesoLoad) < 0) {
+            destino = proximoDestino(estado);
+            linha.append("LOAD R").append(destino).append(',').append(proximoEndereco(estado)).append("(R0)");
+        } else {
+            linha.append("STORE R").append(fonte(estado, indice)).append(',')
+                    .append(proximoEndereco(estado)).append("(R0)");
+        }
+
+        // Desloca o histórico de destinos
+        System.arraycopy(estado.escritos, 0, estado.escritos, 1, NUM_REGISTRADORES - 1);
+        estado.escritos[0] = destino;
+    }
+
+    private int proximoDestino(Estado estado) {
+        int destino = PRIMEIRO_REGISTRADOR + estado.proximoDestino;
+        estado.proximoDestino = (estado.proximoDestino + 1) % NUM_REGISTRADORES;
+        return destino;
+    }
+
+    /*
+     * Escolhe um registrador fonte produzido a uma distância sorteada de uma
+     * distribuição geométrica com a média configurada
+     */
+    private int fonte(Estado estado, int indice) {
+        double p = 1.0 / Math.max(1.0, distanciaMedia);
+        int distancia = 1;
+        while (distancia < NUM_REGISTRADORES - 1 && estado.random.nextDouble() >= p) {
+            distancia++;
+        }
+        // Procura a instrução produtora mais próxima a partir da distância sorteada
+        for (int d = distancia; d <= Math.min(indice, NUM_REGISTRADORES - 1); d++) {
+            if (estado.escritos[d - 1] >= 0) {
+                return estado.escritos[d - 1];
+            }
+        }
+        return PRIMEIRO_REGISTRADOR + estado.random.nextInt(NUM_REGISTRADORES);
+    }
+
+    private int proximoEndereco(Estado estado) {
+        long deslocamento = (estado.acessosMemoria++ * passoMemoria) % Math.max(1, tamanhoMemoria);
+        return enderecoBase + (int) deslocamento;
+    }
+
+    private static void registradores(StringBuilder linha, String op, int destino, int r1, int r2) {
+        linha.append(op).append(" R").append(destino).append(",R").append(r1).append(",R").append(r2);
+    }
+
+    private static void imediato(StringBuilder linha, String op, int destino, int r1, int imediato) {
+        linha.append(op).append(" R").append(destino).append(",R").append(r1).append(',').append(imediato);
+    }
+
+    /**
+     * Gera um programa pela linha de comando.
+     *
+     * Uso: java -cp bin simulador.GeradorProgramas --saida prog.txt [--tamanho N] [--semente S]
+     *      [--mistura alu,muldiv,load,store,desvio] [--distancia D] [--base B]
+     *      [--memoria M] [--passo P] [--tomado 0.5] [--salto K]
+     */
+    public static void main(String[] args) throws IOException {
+        GeradorProgramas gerador = new GeradorProgramas();
+        String saida = null;
+        for (int i = 0; i < args.length; i++) {
+            String valor = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--saida": saida = valor; break;
+                case "--tamanho": gerador.setTamanho(Integer.parseInt(valor)); break;
+                case "--semente": gerador.setSemente(Long.parseLong(valor)); break;
+                case "--mistura": gerador.setMistura(valor); break;
+                case "--distancia": gerador.setDistanciaMedia(Double.parseDouble(valor)); break;
+                case "--base": gerador.setEnderecoBase(Integer.parseInt(valor)); break;
+                case "--memoria": gerador.setTamanhoMemoria(Integer.parseInt(valor)); break;
+                case "--passo": gerador.setPassoMemoria(Integer.parseInt(valor)); break;
+                case "--tomado": gerador.setProbabilidadeTomado(Double.parseDouble(valor)); break;
+                case "--salto": gerador.setSaltoMaximo(Integer.parseInt(valor)); break;
+                default:
+                    throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+            }
+            i++;
+        }
+        if (saida == null) {
+            gerador.gerar(new OutputStreamWriter(System.out));
+        } else {
+            gerador.gerar(saida);
+        }
+    }
+
+    /**
+     * Define a mistura de operações no formato "alu,muldiv,load,store,desvio"
+     */
+    public void setMistura(String mistura) {
+        String[] partes = mistura.split(",");
+        if (partes.length != 5) {
+            throw new IllegalArgumentException("Mistura deve ter 5 pesos (alu,muldiv,load,store,desvio): " + mistura);
+        }
+        setMistura(Double.parseDouble(partes[0]), Double.parseDouble(partes[1]),
+                Double.parseDouble(partes[2]), Double.parseDouble(partes[3]),
+                Double.parseDouble(partes[4]));
+    }
+
+    /**
+     * Define os pesos relativos de cada classe de operação
+     */
+    public void setMistura(double alu, double mulDiv, double load, double store, double desvio) {
+        if (alu < 0 || mulDiv < 0 || load < 0 || store < 0 || desvio < 0
+                || alu + mulDiv + load + store + desvio <= 0) {
+            throw new IllegalArgumentException("Pesos da mistura devem ser não negativos e não todos nulos");
+        }
+        this.pesoAlu = alu;
+        this.pesoMulDiv = mulDiv;
+        this.pesoLoad = load;
+        this.pesoStore = store;
+        this.pesoDesvio = desvio;
+    }
+
+    // Getters e Setters
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    public void setTamanho(int tamanho) {
+        this.tamanho = tamanho;
+    }
+
+    public long getSemente() {
+        return semente;
+    }
+
+    public void setSemente(long semente) {
+        this.semente = semente;
+    }
+
+    public double getDistanciaMedia() {
+        return distanciaMedia;
+    }
+
+    public void setDistanciaMedia(double distanciaMedia) {
+        this.distanciaMedia = distanciaMedia;
+    }
+
+    public int getEnderecoBase() {
+        return enderecoBase;
+    }
+
+    public void setEnderecoBase(int enderecoBase) {
+        this.enderecoBase = enderecoBase;
+    }
+
+    public int getTamanhoMemoria() {
+        return tamanhoMemoria;
+    }
+
+    public void setTamanhoMemoria(int tamanhoMemoria) {
+        this.tamanhoMemoria = tamanhoMemoria;
+    }
+
+    public int getPassoMemoria() {
+        return passoMemoria;
+    }
+
+    public void setPassoMemoria(int passoMemoria) {
+        this.passoMemoria = passoMemoria;
+    }
+
+    public double getProbabilidadeTomado() {
+        return probabilidadeTomado;
+    }
+
+    public void setProbabilidadeTomado(double probabilidadeTomado) {
+        this.probabilidadeTomado = probabilidadeTomado;
+    }
+
+    public int getSaltoMaximo() {
+        return saltoMaximo;
+    }
+
+    public void setSaltoMaximo(int saltoMaximo) {
+        this.saltoMaximo = saltoMaximo;
+    }
+}
@@ -0,0 +1,159 @@
+package simulador;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Hierarquia de caches de dados (L1 e, opcionalmente, L2) que define a
+ * latência de cada LOAD e STORE no lugar da latência fixa da instrução.
+ *
+ * Um acerto na L1 custa a latência da L1; uma falta soma a latência da L2 e,
+ * se a L2 também faltar, a da memória. Cada falta da L1 ocupa um MSHR até a
+ * linha chegar, então até numMshrs faltas se sobrepõem; um acesso à mesma
+ * linha de uma falta em andamento (falta secundária) espera só a chegada
+ * dela, sem outro MSHR. Sem MSHR livre, a falta não começa (os acertos
+ * continuam). Um acesso cancelado não libera o seu MSHR antes da linha chegar.
+ */
+public class HierarquiaCache {
+    public static final int ACERTO_L1 = 0;
+    public static final int FALTA_SECUNDARIA = 1; // linha já pedida por um MSHR
+    public static final int ACERTO_L2 = 2;
+    public static final int MEMORIA = 3;          // falta em todos os níveis
+    public static final String[] NOMES_RESULTADOS = {"acertoL1", "faltaSecundaria", "acertoL2", "memoria"};
+
+    private final Cache l1;
+    private final Cache l2; // null = sem L2
+    private final int latenciaL1;
+    private final int latenciaL2;
+    private final int latenciaMemoria;
+    private final int[] linhasMshr;  // linha da L1 pedida por cada MSHR
+    private final int[] prontosMshr; // ciclo em que a linha chega (MSHR livre a partir dele)
+    private int ultimoResultado;
+
+    public HierarquiaCache(ConfiguracaoSimulador configuracao) {
+        PoliticaSubstituicao politica = configuracao.getPoliticaSubstituicao();
+        this.l1 = new Cache("L1", configuracao.getTamanhoL1(), configuracao.getAssociatividadeL1(),
+                configuracao.getLinhaL1(), politica);
+        this.l2 = configuracao.getTamanhoL2() == 0 ? null : new Cache("L2", configuracao.getTamanhoL2(),
+                configuracao.getAssociatividadeL2(), configuracao.getLinhaL2(), politica);
+        this.latenciaL1 = configuracao.getLatenciaL1();
+        this.latenciaL2 = configuracao.getLatenciaL2();
+        this.latenciaMemoria = configuracao.getLatenciaMemoria();
+        this.linhasMshr = new int[configuracao.getNumMshrs()];
+        this.prontosMshr = new int[configuracao.getNumMshrs()];
+    }
+
+    /**
+     * Indica se um acesso ao endereço pode começar no ciclo: acerta na L1,
+     * é falta secundária ou há MSHR livre
+     */
+    public boolean podeAcessar(int endereco, int ciclo) {
+        return mshrDaLinha(l1.linha(endereco), ciclo) >= 0 || l1.contem(endereco) || mshrLivre(ciclo) >= 0;
+    }
+
+    /*
+     * Acessa o endereço no ciclo (podeAcessar precisa ser true); o nível que
+     * atendeu fica em getUltimoResultado
+     * @return ciclos até o valor estar disponível
+     */
+    int acessar(int endereco, int ciclo) {
+        int linha = l1.linha(endereco);
+        int pendente = mshrDaLinha(linha, ciclo);
+        if (pendente >= 0) {
+            l1.acessar(endereco);
+            ultimoResultado = FALTA_SECUNDARIA;
+            return Math.max(latenciaL1, prontosMshr[pendente] - ciclo);
+        }
+        if (l1.acessar(endereco)) {
+            ultimoResultado = ACERTO_L1;
+            return latenciaL1;
+        }
+        int latencia = latenciaL1;
+        if (l2 != null) {
+            latencia += latenciaL2;
+        }
+        if (l2 != null && l2.acessar(endereco)) {
+            ultimoResultado = ACERTO_L2;
+        } else {
+            latencia += latenciaMemoria;
+            ultimoResultado = MEMORIA;
+        }
+        int mshr = mshrLivre(ciclo);
+        linhasMshr[mshr] = linha;
+        prontosMshr[mshr] = ciclo + latencia;
+        return latencia;
+    }
+
+    private int mshrDaLinha(int linha, int ciclo) {
+        for (int i = 0; i < linhasMshr.length; i++) {
+            if (prontosMshr[i] > ciclo && linhasMshr[i] == linha) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int mshrLivre(int ciclo) {
+        for (int i = 0; i < prontosMshr.length; i++) {
+            if (prontosMshr[i] <= ciclo) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * MSHRs com uma falta em andamento no ciclo
+     */
+    public int getMshrsOcupados(int ciclo) {
+        int ocupados = 0;
+        for (int pronto : prontosMshr) {
+            if (pronto > ciclo) {
+                ocupados++;
+            }
+        }
+        return ocupados;
+    }
+
+    void gravarEstado(DataOutput saida) throws IOException {
+        l1.gravarEstado(saida);
+        if (l2 != null) {
+            l2.gravarEstado(saida);
+        }
+        for (int i = 0; i < linhasMshr.length; i++) {
+            saida.writeInt(linhasMshr[i]);
+            saida.writeInt(prontosMshr[i]);
+        }
+    }
+
+    void lerEstado(DataInput entrada) throws IOException {
+        l1.lerEstado(entrada);
+        if (l2 != null) {
+            l2.lerEstado(entrada);
+        }
+        for (int i = 0; i < linhasMshr.length; i++) {
+            linhasMshr[i] = entrada.readInt();
+            prontosMshr[i] = entrada.readInt();
+        }
+    }
+
+    /**
+     * Nível que atendeu o último acesso (ACERTO_L1, FALTA_SECUNDARIA, ACERTO_L2 ou MEMORIA)
+     */
+    public int getUltimoResultado() {
+        return ultimoResultado;
+    }
+
+    public Cache getL1() {
+        return l1;
+    }
+
+    public Cache getL2() {
+        return l2;
+    }
+
+    public int getNumMshrs() {
+        return linhasMshr.length;
+    }
+}
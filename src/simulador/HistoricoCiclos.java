@@ -0,0 +1,253 @@
+package simulador;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Histórico de snapshots em memória de uma simulação, para voltar ciclos
+ * (Simulador.irParaCiclo) sem reexecutar desde o ciclo 0.
+ *
+ * A cada INTERVALO ciclos o estado completo é guardado no mesmo formato do
+ * Checkpoint, com as páginas de memória sujas; páginas iguais às do snapshot
+ * anterior são compartilhadas. Como a simulação é determinística, os ciclos
+ * entre dois snapshots não são guardados: voltar a um ciclo restaura o
+ * snapshot anterior mais próximo e reexecuta no máximo INTERVALO - 1 ciclos.
+ * Quando o número de snapshots ou os bytes passam do limite, metade dos
+ * snapshots é descartada e o intervalo dobra, então a memória usada fica
+ * limitada e o histórico continua cobrindo a simulação inteira.
+ *
+ * O histórico também guarda o ciclo da primeira busca de cada instrução
+ * estática, a partir do qual uma edição dela pode mudar a simulação
+ * (Simulador.atualizarInstrucoes).
+ */
+public class HistoricoCiclos {
+    public static final int INTERVALO_PADRAO = 64;
+    public static final int MAXIMO_SNAPSHOTS_PADRAO = 256;
+    public static final long MAXIMO_BYTES_PADRAO = 64L << 20;
+    private static final int INSTRUCOES_POR_CICLO = 16; // intervalo mínimo = tamanho do programa / 16
+
+    /*
+     * Estado no início de um ciclo
+     */
+    static final class Snapshot {
+        final byte[] estado;
+        final int[] paginas;
+        final float[][] dados; // compartilhados entre snapshots, nunca alterados
+        final int tamanhoLog;
+        final long bytes; // só o que não é compartilhado com o snapshot anterior
+
+        Snapshot(byte[] estado, int[] paginas, float[][] dados, int tamanhoLog, long bytes) {
+            this.estado = estado;
+            this.paginas = paginas;
+            this.dados = dados;
+            this.tamanhoLog = tamanhoLog;
+            this.bytes = bytes;
+        }
+    }
+
+    private final int intervaloInicial;
+    private final int maximoSnapshots;
+    private final long maximoBytes;
+    private int intervalo;
+    private final TreeMap<Integer, Snapshot> snapshots = new TreeMap<>();
+    private long bytes;
+    private int[] primeiraBusca = new int[0]; // ciclo + 1 da primeira busca de cada índice (0 = nunca)
+    private int cicloFuncional = Integer.MAX_VALUE; // primeiro ciclo com execução funcional
+
+    public HistoricoCiclos() {
+        this(INTERVALO_PADRAO, MAXIMO_SNAPSHOTS_PADRAO, MAXIMO_BYTES_PADRAO);
+    }
+
+    public HistoricoCiclos(int intervalo, int maximoSnapshots, long maximoBytes) {
+        if (intervalo <= 0 || maximoSnapshots < 2 || maximoBytes <= 0) {
+            throw new IllegalArgumentException("Histórico inválido: intervalo " + intervalo
+                    + ", " + maximoSnapshots + " snapshots, " + maximoBytes + " bytes");
+        }
+        this.intervaloInicial = intervalo;
+        this.intervalo = intervalo;
+        this.maximoSnapshots = maximoSnapshots;
+        this.maximoBytes = maximoBytes;
+    }
+
+    /*
+     * Chamado pelo Simulador no início de cada ciclo
+     */
+    void registrar(Simulador simulador) {
+        int ciclo = simulador.getCicloAtual();
+        if (snapshots.isEmpty()) {
+            // O snapshot custa tempo proporcional ao programa (estado de cada
+            // instrução): em programas grandes ele é amortizado em mais ciclos
+            while (intervalo < simulador.getTotalInstrucoes() / INSTRUCOES_POR_CICLO) {
+                intervalo *= 2;
+            }
+        }
+        if (ciclo % intervalo != 0 || snapshots.containsKey(ciclo)) {
+            return;
+        }
+        Snapshot snapshot = capturar(simulador, snapshots.floorEntry(ciclo));
+        snapshots.put(ciclo, snapshot);
+        bytes += snapshot.bytes;
+        while ((snapshots.size() > maximoSnapshots || bytes > maximoBytes) && snapshots.size() > 1) {
+            desbastar();
+        }
+    }
+
+    private static Snapshot capturar(Simulador simulador, Map.Entry<Integer, Snapshot> anterior) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (DataOutputStream dados = new DataOutputStream(saida)) {
+            simulador.gravarEstado(dados);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // não ocorre em memória
+        }
+        byte[] estado = saida.toByteArray();
+        long bytes = estado.length;
+
+        Memoria memoria = simulador.getMemoria();
+        int[] paginas = memoria.getPaginasSujas();
+        float[][] copias = new float[paginas.length][];
+        for (int i = 0; i < paginas.length; i++) {
+            float[] pagina = memoria.pagina(paginas[i]);
+            float[] igual = anterior == null ? null : pagina(anterior.getValue(), paginas[i]);
+            if (igual != null && Arrays.equals(igual, pagina)) {
+                copias[i] = igual;
+            } else {
+                copias[i] = pagina.clone();
+                bytes += (long) pagina.length * Float.BYTES;
+            }
+        }
+        return new Snapshot(estado, paginas, copias, simulador.getLogExecucao().size(), bytes);
+    }
+
+    private static float[] pagina(Snapshot snapshot, int numero) {
+        int i = Arrays.binarySearch(snapshot.paginas, numero);
+        return i < 0 ? null : snapshot.dados[i];
+    }
+
+    /*
+     * Dobra o intervalo e descarta os snapshots fora dele (o do ciclo 0 fica)
+     */
+    private void desbastar() {
+        intervalo *= 2;
+        snapshots.keySet().removeIf(ciclo -> ciclo % intervalo != 0);
+        recontarBytes();
+    }
+
+    /*
+     * Bytes contados de novo: uma página compartilhada com um snapshot
+     * descartado passa a contar no seguinte
+     */
+    private void recontarBytes() {
+        bytes = 0;
+        Snapshot anterior = null;
+        for (Snapshot snapshot : snapshots.values()) {
+            bytes += snapshot.estado.length;
+            for (int i = 0; i < snapshot.paginas.length; i++) {
+                if (anterior == null || pagina(anterior, snapshot.paginas[i]) != snapshot.dados[i]) {
+                    bytes += (long) snapshot.dados[i].length * Float.BYTES;
+                }
+            }
+            anterior = snapshot;
+        }
+    }
+
+    /*
+     * Chamado pelo Simulador a cada ciclo em que o issue olha a instrução no
+     * índice (o fim do programa conta como o índice igual ao tamanho)
+     */
+    void registrarBusca(int indice, int ciclo) {
+        if (indice >= primeiraBusca.length) {
+            primeiraBusca = Arrays.copyOf(primeiraBusca, Math.max(indice + 1, 2 * primeiraBusca.length));
+        }
+        if (primeiraBusca[indice] == 0) {
+            primeiraBusca[indice] = ciclo + 1;
+        }
+    }
+
+    /*
+     * A execução funcional busca instruções sem registrar: a partir desse
+     * ciclo qualquer instrução pode ter sido buscada
+     */
+    void registrarExecucaoFuncional(int ciclo) {
+        cicloFuncional = Math.min(cicloFuncional, ciclo);
+    }
+
+    /**
+     * Ciclo em que a instrução no índice foi buscada pela primeira vez (-1 se nunca)
+     */
+    public int getPrimeiraBusca(int indice) {
+        int ciclo = indice < primeiraBusca.length ? primeiraBusca[indice] - 1 : -1;
+        if (cicloFuncional != Integer.MAX_VALUE && (ciclo < 0 || ciclo > cicloFuncional)) {
+            ciclo = cicloFuncional;
+        }
+        return ciclo;
+    }
+
+    /*
+     * Esquece as buscas a partir do ciclo (o programa mudou e elas serão refeitas)
+     */
+    void descartarBuscasDesde(int ciclo) {
+        for (int i = 0; i < primeiraBusca.length; i++) {
+            if (primeiraBusca[i] - 1 >= ciclo) {
+                primeiraBusca[i] = 0;
+            }
+        }
+        if (cicloFuncional >= ciclo) {
+            cicloFuncional = Integer.MAX_VALUE;
+        }
+    }
+
+    /*
+     * Snapshot mais recente no ou antes do ciclo (null se não houver)
+     */
+    Map.Entry<Integer, Snapshot> snapshotAte(int ciclo) {
+        return snapshots.floorEntry(ciclo);
+    }
+
+    /**
+     * Descarta os snapshots depois do ciclo (o estado a partir dele mudou)
+     */
+    public void descartarApos(int ciclo) {
+        snapshots.tailMap(ciclo, false).clear();
+        recontarBytes();
+    }
+
+    /**
+     * Descarta todo o histórico
+     */
+    public void limpar() {
+        snapshots.clear();
+        bytes = 0;
+        intervalo = intervaloInicial;
+        primeiraBusca = new int[0];
+        cicloFuncional = Integer.MAX_VALUE;
+    }
+
+    // Consultas
+
+    public int getIntervalo() {
+        return intervalo;
+    }
+
+    public int getSnapshots() {
+        return snapshots.size();
+    }
+
+    /**
+     * Memória ocupada pelos snapshots (estado e páginas não compartilhadas)
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Ciclo do snapshot mais recente (-1 se vazio)
+     */
+    public int getUltimoCiclo() {
+        return snapshots.isEmpty() ? -1 : snapshots.lastKey();
+    }
+}
@@ -14,6 +14,7 @@ public class Instrucao {
     // Adiciona campo para controle de estado de execução
     private int estadoExecucao = 0; // -1: pulada, 0: nenhuma, 1: lida, 2: executada, 3: resultado escrito, 4: commitada
     private int qtdeExecucoes = 0;
+    private int linhaOrigem = 0; // Linha do arquivo fonte (0 se desconhecida)
     
     public Instrucao(OpCode op, String destino, String reg1, String reg2, int imediato, String instrucaoOriginal) {
         this.op = op;
@@ -121,6 +122,14 @@ public class Instrucao {
         this.instrucaoOriginal = instrucaoOriginal;
     }
 
+    public int getLinhaOrigem() {
+        return linhaOrigem;
+    }
+
+    public void setLinhaOrigem(int linhaOrigem) {
+        this.linhaOrigem = linhaOrigem;
+    }
+
     public int getCiclosDuracao() {
         return ciclosDuracao;
     }
@@ -139,6 +148,14 @@ public class Instrucao {
         this.qtdeExecucoes++;
     }
 
+    /*
+     * Restaura o estado de execução de um checkpoint (sem a validação de setEstadoExecucao)
+     */
+    void restaurarExecucao(int estadoExecucao, int qtdeExecucoes) {
+        this.estadoExecucao = estadoExecucao;
+        this.qtdeExecucoes = qtdeExecucoes;
+    }
+
     public void resetExecucoes() {
         this.qtdeExecucoes = 0;
     }
@@ -149,8 +166,29 @@ public class Instrucao {
     
     @Override
     public String toString() {
-        return instrucaoOriginal != null ? instrucaoOriginal : 
-               String.format("%s %s,%s,%s", op.getNome(), destino, reg1, reg2);
+        return instrucaoOriginal != null ? instrucaoOriginal : textoCanonico();
+    }
+
+    /**
+     * Monta o texto da instrução a partir dos campos (usado quando não há texto
+     * original, por exemplo em programas carregados de um arquivo binário)
+     */
+    public String textoCanonico() {
+        switch (op) {
+            case LOAD:
+                return op.getNome() + " " + destino + "," + imediato + "(" + reg1 + ")";
+            case STORE:
+                return op.getNome() + " " + reg1 + "," + imediato + "(" + reg2 + ")";
+            case BEQ:
+                return op.getNome() + " " + reg1 + "," + reg2 + "," + imediato;
+            case ADDI:
+            case SUBI:
+            case MULI:
+            case DIVI:
+                return op.getNome() + " " + destino + "," + reg1 + "," + imediato;
+            default:
+                return op.getNome() + " " + destino + "," + reg1 + "," + reg2;
+        }
     }
     
     /**
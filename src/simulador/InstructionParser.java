@@ -1,13 +1,33 @@
 package simulador;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.stream.IntStream;
 
 /**
- * Parser responsável por ler e converter instruções MIPS de um arquivo texto
+ * Parser responsável por ler e converter instruções MIPS de um arquivo texto.
+ *
+ * O tokenizador percorre cada linha uma única vez, sem expressões regulares
+ * nem divisões de string. Arquivos grandes são divididos em blocos (sempre em
+ * fronteiras de linha) que são parseados em paralelo e concatenados na ordem
+ * original. Linhas inválidas não interrompem a leitura: geram um Diagnostico
+ * com linha, coluna e mensagem.
  */
 public class InstructionParser {
-    
+    private static final int TAMANHO_BLOCO = 1 << 20; // 1 MiB por bloco paralelo
+    private static final int NUM_REGISTRADORES_CACHE = 64;
+    private static final String[] NOMES_REGISTRADORES = new String[NUM_REGISTRADORES_CACHE];
+    private static final OpCode[] OPCODES = OpCode.values();
+
+    static {
+        for (int i = 0; i < NUM_REGISTRADORES_CACHE; i++) {
+            NOMES_REGISTRADORES[i] = "R" + i;
+        }
+    }
+
     /**
      * Lê instruções de um arquivo texto
      * @param nomeArquivo Nome do arquivo a ser lido
@@ -15,192 +35,422 @@ public class InstructionParser {
      * @throws IOException Se houver erro na leitura do arquivo
      */
     public static List<Instrucao> lerInstrucoes(String nomeArquivo) throws IOException {
-        List<Instrucao> instrucoes = new ArrayList<>();
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(nomeArquivo))) {
-            String linha;
-            int numeroLinha = 0;
-            
-            while ((linha = reader.readLine()) != null) {
-                numeroLinha++;
-                linha = linha.trim();
-                
-                // Ignora linhas vazias e comentários
-                if (linha.isEmpty() || linha.startsWith("#") || linha.startsWith("//")) {
-                    continue;
-                }
-                
-                try {
-                    Instrucao instrucao = parsearInstrucao(linha);
-                    instrucoes.add(instrucao);
-                } catch (Exception e) {
-                    System.err.println("Erro ao parsear linha " + numeroLinha + ": " + linha);
-                    System.err.println("Erro: " + e.getMessage());
-                }
+        ResultadoParser resultado = analisarArquivo(nomeArquivo);
+        for (Diagnostico diagnostico : resultado.getDiagnosticos()) {
+            System.err.println("Erro ao parsear " + diagnostico);
+        }
+        return resultado.getInstrucoes();
+    }
+
+    /**
+     * Lê um arquivo e devolve as instruções válidas junto com todos os diagnósticos
+     * @param nomeArquivo Nome do arquivo a ser lido
+     * @throws IOException Se houver erro na leitura do arquivo
+     */
+    public static ResultadoParser analisarArquivo(String nomeArquivo) throws IOException {
+        return analisar(Files.readAllBytes(Paths.get(nomeArquivo)));
+    }
+
+    /**
+     * Parseia o conteúdo de um programa (texto ASCII/UTF-8)
+     */
+    public static ResultadoParser analisar(byte[] dados) {
+        // Divide o conteúdo em blocos terminados em quebra de linha
+        List<Integer> limites = new ArrayList<>();
+        limites.add(0);
+        int posicao = TAMANHO_BLOCO;
+        while (posicao < dados.length) {
+            while (posicao < dados.length && dados[posicao - 1] != '\n') {
+                posicao++;
+            }
+            if (posicao < dados.length) {
+                limites.add(posicao);
             }
+            posicao += TAMANHO_BLOCO;
         }
-        
-        return instrucoes;
+        limites.add(dados.length);
+
+        int numBlocos = limites.size() - 1;
+        Bloco[] blocos = new Bloco[numBlocos];
+        if (numBlocos == 1) {
+            blocos[0] = analisarBloco(dados, 0, dados.length);
+        } else {
+            IntStream.range(0, numBlocos).parallel()
+                    .forEach(i -> blocos[i] = analisarBloco(dados, limites.get(i), limites.get(i + 1)));
+        }
+
+        // Junta os blocos na ordem original, corrigindo os números de linha
+        int totalInstrucoes = 0;
+        for (Bloco bloco : blocos) {
+            totalInstrucoes += bloco.instrucoes.size();
+        }
+        List<Instrucao> instrucoes = new ArrayList<>(totalInstrucoes);
+        List<Diagnostico> diagnosticos = new ArrayList<>();
+        int linhaBase = 0;
+        for (Bloco bloco : blocos) {
+            for (Instrucao instrucao : bloco.instrucoes) {
+                instrucao.setLinhaOrigem(instrucao.getLinhaOrigem() + linhaBase);
+                instrucoes.add(instrucao);
+            }
+            for (Diagnostico d : bloco.diagnosticos) {
+                diagnosticos.add(new Diagnostico(d.getLinha() + linhaBase, d.getColuna(), d.getMensagem()));
+            }
+            linhaBase += bloco.linhas;
+        }
+        return new ResultadoParser(instrucoes, diagnosticos, linhaBase);
     }
-    
+
     /**
      * Parseia uma única linha de instrução
      * @param linha Linha de texto contendo a instrução
      * @return Instrução parseada
+     * @throws IllegalArgumentException Se a linha não contiver uma instrução válida
      */
     public static Instrucao parsearInstrucao(String linha) {
-        linha = linha.trim().toUpperCase();
-        
-        // Remove vírgulas extras e espaços
-        // Antes: ADD  R1,  R2, R3
-        linha = linha.replaceAll("\\s+", " "); 
-        // Depois: ADD R1, R2, R3
-
-
-        String[] partes = linha.split("\\s+", 2);
-        if (partes.length < 2) {
-            throw new IllegalArgumentException("Formato de instrução inválido: " + linha);
-        }
-        //Parte 0: ADD
-        String mnemonico = partes[0];
-        //Parte 1: R1, R2, R3
-        String operandos = partes[1];
-        
-        OpCode op = OpCode.fromString(mnemonico);
-        //System.out.println("Parseando instrução: " + op.toString() + " com operandos: " + operandos);
-        // Remove espaços ao redor das vírgulas
-        // Antes: R1,  R2,  R3
-        operandos = operandos.replaceAll("\\s*,\\s*", ",");
-        // Depois: R1,R2,R3
-        
-        switch (op) {
-            case LOAD:
-                return parsearLoad(op, operandos, linha);
-            case STORE:
-                return parsearStore(op, operandos, linha);
-            case BEQ:
-                return parsearBranch(op, operandos, linha);
-            case ADDI:
-            case SUBI:
-            case MULI:
-            case DIVI:
-                return parsearImediato(op, operandos, linha);
-            case ADD:
-            case SUB:
-            case MUL:
-            case DIV:
-                return parsearRegistrador(op, operandos, linha);
-            default:
-                throw new IllegalArgumentException("Operação não suportada: " + mnemonico);
+        byte[] dados = linha.getBytes(StandardCharsets.UTF_8);
+        Tokenizador tokenizador = new Tokenizador(dados);
+        try {
+            Instrucao instrucao = tokenizador.linha(0, dados.length);
+            if (instrucao == null) {
+                throw new IllegalArgumentException("Formato de instrução inválido: " + linha);
+            }
+            return instrucao;
+        } catch (ErroSintaxe e) {
+            throw new IllegalArgumentException(e.getMessage() + " (coluna " + e.coluna + "): " + linha);
         }
     }
-    
+
     /**
-     * Parseia instruções LOAD (ex: LOAD R1,100(R2))
+     * Nome do registrador de número n ("R" + n), compartilhado entre instruções
      */
-    private static Instrucao parsearLoad(OpCode op, String operandos, String linha) {
-        String[] partes = operandos.split(",", 2);
-        if (partes.length != 2) {
-            throw new IllegalArgumentException("Formato LOAD inválido: " + linha);
-        }
-        
-        String destino = partes[0].trim();
-        String enderecoStr = partes[1].trim();
-        
-        // Parseia formato: imediato(registrador)
-        if (enderecoStr.contains("(") && enderecoStr.contains(")")) {
-            int abreParenteses = enderecoStr.indexOf('(');
-            int fechaParenteses = enderecoStr.indexOf(')');
-            
-            String imediatoStr = enderecoStr.substring(0, abreParenteses);
-            String reg1 = enderecoStr.substring(abreParenteses + 1, fechaParenteses);
-            
-            int imediato = Integer.parseInt(imediatoStr);
-            return new Instrucao(op, destino, reg1, imediato, linha);
-        } else {
-            throw new IllegalArgumentException("Formato de endereço LOAD inválido: " + linha);
-        }
+    static String nomeRegistrador(int numero) {
+        return numero < NUM_REGISTRADORES_CACHE ? NOMES_REGISTRADORES[numero] : "R" + numero;
     }
-    
+
     /**
-     * Parseia instruções STORE (ex: STORE R1,100(R2))
+     * Número de um registrador no formato "Rn" (sem alocar)
      */
-    private static Instrucao parsearStore(OpCode op, String operandos, String linha) {
-        String[] partes = operandos.split(",", 2);
-        if (partes.length != 2) {
-            throw new IllegalArgumentException("Formato STORE inválido: " + linha);
-        }
-        
-        String reg1 = partes[0].trim(); // Registrador com o valor a ser armazenado
-        String enderecoStr = partes[1].trim();
-        
-        // Parseia formato: imediato(registrador)
-        if (enderecoStr.contains("(") && enderecoStr.contains(")")) {
-            int abreParenteses = enderecoStr.indexOf('(');
-            int fechaParenteses = enderecoStr.indexOf(')');
-            
-            String imediatoStr = enderecoStr.substring(0, abreParenteses);
-            String rt = enderecoStr.substring(abreParenteses + 1, fechaParenteses);
-            
-            int imediato = Integer.parseInt(imediatoStr);
-            return new Instrucao(op, null, reg1, rt, imediato, linha); // STORE não tem destino
-        } else {
-            throw new IllegalArgumentException("Formato de endereço STORE inválido: " + linha);
+    static int numeroRegistrador(String nome) {
+        int numero = 0;
+        for (int i = 1; i < nome.length(); i++) {
+            numero = numero * 10 + (nome.charAt(i) - '0');
         }
+        return numero;
     }
-    
-    /**
-     * Parseia instruções de branch (ex: BEQ R1,R2,100)
+
+    /*
+     * Instruções e diagnósticos de um bloco, com linhas relativas ao início do bloco
      */
-    private static Instrucao parsearBranch(OpCode op, String operandos, String linha) {
-        String[] partes = operandos.split(",");
-        if (partes.length != 3) {
-            throw new IllegalArgumentException("Formato BEQ inválido: " + linha);
-        }
-        
-        String reg1 = partes[0].trim();
-        String rt = partes[1].trim();
-        int imediato = Integer.parseInt(partes[2].trim());
-        
-        return new Instrucao(op, null, reg1, rt, imediato, linha); // BEQ não tem destino
+    private static class Bloco {
+        final List<Instrucao> instrucoes = new ArrayList<>();
+        final List<Diagnostico> diagnosticos = new ArrayList<>();
+        int linhas;
     }
-    
-    /**
-     * Parseia instruções com valor imediato (ex: ADDI R1,R2,100)
-     */
-    private static Instrucao parsearImediato(OpCode op, String operandos, String linha) {
-        String[] partes = operandos.split(",");
-        if (partes.length != 3) {
-            throw new IllegalArgumentException("Formato de instrução imediata inválido: " + linha);
-        }
-        
-        String destino = partes[0].trim();
-        String reg1 = partes[1].trim();
-        int imediato = Integer.parseInt(partes[2].trim());
-        
-        return new Instrucao(op, destino, reg1, imediato, linha);
+
+    private static Bloco analisarBloco(byte[] dados, int inicio, int fim) {
+        Bloco bloco = new Bloco();
+        Tokenizador tokenizador = new Tokenizador(dados);
+        int inicioLinha = inicio;
+        while (inicioLinha < fim) {
+            int fimLinha = inicioLinha;
+            while (fimLinha < fim && dados[fimLinha] != '\n') {
+                fimLinha++;
+            }
+            bloco.linhas++;
+            try {
+                Instrucao instrucao = tokenizador.linha(inicioLinha, fimLinha);
+                if (instrucao != null) {
+                    instrucao.setLinhaOrigem(bloco.linhas);
+                    bloco.instrucoes.add(instrucao);
+                }
+            } catch (ErroSintaxe e) {
+                bloco.diagnosticos.add(new Diagnostico(bloco.linhas, e.coluna, e.getMessage()));
+            }
+            inicioLinha = fimLinha + 1;
+        }
+        return bloco;
     }
-    
-    /**
-     * Pareg1eia instruções com três registradores (ex: ADD R1,R2,R3)
+
+    /*
+     * Erro de sintaxe sem pilha de chamadas (usado apenas para desviar o fluxo)
      */
-    private static Instrucao parsearRegistrador(OpCode op, String operandos, String linha) {
-        String[] partes = operandos.split(",");
-        if (partes.length != 3) {
-            throw new IllegalArgumentException("Formato de instrução de registrador inválido: " + linha);
-        }
-        
-        String destino = partes[0].trim();
-        String reg1 = partes[1].trim();
-        String rt = partes[2].trim();
-        
-        return new Instrucao(op, destino, reg1, rt, linha);
+    private static class ErroSintaxe extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int coluna;
+
+        ErroSintaxe(int coluna, String mensagem) {
+            super(mensagem, null, false, false);
+            this.coluna = coluna;
+        }
     }
-    
-    /**
-     * Valida se uma string é um registrador válido (formato Rx)
+
+    /*
+     * Tokenizador de passada única sobre os bytes de uma linha
      */
-    private static boolean isRegistradorValido(String reg) {
-        return reg.matches("R\\d+");
+    private static class Tokenizador {
+        private final byte[] dados;
+        private final StringBuilder texto = new StringBuilder(32);
+        private int pos;
+        private int inicioLinha;
+        private int fimLinha;
+
+        Tokenizador(byte[] dados) {
+            this.dados = dados;
+        }
+
+        /**
+         * Parseia a linha [inicio, fim)
+         * @return a instrução, ou null se a linha for vazia ou comentário
+         */
+        Instrucao linha(int inicio, int fim) {
+            inicioLinha = inicio;
+            pos = inicio;
+            fimLinha = fimSemComentario(inicio, fim);
+            pularEspacos();
+            if (pos >= fimLinha) {
+                return null;
+            }
+
+            OpCode op = mnemonico();
+            if (pos >= fimLinha || !espaco(dados[pos])) {
+                throw erro("operandos esperados após " + op.getNome());
+            }
+            pularEspacos();
+
+            String destino;
+            String reg1;
+            String reg2;
+            int imediato;
+            Instrucao instrucao;
+            switch (op) {
+                case LOAD:
+                    // LOAD R1,100(R2)
+                    destino = registrador();
+                    virgula();
+                    imediato = imediatoOpcional();
+                    reg1 = registradorEntreParenteses();
+                    instrucao = new Instrucao(op, destino, reg1, null, imediato, null);
+                    break;
+                case STORE:
+                    // STORE R1,100(R2): R1 é o valor, R2 a base
+                    reg1 = registrador();
+                    virgula();
+                    imediato = imediatoOpcional();
+                    reg2 = registradorEntreParenteses();
+                    instrucao = new Instrucao(op, null, reg1, reg2, imediato, null);
+                    break;
+                case BEQ:
+                    // BEQ R1,R2,10
+                    reg1 = registrador();
+                    virgula();
+                    reg2 = registrador();
+                    virgula();
+                    imediato = inteiro();
+                    instrucao = new Instrucao(op, null, reg1, reg2, imediato, null);
+                    break;
+                case ADDI:
+                case SUBI:
+                case MULI:
+                case DIVI:
+                    // ADDI R1,R2,100
+                    destino = registrador();
+                    virgula();
+                    reg1 = registrador();
+                    virgula();
+                    imediato = inteiro();
+                    instrucao = new Instrucao(op, destino, reg1, null, imediato, null);
+                    break;
+                default:
+                    // ADD R1,R2,R3
+                    destino = registrador();
+                    virgula();
+                    reg1 = registrador();
+                    virgula();
+                    reg2 = registrador();
+                    instrucao = new Instrucao(op, destino, reg1, reg2, 0, null);
+            }
+            pularEspacos();
+            if (pos < fimLinha) {
+                throw erro("texto inesperado após a instrução");
+            }
+            instrucao.setInstrucaoOriginal(textoNormalizado(inicio));
+            return instrucao;
+        }
+
+        /*
+         * Fim útil da linha: antes de '#', '//' ou '\r' final
+         */
+        private int fimSemComentario(int inicio, int fim) {
+            for (int i = inicio; i < fim; i++) {
+                byte c = dados[i];
+                if (c == '#' || (c == '/' && i + 1 < fim && dados[i + 1] == '/')) {
+                    fim = i;
+                    break;
+                }
+            }
+            while (fim > inicio && espaco(dados[fim - 1])) {
+                fim--;
+            }
+            return fim;
+        }
+
+        private OpCode mnemonico() {
+            int inicio = pos;
+            while (pos < fimLinha && letra(dados[pos])) {
+                pos++;
+            }
+            if (pos == inicio) {
+                throw erro("mnemônico esperado");
+            }
+            int tamanho = pos - inicio;
+            for (OpCode op : OPCODES) {
+                String nome = op.getNome();
+                if (nome.length() == tamanho && mesmasLetras(nome, inicio)) {
+                    return op;
+                }
+            }
+            pos = inicio;
+            throw erro("operação não suportada: " + new String(dados, inicio, tamanho, StandardCharsets.UTF_8));
+        }
+
+        private boolean mesmasLetras(String nome, int inicio) {
+            for (int i = 0; i < nome.length(); i++) {
+                if (maiuscula(dados[inicio + i]) != nome.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String registrador() {
+            if (pos >= fimLinha || maiuscula(dados[pos]) != 'R') {
+                throw erro("registrador esperado");
+            }
+            int inicio = pos;
+            pos++;
+            if (pos >= fimLinha || !digito(dados[pos])) {
+                pos = inicio;
+                throw erro("número do registrador esperado");
+            }
+            int numero = 0;
+            while (pos < fimLinha && digito(dados[pos])) {
+                numero = numero * 10 + (dados[pos] - '0');
+                if (numero >= 1000) {
+                    pos = inicio;
+                    throw erro("número de registrador inválido");
+                }
+                pos++;
+            }
+            pularEspacos();
+            return nomeRegistrador(numero);
+        }
+
+        private String registradorEntreParenteses() {
+            esperar('(');
+            String reg = registrador();
+            esperar(')');
+            return reg;
+        }
+
+        private int imediatoOpcional() {
+            if (pos < fimLinha && dados[pos] == '(') {
+                return 0;
+            }
+            return inteiro();
+        }
+
+        private int inteiro() {
+            int inicio = pos;
+            boolean negativo = false;
+            if (pos < fimLinha && (dados[pos] == '-' || dados[pos] == '+')) {
+                negativo = dados[pos] == '-';
+                pos++;
+            }
+            if (pos >= fimLinha || !digito(dados[pos])) {
+                pos = inicio;
+                throw erro("valor imediato esperado");
+            }
+            long valor = 0;
+            while (pos < fimLinha && digito(dados[pos])) {
+                valor = valor * 10 + (dados[pos] - '0');
+                if (valor > (long) Integer.MAX_VALUE + 1) {
+                    pos = inicio;
+                    throw erro("valor imediato fora do intervalo de int");
+                }
+                pos++;
+            }
+            valor = negativo ? -valor : valor;
+            if (valor > Integer.MAX_VALUE) {
+                pos = inicio;
+                throw erro("valor imediato fora do intervalo de int");
+            }
+            pularEspacos();
+            return (int) valor;
+        }
+
+        private void virgula() {
+            esperar(',');
+        }
+
+        private void esperar(char c) {
+            pularEspacos();
+            if (pos >= fimLinha || dados[pos] != c) {
+                throw erro("'" + c + "' esperado");
+            }
+            pos++;
+            pularEspacos();
+        }
+
+        private void pularEspacos() {
+            while (pos < fimLinha && espaco(dados[pos])) {
+                pos++;
+            }
+        }
+
+        /*
+         * Texto da instrução em maiúsculas, com espaços consecutivos reduzidos a um
+         */
+        private String textoNormalizado(int inicio) {
+            texto.setLength(0);
+            int i = inicio;
+            while (espaco(dados[i])) {
+                i++;
+            }
+            boolean espacoAnterior = false;
+            for (; i < fimLinha; i++) {
+                byte c = dados[i];
+                if (espaco(c)) {
+                    espacoAnterior = true;
+                    continue;
+                }
+                if (espacoAnterior) {
+                    texto.append(' ');
+                    espacoAnterior = false;
+                }
+                texto.append(maiuscula(c));
+            }
+            return texto.toString();
+        }
+
+        private ErroSintaxe erro(String mensagem) {
+            return new ErroSintaxe(pos - inicioLinha + 1, mensagem);
+        }
+
+        private static boolean espaco(byte c) {
+            return c == ' ' || c == '\t' || c == '\r';
+        }
+
+        private static boolean letra(byte c) {
+            return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+        }
+
+        private static boolean digito(byte c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static char maiuscula(byte c) {
+            return (char) (c >= 'a' && c <= 'z' ? c - ('a' - 'A') : c & 0xFF);
+        }
     }
 }
@@ -0,0 +1,138 @@
+package simulador;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Memória de dados (palavras float endereçadas por inteiro), compartilhada
+ * entre o Simulador e o EmuladorFuncional.
+ *
+ * É esparsa, dividida em páginas de TAMANHO_PAGINA palavras alocadas na
+ * primeira escrita; endereços nunca escritos valem 0. A última página acessada
+ * fica em cache, então acessos sequenciais não consultam o mapa de páginas.
+ * As páginas escritas depois do estado inicial ficam marcadas como sujas, e
+ * só elas precisam ir para um checkpoint.
+ */
+public class Memoria {
+    public static final int BITS_PAGINA = 10;
+    public static final int TAMANHO_PAGINA = 1 << BITS_PAGINA;
+    private static final int MASCARA = TAMANHO_PAGINA - 1;
+
+    private final Map<Integer, float[]> paginas = new HashMap<>();
+    private final Set<Integer> sujas = new HashSet<>();
+    private int numeroCache = Integer.MIN_VALUE;
+    private float[] paginaCache;
+    private int numeroSuja = Integer.MIN_VALUE; // última página marcada como suja
+
+    /**
+     * Memória no estado inicial da simulação: endereço i vale i para 0 <= i < 1024
+     */
+    public static Memoria inicial() {
+        Memoria memoria = new Memoria();
+        for (int i = 0; i < 1024; i++) {
+            memoria.escrever(i, i);
+        }
+        memoria.sujas.clear();
+        memoria.numeroSuja = Integer.MIN_VALUE;
+        return memoria;
+    }
+
+    public float ler(int endereco) {
+        int numero = endereco >> BITS_PAGINA;
+        if (numero != numeroCache) {
+            float[] pagina = paginas.get(numero);
+            if (pagina == null) {
+                return 0.0f;
+            }
+            numeroCache = numero;
+            paginaCache = pagina;
+        }
+        return paginaCache[endereco & MASCARA];
+    }
+
+    public void escrever(int endereco, float valor) {
+        int numero = endereco >> BITS_PAGINA;
+        if (numero != numeroCache) {
+            paginaCache = paginas.computeIfAbsent(numero, n -> new float[TAMANHO_PAGINA]);
+            numeroCache = numero;
+        }
+        if (numero != numeroSuja) {
+            sujas.add(numero);
+            numeroSuja = numero;
+        }
+        paginaCache[endereco & MASCARA] = valor;
+    }
+
+    /**
+     * Cópia independente (só as páginas alocadas são copiadas)
+     */
+    public Memoria copiar() {
+        Memoria copia = new Memoria();
+        for (Map.Entry<Integer, float[]> pagina : paginas.entrySet()) {
+            copia.paginas.put(pagina.getKey(), pagina.getValue().clone());
+        }
+        copia.sujas.addAll(sujas);
+        return copia;
+    }
+
+    public int getPaginasAlocadas() {
+        return paginas.size();
+    }
+
+    /**
+     * Números das páginas escritas desde o estado inicial, em ordem crescente
+     */
+    public int[] getPaginasSujas() {
+        return sujas.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    /*
+     * Conteúdo de uma página alocada (a própria página, não uma cópia)
+     */
+    float[] pagina(int numero) {
+        return paginas.get(numero);
+    }
+
+    /*
+     * Substitui o conteúdo de uma página e a marca como suja
+     */
+    void restaurarPagina(int numero, float[] dados) {
+        paginas.put(numero, dados);
+        sujas.add(numero);
+        numeroCache = Integer.MIN_VALUE;
+        numeroSuja = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Endereços cujo conteúdo difere (bit a bit) da outra memória, em ordem
+     * crescente, até o limite
+     */
+    public List<Integer> diferencas(Memoria outra, int limite) {
+        List<Integer> enderecos = new ArrayList<>();
+        if (limite <= 0) {
+            return enderecos;
+        }
+        TreeSet<Integer> numeros = new TreeSet<>(paginas.keySet());
+        numeros.addAll(outra.paginas.keySet());
+        for (int numero : numeros) {
+            float[] a = paginas.get(numero);
+            float[] b = outra.paginas.get(numero);
+            for (int i = 0; i < TAMANHO_PAGINA; i++) {
+                float va = a == null ? 0.0f : a[i];
+                float vb = b == null ? 0.0f : b[i];
+                if (Float.floatToIntBits(va) != Float.floatToIntBits(vb)) {
+                    enderecos.add((numero << BITS_PAGINA) | i);
+                    if (enderecos.size() >= limite) {
+                        return enderecos;
+                    }
+                }
+            }
+        }
+        return enderecos;
+    }
+}
@@ -0,0 +1,217 @@
+package simulador;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Modelo de energia baseado em atividade: cada EventoAtividade custa uma
+ * energia fixa (pJ) e cada ciclo custa uma energia estática (fuga e relógio).
+ *
+ * Combinado com os contadores de uma simulação, dá a energia por instrução e
+ * a potência média na frequência configurada, para comparar configurações por
+ * desempenho por watt. A tabela pode ser carregada de um arquivo com uma linha
+ * "chave = valor" por evento (chaves de EventoAtividade.getChave(), mais
+ * "estatica" em pJ/ciclo e "frequenciaGHz"); linhas vazias e começando com
+ * '#' são ignoradas, e eventos ausentes mantêm a energia padrão.
+ */
+public class ModeloEnergia {
+    private static final EventoAtividade[] EVENTOS = EventoAtividade.values();
+
+    private final double[] energia = new double[EVENTOS.length]; // pJ por evento
+    private double energiaEstatica = 15.0; // pJ por ciclo
+    private double frequenciaGHz = 2.0;
+
+    public ModeloEnergia() {
+        for (EventoAtividade evento : EVENTOS) {
+            energia[evento.ordinal()] = evento.getEnergiaPadrao();
+        }
+    }
+
+    /**
+     * Carrega uma tabela de energia de um arquivo texto
+     */
+    public static ModeloEnergia carregar(String arquivo) throws IOException {
+        ModeloEnergia modelo = new ModeloEnergia();
+        try (BufferedReader leitor = Files.newBufferedReader(Paths.get(arquivo), StandardCharsets.UTF_8)) {
+            String linha;
+            int numero = 0;
+            while ((linha = leitor.readLine()) != null) {
+                numero++;
+                linha = linha.trim();
+                if (linha.isEmpty() || linha.startsWith("#")) {
+                    continue;
+                }
+                int igual = linha.indexOf('=');
+                if (igual < 0) {
+                    throw new IOException(arquivo + ":" + numero + ": esperado chave = valor");
+                }
+                try {
+                    modelo.definir(linha.substring(0, igual).trim(),
+                            Double.parseDouble(linha.substring(igual + 1).trim()));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(arquivo + ":" + numero + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return modelo;
+    }
+
+    /**
+     * Define a energia de um evento (pela chave), "estatica" ou "frequenciaGHz"
+     */
+    public void definir(String chave, double valor) {
+        if (valor < 0 || Double.isNaN(valor) || Double.isInfinite(valor)) {
+            throw new IllegalArgumentException("Valor inválido para " + chave + ": " + valor);
+        }
+        switch (chave) {
+            case "estatica": energiaEstatica = valor; return;
+            case "frequenciaGHz":
+                if (valor == 0) {
+                    throw new IllegalArgumentException("Frequência deve ser positiva");
+                }
+                frequenciaGHz = valor;
+                return;
+            default:
+                for (EventoAtividade evento : EVENTOS) {
+                    if (evento.getChave().equals(chave)) {
+                        energia[evento.ordinal()] = valor;
+                        return;
+                    }
+                }
+                throw new IllegalArgumentException("Chave de energia desconhecida: " + chave);
+        }
+    }
+
+    public double getEnergia(EventoAtividade evento) {
+        return energia[evento.ordinal()];
+    }
+
+    public void setEnergia(EventoAtividade evento, double picojoules) {
+        energia[evento.ordinal()] = picojoules;
+    }
+
+    public double getEnergiaEstatica() {
+        return energiaEstatica;
+    }
+
+    public void setEnergiaEstatica(double picojoulesPorCiclo) {
+        this.energiaEstatica = picojoulesPorCiclo;
+    }
+
+    public double getFrequenciaGHz() {
+        return frequenciaGHz;
+    }
+
+    public void setFrequenciaGHz(double frequenciaGHz) {
+        this.frequenciaGHz = frequenciaGHz;
+    }
+
+    // Estimativas
+
+    /**
+     * Energia dos acessos às estruturas (pJ)
+     */
+    public double energiaDinamica(ContadoresAtividade atividade) {
+        double total = 0;
+        for (EventoAtividade evento : EVENTOS) {
+            total += atividade.getContagem(evento) * energia[evento.ordinal()];
+        }
+        return total;
+    }
+
+    /**
+     * Energia dinâmica mais a estática dos ciclos simulados (pJ)
+     */
+    public double energiaTotal(ContadoresAtividade atividade, long ciclos) {
+        return energiaDinamica(atividade) + energiaEstatica * ciclos;
+    }
+
+    /**
+     * Energia por instrução commitada (pJ)
+     */
+    public double energiaPorInstrucao(ContadoresAtividade atividade, long ciclos, long instrucoes) {
+        return instrucoes == 0 ? 0.0 : energiaTotal(atividade, ciclos) / instrucoes;
+    }
+
+    /**
+     * Potência média na frequência configurada (mW = pJ/ns)
+     */
+    public double potenciaMedia(ContadoresAtividade atividade, long ciclos) {
+        return ciclos == 0 ? 0.0 : energiaTotal(atividade, ciclos) * frequenciaGHz / ciclos;
+    }
+
+    /**
+     * Desempenho por watt: milhões de instruções por segundo por watt (= instruções por µJ)
+     */
+    public double mipsPorWatt(ContadoresAtividade atividade, long ciclos, long instrucoes) {
+        double total = energiaTotal(atividade, ciclos);
+        return total == 0 ? 0.0 : instrucoes / total * 1e6;
+    }
+
+    /**
+     * Relatório de energia por estrutura, com IPC, energia por instrução e
+     * potência (ciclos, instruções e IPC são os do simulador)
+     */
+    public String relatorio(Simulador simulador) {
+        ContadoresAtividade atividade = simulador.getAtividade();
+        long ciclos = simulador.getTotalCiclos();
+        long instrucoes = simulador.getInstrucoesExecutadas();
+        double total = energiaTotal(atividade, ciclos);
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Energia estimada: %.3f nJ (%d ciclos a %.2f GHz)%n",
+                total / 1000, ciclos, frequenciaGHz));
+        for (EventoAtividade evento : EVENTOS) {
+            double parcela = atividade.getContagem(evento) * energia[evento.ordinal()];
+            sb.append(String.format(Locale.ROOT, "  %-45s %12d  %12.3f nJ  %5.1f%%%n",
+                    evento.getDescricao(), atividade.getContagem(evento), parcela / 1000,
+                    total == 0 ? 0.0 : 100 * parcela / total));
+        }
+        double estatica = energiaEstatica * ciclos;
+        sb.append(String.format(Locale.ROOT, "  %-45s %12d  %12.3f nJ  %5.1f%%%n",
+                "Estática (por ciclo)", ciclos, estatica / 1000, total == 0 ? 0.0 : 100 * estatica / total));
+        sb.append(String.format(Locale.ROOT, "IPC: %.4f  Energia/instrução: %.2f pJ  Potência média: %.2f mW"
+                        + "  Desempenho/watt: %.1f MIPS/W%n",
+                simulador.calcularIPC(), energiaPorInstrucao(atividade, ciclos, instrucoes),
+                potenciaMedia(atividade, ciclos), mipsPorWatt(atividade, ciclos, instrucoes)));
+        return sb.toString();
+    }
+
+    /**
+     * Exporta a estimativa em JSON
+     */
+    public String paraJson(Simulador simulador) {
+        ContadoresAtividade atividade = simulador.getAtividade();
+        long ciclos = simulador.getTotalCiclos();
+        long instrucoes = simulador.getInstrucoesExecutadas();
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"ciclos\": ").append(ciclos).append(",\n");
+        sb.append("  \"instrucoesCommitadas\": ").append(instrucoes).append(",\n");
+        sb.append("  \"ipc\": ").append(numero(simulador.calcularIPC())).append(",\n");
+        sb.append("  \"frequenciaGHz\": ").append(numero(frequenciaGHz)).append(",\n");
+        sb.append("  \"energiaTotalPj\": ").append(numero(energiaTotal(atividade, ciclos))).append(",\n");
+        sb.append("  \"energiaEstaticaPj\": ").append(numero(energiaEstatica * ciclos)).append(",\n");
+        sb.append("  \"energiaPorInstrucaoPj\": ")
+                .append(numero(energiaPorInstrucao(atividade, ciclos, instrucoes))).append(",\n");
+        sb.append("  \"potenciaMediaMw\": ").append(numero(potenciaMedia(atividade, ciclos))).append(",\n");
+        sb.append("  \"mipsPorWatt\": ").append(numero(mipsPorWatt(atividade, ciclos, instrucoes))).append(",\n");
+        sb.append("  \"eventos\": {");
+        for (int i = 0; i < EVENTOS.length; i++) {
+            sb.append(i == 0 ? "\n" : ",\n");
+            sb.append("    \"").append(EVENTOS[i].getChave()).append("\": {\"contagem\": ")
+                    .append(atividade.getContagem(EVENTOS[i])).append(", \"energiaPj\": ")
+                    .append(numero(atividade.getContagem(EVENTOS[i]) * energia[i])).append("}");
+        }
+        sb.append("\n  }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static String numero(double valor) {
+        return String.format(Locale.ROOT, "%.6f", valor);
+    }
+}
@@ -0,0 +1,51 @@
+package simulador;
+
+/**
+ * Recebe os eventos de pipeline de cada instrução durante a simulação.
+ *
+ * Os métodos são chamados pela thread da simulação, no ciclo em que o evento
+ * acontece; o slot identifica a instrução dinâmica (getSequencia) e a
+ * posição dela no programa (getIndicePrograma). Todos os métodos têm
+ * implementação vazia, então basta sobrescrever os eventos de interesse.
+ */
+public interface ObservadorPipeline {
+
+    /** Instrução emitida para uma estação de reserva e alocada no ROB */
+    default void aoEmitir(ReorderBufferSlot slot, int ciclo) {
+    }
+
+    /** Primeiro ciclo de execução na unidade funcional */
+    default void aoIniciarExecucao(ReorderBufferSlot slot, int ciclo) {
+    }
+
+    /** Último ciclo de execução */
+    default void aoTerminarExecucao(ReorderBufferSlot slot, int ciclo) {
+    }
+
+    /** Resultado escrito (CDB) */
+    default void aoEscreverResultado(ReorderBufferSlot slot, int ciclo) {
+    }
+
+    /** Instrução retirada da cabeça do ROB */
+    default void aoCommit(ReorderBufferSlot slot, int ciclo) {
+    }
+
+    /** Instrução cancelada (caminho errado de um desvio ou replay de memória) */
+    default void aoCancelar(ReorderBufferSlot slot, int ciclo) {
+    }
+
+    /**
+     * Instrução cancelada, com a causa (FLUSH_DESVIO ou REPLAY_MEMORIA);
+     * por padrão repassa para aoCancelar(slot, ciclo)
+     */
+    default void aoCancelar(ReorderBufferSlot slot, int ciclo, ComponenteCPI causa) {
+        aoCancelar(slot, ciclo);
+    }
+
+    /**
+     * Ciclo sem emissão, com a causa atribuída na pilha de CPI e a posição da
+     * instrução que não pôde ser emitida (-1 se o programa acabou)
+     */
+    default void aoPerderSlot(ComponenteCPI causa, int indicePrograma, int ciclo) {
+    }
+}
@@ -0,0 +1,249 @@
+package simulador;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Perfil de desempenho por instrução estática do programa simulado.
+ *
+ * Para cada índice do programa acumula o número de execuções (commits), os
+ * ciclos entre issue e commit, os ciclos de espera por operandos separados
+ * pela instrução produtora e os flushes causados por desvios com previsão
+ * errada ou por stores que provocaram replay de memória.
+ * Habilitado por ConfiguracaoSimulador.setPerfilInstrucoes(true).
+ */
+public class PerfilInstrucoes {
+    private final int tamanho;
+    private final long[] emissoes;
+    private final long[] execucoes;
+    private final long[] ciclosIssueCommit;
+    private final long[] ciclosEspera;
+    private final long[] flushes;
+    private final long[] canceladasPorFlush;
+    private final List<Map<Integer, long[]>> esperaPorProdutor; // consumidor -> (produtor -> ciclos), null = sem espera
+
+    public PerfilInstrucoes(int tamanho) {
+        this.tamanho = tamanho;
+        this.emissoes = new long[tamanho];
+        this.execucoes = new long[tamanho];
+        this.ciclosIssueCommit = new long[tamanho];
+        this.ciclosEspera = new long[tamanho];
+        this.flushes = new long[tamanho];
+        this.canceladasPorFlush = new long[tamanho];
+        this.esperaPorProdutor = new ArrayList<>(Collections.nCopies(tamanho, null));
+    }
+
+    void registrarEmissao(int indice) {
+        emissoes[indice]++;
+    }
+
+    void registrarCommit(int indice, int ciclos) {
+        execucoes[indice]++;
+        ciclosIssueCommit[indice] += ciclos;
+    }
+
+    /**
+     * Um ciclo de espera do consumidor por um operando produzido por outra instrução
+     */
+    void registrarEspera(int consumidor, int produtor) {
+        ciclosEspera[consumidor]++;
+        if (produtor < 0) {
+            return;
+        }
+        Map<Integer, long[]> porProdutor = esperaPorProdutor.get(consumidor);
+        if (porProdutor == null) {
+            porProdutor = new HashMap<>();
+            esperaPorProdutor.set(consumidor, porProdutor);
+        }
+        porProdutor.computeIfAbsent(produtor, p -> new long[1])[0]++;
+    }
+
+    void registrarFlush(int indice, int canceladas) {
+        flushes[indice]++;
+        canceladasPorFlush[indice] += canceladas;
+    }
+
+    /*
+     * Estado para checkpoint e histórico. Na leitura o programa pode ter outro
+     * tamanho (Simulador.atualizarInstrucoes): só os índices comuns são lidos.
+     */
+    void gravarEstado(DataOutput saida) throws IOException {
+        saida.writeInt(tamanho);
+        for (long[] vetor : vetores()) {
+            for (long valor : vetor) {
+                Checkpoint.gravarVarLong(saida, valor); // quase sempre pequenos
+            }
+        }
+        int consumidores = 0;
+        for (Map<Integer, long[]> porProdutor : esperaPorProdutor) {
+            if (porProdutor != null) {
+                consumidores++;
+            }
+        }
+        saida.writeInt(consumidores);
+        for (int i = 0; i < tamanho; i++) {
+            Map<Integer, long[]> porProdutor = esperaPorProdutor.get(i);
+            if (porProdutor != null) {
+                saida.writeInt(i);
+                saida.writeInt(porProdutor.size());
+                for (Map.Entry<Integer, long[]> espera : porProdutor.entrySet()) {
+                    saida.writeInt(espera.getKey());
+                    saida.writeLong(espera.getValue()[0]);
+                }
+            }
+        }
+    }
+
+    void lerEstado(DataInput entrada) throws IOException {
+        int gravado = entrada.readInt();
+        for (long[] vetor : vetores()) {
+            Arrays.fill(vetor, 0);
+            for (int i = 0; i < gravado; i++) {
+                long valor = Checkpoint.lerVarLong(entrada);
+                if (i < tamanho) {
+                    vetor[i] = valor;
+                }
+            }
+        }
+        Collections.fill(esperaPorProdutor, null);
+        int consumidores = entrada.readInt();
+        for (int c = 0; c < consumidores; c++) {
+            int i = entrada.readInt();
+            int produtores = entrada.readInt();
+            Map<Integer, long[]> porProdutor = new HashMap<>();
+            for (int p = 0; p < produtores; p++) {
+                int produtor = entrada.readInt();
+                porProdutor.put(produtor, new long[] {entrada.readLong()});
+            }
+            if (i < tamanho) {
+                esperaPorProdutor.set(i, porProdutor);
+            }
+        }
+    }
+
+    private long[][] vetores() {
+        return new long[][] {emissoes, execucoes, ciclosIssueCommit, ciclosEspera, flushes, canceladasPorFlush};
+    }
+
+    // Consultas por índice do programa
+
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    public long getEmissoes(int indice) {
+        return emissoes[indice];
+    }
+
+    public long getExecucoes(int indice) {
+        return execucoes[indice];
+    }
+
+    public long getCiclosIssueCommit(int indice) {
+        return ciclosIssueCommit[indice];
+    }
+
+    public long getCiclosEspera(int indice) {
+        return ciclosEspera[indice];
+    }
+
+    public long getFlushes(int indice) {
+        return flushes[indice];
+    }
+
+    public long getCanceladasPorFlush(int indice) {
+        return canceladasPorFlush[indice];
+    }
+
+    /**
+     * Ciclos de espera do consumidor por produtor (índice do programa -> ciclos)
+     */
+    public Map<Integer, Long> getEsperaPorProdutor(int indice) {
+        Map<Integer, Long> resultado = new HashMap<>();
+        if (esperaPorProdutor.get(indice) != null) {
+            for (Map.Entry<Integer, long[]> entrada : esperaPorProdutor.get(indice).entrySet()) {
+                resultado.put(entrada.getKey(), entrada.getValue()[0]);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Produtor que mais fez a instrução esperar (-1 se nunca esperou)
+     */
+    public int getPrincipalProdutor(int indice) {
+        int principal = -1;
+        long maior = 0;
+        if (esperaPorProdutor.get(indice) != null) {
+            for (Map.Entry<Integer, long[]> entrada : esperaPorProdutor.get(indice).entrySet()) {
+                if (entrada.getValue()[0] > maior) {
+                    maior = entrada.getValue()[0];
+                    principal = entrada.getKey();
+                }
+            }
+        }
+        return principal;
+    }
+
+    /**
+     * Índices do programa ordenados pelo total de ciclos entre issue e commit
+     */
+    public Integer[] ranking() {
+        Integer[] indices = new Integer[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            indices[i] = i;
+        }
+        Arrays.sort(indices, Comparator.comparingLong((Integer i) -> ciclosIssueCommit[i]).reversed()
+                .thenComparingInt(i -> i));
+        return indices;
+    }
+
+    /**
+     * Relatório das instruções que mais custaram ciclos
+     * @param limite número máximo de linhas do relatório
+     */
+    public String relatorio(List<Instrucao> instrucoes, int limite) {
+        long totalCiclos = 0;
+        for (long ciclos : ciclosIssueCommit) {
+            totalCiclos += ciclos;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-6s %-24s %10s %12s %8s %7s %10s %-10s %8s%n",
+                "Linha", "Instrução", "Execuções", "Ciclos", "Média", "%", "Espera", "Produtor", "Flushes"));
+        int mostradas = 0;
+        for (int indice : ranking()) {
+            if (mostradas >= limite || execucoes[indice] == 0) {
+                break;
+            }
+            int produtor = getPrincipalProdutor(indice);
+            sb.append(String.format(Locale.ROOT, "%-6d %-24s %10d %12d %8.2f %6.1f%% %10d %-10s %8d%n",
+                    linha(instrucoes, indice), instrucoes.get(indice).toString(),
+                    execucoes[indice], ciclosIssueCommit[indice],
+                    (double) ciclosIssueCommit[indice] / execucoes[indice],
+                    totalCiclos == 0 ? 0.0 : 100.0 * ciclosIssueCommit[indice] / totalCiclos,
+                    ciclosEspera[indice],
+                    produtor < 0 ? "-" : "linha " + linha(instrucoes, produtor),
+                    flushes[indice]));
+            mostradas++;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Linha do arquivo fonte (ou posição no programa, se desconhecida)
+     */
+    private static int linha(List<Instrucao> instrucoes, int indice) {
+        int linha = instrucoes.get(indice).getLinhaOrigem();
+        return linha > 0 ? linha : indice + 1;
+    }
+}
@@ -0,0 +1,44 @@
+package simulador;
+
+/**
+ * Enum que representa a política de arbitragem dos barramentos de resultado
+ * (CDB) quando mais instruções terminam em um ciclo do que há barramentos
+ */
+public enum PoliticaCdb {
+    MAIS_ANTIGA("Mais antiga primeiro", "antiga"),
+    PRIORIDADE_CLASSE("Prioridade por classe de unidade funcional", "classe");
+
+    private final String descricao;
+    private final String chave; // nome usado na configuração e na CLI
+
+    PoliticaCdb(String descricao, String chave) {
+        this.descricao = descricao;
+        this.chave = chave;
+    }
+
+    /**
+     * Política pela chave ("antiga" ou "classe")
+     * @throws IllegalArgumentException Se a chave for desconhecida
+     */
+    public static PoliticaCdb daChave(String chave) {
+        for (PoliticaCdb politica : values()) {
+            if (politica.chave.equals(chave)) {
+                return politica;
+            }
+        }
+        throw new IllegalArgumentException("Política de CDB desconhecida: " + chave);
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public String getChave() {
+        return chave;
+    }
+
+    @Override
+    public String toString() {
+        return descricao;
+    }
+}
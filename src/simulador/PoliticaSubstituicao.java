@@ -0,0 +1,45 @@
+package simulador;
+
+/**
+ * Enum que representa a política de substituição das linhas de um conjunto
+ * da cache quando uma falta precisa de espaço
+ */
+public enum PoliticaSubstituicao {
+    LRU("Menos usada recentemente (LRU)", "lru"),
+    FIFO("Mais antiga na cache (FIFO)", "fifo"),
+    ALEATORIA("Pseudoaleatória", "aleatoria");
+
+    private final String descricao;
+    private final String chave; // nome usado na configuração e na CLI
+
+    PoliticaSubstituicao(String descricao, String chave) {
+        this.descricao = descricao;
+        this.chave = chave;
+    }
+
+    /**
+     * Política pela chave ("lru", "fifo" ou "aleatoria")
+     * @throws IllegalArgumentException Se a chave for desconhecida
+     */
+    public static PoliticaSubstituicao daChave(String chave) {
+        for (PoliticaSubstituicao politica : values()) {
+            if (politica.chave.equals(chave)) {
+                return politica;
+            }
+        }
+        throw new IllegalArgumentException("Política de substituição desconhecida: " + chave);
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public String getChave() {
+        return chave;
+    }
+
+    @Override
+    public String toString() {
+        return descricao;
+    }
+}
@@ -0,0 +1,36 @@
+package simulador;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Preditor bimodal: um contador de 2 bits por endereço do desvio
+ */
+public class PreditorBimodal implements PreditorDesvios {
+    private final TabelaContadores tabela;
+
+    public PreditorBimodal(int entradas) {
+        this.tabela = new TabelaContadores(entradas);
+    }
+
+    @Override
+    public boolean prever(int pc, int alvo, int historico) {
+        return tabela.prever(pc);
+    }
+
+    @Override
+    public void atualizar(int pc, int alvo, int historico, boolean tomado) {
+        tabela.atualizar(pc, tomado);
+    }
+
+    @Override
+    public void gravarEstado(DataOutput saida) throws IOException {
+        tabela.gravarEstado(saida);
+    }
+
+    @Override
+    public void lerEstado(DataInput entrada) throws IOException {
+        tabela.lerEstado(entrada);
+    }
+}
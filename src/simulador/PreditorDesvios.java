@@ -0,0 +1,42 @@
+package simulador;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Preditor de direção dos desvios, consultado no issue para escolher o
+ * caminho buscado.
+ *
+ * As posições são índices no programa e o alvo é o índice buscado se o
+ * desvio for tomado. O histórico global (um bit por desvio, o mais recente
+ * no bit 0) é mantido pelo Simulador e atualizado no commit; atualizar
+ * recebe o mesmo histórico que a previsão usou. As tabelas só aprendem com
+ * desvios commitados, então o caminho errado não as altera.
+ */
+public interface PreditorDesvios {
+
+    /** Prevê se o desvio na posição pc é tomado */
+    boolean prever(int pc, int alvo, int historico);
+
+    /** Treina o preditor com o resultado de um desvio commitado */
+    void atualizar(int pc, int alvo, int historico, boolean tomado);
+
+    /** Estado das tabelas para checkpoint (a configuração é a mesma na leitura) */
+    void gravarEstado(DataOutput saida) throws IOException;
+
+    void lerEstado(DataInput entrada) throws IOException;
+
+    /**
+     * Cria o preditor da configuração, com as tabelas no estado inicial
+     */
+    static PreditorDesvios criar(ConfiguracaoSimulador configuracao) {
+        int entradas = configuracao.getEntradasPreditor();
+        switch (configuracao.getPreditor()) {
+            case BIMODAL: return new PreditorBimodal(entradas);
+            case GSHARE: return new PreditorGshare(entradas);
+            case TORNEIO: return new PreditorTorneio(entradas);
+            default: return new PreditorEstatico(configuracao.getPreditor());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package simulador;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+
+/**
+ * Preditor estático: a previsão depende só da instrução (sempre não tomado,
+ * sempre tomado ou, em BTFN, tomado quando o alvo fica para trás, como no
+ * fim de um laço)
+ */
+public class PreditorEstatico implements PreditorDesvios {
+    private final TipoPreditor tipo;
+
+    public PreditorEstatico(TipoPreditor tipo) {
+        this.tipo = tipo;
+    }
+
+    @Override
+    public boolean prever(int pc, int alvo, int historico) {
+        switch (tipo) {
+            case TOMADO: return true;
+            case BTFN: return alvo <= pc;
+            default: return false;
+        }
+    }
+
+    @Override
+    public void atualizar(int pc, int alvo, int historico, boolean tomado) {
+    }
+
+    @Override
+    public void gravarEstado(DataOutput saida) {
+    }
+
+    @Override
+    public void lerEstado(DataInput entrada) {
+    }
+}
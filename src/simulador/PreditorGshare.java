@@ -0,0 +1,38 @@
+package simulador;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Preditor gshare: contadores de 2 bits indexados pelo endereço do desvio
+ * XOR o histórico global, que separa as ocorrências do mesmo desvio pelo
+ * caminho que levou até ele
+ */
+public class PreditorGshare implements PreditorDesvios {
+    private final TabelaContadores tabela;
+
+    public PreditorGshare(int entradas) {
+        this.tabela = new TabelaContadores(entradas);
+    }
+
+    @Override
+    public boolean prever(int pc, int alvo, int historico) {
+        return tabela.prever(pc ^ historico);
+    }
+
+    @Override
+    public void atualizar(int pc, int alvo, int historico, boolean tomado) {
+        tabela.atualizar(pc ^ historico, tomado);
+    }
+
+    @Override
+    public void gravarEstado(DataOutput saida) throws IOException {
+        tabela.gravarEstado(saida);
+    }
+
+    @Override
+    public void lerEstado(DataInput entrada) throws IOException {
+        tabela.lerEstado(entrada);
+    }
+}
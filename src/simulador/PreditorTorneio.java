@@ -0,0 +1,52 @@
+package simulador;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Preditor de torneio: um bimodal e um gshare preveem juntos e uma tabela de
+ * escolha por endereço (contadores de 2 bits, 2 e 3 = gshare) decide qual
+ * seguir. A escolha só é treinada quando os dois discordam.
+ */
+public class PreditorTorneio implements PreditorDesvios {
+    private final PreditorBimodal bimodal;
+    private final PreditorGshare gshare;
+    private final TabelaContadores escolha;
+
+    public PreditorTorneio(int entradas) {
+        this.bimodal = new PreditorBimodal(entradas);
+        this.gshare = new PreditorGshare(entradas);
+        this.escolha = new TabelaContadores(entradas);
+    }
+
+    @Override
+    public boolean prever(int pc, int alvo, int historico) {
+        return escolha.prever(pc) ? gshare.prever(pc, alvo, historico) : bimodal.prever(pc, alvo, historico);
+    }
+
+    @Override
+    public void atualizar(int pc, int alvo, int historico, boolean tomado) {
+        boolean porBimodal = bimodal.prever(pc, alvo, historico);
+        boolean porGshare = gshare.prever(pc, alvo, historico);
+        if (porBimodal != porGshare) {
+            escolha.atualizar(pc, porGshare == tomado);
+        }
+        bimodal.atualizar(pc, alvo, historico, tomado);
+        gshare.atualizar(pc, alvo, historico, tomado);
+    }
+
+    @Override
+    public void gravarEstado(DataOutput saida) throws IOException {
+        bimodal.gravarEstado(saida);
+        gshare.gravarEstado(saida);
+        escolha.gravarEstado(saida);
+    }
+
+    @Override
+    public void lerEstado(DataInput entrada) throws IOException {
+        bimodal.lerEstado(entrada);
+        gshare.lerEstado(entrada);
+        escolha.lerEstado(entrada);
+    }
+}
@@ -0,0 +1,216 @@
+package simulador;
+
+import java.util.Arrays;
+import java.util.Locale;
+import jdk.jfr.EventType;
+
+/**
+ * Profiler do próprio simulador: mede o tempo de host gasto em writeResult(),
+ * execute(), issue() e commit(), a vazão em ciclos simulados por segundo e
+ * separa o aquecimento do regime estável.
+ *
+ * Fica ativo quando habilitado pela API ou quando há uma gravação do JDK Flight
+ * Recorder com o evento EventoFasesSimulacao ligado; nesse caso, um evento é
+ * emitido a cada janela de ciclos. Desativado, custa um contador por ciclo: o
+ * estado do JFR só é consultado a cada INTERVALO_VERIFICACAO ciclos.
+ */
+public class ProfilerFases {
+    public static final int WRITE_RESULT = 0;
+    public static final int EXECUTE = 1;
+    public static final int ISSUE = 2;
+    public static final int COMMIT = 3;
+    public static final String[] NOMES_FASES = {"writeResult", "execute", "issue", "commit"};
+
+    private static final int INTERVALO_VERIFICACAO = 4096;
+    private static final EventType TIPO_EVENTO = EventType.getEventType(EventoFasesSimulacao.class);
+
+    private boolean habilitado;       // ligado pela API, independente do JFR
+    private boolean ativo;
+    private int ciclosAteVerificar;
+    private int tamanhoJanela = 4096;
+    private long ciclosAquecimento = 10_000;
+
+    // Janela corrente
+    private final long[] nanosJanela = new long[NOMES_FASES.length];
+    private long ciclosJanela;
+    private long cicloInicialJanela;
+
+    // Totais
+    private final long[] nanosTotais = new long[NOMES_FASES.length];
+    private long ciclosMedidos;
+    private long ciclosMedidosAquecimento;
+    private long nanosAquecimento;
+    private long ciclosMedidosEstavel;
+    private long nanosEstavel;
+
+    /**
+     * Indica se o próximo ciclo deve ser cronometrado
+     */
+    public boolean isAtivo() {
+        return ativo;
+    }
+
+    /**
+     * Chamado a cada ciclo não cronometrado; de tempos em tempos confere se
+     * uma gravação do JFR foi iniciada
+     */
+    void cicloSemMedicao() {
+        if (--ciclosAteVerificar <= 0) {
+            atualizarEstado();
+        }
+    }
+
+    /**
+     * Registra os instantes (System.nanoTime) que delimitam as quatro fases de um ciclo
+     */
+    void registrarCiclo(long ciclo, long t0, long t1, long t2, long t3, long t4) {
+        if (ciclosJanela == 0) {
+            cicloInicialJanela = ciclo;
+        }
+        nanosJanela[WRITE_RESULT] += t1 - t0;
+        nanosJanela[EXECUTE] += t2 - t1;
+        nanosJanela[ISSUE] += t3 - t2;
+        nanosJanela[COMMIT] += t4 - t3;
+        ciclosJanela++;
+        if (ciclosJanela >= tamanhoJanela) {
+            fecharJanela();
+            atualizarEstado();
+        }
+    }
+
+    /**
+     * Fecha a janela parcial (fim da simulação)
+     */
+    void finalizar() {
+        if (ciclosJanela > 0) {
+            fecharJanela();
+        }
+    }
+
+    private void fecharJanela() {
+        long nanos = 0;
+        for (int f = 0; f < NOMES_FASES.length; f++) {
+            nanos += nanosJanela[f];
+            nanosTotais[f] += nanosJanela[f];
+        }
+        boolean aquecimento = cicloInicialJanela < ciclosAquecimento;
+        if (aquecimento) {
+            ciclosMedidosAquecimento += ciclosJanela;
+            nanosAquecimento += nanos;
+        } else {
+            ciclosMedidosEstavel += ciclosJanela;
+            nanosEstavel += nanos;
+        }
+        ciclosMedidos += ciclosJanela;
+
+        EventoFasesSimulacao evento = new EventoFasesSimulacao();
+        if (evento.isEnabled()) {
+            evento.cicloInicial = cicloInicialJanela;
+            evento.ciclos = ciclosJanela;
+            evento.nanosWriteResult = nanosJanela[WRITE_RESULT];
+            evento.nanosExecute = nanosJanela[EXECUTE];
+            evento.nanosIssue = nanosJanela[ISSUE];
+            evento.nanosCommit = nanosJanela[COMMIT];
+            evento.ciclosPorSegundo = vazao(ciclosJanela, nanos);
+            evento.aquecimento = aquecimento;
+            evento.commit();
+        }
+
+        Arrays.fill(nanosJanela, 0);
+        ciclosJanela = 0;
+    }
+
+    private void atualizarEstado() {
+        ativo = habilitado || TIPO_EVENTO.isEnabled();
+        ciclosAteVerificar = INTERVALO_VERIFICACAO;
+    }
+
+    /**
+     * Descarta as medições (mantém a configuração)
+     */
+    public void zerar() {
+        Arrays.fill(nanosJanela, 0);
+        Arrays.fill(nanosTotais, 0);
+        ciclosJanela = 0;
+        ciclosMedidos = 0;
+        ciclosMedidosAquecimento = 0;
+        nanosAquecimento = 0;
+        ciclosMedidosEstavel = 0;
+        nanosEstavel = 0;
+        atualizarEstado();
+    }
+
+    private static double vazao(long ciclos, long nanos) {
+        return nanos == 0 ? 0.0 : ciclos * 1e9 / nanos;
+    }
+
+    // Configuração
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Liga a medição mesmo sem gravação do JFR
+     */
+    public void setHabilitado(boolean habilitado) {
+        this.habilitado = habilitado;
+        atualizarEstado();
+    }
+
+    public int getTamanhoJanela() {
+        return tamanhoJanela;
+    }
+
+    public void setTamanhoJanela(int tamanhoJanela) {
+        this.tamanhoJanela = tamanhoJanela;
+    }
+
+    public long getCiclosAquecimento() {
+        return ciclosAquecimento;
+    }
+
+    public void setCiclosAquecimento(long ciclosAquecimento) {
+        this.ciclosAquecimento = ciclosAquecimento;
+    }
+
+    // Consultas
+
+    public long getNanos(int fase) {
+        return nanosTotais[fase];
+    }
+
+    public long getCiclosMedidos() {
+        return ciclosMedidos;
+    }
+
+    public double getCiclosPorSegundo() {
+        return vazao(ciclosMedidos, nanosAquecimento + nanosEstavel);
+    }
+
+    public double getCiclosPorSegundoAquecimento() {
+        return vazao(ciclosMedidosAquecimento, nanosAquecimento);
+    }
+
+    public double getCiclosPorSegundoEstavel() {
+        return vazao(ciclosMedidosEstavel, nanosEstavel);
+    }
+
+    /**
+     * Tempo por fase e vazão em formato texto
+     */
+    public String resumo() {
+        long total = nanosAquecimento + nanosEstavel;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Ciclos medidos: %d em %.3f ms%n", ciclosMedidos, total / 1e6));
+        for (int f = 0; f < NOMES_FASES.length; f++) {
+            sb.append(String.format(Locale.ROOT, "  %-12s %12.3f ms %6.1f%% %10.1f ns/ciclo%n",
+                    NOMES_FASES[f], nanosTotais[f] / 1e6,
+                    total == 0 ? 0.0 : 100.0 * nanosTotais[f] / total,
+                    ciclosMedidos == 0 ? 0.0 : (double) nanosTotais[f] / ciclosMedidos));
+        }
+        sb.append(String.format(Locale.ROOT, "Ciclos/s: %.0f (aquecimento %.0f, regime estável %.0f)%n",
+                getCiclosPorSegundo(), getCiclosPorSegundoAquecimento(), getCiclosPorSegundoEstavel()));
+        return sb.toString();
+    }
+}
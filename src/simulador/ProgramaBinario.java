@@ -0,0 +1,223 @@
+package simulador;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formato binário compacto de programas pré-montados.
+ *
+ * Layout (inteiros big-endian):
+ *   cabeçalho: MAGICO, VERSAO, número de instruções, hash do programa (long)
+ *   instruções: 3 ints cada, [op | destino] e [reg1 | reg2] (16 bits cada,
+ *               0xFFFF = ausente, o que cobre os registradores R0 a R999
+ *               aceitos pelo parser) e o valor imediato
+ *   mapa de linhas: 1 int por instrução com a linha do arquivo fonte
+ *
+ * O hash (FNV-1a de 64 bits sobre as palavras das instruções) identifica o
+ * programa independentemente de comentários e espaçamento. A leitura usa um
+ * arquivo mapeado em memória e não passa pelo InstructionParser.
+ */
+public class ProgramaBinario {
+    public static final int MAGICO = 0x544F4D42; // "TOMB"
+    public static final int VERSAO = 2;
+    public static final String EXTENSAO = ".tbin";
+
+    private static final int TAMANHO_CABECALHO = 4 + 4 + 4 + 8;
+    private static final int PALAVRAS_INSTRUCAO = 3;
+    private static final int SEM_REGISTRADOR = 0xFFFF;
+    private static final long FNV_BASE = 0xcbf29ce484222325L;
+    private static final long FNV_PRIMO = 0x100000001b3L;
+    private static final OpCode[] OPCODES = OpCode.values();
+
+    /**
+     * Monta um programa texto em um arquivo binário
+     * @return resultado do parse do texto (as linhas com erro não são montadas)
+     */
+    public static ResultadoParser montar(String arquivoTexto, String arquivoBinario) throws IOException {
+        ResultadoParser resultado = InstructionParser.analisarArquivo(arquivoTexto);
+        montar(resultado.getInstrucoes(), arquivoBinario);
+        return resultado;
+    }
+
+    /**
+     * Grava uma lista de instruções no formato binário
+     */
+    public static void montar(List<Instrucao> instrucoes, String arquivoBinario) throws IOException {
+        int n = instrucoes.size();
+        int[] palavras = new int[PALAVRAS_INSTRUCAO * n];
+        for (int i = 0; i < n; i++) {
+            Instrucao inst = instrucoes.get(i);
+            int base = PALAVRAS_INSTRUCAO * i;
+            palavras[base] = (inst.getOp().ordinal() << 16) | numeroRegistrador(inst.getRd());
+            palavras[base + 1] = (numeroRegistrador(inst.getReg1()) << 16) | numeroRegistrador(inst.getReg2());
+            palavras[base + 2] = inst.getImediato();
+        }
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(arquivoBinario), 1 << 16))) {
+            out.writeInt(MAGICO);
+            out.writeInt(VERSAO);
+            out.writeInt(n);
+            out.writeLong(hash(palavras));
+            for (int palavra : palavras) {
+                out.writeInt(palavra);
+            }
+            for (Instrucao inst : instrucoes) {
+                out.writeInt(inst.getLinhaOrigem());
+            }
+        }
+    }
+
+    /**
+     * Carrega um programa binário
+     * @throws IOException Se o arquivo não for um programa válido ou estiver corrompido
+     */
+    public static List<Instrucao> carregar(String arquivoBinario) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(arquivoBinario), StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            if (tamanho < TAMANHO_CABECALHO || tamanho > Integer.MAX_VALUE) {
+                throw new IOException("Tamanho inválido para programa binário: " + tamanho + " bytes");
+            }
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho);
+            if (buffer.getInt() != MAGICO) {
+                throw new IOException("Arquivo não é um programa binário: " + arquivoBinario);
+            }
+            int versao = buffer.getInt();
+            if (versao != VERSAO) {
+                throw new IOException("Versão de programa binário não suportada: " + versao);
+            }
+            int n = buffer.getInt();
+            long hashEsperado = buffer.getLong();
+            if (n < 0 || tamanho != TAMANHO_CABECALHO + (PALAVRAS_INSTRUCAO + 1) * 4L * n) {
+                throw new IOException("Programa binário truncado: " + arquivoBinario);
+            }
+
+            ByteBuffer linhas = buffer.duplicate();
+            linhas.position(TAMANHO_CABECALHO + PALAVRAS_INSTRUCAO * 4 * n);
+
+            List<Instrucao> instrucoes = new ArrayList<>(n);
+            long hash = FNV_BASE;
+            for (int i = 0; i < n; i++) {
+                int operacao = buffer.getInt();
+                int operandos = buffer.getInt();
+                int imediato = buffer.getInt();
+                hash = misturar(misturar(misturar(hash, operacao), operandos), imediato);
+
+                int codigo = operacao >>> 16;
+                if (codigo >= OPCODES.length) {
+                    throw new IOException("Operação inválida na instrução " + i + ": " + codigo);
+                }
+                Instrucao inst = new Instrucao(OPCODES[codigo],
+                        nomeRegistrador(operacao & SEM_REGISTRADOR),
+                        nomeRegistrador(operandos >>> 16),
+                        nomeRegistrador(operandos & SEM_REGISTRADOR),
+                        imediato, null);
+                inst.setLinhaOrigem(linhas.getInt());
+                instrucoes.add(inst);
+            }
+            if (hash != hashEsperado) {
+                throw new IOException("Hash do programa não confere (arquivo corrompido): " + arquivoBinario);
+            }
+            return instrucoes;
+        }
+    }
+
+    /**
+     * Lê apenas o hash gravado no cabeçalho
+     */
+    public static long lerHash(String arquivoBinario) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(arquivoBinario))) {
+            if (in.readInt() != MAGICO) {
+                throw new IOException("Arquivo não é um programa binário: " + arquivoBinario);
+            }
+            in.readInt();
+            in.readInt();
+            return in.readLong();
+        }
+    }
+
+    /**
+     * Verifica pelo número mágico se o arquivo é um programa binário
+     */
+    public static boolean ehBinario(String arquivo) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(arquivo))) {
+            return in.readInt() == MAGICO;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Carrega um programa em qualquer formato (binário ou texto)
+     */
+    public static ResultadoParser carregarQualquer(String arquivo) throws IOException {
+        if (ehBinario(arquivo)) {
+            List<Instrucao> instrucoes = carregar(arquivo);
+            return new ResultadoParser(instrucoes, new ArrayList<>(), instrucoes.size());
+        }
+        return InstructionParser.analisarArquivo(arquivo);
+    }
+
+    private static long hash(int[] palavras) {
+        long hash = FNV_BASE;
+        for (int palavra : palavras) {
+            hash = misturar(hash, palavra);
+        }
+        return hash;
+    }
+
+    private static long misturar(long hash, int palavra) {
+        for (int deslocamento = 24; deslocamento >= 0; deslocamento -= 8) {
+            hash ^= (palavra >>> deslocamento) & 0xFF;
+            hash *= FNV_PRIMO;
+        }
+        return hash;
+    }
+
+    private static int numeroRegistrador(String registrador) {
+        if (registrador == null) {
+            return SEM_REGISTRADOR;
+        }
+        int numero = Integer.parseInt(registrador.substring(1));
+        if (numero >= EmuladorFuncional.NUM_REGISTRADORES) {
+            throw new IllegalArgumentException("Registrador fora do formato binário: " + registrador);
+        }
+        return numero;
+    }
+
+    private static String nomeRegistrador(int numero) {
+        return numero == SEM_REGISTRADOR ? null : InstructionParser.nomeRegistrador(numero);
+    }
+
+    /**
+     * Monta um programa pela linha de comando.
+     *
+     * Uso: java -cp bin simulador.ProgramaBinario programa.txt [programa.tbin]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Uso: java -cp bin simulador.ProgramaBinario programa.txt [programa" + EXTENSAO + "]");
+            System.exit(1);
+        }
+        String entrada = args[0];
+        String saida = args.length > 1 ? args[1]
+                : entrada.replaceFirst("\\.[^.\\\\/]*$", "") + EXTENSAO;
+
+        ResultadoParser resultado = montar(entrada, saida);
+        for (Diagnostico diagnostico : resultado.getDiagnosticos()) {
+            System.err.println(entrada + ":" + diagnostico.getLinha() + ":" + diagnostico.getColuna()
+                    + ": erro: " + diagnostico.getMensagem());
+        }
+        System.out.printf("%d instruções montadas em %s (hash %016x)%n",
+                resultado.getInstrucoes().size(), saida, lerHash(saida));
+        if (resultado.temErros()) {
+            System.exit(2);
+        }
+    }
+}
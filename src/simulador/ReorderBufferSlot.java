@@ -16,6 +16,12 @@ public class ReorderBufferSlot {
     private int cicloExecucao;          // Ciclo em que a instrução começou a executar
     private int cicloEscrita;           // Ciclo em que o resultado foi escrito
     private int cicloCommit;            // Ciclo em que a instrução foi commitada
+    private int indicePrograma;         // Posição da instrução no programa
+    private int produtorJ;              // Posição no programa do produtor do operando j (-1 se nenhum)
+    private int produtorK;              // Posição no programa do produtor do operando k (-1 se nenhum)
+    private long sequencia;             // Número da instrução dinâmica (ordem de emissão)
+    private int proximoPcPrevisto;      // Desvio: posição buscada depois dele (-1 se não é desvio)
+    private int historicoDesvio;        // Desvio: histórico global usado na previsão
     
     public ReorderBufferSlot(int indice) {
         this.indice = indice;
@@ -30,6 +36,12 @@ public class ReorderBufferSlot {
         this.cicloExecucao = -1;
         this.cicloEscrita = -1;
         this.cicloCommit = -1;
+        this.indicePrograma = -1;
+        this.produtorJ = -1;
+        this.produtorK = -1;
+        this.sequencia = -1;
+        this.proximoPcPrevisto = -1;
+        this.historicoDesvio = 0;
     }
     
     /**
@@ -47,6 +59,12 @@ public class ReorderBufferSlot {
         this.cicloExecucao = -1;
         this.cicloEscrita = -1;
         this.cicloCommit = -1;
+        this.indicePrograma = -1;
+        this.produtorJ = -1;
+        this.produtorK = -1;
+        this.sequencia = -1;
+        this.proximoPcPrevisto = -1;
+        this.historicoDesvio = 0;
     }
     
     /**
@@ -163,4 +181,55 @@ public class ReorderBufferSlot {
     public void setCicloCommit(int cicloCommit) {
         this.cicloCommit = cicloCommit;
     }
+
+    public int getIndicePrograma() {
+        return indicePrograma;
+    }
+
+    public void setIndicePrograma(int indicePrograma) {
+        this.indicePrograma = indicePrograma;
+    }
+
+    public int getProdutorJ() {
+        return produtorJ;
+    }
+
+    public void setProdutorJ(int produtorJ) {
+        this.produtorJ = produtorJ;
+    }
+
+    public int getProdutorK() {
+        return produtorK;
+    }
+
+    public void setProdutorK(int produtorK) {
+        this.produtorK = produtorK;
+    }
+
+    public long getSequencia() {
+        return sequencia;
+    }
+
+    public void setSequencia(long sequencia) {
+        this.sequencia = sequencia;
+    }
+
+    /**
+     * Posição buscada depois do desvio, conforme a previsão (-1 se não é desvio)
+     */
+    public int getProximoPcPrevisto() {
+        return proximoPcPrevisto;
+    }
+
+    public void setProximoPcPrevisto(int proximoPcPrevisto) {
+        this.proximoPcPrevisto = proximoPcPrevisto;
+    }
+
+    public int getHistoricoDesvio() {
+        return historicoDesvio;
+    }
+
+    public void setHistoricoDesvio(int historicoDesvio) {
+        this.historicoDesvio = historicoDesvio;
+    }
 }
@@ -0,0 +1,36 @@
+package simulador;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado da leitura de um programa: instruções válidas, na ordem do
+ * arquivo, e todos os diagnósticos das linhas rejeitadas
+ */
+public class ResultadoParser {
+    private final List<Instrucao> instrucoes;
+    private final List<Diagnostico> diagnosticos;
+    private final int totalLinhas;
+
+    public ResultadoParser(List<Instrucao> instrucoes, List<Diagnostico> diagnosticos, int totalLinhas) {
+        this.instrucoes = instrucoes;
+        this.diagnosticos = Collections.unmodifiableList(diagnosticos);
+        this.totalLinhas = totalLinhas;
+    }
+
+    public List<Instrucao> getInstrucoes() {
+        return instrucoes;
+    }
+
+    public List<Diagnostico> getDiagnosticos() {
+        return diagnosticos;
+    }
+
+    public boolean temErros() {
+        return !diagnosticos.isEmpty();
+    }
+
+    public int getTotalLinhas() {
+        return totalLinhas;
+    }
+}
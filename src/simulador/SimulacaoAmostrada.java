@@ -0,0 +1,181 @@
+package simulador;
+
+import java.util.Locale;
+
+/**
+ * Simulação por amostragem sistemática para programas longos demais para a
+ * simulação detalhada completa.
+ *
+ * Cada período de PERIODO instruções dinâmicas é coberto em modo funcional
+ * (Simulador.executarFuncional), exceto o fim: AQUECIMENTO instruções
+ * detalhadas para encher o pipeline, JANELA instruções detalhadas medidas e a
+ * drenagem do pipeline, após a qual o estado arquitetural volta a ser exato e
+ * a execução funcional continua dele. O CPI das janelas é extrapolado para o
+ * programa inteiro, com intervalo de confiança de 95% pela aproximação
+ * normal (o erro diminui com a raiz do número de janelas).
+ */
+public class SimulacaoAmostrada {
+    private static final double Z_95 = 1.96;
+
+    private final Simulador simulador;
+    private final long periodo;
+    private final long aquecimento;
+    private final long janela;
+
+    // Resultado
+    private long janelas;
+    private double somaCpi;
+    private double somaQuadradosCpi;
+    private long ciclosMedidos;
+
+    public SimulacaoAmostrada(Simulador simulador, long periodo, long aquecimento, long janela) {
+        if (janela <= 0 || aquecimento < 0 || periodo < aquecimento + janela) {
+            throw new IllegalArgumentException("Amostragem inválida: período " + periodo
+                    + " deve cobrir aquecimento " + aquecimento + " e janela " + janela + " > 0");
+        }
+        this.simulador = simulador;
+        this.periodo = periodo;
+        this.aquecimento = aquecimento;
+        this.janela = janela;
+    }
+
+    /**
+     * Executa o programa carregado no simulador até o fim
+     */
+    public void executar() {
+        long instrucoesPeriodo = 0; // já executadas no período atual (drenagem do anterior)
+        while (!simulador.isSimulacaoCompleta()) {
+            long funcional = periodo - aquecimento - janela - instrucoesPeriodo;
+            if (funcional > 0) {
+                simulador.executarFuncional(funcional);
+            }
+
+            avancarAte(simulador.getInstrucoesExecutadas() + aquecimento);
+            long inicio = simulador.getInstrucoesExecutadas();
+            int cicloInicio = simulador.getCicloAtual();
+            avancarAte(inicio + janela);
+            if (simulador.getInstrucoesExecutadas() - inicio == janela) {
+                registrarJanela(simulador.getCicloAtual() - cicloInicio);
+            }
+
+            long antesDrenagem = simulador.getInstrucoesExecutadas();
+            simulador.drenarPipeline();
+            instrucoesPeriodo = Math.min(simulador.getInstrucoesExecutadas() - antesDrenagem,
+                    periodo - aquecimento - janela);
+            // O log de cada janela não é usado e cresceria com o programa
+            simulador.getLogExecucao().clear();
+        }
+    }
+
+    /*
+     * Simulação detalhada até o número de commits chegar ao alvo
+     */
+    private void avancarAte(long commits) {
+        while (!simulador.isSimulacaoCompleta() && simulador.getInstrucoesExecutadas() < commits) {
+            simulador.proximoCiclo();
+        }
+    }
+
+    private void registrarJanela(long ciclos) {
+        double cpi = (double) ciclos / janela;
+        janelas++;
+        somaCpi += cpi;
+        somaQuadradosCpi += cpi * cpi;
+        ciclosMedidos += ciclos;
+    }
+
+    // Consultas
+
+    public long getJanelas() {
+        return janelas;
+    }
+
+    public long getCiclosMedidos() {
+        return ciclosMedidos;
+    }
+
+    /**
+     * Instruções dinâmicas do programa (detalhadas e funcionais)
+     */
+    public long getInstrucoesTotais() {
+        return simulador.getInstrucoesExecutadas() + simulador.getInstrucoesFuncionais();
+    }
+
+    /**
+     * Fração das instruções simuladas em modo detalhado
+     */
+    public double getFracaoDetalhada() {
+        long total = getInstrucoesTotais();
+        return total == 0 ? 0.0 : (double) simulador.getInstrucoesExecutadas() / total;
+    }
+
+    public double getCpiMedio() {
+        return janelas == 0 ? 0.0 : somaCpi / janelas;
+    }
+
+    /**
+     * Desvio padrão amostral do CPI das janelas
+     */
+    public double getDesvioCpi() {
+        if (janelas < 2) {
+            return 0.0;
+        }
+        double media = getCpiMedio();
+        return Math.sqrt(Math.max(0.0, (somaQuadradosCpi - janelas * media * media) / (janelas - 1)));
+    }
+
+    /**
+     * Meia largura do intervalo de confiança de 95% do CPI médio
+     */
+    public double getMargemCpi() {
+        return janelas < 2 ? Double.NaN : Z_95 * getDesvioCpi() / Math.sqrt(janelas);
+    }
+
+    public double getCiclosEstimados() {
+        return getCpiMedio() * getInstrucoesTotais();
+    }
+
+    public double getIpcEstimado() {
+        return janelas == 0 ? 0.0 : 1.0 / getCpiMedio();
+    }
+
+    /**
+     * Janelas necessárias para um erro relativo (ex.: 0.03 = ±3%) com 95% de confiança
+     */
+    public long janelasNecessarias(double erroRelativo) {
+        double variacao = getCpiMedio() == 0 ? 0.0 : getDesvioCpi() / getCpiMedio();
+        return (long) Math.ceil(Math.pow(Z_95 * variacao / erroRelativo, 2));
+    }
+
+    /**
+     * Estimativas com intervalos de confiança em formato texto
+     */
+    public String resumo() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Amostragem: período %d, aquecimento %d, janela %d instruções%n",
+                periodo, aquecimento, janela));
+        sb.append(String.format(Locale.ROOT, "Instruções: %d (%.2f%% detalhadas), %d janelas medidas%n",
+                getInstrucoesTotais(), 100 * getFracaoDetalhada(), janelas));
+        if (janelas == 0) {
+            sb.append(String.format("Nenhuma janela completa; o programa é menor que um período%n"));
+            return sb.toString();
+        }
+        double cpi = getCpiMedio();
+        double margem = getMargemCpi();
+        if (Double.isNaN(margem)) {
+            sb.append(String.format(Locale.ROOT, "CPI: %.4f (uma janela, sem intervalo de confiança)%n", cpi));
+            sb.append(String.format(Locale.ROOT, "Ciclos estimados: %.0f%n", getCiclosEstimados()));
+            sb.append(String.format(Locale.ROOT, "IPC estimado: %.4f%n", getIpcEstimado()));
+            return sb.toString();
+        }
+        long instrucoes = getInstrucoesTotais();
+        sb.append(String.format(Locale.ROOT, "CPI: %.4f ± %.4f (95%%, desvio entre janelas %.4f)%n",
+                cpi, margem, getDesvioCpi()));
+        sb.append(String.format(Locale.ROOT, "Ciclos estimados: %.0f [%.0f, %.0f]%n",
+                getCiclosEstimados(), (cpi - margem) * instrucoes, (cpi + margem) * instrucoes));
+        sb.append(String.format(Locale.ROOT, "IPC estimado: %.4f [%.4f, %.4f]%n",
+                getIpcEstimado(), 1.0 / (cpi + margem), cpi > margem ? 1.0 / (cpi - margem) : Double.POSITIVE_INFINITY));
+        sb.append(String.format(Locale.ROOT, "Janelas necessárias para ±3%%: %d%n", janelasNecessarias(0.03)));
+        return sb.toString();
+    }
+}
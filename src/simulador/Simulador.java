@@ -1,25 +1,25 @@
 package simulador;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Queue;
+import javax.management.JMException;
 
 public class Simulador {
-    private static final int LIMITE_CICLOS = 100; // limite de ciclos para detectar loop
-    private static final int LIMITE_INSTRUCAO = 50; // limite de ciclos para uma instrução
-
     // Configurações do simulador
-    private static final int TAMANHO_ROB = 8;
-    private static final int NUM_ESTACOES_ADD = 3;
-    private static final int NUM_ESTACOES_MUL = 3;
-    private static final int NUM_ESTACOES_LOAD = 3;
-    private static final int NUM_ESTACOES_BRANCHES = 3;
-    private static final int NUM_REGISTRADORES_PRIVADOS = 32;
-    private static final int NUM_REGISTRADORES_PUBLICOS = 16;
+    private final ConfiguracaoSimulador configuracao;
+    private final int tamanhoRob;
 
     // Estruturas de dados principais
     private Map<String, Float> bancoRegistradores; // R1 -> valor
@@ -36,24 +36,73 @@ public class Simulador {
     private List<EstacaoDeReserva> estacoesLoad; // Estações para LOAD/STORE
     private List<EstacaoDeReserva> estacoesBranches; // Estações para branches
 
-    private Map<Integer, Float> memoria;
+    private Memoria memoria;
 
     // Estado do simulador
     private List<Instrucao> instrucoes;
+    private List<Diagnostico> diagnosticos; // Erros da última leitura de arquivo
     private int pc; // Program Counter
     private int cicloAtual;
     private int totalCiclos;
     private int ciclosBolha;
     private boolean simulacaoCompleta;
+    private Instrucao instrucaoPresa; // instrução reemitida além do limite (loop detectado)
 
     // Estatísticas
     private int instrucoesExecutadas;
     private List<String> logExecucao;
+    private final ContadoresDesempenho contadores;
+    private final ContadoresAtividade atividade = new ContadoresAtividade(); // acessos para o modelo de energia
+    private PerfilInstrucoes perfil; // null quando o perfil por instrução está desabilitado
+    private final ProfilerFases profilerFases = new ProfilerFases();
+    private SimuladorMonitor monitor; // MBean JMX (null se não registrado)
+    private int ocupacaoRob; // entradas ocupadas no fim do último ciclo
+    private int emitidasNoCiclo; // instruções emitidas no último ciclo
+    private int commitadasNoCiclo; // instruções commitadas no último ciclo
+    // Vetores montados junto com as estações, para o laço do ciclo não alocar
+    private EstacaoDeReserva[] estacoes; // todas, na ordem Add, Mul, Load, Branch
+    private EstacaoDeReserva[][] estacoesPorClasse;
+    private UnidadeFuncional[][] unidades; // por classe
+    private final int[] proximaPorta = new int[ContadoresDesempenho.NOMES_CLASSES.length]; // rodízio no issue
+    private EstacaoDeReserva[] candidatasUnidade; // estações prontas sem unidade (reutilizado)
+    private EstacaoDeReserva[] disputaCdb; // candidatas aos CDBs no ciclo (reutilizado)
+    private int numDisputaCdb;
+    private EstacaoDeReserva[] cargasEmEspera; // loads terminados à espera do valor de um store (reutilizado)
+    private int numCargasEmEspera;
+    private final int[] adiadosCdb = new int[ContadoresDesempenho.NOMES_CLASSES.length];
+    private final int[] posicaoPrioridadeCdb = new int[ContadoresDesempenho.NOMES_CLASSES.length];
+    private final int[] ocupacaoEstacoes = new int[ContadoresDesempenho.NOMES_CLASSES.length];
+    private FilaLoadStore filaMemoria; // loads e stores em voo, em ordem de programa
+    private PreditorDesvios preditorDesvios;
+    private BufferAlvosDesvio btb; // null = alvo sempre disponível na busca
+    private HierarquiaCache caches; // null = LOAD e STORE com a latência fixa da instrução
+    private int historicoGlobal; // direção dos últimos desvios commitados (bit 0 = o mais recente)
+    private boolean desvioNaBusca; // desvio previsto tomado encerrou o grupo de emissão
+    private final List<ObservadorPipeline> observadores = new ArrayList<>();
+    private long instrucoesEmitidas; // sequência da próxima instrução dinâmica
+    private boolean emissaoSuspensa; // drenando o pipeline para trocar de modo
+    private long instrucoesFuncionais; // executadas fora do pipeline (executarFuncional)
+    private EmuladorFuncional emulador; // modo funcional, sobre a mesma memória (criado sob demanda)
+    private HistoricoCiclos historico; // snapshots para voltar ciclos (null se desabilitado)
 
     /**
      * Construtor do simulador
      */
     public Simulador() {
+        this(new ConfiguracaoSimulador());
+    }
+
+    /**
+     * Construtor do simulador com uma configuração específica
+     */
+    public Simulador(ConfiguracaoSimulador configuracao) {
+        this.configuracao = configuracao.copiar();
+        this.tamanhoRob = this.configuracao.getTamanhoRob();
+        this.contadores = new ContadoresDesempenho(this.configuracao);
+        int[] prioridade = this.configuracao.getPrioridadeCdb();
+        for (int i = 0; i < prioridade.length; i++) {
+            posicaoPrioridadeCdb[prioridade[i]] = i;
+        }
         inicializarSimulador();
     }
 
@@ -65,14 +114,14 @@ public class Simulador {
     private void inicializarSimulador() {
         // Inicializando Banco de Registradores
         bancoRegistradores = new HashMap<>();
-        for (int i = 0; i <= NUM_REGISTRADORES_PUBLICOS; i++) {
+        for (int i = 0; i <= configuracao.getNumRegistradoresPublicos(); i++) {
             bancoRegistradores.put("R" + i, (float) i);
         }
 
         // Inicializando Banco de Registradores privados
         bancoPrivado = new HashMap<>();
         filaRegistradoresLivres = new LinkedList<>();
-        for (int i = 0; i <= NUM_REGISTRADORES_PRIVADOS; i++) {
+        for (int i = 0; i <= configuracao.getNumRegistradoresPrivados(); i++) {
             bancoPrivado.put("P" + i, (float) i);
             filaRegistradoresLivres.offer("P" + i);
         }
@@ -81,7 +130,7 @@ public class Simulador {
 
         // Inicializando Buffer de Reordenamento
         rob = new ArrayList<>();
-        for (int i = 0; i < TAMANHO_ROB; i++) {
+        for (int i = 0; i < tamanhoRob; i++) {
             rob.add(new ReorderBufferSlot(i));
         }
         robHead = 0;
@@ -89,40 +138,84 @@ public class Simulador {
 
         // Inicializando Estações de Reserva
         estacoesAdd = new ArrayList<>();
-        for (int i = 0; i < NUM_ESTACOES_ADD; i++) {
+        for (int i = 0; i < configuracao.getNumEstacoesAdd(); i++) {
             estacoesAdd.add(new EstacaoDeReserva("Add" + (i + 1)));
         }
 
         estacoesMul = new ArrayList<>();
-        for (int i = 0; i < NUM_ESTACOES_MUL; i++) {
+        for (int i = 0; i < configuracao.getNumEstacoesMul(); i++) {
             estacoesMul.add(new EstacaoDeReserva("Mult" + (i + 1)));
         }
 
         estacoesLoad = new ArrayList<>();
-        for (int i = 0; i < NUM_ESTACOES_LOAD; i++) {
+        for (int i = 0; i < configuracao.getNumEstacoesLoad(); i++) {
             estacoesLoad.add(new EstacaoDeReserva("Load" + (i + 1)));
         }
 
         estacoesBranches = new ArrayList<>();
-        for (int i = 0; i < NUM_ESTACOES_BRANCHES; i++) {
+        for (int i = 0; i < configuracao.getNumEstacoesBranches(); i++) {
             estacoesBranches.add(new EstacaoDeReserva("Branch" + (i + 1)));
         }
+        montarEstacoes();
 
         // Iniciando memória
-        memoria = new HashMap<>();
-        for (int i = 0; i < 1024; i++) {
-            memoria.put(i, (float) i); // Inicializando memória com zeros
+        memoria = Memoria.inicial();
+        emulador = null;
+        if (historico != null) {
+            historico.limpar();
         }
 
         // Inicializando estado do simulador
         instrucoes = new ArrayList<>();
+        diagnosticos = new ArrayList<>();
         pc = 0;
         cicloAtual = 0;
         totalCiclos = 0;
         ciclosBolha = 0;
         simulacaoCompleta = false;
+        instrucaoPresa = null;
         instrucoesExecutadas = 0;
+        instrucoesEmitidas = 0;
+        emissaoSuspensa = false;
+        instrucoesFuncionais = 0;
+        emitidasNoCiclo = 0;
+        commitadasNoCiclo = 0;
         logExecucao = new ArrayList<>();
+        contadores.zerar();
+        atividade.zerar();
+        profilerFases.zerar();
+        criarPerfil();
+        criarPreditor();
+        criarCaches();
+    }
+
+    /*
+     * Monta os vetores de estações, as unidades funcionais de cada classe (sem
+     * número de unidades configurado, cada estação tem a sua, com porta fixa)
+     * e a fila de loads e stores
+     */
+    private void montarEstacoes() {
+        int classes = ContadoresDesempenho.NOMES_CLASSES.length;
+        estacoesPorClasse = new EstacaoDeReserva[classes][];
+        unidades = new UnidadeFuncional[classes][];
+        int total = 0;
+        for (int c = 0; c < classes; c++) {
+            estacoesPorClasse[c] = estacoesDaClasse(c).toArray(new EstacaoDeReserva[0]);
+            total += estacoesPorClasse[c].length;
+            int n = configuracao.getNumUnidades(c) > 0 ? configuracao.getNumUnidades(c) : estacoesPorClasse[c].length;
+            unidades[c] = new UnidadeFuncional[n];
+            for (int u = 0; u < n; u++) {
+                unidades[c][u] = new UnidadeFuncional("UF-" + ContadoresDesempenho.NOMES_CLASSES[c] + (u + 1),
+                        configuracao.getIntervaloIniciacao(c));
+            }
+        }
+        estacoes = getReservationStationsState().toArray(new EstacaoDeReserva[0]);
+        Arrays.fill(proximaPorta, 0);
+        candidatasUnidade = new EstacaoDeReserva[total];
+        disputaCdb = new EstacaoDeReserva[total];
+        cargasEmEspera = new EstacaoDeReserva[total];
+        filaMemoria = new FilaLoadStore(configuracao.getTamanhoFilaMemoria() > 0
+                ? configuracao.getTamanhoFilaMemoria() : tamanhoRob);
     }
 
     public void reiniciar() {
@@ -134,14 +227,14 @@ public class Simulador {
 
         // Inicializando Banco de Registradores
         bancoRegistradores = new HashMap<>();
-        for (int i = 0; i <= NUM_REGISTRADORES_PUBLICOS; i++) {
+        for (int i = 0; i <= configuracao.getNumRegistradoresPublicos(); i++) {
             bancoRegistradores.put("R" + i, (float) i);
         }
 
         // Inicializando Banco de Registradores privados
         bancoPrivado = new HashMap<>();
         filaRegistradoresLivres = new LinkedList<>();
-        for (int i = 0; i <= NUM_REGISTRADORES_PRIVADOS; i++) {
+        for (int i = 0; i <= configuracao.getNumRegistradoresPrivados(); i++) {
             bancoPrivado.put("P" + i, (float) i);
             filaRegistradoresLivres.offer("P" + i);
         }
@@ -149,8 +242,8 @@ public class Simulador {
         mapaRenomeacao = new HashMap<>();
 
         // Inicializando Buffer de Reordenamento
-        rob = new ArrayList<>(TAMANHO_ROB);
-        for (int i = 0; i < TAMANHO_ROB; i++) {
+        rob = new ArrayList<>(tamanhoRob);
+        for (int i = 0; i < tamanhoRob; i++) {
             rob.add(new ReorderBufferSlot(i));
         }
         robHead = 0;
@@ -158,29 +251,31 @@ public class Simulador {
 
         // Inicializando Estações de Reserva
         estacoesAdd = new ArrayList<>();
-        for (int i = 0; i < NUM_ESTACOES_ADD; i++) {
+        for (int i = 0; i < configuracao.getNumEstacoesAdd(); i++) {
             estacoesAdd.add(new EstacaoDeReserva("Add" + (i + 1)));
         }
 
         estacoesMul = new ArrayList<>();
-        for (int i = 0; i < NUM_ESTACOES_MUL; i++) {
+        for (int i = 0; i < configuracao.getNumEstacoesMul(); i++) {
             estacoesMul.add(new EstacaoDeReserva("Mult" + (i + 1)));
         }
 
         estacoesLoad = new ArrayList<>();
-        for (int i = 0; i < NUM_ESTACOES_LOAD; i++) {
+        for (int i = 0; i < configuracao.getNumEstacoesLoad(); i++) {
             estacoesLoad.add(new EstacaoDeReserva("Load" + (i + 1)));
         }
 
         estacoesBranches = new ArrayList<>();
-        for (int i = 0; i < NUM_ESTACOES_BRANCHES; i++) {
+        for (int i = 0; i < configuracao.getNumEstacoesBranches(); i++) {
             estacoesBranches.add(new EstacaoDeReserva("Branch" + (i + 1)));
         }
+        montarEstacoes();
 
         // Iniciando memória
-        memoria = new HashMap<>();
-        for (int i = 0; i < 1024; i++) {
-            memoria.put(i, (float) i); // Inicializando memória com zeros
+        memoria = Memoria.inicial();
+        emulador = null;
+        if (historico != null) {
+            historico.limpar();
         }
 
         // Inicializando estado do simulador
@@ -189,73 +284,158 @@ public class Simulador {
         totalCiclos = 0;
         ciclosBolha = 0;
         simulacaoCompleta = false;
+        instrucaoPresa = null;
         instrucoesExecutadas = 0;
+        instrucoesEmitidas = 0;
+        emissaoSuspensa = false;
+        instrucoesFuncionais = 0;
+        emitidasNoCiclo = 0;
+        commitadasNoCiclo = 0;
         logExecucao = new ArrayList<>();
+        contadores.zerar();
+        atividade.zerar();
+        profilerFases.zerar();
+        criarPerfil();
+        criarPreditor();
+        criarCaches();
+        if (monitor != null) {
+            publicarMonitor();
+        }
     }
 
     public void proximoCiclo() {
         //System.out.println("Executando ciclo: " + cicloAtual);
         if (!simulacaoCompleta) {
+            if (historico != null) {
+                historico.registrar(this);
+            }
             logExecucao.add("Ciclo " + (cicloAtual+1));
 
             // --- LOOP DETECTION ---
             // Verifica se o número de ciclos excedeu o limite
-            if (cicloAtual > LIMITE_CICLOS) {
-                logExecucao.add("Timeout: Número de ciclos excedeu o limite de " + LIMITE_CICLOS + ". Simulação interrompida.");
+            if (cicloAtual > configuracao.getLimiteCiclos()) {
+                logExecucao.add("Timeout: Número de ciclos excedeu o limite de " + configuracao.getLimiteCiclos() + ". Simulação interrompida.");
                 simulacaoCompleta = true;
                 logExecucao.add("Simulação completa. Total de ciclos gastos: 0 (loop detectado)");
                 return;
             }
             // Verifica se alguma instrução está "presa" por muitos ciclos
-            for (Instrucao inst : instrucoes) {
-                if (inst.getEstadoExecucao() > 0 && inst.getQtdeExecucoes() > LIMITE_INSTRUCAO) {
-                    logExecucao.add("Timeout: Instrução presa por mais de " + LIMITE_INSTRUCAO + " ciclos: " + inst.toString());
-                    simulacaoCompleta = true;
-                    logExecucao.add("Simulação completa. Total de ciclos gastos: 0 (loop detectado)");
-                    return;
-                }
+            // (marcada no issue, único ponto em que qtdeExecucoes muda)
+            if (instrucaoPresa != null) {
+                logExecucao.add("Timeout: Instrução presa por mais de " + configuracao.getLimiteInstrucao() + " ciclos: " + instrucaoPresa.toString());
+                simulacaoCompleta = true;
+                logExecucao.add("Simulação completa. Total de ciclos gastos: 0 (loop detectado)");
+                return;
             }
             // --- FIM LOOP DETECTION ---
 
-            writeResult();
+            if (profilerFases.isAtivo()) {
+                long t0 = System.nanoTime();
+                writeResult();
+                long t1 = System.nanoTime();
+                execute();
+                long t2 = System.nanoTime();
+                issue();
+                long t3 = System.nanoTime();
+                commit();
+                profilerFases.registrarCiclo(cicloAtual, t0, t1, t2, t3, System.nanoTime());
+            } else {
+                writeResult();
 
-            execute();
+                execute();
 
-            issue();
+                issue();
 
-            commit();
+                commit();
+                profilerFases.cicloSemMedicao();
+            }
+            registrarOcupacao();
             if (pc == instrucoes.size() && robVazio()) {
                 simulacaoCompleta = true;
+                profilerFases.finalizar();
                 logExecucao.add("Simulação completa. Total de ciclos gastos: " + totalCiclos);
-                totalCiclos = cicloAtual - 1;
+                totalCiclos = Math.max(0, cicloAtual - 1);
             } else {
                 logExecucao.add("-------------------------------------------------------------");
             }
             cicloAtual++;
+            if (monitor != null && (simulacaoCompleta || monitor.devePublicar(cicloAtual))) {
+                publicarMonitor();
+            }
             confereSituacaoROB();
         }
     }
 
+    /*
+     * Amostra a ocupação do ROB e das estações de reserva ao fim do ciclo
+     */
+    private void registrarOcupacao() {
+        ocupacaoRob = 0;
+        for (int i = 0; i < tamanhoRob; i++) {
+            if (rob.get(i).isBusy()) {
+                ocupacaoRob++;
+            }
+        }
+        for (int c = 0; c < ocupacaoEstacoes.length; c++) {
+            ocupacaoEstacoes[c] = 0;
+            for (EstacaoDeReserva estacao : estacoesPorClasse[c]) {
+                if (estacao.isBusy()) {
+                    ocupacaoEstacoes[c]++;
+                }
+            }
+        }
+        contadores.registrarFimCiclo(ocupacaoRob, ocupacaoEstacoes, emitidasNoCiclo, commitadasNoCiclo,
+                caches != null ? caches.getMshrsOcupados(cicloAtual) : -1);
+    }
+
+    private void publicarMonitor() {
+        monitor.publicar(cicloAtual, instrucoesExecutadas, ciclosBolha, ocupacaoRob,
+                ocupacaoEstacoes, simulacaoCompleta);
+    }
+
+    /*
+     * Preditor e BTB com as tabelas no estado inicial (o BTB só é consultado
+     * quando o preditor pode prever tomado)
+     */
+    private void criarPreditor() {
+        preditorDesvios = PreditorDesvios.criar(configuracao);
+        btb = configuracao.getEntradasBtb() > 0 && configuracao.getPreditor() != TipoPreditor.NAO_TOMADO
+                ? new BufferAlvosDesvio(configuracao.getEntradasBtb()) : null;
+        historicoGlobal = 0;
+        desvioNaBusca = false;
+    }
+
+    /*
+     * Caches vazias e MSHRs livres (sem L1 configurada, não há caches)
+     */
+    private void criarCaches() {
+        caches = configuracao.getTamanhoL1() > 0 ? new HierarquiaCache(configuracao) : null;
+    }
+
+    private void criarPerfil() {
+        perfil = configuracao.isPerfilInstrucoes() ? new PerfilInstrucoes(instrucoes.size()) : null;
+    }
+
     public void confereSituacaoROB() {
-        for (int i = robHead; i != robTail; i = (i + 1) % TAMANHO_ROB) {
+        for (int i = robHead; i != robTail; i = (i + 1) % tamanhoRob) {
             ReorderBufferSlot slot = rob.get(i);
             //System.out.println("Slot " + i + ": " + slot.getInstrucao() + ", Busy: " + slot.isBusy());
         }
     }
 
     void writeResult() {
+        marcarCargasEmEspera();
         // Verifica estações de reserva que terminaram a execução
-        List<EstacaoDeReserva> todasEstacoes = new ArrayList<>();
-        todasEstacoes.addAll(estacoesAdd);
-        todasEstacoes.addAll(estacoesMul);
-        todasEstacoes.addAll(estacoesLoad);
-        todasEstacoes.addAll(estacoesBranches);
+        if (configuracao.getNumCdbs() > 0) {
+            arbitrarCdb();
+        }
 
-        for (EstacaoDeReserva estacao : todasEstacoes) {
+        for (EstacaoDeReserva estacao : estacoes) {
             // System.out.println(
             // "Ciclos restantes para a estação " + estacao.getNome() + ": " +
             // estacao.getCiclosRestantes());
-            if (estacao.isBusy() && estacao.getCiclosRestantes() == 0) {
+            if (estacao.isBusy() && estacao.getCiclosRestantes() == 0 && !adiadaNoCdb(estacao)
+                    && !emEspera(estacao)) {
                 String regPrivado = estacao.getDest();
 
                 // Atualiza o slot do ROB
@@ -264,35 +444,42 @@ public class Simulador {
                     Float resultado = estacao.calcularResultado();
                     slot.setCicloEscrita(cicloAtual);
                     slot.setCicloCommit(cicloAtual);
+                    atividade.registrar(EventoAtividade.ESCRITA_ROB);
                     slot.setEstado(EstadoInstrucao.ESCRITA);
                     slot.setPronto(true);
                     Instrucao inst = slot.getInstrucao();
                     if (inst != null) inst.setEstadoExecucao(3); // resultado escrito
                     if (estacao.getOp().isMemoryOperation()) {
-                        // Para LOAD, lê da memória
+                        int posicao = filaMemoria.posicao(slot);
+                        int endereco = resultado.intValue();
                         if (estacao.getOp() == OpCode.LOAD) {
-                            int endereco = resultado.intValue();
-                            resultado = memoria.getOrDefault(endereco, 0.0f);
+                            // Lê do store mais novo com o mesmo endereço na fila ou da memória
+                            resultado = executarCarga(posicao, endereco);
 
                             // Propaga resultado via CDB para estações de reserva que estavam esperando
                             propagarResultadoCDB(regPrivado, resultado);
-                        } else { // STORE
-                            int endereco = resultado.intValue();
-                            Float valor = bancoPrivado.get(regPrivado);
-                            memoria.put(endereco, valor);
+                        } else { // STORE: a memória só é escrita no commit
+                            // (o endereço já foi resolvido quando a base ficou disponível)
+                            Float valor = estacao.getVj();
+                            filaMemoria.resolverValor(posicao, valor);
                             resultado = valor; // Para STORE, o resultado é o valor armazenado
                         }
                     } else if (estacao.getOp().isBranch()) {
                         //System.out.println("Branch detected");
-                        if (resultado == 1) {
-                            executarBEQ(slot);
-                        }
+                        resolverDesvio(slot, resultado == 1);
                     } else {
                         // Propaga resultado via CDB para estações de reserva que estavam esperando
                         propagarResultadoCDB(regPrivado, resultado);
                     }
 
+                    if (inst != null && inst.podeEscrever()) {
+                        bancoPrivado.put(regPrivado, resultado);
+                        atividade.registrar(EventoAtividade.ESCRITA_REGISTRADOR);
+                    }
                     slot.marcarResultadoPronto(resultado, cicloAtual);
+                    for (int i = 0; i < observadores.size(); i++) {
+                        observadores.get(i).aoEscreverResultado(slot, cicloAtual);
+                    }
                     // logExecucao.add("Write Result: " + estacao.getNome() + " -> ROB" + regPrivado + " = " + resultado);
                     estacao.limpar();
                 }
@@ -301,21 +488,214 @@ public class Simulador {
         }
     }
 
-    private void executarBEQ(ReorderBufferSlot slot) {
-        for (int i = robHead; i != robTail; i = (i + 1) % TAMANHO_ROB) {
-            if (!rob.get(i).equals(slot)) {
-                if (rob.get(i).isBusy()) {
-                    if (rob.get(i).getCicloIssue() != -1 && rob.get(i).getCicloIssue() >= slot.getCicloIssue()) {
-                        Instrucao inst = rob.get(i).getInstrucao();
-                        if (inst != null) {
-                            logExecucao.add("BEQ executado, instrução cancelada: " + inst.toString());
-                        }
-                        rob.get(i).limpar();
+    /*
+     * Escolhe, entre as estações que terminaram e difundem o resultado no CDB
+     * (LOAD e operações aritméticas; STORE e BEQ só escrevem no ROB), as que
+     * usam os barramentos do ciclo. As demais ficam em disputaCdb a partir da
+     * posição numCdbs e seguram a estação até ganhar a arbitragem.
+     */
+    private void arbitrarCdb() {
+        numDisputaCdb = 0;
+        for (EstacaoDeReserva estacao : estacoes) {
+            if (estacao.isBusy() && estacao.getCiclosRestantes() == 0 && usaCdb(estacao.getOp())
+                    && !emEspera(estacao)) {
+                disputaCdb[numDisputaCdb++] = estacao;
+            }
+        }
+        int barramentos = Math.min(configuracao.getNumCdbs(), numDisputaCdb);
+        for (int k = 0; k < barramentos; k++) {
+            int melhor = k;
+            for (int i = k + 1; i < numDisputaCdb; i++) {
+                if (venceCdb(disputaCdb[i], disputaCdb[melhor])) {
+                    melhor = i;
+                }
+            }
+            EstacaoDeReserva vencedora = disputaCdb[melhor];
+            disputaCdb[melhor] = disputaCdb[k];
+            disputaCdb[k] = vencedora;
+        }
+        Arrays.fill(adiadosCdb, 0);
+        for (int i = barramentos; i < numDisputaCdb; i++) {
+            EstacaoDeReserva adiada = disputaCdb[i];
+            adiadosCdb[ContadoresDesempenho.classeDe(adiada.getOp())]++;
+            logExecucao.add("CDB ocupado: estação " + adiada.getNome() + " aguarda barramento");
+        }
+        contadores.registrarConflitosCdb(adiadosCdb);
+    }
+
+    /*
+     * Marca os loads que terminaram mas cujo valor viria de um store mais
+     * antigo, de mesmo endereço, que ainda não tem o valor: ficam na estação
+     * (sem disputar o CDB) até o valor chegar
+     */
+    private void marcarCargasEmEspera() {
+        numCargasEmEspera = 0;
+        for (EstacaoDeReserva estacao : estacoesPorClasse[ContadoresDesempenho.CLASSE_LOAD]) {
+            if (estacao.isBusy() && estacao.getOp() == OpCode.LOAD && estacao.getCiclosRestantes() == 0) {
+                int posicao = filaMemoria.posicao(encontrarSlotROB(estacao.getDest()));
+                if (filaMemoria.aguardaValor(posicao, estacao.calcularResultado().intValue())) {
+                    cargasEmEspera[numCargasEmEspera++] = estacao;
+                    logExecucao.add("Estação " + estacao.getNome() + " aguarda o valor do store com o mesmo endereço");
+                }
+            }
+        }
+    }
+
+    private boolean emEspera(EstacaoDeReserva estacao) {
+        for (int i = 0; i < numCargasEmEspera; i++) {
+            if (cargasEmEspera[i] == estacao) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean usaCdb(OpCode op) {
+        return op != OpCode.STORE && !op.isBranch();
+    }
+
+    /*
+     * Indica se a estação a tem prioridade sobre b no CDB
+     */
+    private boolean venceCdb(EstacaoDeReserva a, EstacaoDeReserva b) {
+        if (configuracao.getPoliticaCdb() == PoliticaCdb.PRIORIDADE_CLASSE) {
+            int pa = posicaoPrioridadeCdb[ContadoresDesempenho.classeDe(a.getOp())];
+            int pb = posicaoPrioridadeCdb[ContadoresDesempenho.classeDe(b.getOp())];
+            if (pa != pb) {
+                return pa < pb;
+            }
+        }
+        // Mais antiga primeiro (também desempata a prioridade por classe)
+        return encontrarSlotROB(a.getDest()).getSequencia() < encontrarSlotROB(b.getDest()).getSequencia();
+    }
+
+    /*
+     * Indica se a estação perdeu a arbitragem dos CDBs neste ciclo
+     */
+    private boolean adiadaNoCdb(EstacaoDeReserva estacao) {
+        if (configuracao.getNumCdbs() == 0) {
+            return false;
+        }
+        for (int i = configuracao.getNumCdbs(); i < numDisputaCdb; i++) {
+            if (disputaCdb[i] == estacao) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Valor lido pelo load: encaminhado do store mais novo, entre os mais
+     * antigos, com o mesmo endereço, ou da memória
+     */
+    private Float executarCarga(int posicao, int endereco) {
+        FilaLoadStore.Entrada store = filaMemoria.executarCarga(posicao, endereco);
+        contadores.registrarCarga(store != null, filaMemoria.isEspeculativa(posicao));
+        if (store != null) {
+            logExecucao.add("Encaminhamento: " + filaMemoria.get(posicao).getSlot().getInstrucao()
+                    + " lê o valor de " + store.getSlot().getInstrucao());
+            return store.getValor();
+        }
+        atividade.registrar(EventoAtividade.LEITURA_MEMORIA);
+        return memoria.ler(endereco);
+    }
+
+    /*
+     * O store resolveu o endereço depois que um load mais novo leu o mesmo
+     * endereço de uma fonte mais antiga: o load e as instruções seguintes são
+     * canceladas e buscadas de novo
+     */
+    private void executarReplay(ReorderBufferSlot store, ReorderBufferSlot carga) {
+        logExecucao.add("Violação de ordem de memória: " + carga.getInstrucao() + " leu antes de "
+                + store.getInstrucao() + ", replay a partir do load");
+        contadores.registrarReplay();
+        int indiceCarga = carga.getIndicePrograma();
+        int canceladas = cancelarDesde(carga.getIndice(), ComponenteCPI.REPLAY_MEMORIA);
+        if (perfil != null) {
+            perfil.registrarFlush(store.getIndicePrograma(), canceladas);
+        }
+        pc = indiceCarga;
+    }
+
+    /*
+     * Compara o resultado do desvio com o caminho buscado depois dele; se a
+     * previsão errou, a busca volta para o caminho correto
+     */
+    private void resolverDesvio(ReorderBufferSlot slot, boolean tomado) {
+        int correto = tomado ? slot.getInstrucao().getImediato() - 1 : slot.getIndicePrograma() + 1;
+        if (correto != slot.getProximoPcPrevisto()) {
+            logExecucao.add("Previsão errada do desvio " + slot.getInstrucao() + ": "
+                    + (tomado ? "tomado" : "não tomado") + ", busca volta para a instrução " + (correto + 1));
+            contadores.registrarRecuperacao(cicloAtual - slot.getCicloIssue());
+            executarBEQ(slot, correto);
+        }
+    }
+
+    private void executarBEQ(ReorderBufferSlot slot, int correto) {
+        // Cancela todas as instruções mais novas que o branch (do slot seguinte até a cauda)
+        int canceladas = cancelarDesde((slot.getIndice() + 1) % tamanhoRob, ComponenteCPI.FLUSH_DESVIO);
+        if (perfil != null) {
+            perfil.registrarFlush(slot.getIndicePrograma(), canceladas);
+        }
+        pc = correto; // Atualiza o PC para o caminho correto do branch
+    }
+
+    /*
+     * Cancela as instruções do slot do ROB dado até a cauda, que passa a ser
+     * esse slot, e devolve quantas foram canceladas
+     */
+    private int cancelarDesde(int inicio, ComponenteCPI causa) {
+        if (inicio != robTail && rob.get(inicio).isBusy()) {
+            filaMemoria.descartarDesde(rob.get(inicio).getSequencia());
+        }
+        int canceladas = 0;
+        for (int i = inicio; i != robTail; i = (i + 1) % tamanhoRob) {
+            ReorderBufferSlot cancelado = rob.get(i);
+            if (cancelado.isBusy()) {
+                Instrucao inst = cancelado.getInstrucao();
+                if (inst != null) {
+                    logExecucao.add((causa == ComponenteCPI.FLUSH_DESVIO ? "BEQ executado" : "Replay de memória")
+                            + ", instrução cancelada: " + inst.toString());
+                }
+                liberarRecursos(cancelado);
+                for (int o = 0; o < observadores.size(); o++) {
+                    observadores.get(o).aoCancelar(cancelado, cicloAtual, causa);
+                }
+                cancelado.limpar();
+                canceladas++;
+            }
+        }
+        // Os slots de emissão gastos com as instruções canceladas passam a contar como flush
+        contadores.registrarFlush(causa, canceladas);
+        robTail = inicio;
+        return canceladas;
+    }
+
+    /*
+     * Libera a estação de reserva e o registrador privado de uma instrução cancelada
+     */
+    private void liberarRecursos(ReorderBufferSlot slot) {
+        String regPrivado = slot.getRegistradorRenomeado();
+        if (regPrivado == null) {
+            return;
+        }
+        for (int c = 0; c < estacoesPorClasse.length; c++) {
+            for (EstacaoDeReserva estacao : estacoesPorClasse[c]) {
+                if (estacao.isBusy() && regPrivado.equals(estacao.getDest())) {
+                    if (estacao.getUnidade() >= 0) {
+                        contadores.registrarCancelamentoUnidade(c,
+                                unidades[c][estacao.getUnidade()].cancelar(estacao, cicloAtual));
                     }
+                    estacao.limpar();
                 }
             }
         }
-        pc = slot.getInstrucao().getImediato() - 1; // Atualiza o PC para o endereço do branch
+        if (regPrivado.equals(mapaRenomeacao.get(slot.getRegistradorPublico()))) {
+            mapaRenomeacao.remove(slot.getRegistradorPublico());
+            atividade.registrar(EventoAtividade.ESCRITA_RENOMEACAO);
+        }
+        filaRegistradoresLivres.offer(regPrivado);
+        atividade.registrar(EventoAtividade.LISTA_LIVRE);
     }
 
     /*
@@ -325,7 +705,8 @@ public class Simulador {
      */
     ReorderBufferSlot encontrarSlotROB(String regPrivado) {
         ReorderBufferSlot slotEncontrado = null;
-        for (ReorderBufferSlot slot : rob) {
+        for (int i = 0; i < tamanhoRob; i++) {
+            ReorderBufferSlot slot = rob.get(i);
             if (slot.isBusy() && slot.getRegistradorRenomeado().equals(regPrivado)) {
                 slotEncontrado = slot;
             }
@@ -337,22 +718,20 @@ public class Simulador {
      * Propaga resultado via Common Data Bus (CDB)
      */
     private void propagarResultadoCDB(String regPrivado, Float valor) {
+        atividade.registrar(EventoAtividade.DIFUSAO_CDB);
+        contadores.registrarTransmissaoCdb();
         // Atualiza estações de reserva que estavam esperando este resultado
-        List<EstacaoDeReserva> todasEstacoes = new ArrayList<>();
-        todasEstacoes.addAll(estacoesAdd);
-        todasEstacoes.addAll(estacoesMul);
-        todasEstacoes.addAll(estacoesLoad);
-        todasEstacoes.addAll(estacoesBranches);
-
-        for (EstacaoDeReserva estacao : todasEstacoes) {
+        for (EstacaoDeReserva estacao : estacoes) {
             if (estacao.isBusy()) {
                 if (estacao.getQj() != null && estacao.getQj().equals(regPrivado)) {
                     estacao.setVj(valor);
                     estacao.setQj(null);
+                    atividade.registrar(EventoAtividade.ESCRITA_ESTACAO);
                 }
                 if (estacao.getQk() != null && estacao.getQk().equals(regPrivado)) {
                     estacao.setVk(valor);
                     estacao.setQk(null);
+                    atividade.registrar(EventoAtividade.ESCRITA_ESTACAO);
                 }
             }
         }
@@ -362,22 +741,39 @@ public class Simulador {
      * Fase de Execução: Inicia execução de operações prontas
      */
     private void execute() {
+        resolverEnderecosStore();
+        for (int c = 0; c < unidades.length; c++) {
+            alocarUnidades(c);
+        }
 
-        List<EstacaoDeReserva> todasEstacoes = new ArrayList<>();
-        todasEstacoes.addAll(estacoesAdd);
-        todasEstacoes.addAll(estacoesMul);
-        todasEstacoes.addAll(estacoesLoad);
-        todasEstacoes.addAll(estacoesBranches);
-
-        for (EstacaoDeReserva estacao : todasEstacoes) {
+        boolean esperaEstrutural = false;
+        for (EstacaoDeReserva estacao : estacoes) {
             if (estacao.isBusy()) {
                 boolean pronta = estacao.prontaParaExecucao();
-                if (estacao.getCiclosRestantes() > 0 && pronta) {
+                if (estacao.getCiclosRestantes() > 0 && pronta && estacao.getUnidade() < 0) {
+                    // Pronta, mas todas as unidades que ela pode usar estão ocupadas (ou, em
+                    // uma falta na L1, todos os MSHRs)
+                    esperaEstrutural = true;
+                    if (esperaMshr(estacao)) {
+                        contadores.registrarEsperaMshr();
+                        logExecucao.add("Bolha criada: estação " + estacao.getNome() + " aguardando MSHR livre");
+                    } else {
+                        contadores.registrarEsperaUnidade(ContadoresDesempenho.classeDe(estacao.getOp()));
+                        logExecucao.add("Bolha criada: estação " + estacao.getNome() + " aguardando unidade funcional");
+                    }
+                } else if (estacao.getCiclosRestantes() > 0 && pronta) {
                     ReorderBufferSlot slot = encontrarSlotROB(estacao.getDest());
                     if (slot != null) {
                         slot.setEstado(EstadoInstrucao.EXECUTANDO);
-                        if (slot.getCicloExecucao() == -1)
+                        if (slot.getCicloExecucao() == -1) {
                             slot.setCicloExecucao(cicloAtual);
+                            for (int i = 0; i < observadores.size(); i++) {
+                                observadores.get(i).aoIniciarExecucao(slot, cicloAtual);
+                            }
+                        }
+                        int classe = ContadoresDesempenho.classeDe(estacao.getOp());
+                        contadores.registrarExecucao(classe);
+                        atividade.registrar(EventoAtividade.execucao(classe));
                         boolean terminou = estacao.executarCiclo();
                         if (terminou) {
                             slot.setCicloEscrita(cicloAtual);
@@ -385,11 +781,17 @@ public class Simulador {
                             Instrucao inst = slot.getInstrucao();
                             if (inst != null) inst.setEstadoExecucao(2); // executada
                             slot.setEstado(EstadoInstrucao.EXECUTADO);
+                            for (int i = 0; i < observadores.size(); i++) {
+                                observadores.get(i).aoTerminarExecucao(slot, cicloAtual);
+                            }
                         }
                     }
                 }
                 if (!pronta) {
                     ciclosBolha++;
+                    if (perfil != null) {
+                        registrarEsperaOperandos(estacao);
+                    }
                     // Log detalhado do motivo da bolha
                     String motivo = "Bolha criada: estação " + estacao.getNome() + " aguardando operandos ";
                     if (estacao.getQj() != null) motivo += "Qj=" + estacao.getQj() + " ";
@@ -398,24 +800,216 @@ public class Simulador {
                 }
             }
         }
+        // Uma bolha por ciclo com espera por unidade ou MSHR; as estação-ciclos
+        // de espera ficam nos contadores
+        if (esperaEstrutural) {
+            ciclosBolha++;
+        }
+    }
+
+    /*
+     * Resolve na fila de loads e stores o endereço de cada store cujo
+     * registrador base ficou disponível, sem esperar pelo valor; se um load
+     * mais novo já leu o mesmo endereço de uma fonte mais antiga, ele e as
+     * instruções seguintes são reexecutados
+     */
+    private void resolverEnderecosStore() {
+        for (EstacaoDeReserva estacao : estacoesPorClasse[ContadoresDesempenho.CLASSE_LOAD]) {
+            if (estacao.isBusy() && estacao.getOp() == OpCode.STORE && estacao.getQk() == null) {
+                ReorderBufferSlot slot = encontrarSlotROB(estacao.getDest());
+                int posicao = filaMemoria.posicao(slot);
+                if (!filaMemoria.get(posicao).isEnderecoConhecido()) {
+                    filaMemoria.resolverEndereco(posicao, (int) (estacao.getVk() + estacao.getImediato()));
+                    int violacao = filaMemoria.violacao(posicao);
+                    if (violacao >= 0) {
+                        executarReplay(slot, filaMemoria.get(violacao).getSlot());
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Entrega as unidades livres da classe às estações prontas que ainda não
+     * começaram a executar, da instrução mais antiga para a mais nova; uma
+     * estação com porta fixa só pode usar a sua unidade
+     */
+    private void alocarUnidades(int classe) {
+        int n = 0;
+        for (EstacaoDeReserva estacao : estacoesPorClasse[classe]) {
+            if (estacao.isBusy() && estacao.getUnidade() < 0 && estacao.getCiclosRestantes() > 0
+                    && estacao.prontaParaExecucao()) {
+                candidatasUnidade[n++] = estacao;
+            }
+        }
+        if (configuracao.getNumUnidades(classe) > 0) {
+            // Ordem de idade (inserção: poucas estações por classe)
+            for (int i = 1; i < n; i++) {
+                EstacaoDeReserva estacao = candidatasUnidade[i];
+                long sequencia = encontrarSlotROB(estacao.getDest()).getSequencia();
+                int j = i - 1;
+                while (j >= 0 && encontrarSlotROB(candidatasUnidade[j].getDest()).getSequencia() > sequencia) {
+                    candidatasUnidade[j + 1] = candidatasUnidade[j];
+                    j--;
+                }
+                candidatasUnidade[j + 1] = estacao;
+            }
+        }
+        UnidadeFuncional[] daClasse = unidades[classe];
+        for (int i = 0; i < n; i++) {
+            EstacaoDeReserva estacao = candidatasUnidade[i];
+            int unidade = estacao.getPorta();
+            if (unidade < 0) {
+                for (int u = 0; u < daClasse.length && unidade < 0; u++) {
+                    if (daClasse[u].isLivre(cicloAtual)) {
+                        unidade = u;
+                    }
+                }
+            }
+            if (unidade >= 0 && daClasse[unidade].isLivre(cicloAtual)) {
+                if (caches != null && estacao.getOp().isMemoryOperation() && !acessarCache(estacao)) {
+                    continue; // falta na L1 sem MSHR livre: a unidade fica para as seguintes
+                }
+                estacao.setUnidade(unidade);
+                int ocupada = daClasse[unidade].iniciar(estacao, cicloAtual, estacao.getCiclosRestantes());
+                contadores.registrarInicioUnidade(classe, ocupada);
+            }
+        }
+    }
+
+    /*
+     * Acessa as caches com o endereço do load ou store que vai começar a
+     * executar: a latência passa a ser um ciclo de cálculo do endereço mais a
+     * do nível que atende o acesso
+     * @return false se é uma falta na L1 sem MSHR livre (nada é alterado)
+     */
+    private boolean acessarCache(EstacaoDeReserva estacao) {
+        int endereco = estacao.calcularResultado().intValue();
+        if (!caches.podeAcessar(endereco, cicloAtual)) {
+            return false;
+        }
+        int latencia = caches.acessar(endereco, cicloAtual);
+        int resultado = caches.getUltimoResultado();
+        contadores.registrarAcessoCache(resultado);
+        estacao.setCiclosRestantes(1 + latencia);
+        if (resultado != HierarquiaCache.ACERTO_L1) {
+            logExecucao.add("Falta na L1: estação " + estacao.getNome() + ", endereço " + endereco + ", "
+                    + (resultado == HierarquiaCache.FALTA_SECUNDARIA ? "linha já pedida"
+                    : resultado == HierarquiaCache.ACERTO_L2 ? "acerto na L2" : "lida da memória")
+                    + ", latência " + latencia);
+        }
+        return true;
+    }
+
+    /*
+     * Indica se a estação pronta espera por um MSHR, e não por uma unidade
+     */
+    private boolean esperaMshr(EstacaoDeReserva estacao) {
+        return caches != null && estacao.getOp().isMemoryOperation()
+                && !caches.podeAcessar(estacao.calcularResultado().intValue(), cicloAtual);
+    }
+
+    /*
+     * Porta (unidade funcional) da estação recém-emitida: a própria unidade
+     * quando cada estação tem uma, a próxima do rodízio com portas fixadas no
+     * issue, ou nenhuma (qualquer unidade livre)
+     */
+    private void atribuirPorta(EstacaoDeReserva estacao, int classe) {
+        if (configuracao.getNumUnidades(classe) == 0) {
+            EstacaoDeReserva[] daClasse = estacoesPorClasse[classe];
+            for (int i = 0; i < daClasse.length; i++) {
+                if (daClasse[i] == estacao) {
+                    estacao.setPorta(i);
+                }
+            }
+        } else if (configuracao.isPortaNaEmissao()) {
+            estacao.setPorta(proximaPorta[classe]);
+            proximaPorta[classe] = (proximaPorta[classe] + 1) % unidades[classe].length;
+        } else {
+            estacao.setPorta(-1);
+        }
+    }
 
+    /*
+     * Atribui um ciclo de espera de cada operando pendente ao seu produtor
+     */
+    private void registrarEsperaOperandos(EstacaoDeReserva estacao) {
+        ReorderBufferSlot slot = encontrarSlotROB(estacao.getDest());
+        if (slot == null || slot.getIndicePrograma() < 0) {
+            return;
+        }
+        if (estacao.getQj() != null) {
+            perfil.registrarEspera(slot.getIndicePrograma(), slot.getProdutorJ());
+        }
+        if (estacao.getQk() != null) {
+            perfil.registrarEspera(slot.getIndicePrograma(), slot.getProdutorK());
+        }
     }
 
+    /**
+     * Fase de Issue: emite em ordem até larguraEmissao instruções. A primeira
+     * que não pode ser emitida encerra o grupo, e os slots restantes do ciclo
+     * são perdidos pela mesma causa. Dentro do grupo cada instrução é renomeada
+     * depois da anterior, então uma dependência entre duas instruções do mesmo
+     * ciclo é resolvida pelo ROB como qualquer outra.
+     */
     private void issue() {
-        if (pc < instrucoes.size()) {
+        int largura = configuracao.getLarguraEmissao();
+        emitidasNoCiclo = 0;
+        while (emitidasNoCiclo < largura) {
+            ComponenteCPI perda = emitir();
+            if (perda != null) {
+                for (int s = emitidasNoCiclo; s < largura; s++) {
+                    registrarSlotPerdido(perda);
+                }
+                return;
+            }
+            emitidasNoCiclo++;
+            if (desvioNaBusca) {
+                // A busca do ciclo termina no desvio previsto tomado
+                desvioNaBusca = false;
+                for (int s = emitidasNoCiclo; s < largura; s++) {
+                    registrarSlotPerdido(ComponenteCPI.SEM_INSTRUCOES);
+                }
+                return;
+            }
+        }
+    }
+
+    /*
+     * Emite a instrução do PC, devolvendo null ou a causa da perda do slot
+     */
+    private ComponenteCPI emitir() {
+        if (historico != null && !emissaoSuspensa) {
+            historico.registrarBusca(Math.min(pc, instrucoes.size()), cicloAtual);
+        }
+        if (emissaoSuspensa) {
+            return ComponenteCPI.SEM_INSTRUCOES;
+        } else if (pc < instrucoes.size()) {
             if (!rob.get(robTail).isBusy()) {
                 Instrucao inst = instrucoes.get(pc);
                 EstacaoDeReserva estacao = encontrarEstacaoLivre(inst.getOp());
-                if (estacao != null) {
-                    if (inst.podeEscrever() && !filaRegistradoresLivres.isEmpty()) {
+                if (estacao != null && filaRegistradoresLivres.isEmpty()) {
+                    logExecucao.add("Nenhum registrador físico livre, não foi possível emitir a instrução: "
+                            + inst.toString());
+                    ciclosBolha++;
+                    return ComponenteCPI.SEM_REGISTRADOR_LIVRE;
+                } else if (estacao != null && inst.getOp().isMemoryOperation() && filaMemoria.isCheia()) {
+                    logExecucao.add("Fila de loads e stores cheia, não foi possível emitir a instrução: "
+                            + inst.toString());
+                    ciclosBolha++;
+                    return causaBloqueio(filaMemoria.get(0).getSlot(), ComponenteCPI.FILA_MEMORIA_CHEIA);
+                } else if (estacao != null) {
+                    if (inst.podeEscrever()) {
                         ReorderBufferSlot slot = rob.get(robTail);
                         slot.setBusy(true);
                         slot.setPronto(false);
                         slot.setInstrucao(inst);
                         slot.setEstado(EstadoInstrucao.PROCESSANDO);
                         slot.setCicloIssue(cicloAtual);
+                        slot.setIndicePrograma(pc);
                         String regPublico = inst.getRd();
-                        verificaDependenciaVDD(inst, estacao);
+                        verificaDependenciaVDD(inst, estacao, slot);
                         String regPrivado = filaRegistradoresLivres.poll();
                         bancoPrivado.put(regPrivado, bancoRegistradores.get(regPublico));
                         slot.setRegistradorRenomeado(regPrivado);
@@ -429,7 +1023,7 @@ public class Simulador {
                         estacao.setBusy(true);
                         estacao.setOp(inst.getOp());
                         estacao.setCiclosRestantes(inst.getCiclosDuracao());
-                        robTail = (robTail + 1) % TAMANHO_ROB;
+                        robTail = (robTail + 1) % tamanhoRob;
                     } else {
                         ReorderBufferSlot slot = rob.get(robTail);
                         slot.setBusy(true);
@@ -437,7 +1031,8 @@ public class Simulador {
                         slot.setPronto(false);
                         slot.setEstado(EstadoInstrucao.PROCESSANDO);
                         slot.setCicloIssue(cicloAtual);
-                        verificaDependenciaVDD(inst, estacao);
+                        slot.setIndicePrograma(pc);
+                        verificaDependenciaVDD(inst, estacao, slot);
                         int imediato = inst.getImediato();
                         if (imediato != 0) {
                             estacao.setImediato(imediato);
@@ -448,56 +1043,188 @@ public class Simulador {
                         estacao.setBusy(true);
                         estacao.setOp(inst.getOp());
                         estacao.setCiclosRestantes(inst.getCiclosDuracao());
-                        robTail = (robTail + 1) % TAMANHO_ROB;
+                        robTail = (robTail + 1) % tamanhoRob;
+                    }
+                    atribuirPorta(estacao, ContadoresDesempenho.classeDe(inst.getOp()));
+                    ReorderBufferSlot emitido = rob.get((robTail + tamanhoRob - 1) % tamanhoRob);
+                    emitido.setSequencia(instrucoesEmitidas++);
+                    if (inst.getOp().isMemoryOperation()) {
+                        filaMemoria.alocar(emitido, inst.getOp() == OpCode.STORE);
+                    }
+                    // Alocação no ROB, escrita da estação e registrador físico da lista livre
+                    atividade.registrar(EventoAtividade.ESCRITA_ROB);
+                    atividade.registrar(EventoAtividade.ESCRITA_ESTACAO);
+                    atividade.registrar(EventoAtividade.LISTA_LIVRE);
+                    if (inst.podeEscrever()) {
+                        atividade.registrar(EventoAtividade.ESCRITA_RENOMEACAO);
+                    }
+                    for (int i = 0; i < observadores.size(); i++) {
+                        observadores.get(i).aoEmitir(emitido, cicloAtual);
                     }
-                    pc++;
+                    if (perfil != null) {
+                        perfil.registrarEmissao(pc);
+                    }
+                    pc = proximaBusca(inst, emitido);
+                    contadores.registrarSlot(ComponenteCPI.BASE);
                     if (inst.getEstadoExecucao() > 0) {
-                        inst.addExecucao();                        
+                        inst.addExecucao();
+                        if (inst.getQtdeExecucoes() > configuracao.getLimiteInstrucao()) {
+                            instrucaoPresa = inst;
+                        }
                     }
                     inst.setEstadoExecucao(1); // lida
+                    return null;
                 } else {
                     logExecucao.add("Nenhuma estação de reserva disponível, não foi possível emitir a instrução: "
                             + inst.toString());
                     ciclosBolha++;
+                    return causaBloqueio(maisAntigaDaClasse(ContadoresDesempenho.classeDe(inst.getOp())),
+                            ComponenteCPI.ESTACAO_CHEIA);
                 }
             } else {
                 logExecucao.add("ROB cheio, não foi possível emitir a instrução: " + instrucoes.get(pc).toString());
                 ciclosBolha++;
+                return causaBloqueio(rob.get(robHead), ComponenteCPI.ROB_CHEIO);
+            }
+        }
+        return ComponenteCPI.SEM_INSTRUCOES;
+    }
+
+    /*
+     * Posição buscada depois da instrução emitida: depois de um desvio, o
+     * alvo se o preditor prevê tomado e o alvo está no BTB, senão a seguinte
+     */
+    private int proximaBusca(Instrucao inst, ReorderBufferSlot emitido) {
+        if (!inst.getOp().isBranch()) {
+            return pc + 1;
+        }
+        int proximo = pc + 1;
+        int alvo = inst.getImediato() - 1;
+        if (preditorDesvios.prever(pc, alvo, historicoGlobal)) {
+            int alvoBusca = alvo;
+            if (btb != null) {
+                alvoBusca = btb.buscar(pc);
+                contadores.registrarConsultaBtb(alvoBusca >= 0);
+            }
+            if (alvoBusca >= 0 && alvoBusca <= instrucoes.size()) {
+                logExecucao.add("Desvio previsto tomado: " + inst + ", busca segue na instrução " + (alvoBusca + 1));
+                proximo = alvoBusca;
+                desvioNaBusca = true;
+            }
+        }
+        emitido.setProximoPcPrevisto(proximo);
+        emitido.setHistoricoDesvio(historicoGlobal);
+        return proximo;
+    }
+
+    /*
+     * Retira o load ou store commitado da cabeça da fila; o store escreve na memória
+     */
+    private void retirarDaFilaMemoria(ReorderBufferSlot slot) {
+        FilaLoadStore.Entrada entrada = filaMemoria.get(0);
+        if (entrada.isStore()) {
+            memoria.escrever(entrada.getEndereco(), entrada.getValor());
+            atividade.registrar(EventoAtividade.ESCRITA_MEMORIA);
+            logExecucao.add("Commit: " + slot.getInstrucao() + " escreve " + entrada.getValor()
+                    + " no endereço " + entrada.getEndereco());
+        }
+        filaMemoria.retirarCabeca();
+    }
+
+    /*
+     * Treina o preditor e o BTB com um desvio commitado
+     */
+    private void treinarPreditor(ReorderBufferSlot slot) {
+        int posicao = slot.getIndicePrograma();
+        int alvo = slot.getInstrucao().getImediato() - 1;
+        boolean tomado = slot.getResultado() != null && slot.getResultado() == 1;
+        contadores.registrarDesvio((tomado ? alvo : posicao + 1) == slot.getProximoPcPrevisto());
+        preditorDesvios.atualizar(posicao, alvo, slot.getHistoricoDesvio(), tomado);
+        if (tomado && btb != null) {
+            btb.registrar(posicao, alvo);
+        }
+        historicoGlobal = ((historicoGlobal << 1) | (tomado ? 1 : 0)) & ((1 << configuracao.getBitsHistorico()) - 1);
+    }
+
+    /*
+     * Contabiliza um slot de emissão sem instrução emitida e avisa os observadores
+     */
+    private void registrarSlotPerdido(ComponenteCPI causa) {
+        contadores.registrarSlot(causa);
+        int indice = pc < instrucoes.size() ? pc : -1;
+        for (int i = 0; i < observadores.size(); i++) {
+            observadores.get(i).aoPerderSlot(causa, indice, cicloAtual);
+        }
+    }
+
+    /*
+     * Atribui um slot de emissão perdido à causa do bloqueio da instrução mais
+     * antiga que ocupa o recurso cheio: se ela ainda espera operandos, a perda é
+     * de dependência; se é um acesso à memória em andamento, de latência de
+     * memória; caso contrário, da falta de capacidade do próprio recurso.
+     */
+    private ComponenteCPI causaBloqueio(ReorderBufferSlot slot, ComponenteCPI capacidade) {
+        if (slot == null || !slot.isBusy() || slot.isPronto()) {
+            return capacidade;
+        }
+        String regPrivado = slot.getRegistradorRenomeado();
+        for (EstacaoDeReserva estacao : estacoes) {
+            if (estacao.isBusy() && regPrivado != null && regPrivado.equals(estacao.getDest())) {
+                if (!estacao.prontaParaExecucao()) {
+                    return ComponenteCPI.ESPERA_OPERANDOS;
+                }
+                if (estacao.getOp().isMemoryOperation()) {
+                    return ComponenteCPI.LATENCIA_MEMORIA;
+                }
+                return capacidade;
             }
         }
+        return capacidade;
+    }
+
+    /*
+     * Slot do ROB da instrução mais antiga que ocupa uma estação da classe
+     */
+    private ReorderBufferSlot maisAntigaDaClasse(int classe) {
+        ReorderBufferSlot maisAntigo = null;
+        for (EstacaoDeReserva estacao : estacoesPorClasse[classe]) {
+            if (estacao.isBusy()) {
+                ReorderBufferSlot slot = encontrarSlotROB(estacao.getDest());
+                if (slot != null && (maisAntigo == null || slot.getSequencia() < maisAntigo.getSequencia())) {
+                    maisAntigo = slot;
+                }
+            }
+        }
+        return maisAntigo;
     }
 
     /*
      * @brief Essa função verifica se há dependências de dados entre a instrução
      * atual e alguma instrução ROB
      * e devolve a posição no ROB em que há esse conflito.
+     * Os produtores pendentes ficam registrados no slot da instrução emitida.
      */
-    private void verificaDependenciaVDD(Instrucao inst, EstacaoDeReserva estacao) {
+    private void verificaDependenciaVDD(Instrucao inst, EstacaoDeReserva estacao, ReorderBufferSlot slotEmitido) {
         // System.out.println("Verificando dependência VDD para: " + reg1 + ", " +
         // reg2);
         // Verifica se a instrução depende de outra que ainda não foi completada
         String reg1 = inst.getReg1();
         String reg2 = inst.getReg2();
+        // Cada operando consulta a tabela de renomeação e lê um valor (banco
+        // público ou físico) quando não fica esperando o CDB
+        atividade.registrar(EventoAtividade.LEITURA_RENOMEACAO, 2);
+        // Percorre o ROB da cabeça para a cauda: o último produtor encontrado é
+        // o mais novo, inclusive quando foi emitido no mesmo ciclo
         ReorderBufferSlot conflito1 = null, conflito2 = null;
-        for (int i = robHead; i != robTail; i = (i + 1) % TAMANHO_ROB) {
+        for (int i = robHead; i != robTail; i = (i + 1) % tamanhoRob) {
             if (rob.get(i).isBusy()) {
                 String regPublico = rob.get(i).getRegistradorPublico();
                 if (regPublico != null && regPublico.equals(reg1)) {
-                    if (conflito1 != null) {
-                        if (conflito1.getCicloIssue() < rob.get(i).getCicloIssue()) {
-                            conflito1 = rob.get(i);
-                        }
-                    } else {
-                        conflito1 = rob.get(i);
-                    }
-                } else if (regPublico != null && regPublico.equals(reg2)) {
-                    if (conflito2 != null) {
-                        if (conflito2.getCicloIssue() < rob.get(i).getCicloIssue()) {
-                            conflito2 = rob.get(i);
-                        }
-                    } else {
-                        conflito2 = rob.get(i);
-                    }
+                    conflito1 = rob.get(i);
+                }
+                // Um registrador pode ser os dois operandos (ex.: SUB R3,R2,R2)
+                if (regPublico != null && regPublico.equals(reg2)) {
+                    conflito2 = rob.get(i);
                 }
             }
         }
@@ -505,21 +1232,27 @@ public class Simulador {
             logExecucao.add("Conflito verdadeiro: " + "instrução " + inst.toString() + " em conflito com " + conflito1.getInstrucao().toString() + " em " + reg1);
             if (conflito1.isPronto()) {
                 estacao.setVj(bancoPrivado.get(conflito1.getRegistradorRenomeado()));
+                atividade.registrar(EventoAtividade.LEITURA_REGISTRADOR);
             } else {
                 estacao.setQj(conflito1.getRegistradorRenomeado());
+                slotEmitido.setProdutorJ(conflito1.getIndicePrograma());
             }
         } else {
             estacao.setVj(bancoRegistradores.get(reg1));
+            atividade.registrar(EventoAtividade.LEITURA_REGISTRADOR);
         }
         if (conflito2 != null) {
             logExecucao.add("Conflito verdadeiro: " + "instrução " + inst.toString() + " em conflito com " + conflito2.getInstrucao().toString() + " em " + reg2);
             if (conflito2.isPronto()) {
                 estacao.setVk(bancoPrivado.get(conflito2.getRegistradorRenomeado()));
+                atividade.registrar(EventoAtividade.LEITURA_REGISTRADOR);
             } else {
                 estacao.setQk(conflito2.getRegistradorRenomeado());
+                slotEmitido.setProdutorK(conflito2.getIndicePrograma());
             }
         } else {
             estacao.setVk(bancoRegistradores.get(reg2));
+            atividade.registrar(EventoAtividade.LEITURA_REGISTRADOR);
         }
     }
 
@@ -527,21 +1260,9 @@ public class Simulador {
      * Encontra uma estação de reserva livre para a operação
      */
     private EstacaoDeReserva encontrarEstacaoLivre(OpCode op) {
-        List<EstacaoDeReserva> estacoes;
-
         // System.out.println("Encontrando estação livre para a operação: " + op);
 
-        if (op.isMemoryOperation()) {
-            estacoes = estacoesLoad;
-        } else if (op.isMultiplyDivide()) {
-            estacoes = estacoesMul;
-        } else if (op.isBranch()) {
-            estacoes = estacoesBranches;
-        } else {
-            estacoes = estacoesAdd;
-        }
-
-        for (EstacaoDeReserva estacao : estacoes) {
+        for (EstacaoDeReserva estacao : estacoesPorClasse[ContadoresDesempenho.classeDe(op)]) {
             // System.out.println("Verificando estação: " + estacao.getNome() + " - Busy: "
             // + estacao.isBusy());
             if (!estacao.isBusy()) {
@@ -551,18 +1272,40 @@ public class Simulador {
 
         return null;
     }
-    
+
+    /*
+     * Estações de reserva de uma classe (ContadoresDesempenho.CLASSE_*)
+     */
+    private List<EstacaoDeReserva> estacoesDaClasse(int classe) {
+        switch (classe) {
+            case ContadoresDesempenho.CLASSE_LOAD: return estacoesLoad;
+            case ContadoresDesempenho.CLASSE_MUL: return estacoesMul;
+            case ContadoresDesempenho.CLASSE_BRANCH: return estacoesBranches;
+            default: return estacoesAdd;
+        }
+    }
+
 
     /**
-     * Fase de Commit: Retira instruções da cabeça do ROB
+     * Fase de Commit: Retira em ordem até larguraCommit instruções da cabeça do ROB
      */
     private void commit() {
+        commitadasNoCiclo = 0;
+        while (commitadasNoCiclo < configuracao.getLarguraCommit() && commitarCabeca()) {
+            commitadasNoCiclo++;
+        }
+    }
 
+    /*
+     * Retira a instrução da cabeça do ROB se ela estiver pronta
+     */
+    private boolean commitarCabeca() {
         ReorderBufferSlot slot = rob.get(robHead);
 
         if (slot.isBusy() && slot.isPronto() && slot.getCicloCommit() != cicloAtual) {
             Instrucao inst = slot.getInstrucao();
             slot.setCicloCommit(cicloAtual);
+            atividade.registrar(EventoAtividade.LEITURA_ROB);
             if (inst != null) inst.setEstadoExecucao(4); // commitada
             // Atualiza banco publico se a instrução escreve em registrador
             if (inst.podeEscrever() && slot.getRegistradorPublico() != null) {
@@ -574,16 +1317,37 @@ public class Simulador {
                 bancoRegistradores.put(regPub, slot.getResultado());
                 filaRegistradoresLivres.offer(regPriv);
                 mapaRenomeacao.remove(regPub);
+                atividade.registrar(EventoAtividade.ESCRITA_REGISTRADOR);
+                atividade.registrar(EventoAtividade.LISTA_LIVRE);
+                atividade.registrar(EventoAtividade.ESCRITA_RENOMEACAO);
                 logExecucao.add("Commit: " + inst + " -> " + regPub + " = " + slot.getResultado());
             } else {
+                // STORE e BEQ usam o registrador privado apenas como etiqueta
+                if (slot.getRegistradorRenomeado() != null) {
+                    filaRegistradoresLivres.offer(slot.getRegistradorRenomeado());
+                    atividade.registrar(EventoAtividade.LISTA_LIVRE);
+                }
                 logExecucao.add("Commit: " + inst);
             }
 
+            if (inst.getOp().isBranch()) {
+                treinarPreditor(slot);
+            } else if (inst.getOp().isMemoryOperation()) {
+                retirarDaFilaMemoria(slot);
+            }
+            if (perfil != null && slot.getIndicePrograma() >= 0) {
+                perfil.registrarCommit(slot.getIndicePrograma(), cicloAtual - slot.getCicloIssue());
+            }
+            for (int i = 0; i < observadores.size(); i++) {
+                observadores.get(i).aoCommit(slot, cicloAtual);
+            }
             slot.limpar();
-            robHead = (robHead + 1) % TAMANHO_ROB;
+            robHead = (robHead + 1) % tamanhoRob;
             instrucoesExecutadas++;
+            contadores.registrarCommit();
+            return true;
         }
-
+        return false;
     }
 
     /**
@@ -591,25 +1355,463 @@ public class Simulador {
      */
     private boolean robVazio() {
         boolean resultado = true;
-        for (ReorderBufferSlot slot : rob) {
-            if (slot.isBusy()) {
+        for (int i = 0; i < tamanhoRob; i++) {
+            if (rob.get(i).isBusy()) {
                 resultado = false;
             }
         }
         return resultado;
     }
 
+    /**
+     * Para de emitir e avança ciclos até o ROB esvaziar. Depois disso não há
+     * instrução em voo, o estado arquitetural (banco público, memória e PC) é
+     * exato e a execução pode continuar em modo funcional.
+     */
+    public void drenarPipeline() {
+        emissaoSuspensa = true;
+        try {
+            while (!simulacaoCompleta && !robVazio()) {
+                proximoCiclo();
+            }
+        } finally {
+            emissaoSuspensa = false;
+        }
+    }
+
+    /**
+     * Executa até limite instruções direto sobre o estado arquitetural, sem
+     * pipeline e sem avançar ciclos (mesma semântica da execução detalhada).
+     * O pipeline precisa estar vazio (drenarPipeline); a simulação detalhada
+     * continua do PC em que a execução funcional parou.
+     * @return número de instruções executadas
+     */
+    public long executarFuncional(long limite) {
+        if (!robVazio()) {
+            throw new IllegalStateException("O pipeline precisa estar vazio para executar em modo funcional");
+        }
+        if (emulador == null) {
+            emulador = new EmuladorFuncional(instrucoes, memoria);
+        }
+        for (Map.Entry<String, Float> registrador : bancoRegistradores.entrySet()) {
+            emulador.setRegistrador(InstructionParser.numeroRegistrador(registrador.getKey()), registrador.getValue());
+        }
+        emulador.setPc(pc);
+        descartarHistoricoAposCiclo();
+        long antes = emulador.getInstrucoesExecutadas();
+        try {
+            emulador.executar(limite);
+        } finally {
+            copiarRegistradores(emulador);
+            pc = emulador.getPc();
+            instrucoesFuncionais += emulador.getInstrucoesExecutadas() - antes;
+        }
+        return emulador.getInstrucoesExecutadas() - antes;
+    }
+
+    /**
+     * Continua a simulação detalhada do estado de um emulador que executou o
+     * mesmo programa (fast-forward): registradores, memória (copiada) e PC.
+     * O pipeline precisa estar vazio.
+     */
+    public void importarEstado(EmuladorFuncional origem) {
+        if (!robVazio()) {
+            throw new IllegalStateException("O pipeline precisa estar vazio para importar o estado");
+        }
+        if (origem.getTotalInstrucoes() != instrucoes.size()) {
+            throw new IllegalArgumentException("O emulador executou outro programa ("
+                    + origem.getTotalInstrucoes() + " instruções, carregadas " + instrucoes.size() + ")");
+        }
+        descartarHistoricoAposCiclo();
+        copiarRegistradores(origem);
+        memoria = origem.getMemoria().copiar();
+        emulador = null;
+        pc = origem.getPc();
+        instrucoesFuncionais += origem.getInstrucoesExecutadas();
+    }
+
+    private void copiarRegistradores(EmuladorFuncional origem) {
+        for (int i = 0; i < EmuladorFuncional.NUM_REGISTRADORES; i++) {
+            if (origem.isDefinido(i)) {
+                bancoRegistradores.put(InstructionParser.nomeRegistrador(i), origem.getRegistrador(i));
+            }
+        }
+    }
+
+    /**
+     * Indica se o programa foi executado até o fim (e não interrompido por limite)
+     */
+    public boolean isProgramaConcluido() {
+        return pc >= instrucoes.size() && robVazio();
+    }
+
+    /*
+     * O estado muda sem avançar o ciclo (modo funcional): o snapshot do ciclo
+     * atual e os seguintes deixam de valer
+     */
+    private void descartarHistoricoAposCiclo() {
+        if (historico != null) {
+            historico.descartarApos(cicloAtual - 1);
+            historico.registrarExecucaoFuncional(cicloAtual);
+        }
+    }
+
+    /**
+     * Volta (ou avança) a simulação até o início do ciclo, restaurando o
+     * snapshot anterior mais próximo do histórico e reexecutando os ciclos
+     * seguintes. Os observadores não recebem os eventos dos ciclos reexecutados.
+     */
+    public void irParaCiclo(int ciclo) {
+        if (ciclo < 0) {
+            throw new IllegalArgumentException("Ciclo inválido: " + ciclo);
+        }
+        if (ciclo < cicloAtual) {
+            if (historico == null) {
+                throw new IllegalStateException("O histórico de ciclos está desabilitado");
+            }
+            Map.Entry<Integer, HistoricoCiclos.Snapshot> snapshot = historico.snapshotAte(ciclo);
+            if (snapshot == null) {
+                throw new IllegalStateException("Nenhum snapshot até o ciclo " + ciclo);
+            }
+            int cicloOriginal = cicloAtual;
+            restaurarSnapshot(snapshot.getValue());
+            List<ObservadorPipeline> ativos = new ArrayList<>(observadores);
+            observadores.clear();
+            try {
+                while (!simulacaoCompleta && cicloAtual < Math.min(ciclo, cicloOriginal)) {
+                    proximoCiclo();
+                }
+            } finally {
+                observadores.addAll(ativos);
+            }
+        }
+        while (!simulacaoCompleta && cicloAtual < ciclo) {
+            proximoCiclo();
+        }
+    }
+
+    /**
+     * Volta um ciclo (ver irParaCiclo)
+     */
+    public void voltarCiclo() {
+        if (cicloAtual > 0) {
+            irParaCiclo(cicloAtual - 1);
+        }
+    }
+
+    private void restaurarSnapshot(HistoricoCiclos.Snapshot snapshot) {
+        try {
+            lerEstado(new DataInputStream(new ByteArrayInputStream(snapshot.estado)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // gravado por gravarEstado, não ocorre
+        }
+        for (int i = 0; i < snapshot.paginas.length; i++) {
+            memoria.restaurarPagina(snapshot.paginas[i], snapshot.dados[i].clone());
+        }
+        if (snapshot.tamanhoLog < logExecucao.size()) {
+            logExecucao.subList(snapshot.tamanhoLog, logExecucao.size()).clear();
+        }
+    }
+
+    /*
+     * Estado completo entre dois ciclos, para Checkpoint (a memória é gravada
+     * à parte, por páginas). O log de execução, o profiler de fases, os
+     * observadores e o monitor não fazem parte do estado.
+     */
+    void gravarEstado(DataOutput saida) throws IOException {
+        saida.writeInt(pc);
+        saida.writeInt(cicloAtual);
+        saida.writeInt(totalCiclos);
+        saida.writeInt(ciclosBolha);
+        saida.writeBoolean(simulacaoCompleta);
+        saida.writeInt(instrucaoPresa == null ? -1 : indiceDe(instrucaoPresa));
+        saida.writeInt(instrucoesExecutadas);
+        saida.writeLong(instrucoesEmitidas);
+        saida.writeBoolean(emissaoSuspensa);
+        saida.writeLong(instrucoesFuncionais);
+        Checkpoint.gravarVarInt(saida, emitidasNoCiclo);
+        Checkpoint.gravarVarInt(saida, commitadasNoCiclo);
+
+        // Estado das instruções estáticas, em sequências de valores iguais
+        // (o trecho já executado de um programa longo vira uma única sequência)
+        Checkpoint.gravarVarInt(saida, instrucoes.size());
+        int i = 0;
+        while (i < instrucoes.size()) {
+            Instrucao inicio = instrucoes.get(i);
+            int fim = i + 1;
+            while (fim < instrucoes.size()
+                    && instrucoes.get(fim).getEstadoExecucao() == inicio.getEstadoExecucao()
+                    && instrucoes.get(fim).getQtdeExecucoes() == inicio.getQtdeExecucoes()) {
+                fim++;
+            }
+            Checkpoint.gravarVarInt(saida, fim - i);
+            saida.writeByte(inicio.getEstadoExecucao());
+            Checkpoint.gravarVarInt(saida, inicio.getQtdeExecucoes());
+            i = fim;
+        }
+
+        gravarBanco(saida, bancoRegistradores);
+        gravarBanco(saida, bancoPrivado);
+        saida.writeInt(mapaRenomeacao.size());
+        for (Map.Entry<String, String> renomeacao : mapaRenomeacao.entrySet()) {
+            Checkpoint.gravarRegistrador(saida, renomeacao.getKey());
+            Checkpoint.gravarRegistrador(saida, renomeacao.getValue());
+        }
+        saida.writeInt(filaRegistradoresLivres.size());
+        for (String livre : filaRegistradoresLivres) {
+            Checkpoint.gravarRegistrador(saida, livre);
+        }
+
+        saida.writeInt(robHead);
+        saida.writeInt(robTail);
+        for (ReorderBufferSlot slot : rob) {
+            saida.writeBoolean(slot.isBusy());
+            if (slot.isBusy()) {
+                saida.writeInt(slot.getIndicePrograma());
+                saida.writeByte(slot.getEstado().ordinal());
+                Checkpoint.gravarRegistrador(saida, slot.getRegistradorPublico());
+                Checkpoint.gravarRegistrador(saida, slot.getRegistradorRenomeado());
+                Checkpoint.gravarFloat(saida, slot.getResultado());
+                saida.writeBoolean(slot.isPronto());
+                saida.writeInt(slot.getCicloIssue());
+                saida.writeInt(slot.getCicloExecucao());
+                saida.writeInt(slot.getCicloEscrita());
+                saida.writeInt(slot.getCicloCommit());
+                saida.writeInt(slot.getProdutorJ());
+                saida.writeInt(slot.getProdutorK());
+                saida.writeLong(slot.getSequencia());
+                Checkpoint.gravarVarInt(saida, slot.getProximoPcPrevisto() + 1);
+                Checkpoint.gravarVarInt(saida, slot.getHistoricoDesvio());
+            }
+        }
+
+        for (int classe = 0; classe < ContadoresDesempenho.NOMES_CLASSES.length; classe++) {
+            for (EstacaoDeReserva estacao : estacoesDaClasse(classe)) {
+                saida.writeBoolean(estacao.isBusy());
+                if (estacao.isBusy()) {
+                    saida.writeByte(estacao.getOp().ordinal());
+                    Checkpoint.gravarFloat(saida, estacao.getVj());
+                    Checkpoint.gravarFloat(saida, estacao.getVk());
+                    Checkpoint.gravarRegistrador(saida, estacao.getQj());
+                    Checkpoint.gravarRegistrador(saida, estacao.getQk());
+                    Checkpoint.gravarRegistrador(saida, estacao.getDest());
+                    saida.writeInt(estacao.getImediato());
+                    saida.writeInt(estacao.getCiclosRestantes());
+                    saida.writeInt(estacao.getPorta());
+                    saida.writeInt(estacao.getUnidade());
+                }
+            }
+            saida.writeInt(proximaPorta[classe]);
+            for (UnidadeFuncional unidade : unidades[classe]) {
+                saida.writeInt(unidade.getCicloLivre());
+                saida.writeInt(indiceEstacao(unidade.getOcupante()));
+            }
+        }
+
+        filaMemoria.gravarEstado(saida);
+        saida.writeInt(historicoGlobal);
+        preditorDesvios.gravarEstado(saida);
+        if (btb != null) {
+            btb.gravarEstado(saida);
+        }
+        if (caches != null) {
+            caches.gravarEstado(saida);
+        }
+
+        contadores.gravarEstado(saida);
+        atividade.gravarEstado(saida);
+        saida.writeBoolean(perfil != null);
+        if (perfil != null) {
+            perfil.gravarEstado(saida);
+        }
+    }
+
+    private int indiceEstacao(EstacaoDeReserva estacao) {
+        for (int i = 0; i < estacoes.length; i++) {
+            if (estacoes[i] == estacao) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Restaura o estado gravado por gravarEstado; o programa e a configuração
+     * já precisam ser os mesmos, e a memória volta ao estado inicial (as
+     * páginas gravadas são aplicadas depois pelo Checkpoint)
+     */
+    void lerEstado(DataInput entrada) throws IOException {
+        pc = entrada.readInt();
+        cicloAtual = entrada.readInt();
+        totalCiclos = entrada.readInt();
+        ciclosBolha = entrada.readInt();
+        simulacaoCompleta = entrada.readBoolean();
+        int presa = entrada.readInt();
+        instrucaoPresa = presa < 0 ? null : instrucoes.get(presa);
+        instrucoesExecutadas = entrada.readInt();
+        instrucoesEmitidas = entrada.readLong();
+        emissaoSuspensa = entrada.readBoolean();
+        instrucoesFuncionais = entrada.readLong();
+        emitidasNoCiclo = Checkpoint.lerVarInt(entrada);
+        commitadasNoCiclo = Checkpoint.lerVarInt(entrada);
+
+        // O programa pode ter outro tamanho (atualizarInstrucoes): índices
+        // além do gravado não foram buscados e ficam zerados
+        int gravadas = Checkpoint.lerVarInt(entrada);
+        int i = 0;
+        while (i < gravadas) {
+            int fim = i + Checkpoint.lerVarInt(entrada);
+            int estado = entrada.readByte();
+            int execucoes = Checkpoint.lerVarInt(entrada);
+            for (; i < fim; i++) {
+                if (i < instrucoes.size()) {
+                    instrucoes.get(i).restaurarExecucao(estado, execucoes);
+                }
+            }
+        }
+        for (; i < instrucoes.size(); i++) {
+            instrucoes.get(i).restaurarExecucao(0, 0);
+        }
+
+        bancoRegistradores = lerBanco(entrada, 'R');
+        bancoPrivado = lerBanco(entrada, 'P');
+        mapaRenomeacao = new HashMap<>();
+        int renomeados = entrada.readInt();
+        for (int r = 0; r < renomeados; r++) {
+            mapaRenomeacao.put(Checkpoint.lerRegistrador(entrada, 'R'), Checkpoint.lerRegistrador(entrada, 'P'));
+        }
+        filaRegistradoresLivres = new LinkedList<>();
+        int livres = entrada.readInt();
+        for (int l = 0; l < livres; l++) {
+            filaRegistradoresLivres.offer(Checkpoint.lerRegistrador(entrada, 'P'));
+        }
+
+        robHead = entrada.readInt();
+        robTail = entrada.readInt();
+        for (ReorderBufferSlot slot : rob) {
+            slot.limpar();
+            if (entrada.readBoolean()) {
+                int indice = entrada.readInt();
+                slot.setBusy(true);
+                slot.setIndicePrograma(indice);
+                slot.setInstrucao(instrucoes.get(indice));
+                slot.setEstado(EstadoInstrucao.values()[entrada.readByte()]);
+                slot.setRegistradorPublico(Checkpoint.lerRegistrador(entrada, 'R'));
+                slot.setRegistradorRenomeado(Checkpoint.lerRegistrador(entrada, 'P'));
+                slot.setResultado(Checkpoint.lerFloat(entrada));
+                slot.setPronto(entrada.readBoolean());
+                slot.setCicloIssue(entrada.readInt());
+                slot.setCicloExecucao(entrada.readInt());
+                slot.setCicloEscrita(entrada.readInt());
+                slot.setCicloCommit(entrada.readInt());
+                slot.setProdutorJ(entrada.readInt());
+                slot.setProdutorK(entrada.readInt());
+                slot.setSequencia(entrada.readLong());
+                slot.setProximoPcPrevisto(Checkpoint.lerVarInt(entrada) - 1);
+                slot.setHistoricoDesvio(Checkpoint.lerVarInt(entrada));
+            }
+        }
+
+        for (int classe = 0; classe < ContadoresDesempenho.NOMES_CLASSES.length; classe++) {
+            for (EstacaoDeReserva estacao : estacoesDaClasse(classe)) {
+                estacao.limpar();
+                if (entrada.readBoolean()) {
+                    estacao.setBusy(true);
+                    estacao.setOp(OpCode.values()[entrada.readByte()]);
+                    estacao.setVj(Checkpoint.lerFloat(entrada));
+                    estacao.setVk(Checkpoint.lerFloat(entrada));
+                    estacao.setQj(Checkpoint.lerRegistrador(entrada, 'P'));
+                    estacao.setQk(Checkpoint.lerRegistrador(entrada, 'P'));
+                    estacao.setDest(Checkpoint.lerRegistrador(entrada, 'P'));
+                    estacao.setImediato(entrada.readInt());
+                    estacao.setCiclosRestantes(entrada.readInt());
+                    estacao.setPorta(entrada.readInt());
+                    estacao.setUnidade(entrada.readInt());
+                }
+            }
+            proximaPorta[classe] = entrada.readInt();
+            for (UnidadeFuncional unidade : unidades[classe]) {
+                int cicloLivre = entrada.readInt();
+                int ocupante = entrada.readInt();
+                unidade.restaurar(cicloLivre, ocupante < 0 ? null : estacoes[ocupante]);
+            }
+        }
+
+        filaMemoria.lerEstado(entrada, rob);
+        historicoGlobal = entrada.readInt();
+        preditorDesvios.lerEstado(entrada);
+        if (btb != null) {
+            btb.lerEstado(entrada);
+        }
+        if (caches != null) {
+            caches.lerEstado(entrada);
+        }
+        desvioNaBusca = false;
+
+        contadores.lerEstado(entrada);
+        atividade.lerEstado(entrada);
+        if (entrada.readBoolean() != (perfil != null)) {
+            throw new IOException("Checkpoint inconsistente: perfil por instrução");
+        }
+        if (perfil != null) {
+            perfil.lerEstado(entrada);
+        }
+
+        memoria = Memoria.inicial();
+        emulador = null;
+        if (monitor != null) {
+            publicarMonitor();
+        }
+    }
+
+    private int indiceDe(Instrucao inst) {
+        for (int i = 0; i < instrucoes.size(); i++) {
+            if (instrucoes.get(i) == inst) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void gravarBanco(DataOutput saida, Map<String, Float> banco) throws IOException {
+        saida.writeInt(banco.size());
+        for (Map.Entry<String, Float> registrador : banco.entrySet()) {
+            Checkpoint.gravarRegistrador(saida, registrador.getKey());
+            Checkpoint.gravarFloat(saida, registrador.getValue());
+        }
+    }
+
+    private static Map<String, Float> lerBanco(DataInput entrada, char prefixo) throws IOException {
+        Map<String, Float> banco = new HashMap<>();
+        int tamanho = entrada.readInt();
+        for (int i = 0; i < tamanho; i++) {
+            banco.put(Checkpoint.lerRegistrador(entrada, prefixo), Checkpoint.lerFloat(entrada));
+        }
+        return banco;
+    }
+
     // Funções Requisitadas pela GUI
 
     /**
      * Executa a simulação completa
      */
     public void executarCompleto() {
-        while (!simulacaoCompleta) {
+        executarAteCiclo(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Executa até o fim da simulação ou até o ciclo atual chegar a ciclo
+     * (para gravar checkpoints periódicos)
+     */
+    public void executarAteCiclo(int ciclo) {
+        while (!simulacaoCompleta && cicloAtual < ciclo) {
+            if (monitor != null) {
+                monitor.aguardarSePausado();
+            }
             proximoCiclo();
 
             // Proteção contra loop infinito
-            if (cicloAtual > 10000) {
+            if (cicloAtual > Math.max(10000, configuracao.getLimiteCiclos())) {
                 System.err.println("Simulação interrompida: muitos ciclos");
                 break;
             }
@@ -617,13 +1819,113 @@ public class Simulador {
     }
 
     /**
-     * Carrega instruções de um arquivo
+     * Carrega instruções de um arquivo (texto ou binário pré-montado)
      */
     public void carregarInstrucoes(String nomeArquivo) throws IOException {
         reiniciar();
-        instrucoes = InstructionParser.lerInstrucoes(nomeArquivo);
+        ResultadoParser resultado = ProgramaBinario.carregarQualquer(nomeArquivo);
+        instrucoes = resultado.getInstrucoes();
+        diagnosticos = resultado.getDiagnosticos();
+        emulador = null;
         pc = 0;
+        criarPerfil();
         logExecucao.add("Carregadas " + instrucoes.size() + " instruções do arquivo: " + nomeArquivo);
+        for (Diagnostico diagnostico : diagnosticos) {
+            logExecucao.add("Erro ao parsear " + diagnostico);
+        }
+    }
+
+    /**
+     * Carrega uma lista de instruções já parseada
+     */
+    public void carregarInstrucoes(List<Instrucao> novasInstrucoes) {
+        reiniciar();
+        instrucoes = new ArrayList<>(novasInstrucoes);
+        diagnosticos = new ArrayList<>();
+        emulador = null;
+        pc = 0;
+        criarPerfil();
+        logExecucao.add("Carregadas " + instrucoes.size() + " instruções");
+    }
+
+    /**
+     * Troca o programa por uma versão editada sem simular tudo de novo: a
+     * simulação anterior vale até a primeira busca de uma instrução alterada
+     * (ou deslocada, ou do novo fim do programa), então o simulador volta ao
+     * último snapshot do histórico antes desse ciclo com o programa novo.
+     * Sem histórico, ou sem snapshot anterior, carrega do zero.
+     * @return ciclo em que a simulação foi retomada (0 se carregou do zero)
+     */
+    public int atualizarInstrucoes(List<Instrucao> novasInstrucoes) {
+        int primeira = primeiraDiferenca(novasInstrucoes);
+        if (primeira < 0) {
+            return cicloAtual; // programa igual
+        }
+        Map.Entry<Integer, HistoricoCiclos.Snapshot> snapshot = null;
+        if (historico != null) {
+            // Primeira busca das instruções diferentes; as de índice maior que o
+            // fim antigo nunca foram buscadas (o fim antigo conta como buscado)
+            int ciclo = Integer.MAX_VALUE;
+            int ultima = Math.max(instrucoes.size(), novasInstrucoes.size());
+            for (int i = primeira; i <= Math.min(ultima, instrucoes.size()); i++) {
+                int busca = historico.getPrimeiraBusca(i);
+                boolean diferente = i < Math.min(instrucoes.size(), novasInstrucoes.size())
+                        ? !mesmaInstrucao(instrucoes.get(i), novasInstrucoes.get(i))
+                        : instrucoes.size() != novasInstrucoes.size();
+                if (diferente && busca >= 0 && busca < ciclo) {
+                    ciclo = busca;
+                }
+            }
+            snapshot = historico.snapshotAte(ciclo);
+        }
+        if (snapshot == null) {
+            carregarInstrucoes(novasInstrucoes);
+            return 0;
+        }
+
+        instrucoes = new ArrayList<>(novasInstrucoes);
+        diagnosticos = new ArrayList<>();
+        emulador = null;
+        criarPerfil();
+        restaurarSnapshot(snapshot.getValue());
+        historico.descartarApos(cicloAtual);
+        historico.descartarBuscasDesde(cicloAtual);
+        logExecucao.add("Programa alterado a partir da instrução " + primeira
+                + ": simulação retomada do ciclo " + cicloAtual);
+        return cicloAtual;
+    }
+
+    /**
+     * Como atualizarInstrucoes, lendo o programa editado de um arquivo
+     */
+    public int atualizarInstrucoes(String nomeArquivo) throws IOException {
+        ResultadoParser resultado = ProgramaBinario.carregarQualquer(nomeArquivo);
+        int ciclo = atualizarInstrucoes(resultado.getInstrucoes());
+        diagnosticos = resultado.getDiagnosticos();
+        for (Diagnostico diagnostico : diagnosticos) {
+            logExecucao.add("Erro ao parsear " + diagnostico);
+        }
+        return ciclo;
+    }
+
+    /*
+     * Primeiro índice em que os programas diferem (-1 se iguais)
+     */
+    private int primeiraDiferenca(List<Instrucao> outras) {
+        int comuns = Math.min(instrucoes.size(), outras.size());
+        for (int i = 0; i < comuns; i++) {
+            if (!mesmaInstrucao(instrucoes.get(i), outras.get(i))) {
+                return i;
+            }
+        }
+        return instrucoes.size() == outras.size() ? -1 : comuns;
+    }
+
+    private static boolean mesmaInstrucao(Instrucao a, Instrucao b) {
+        return a.getOp() == b.getOp() && a.getImediato() == b.getImediato()
+                && Objects.equals(a.getRd(), b.getRd())
+                && Objects.equals(a.getReg1(), b.getReg1())
+                && Objects.equals(a.getReg2(), b.getReg2());
     }
 
     /**
@@ -666,6 +1968,92 @@ public class Simulador {
         return status;
     }
 
+    /**
+     * Retorna uma cópia da configuração usada por este simulador
+     */
+    public ConfiguracaoSimulador getConfiguracao() {
+        return configuracao.copiar();
+    }
+
+    /**
+     * Contadores de desempenho (pilha de CPI, utilização e ocupação)
+     */
+    public ContadoresDesempenho getContadores() {
+        return contadores;
+    }
+
+    /**
+     * Acessos às estruturas do processador, para o modelo de energia
+     */
+    public ContadoresAtividade getAtividade() {
+        return atividade;
+    }
+
+    /**
+     * Perfil por instrução estática (null se não habilitado na configuração)
+     */
+    public PerfilInstrucoes getPerfil() {
+        return perfil;
+    }
+
+    /**
+     * Profiler de tempo de host por fase do ciclo (ativo com JFR ou pela API)
+     */
+    public ProfilerFases getProfilerFases() {
+        return profilerFases;
+    }
+
+    /**
+     * Habilita (ou, com null, desabilita) o histórico de snapshots usado por
+     * irParaCiclo e voltarCiclo; o histórico começa vazio
+     */
+    public void setHistorico(HistoricoCiclos historico) {
+        this.historico = historico;
+        if (historico != null) {
+            historico.limpar();
+        }
+    }
+
+    public HistoricoCiclos getHistorico() {
+        return historico;
+    }
+
+    /**
+     * Adiciona um observador dos eventos de pipeline de cada instrução
+     */
+    public void adicionarObservador(ObservadorPipeline observador) {
+        observadores.add(observador);
+    }
+
+    public void removerObservador(ObservadorPipeline observador) {
+        observadores.remove(observador);
+    }
+
+    /**
+     * Registra um MBean de plataforma (simulador:type=Simulador,name=nome) com
+     * as métricas ao vivo deste simulador e as operações pausar/retomar
+     */
+    public SimuladorMonitor registrarMonitor(String nome) throws JMException {
+        removerMonitor();
+        monitor = SimuladorMonitor.registrar(nome, tamanhoRob);
+        publicarMonitor();
+        return monitor;
+    }
+
+    /**
+     * Remove o MBean registrado por registrarMonitor
+     */
+    public void removerMonitor() {
+        if (monitor != null) {
+            monitor.remover();
+            monitor = null;
+        }
+    }
+
+    public SimuladorMonitor getMonitor() {
+        return monitor;
+    }
+
     // Getters para estatísticas
     public int getCicloAtual() {
         return cicloAtual;
@@ -675,6 +2063,20 @@ public class Simulador {
         return totalCiclos;
     }
 
+    /**
+     * Instruções emitidas no último ciclo simulado
+     */
+    public int getEmitidasNoCiclo() {
+        return emitidasNoCiclo;
+    }
+
+    /**
+     * Instruções commitadas no último ciclo simulado
+     */
+    public int getCommitadasNoCiclo() {
+        return commitadasNoCiclo;
+    }
+
     public int getCiclosBolha() {
         return ciclosBolha;
     }
@@ -687,10 +2089,24 @@ public class Simulador {
         return instrucoesExecutadas;
     }
 
+    /**
+     * Instruções executadas em modo funcional (fora do pipeline)
+     */
+    public long getInstrucoesFuncionais() {
+        return instrucoesFuncionais;
+    }
+
     public List<Instrucao> getInstrucoes() {
         return instrucoes;
     }
 
+    /**
+     * Retorna os diagnósticos (linha, coluna, mensagem) do último arquivo carregado
+     */
+    public List<Diagnostico> getDiagnosticos() {
+        return diagnosticos;
+    }
+
     public List<String> getLogExecucao() {
         return logExecucao;
     }
@@ -699,6 +2115,13 @@ public class Simulador {
         return pc;
     }
 
+    /**
+     * Memória de dados (a mesma instância usada pela simulação)
+     */
+    public Memoria getMemoria() {
+        return memoria;
+    }
+
     public int getTotalInstrucoes() {
         return instrucoes.size();
     }
@@ -0,0 +1,208 @@
+package simulador;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.locks.LockSupport;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * MBean de plataforma com as métricas ao vivo de um Simulador.
+ *
+ * A thread da simulação publica a cada intervaloPublicacao ciclos um
+ * Instantaneo imutável por meio de uma referência volatile; os leitores JMX
+ * nunca tocam no estado do simulador e não há locks no caminho do ciclo.
+ * Pausar/retomar vale para Simulador.executarCompleto().
+ */
+public class SimuladorMonitor implements SimuladorMonitorMBean {
+
+    /**
+     * Valores publicados de uma só vez pela thread da simulação
+     */
+    static final class Instantaneo {
+        final long ciclo;
+        final long instrucoesCommitadas;
+        final long ciclosBolha;
+        final int ocupacaoRob;
+        final int[] ocupacaoEstacoes;
+        final double ciclosPorSegundo;
+        final boolean completa;
+
+        Instantaneo(long ciclo, long instrucoesCommitadas, long ciclosBolha, int ocupacaoRob,
+                    int[] ocupacaoEstacoes, double ciclosPorSegundo, boolean completa) {
+            this.ciclo = ciclo;
+            this.instrucoesCommitadas = instrucoesCommitadas;
+            this.ciclosBolha = ciclosBolha;
+            this.ocupacaoRob = ocupacaoRob;
+            this.ocupacaoEstacoes = ocupacaoEstacoes;
+            this.ciclosPorSegundo = ciclosPorSegundo;
+            this.completa = completa;
+        }
+    }
+
+    private final ObjectName nome;
+    private final int tamanhoRob;
+    private volatile Instantaneo instantaneo;
+    private volatile int intervaloPublicacao = 1024;
+    private volatile boolean pausado;
+    private volatile Thread threadPausada;
+
+    // Usados apenas pela thread da simulação
+    private long cicloUltimaPublicacao;
+    private long nanosUltimaPublicacao;
+
+    SimuladorMonitor(ObjectName nome, int tamanhoRob) {
+        this.nome = nome;
+        this.tamanhoRob = tamanhoRob;
+        this.instantaneo = new Instantaneo(0, 0, 0, 0,
+                new int[ContadoresDesempenho.NOMES_CLASSES.length], 0.0, false);
+        this.nanosUltimaPublicacao = System.nanoTime();
+    }
+
+    /**
+     * Cria o monitor e o registra no MBeanServer da plataforma com o nome
+     * simulador:type=Simulador,name=&lt;nome&gt;
+     */
+    static SimuladorMonitor registrar(String nome, int tamanhoRob) throws JMException {
+        ObjectName objectName = new ObjectName("simulador:type=Simulador,name=" + ObjectName.quote(nome));
+        SimuladorMonitor monitor = new SimuladorMonitor(objectName, tamanhoRob);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(monitor, objectName);
+        return monitor;
+    }
+
+    /**
+     * Remove o MBean do MBeanServer e libera uma execução pausada
+     */
+    void remover() {
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (servidor.isRegistered(nome)) {
+                servidor.unregisterMBean(nome);
+            }
+        } catch (JMException e) {
+            // já removido por outro cliente
+        }
+        retomar();
+    }
+
+    public ObjectName getNome() {
+        return nome;
+    }
+
+    /**
+     * Indica se o ciclo corresponde a um ponto de publicação
+     */
+    boolean devePublicar(long ciclo) {
+        return ciclo < cicloUltimaPublicacao || ciclo - cicloUltimaPublicacao >= intervaloPublicacao;
+    }
+
+    /**
+     * Publica os valores atuais (chamado pela thread da simulação)
+     */
+    void publicar(long ciclo, long instrucoesCommitadas, long ciclosBolha, int ocupacaoRob,
+                  int[] ocupacaoEstacoes, boolean completa) {
+        long agora = System.nanoTime();
+        long nanos = agora - nanosUltimaPublicacao;
+        double vazao = nanos > 0 && ciclo >= cicloUltimaPublicacao
+                ? (ciclo - cicloUltimaPublicacao) * 1e9 / nanos : 0.0;
+        instantaneo = new Instantaneo(ciclo, instrucoesCommitadas, ciclosBolha, ocupacaoRob,
+                ocupacaoEstacoes.clone(), vazao, completa);
+        cicloUltimaPublicacao = ciclo;
+        nanosUltimaPublicacao = agora;
+    }
+
+    /**
+     * Bloqueia a thread da simulação enquanto o monitor estiver pausado
+     */
+    void aguardarSePausado() {
+        while (pausado) {
+            threadPausada = Thread.currentThread();
+            if (pausado) {
+                LockSupport.park(this);
+            }
+        }
+        threadPausada = null;
+    }
+
+    // Atributos JMX
+
+    @Override
+    public long getCicloAtual() {
+        return instantaneo.ciclo;
+    }
+
+    @Override
+    public long getInstrucoesCommitadas() {
+        return instantaneo.instrucoesCommitadas;
+    }
+
+    @Override
+    public double getIPC() {
+        Instantaneo atual = instantaneo;
+        return atual.ciclo == 0 ? 0.0 : (double) atual.instrucoesCommitadas / atual.ciclo;
+    }
+
+    @Override
+    public long getCiclosBolha() {
+        return instantaneo.ciclosBolha;
+    }
+
+    @Override
+    public int getOcupacaoRob() {
+        return instantaneo.ocupacaoRob;
+    }
+
+    @Override
+    public int getTamanhoRob() {
+        return tamanhoRob;
+    }
+
+    @Override
+    public int[] getOcupacaoEstacoes() {
+        return instantaneo.ocupacaoEstacoes.clone();
+    }
+
+    @Override
+    public double getCiclosPorSegundo() {
+        return instantaneo.ciclosPorSegundo;
+    }
+
+    @Override
+    public boolean isSimulacaoCompleta() {
+        return instantaneo.completa;
+    }
+
+    @Override
+    public boolean isPausado() {
+        return pausado;
+    }
+
+    @Override
+    public int getIntervaloPublicacao() {
+        return intervaloPublicacao;
+    }
+
+    @Override
+    public void setIntervaloPublicacao(int ciclos) {
+        if (ciclos < 1) {
+            throw new IllegalArgumentException("Intervalo de publicação deve ser positivo: " + ciclos);
+        }
+        this.intervaloPublicacao = ciclos;
+    }
+
+    // Operações JMX
+
+    @Override
+    public void pausar() {
+        pausado = true;
+    }
+
+    @Override
+    public void retomar() {
+        pausado = false;
+        Thread thread = threadPausada;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package simulador;
+
+/**
+ * Interface JMX com as métricas ao vivo de um Simulador em execução
+ */
+public interface SimuladorMonitorMBean {
+    long getCicloAtual();
+
+    long getInstrucoesCommitadas();
+
+    double getIPC();
+
+    long getCiclosBolha();
+
+    int getOcupacaoRob();
+
+    int getTamanhoRob();
+
+    /** Estações ocupadas por classe (add, mul, load, branch) */
+    int[] getOcupacaoEstacoes();
+
+    double getCiclosPorSegundo();
+
+    boolean isSimulacaoCompleta();
+
+    boolean isPausado();
+
+    int getIntervaloPublicacao();
+
+    void setIntervaloPublicacao(int ciclos);
+
+    /** Suspende a execução contínua no fim do ciclo corrente */
+    void pausar();
+
+    /** Retoma uma execução pausada */
+    void retomar();
+}
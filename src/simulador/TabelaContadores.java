@@ -0,0 +1,43 @@
+package simulador;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Tabela de contadores saturados de 2 bits (0 e 1 = não tomado, 2 e 3 =
+ * tomado), base dos preditores dinâmicos. Os índices são reduzidos ao
+ * tamanho da tabela, que é uma potência de 2.
+ */
+class TabelaContadores {
+    private final byte[] contadores;
+    private final int mascara;
+
+    TabelaContadores(int entradas) {
+        this.contadores = new byte[entradas];
+        this.mascara = entradas - 1;
+        Arrays.fill(contadores, (byte) 1); // fracamente não tomado
+    }
+
+    boolean prever(int indice) {
+        return contadores[indice & mascara] >= 2;
+    }
+
+    void atualizar(int indice, boolean tomado) {
+        int i = indice & mascara;
+        if (tomado && contadores[i] < 3) {
+            contadores[i]++;
+        } else if (!tomado && contadores[i] > 0) {
+            contadores[i]--;
+        }
+    }
+
+    void gravarEstado(DataOutput saida) throws IOException {
+        saida.write(contadores);
+    }
+
+    void lerEstado(DataInput entrada) throws IOException {
+        entrada.readFully(contadores);
+    }
+}
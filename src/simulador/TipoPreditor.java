@@ -0,0 +1,55 @@
+package simulador;
+
+/**
+ * Enum que representa o preditor de desvios usado na busca: os estáticos
+ * decidem só pela instrução, os dinâmicos aprendem com os desvios commitados
+ */
+public enum TipoPreditor {
+    NAO_TOMADO("Estático, sempre não tomado", "nao-tomado"),
+    TOMADO("Estático, sempre tomado", "tomado"),
+    BTFN("Estático, para trás tomado e para frente não tomado", "btfn"),
+    BIMODAL("Bimodal (contadores de 2 bits por endereço)", "bimodal"),
+    GSHARE("Gshare (histórico global XOR endereço)", "gshare"),
+    TORNEIO("Torneio entre bimodal e gshare", "torneio");
+
+    private final String descricao;
+    private final String chave; // nome usado na configuração e na CLI
+
+    TipoPreditor(String descricao, String chave) {
+        this.descricao = descricao;
+        this.chave = chave;
+    }
+
+    /**
+     * Preditor pela chave ("nao-tomado", "tomado", "btfn", "bimodal", "gshare" ou "torneio")
+     * @throws IllegalArgumentException Se a chave for desconhecida
+     */
+    public static TipoPreditor daChave(String chave) {
+        for (TipoPreditor tipo : values()) {
+            if (tipo.chave.equals(chave)) {
+                return tipo;
+            }
+        }
+        throw new IllegalArgumentException("Preditor de desvios desconhecido: " + chave);
+    }
+
+    /**
+     * Indica se o preditor tem tabelas atualizadas pelos desvios
+     */
+    public boolean isDinamico() {
+        return this == BIMODAL || this == GSHARE || this == TORNEIO;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public String getChave() {
+        return chave;
+    }
+
+    @Override
+    public String toString() {
+        return descricao;
+    }
+}
@@ -0,0 +1,249 @@
+package simulador;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Trace de temporização de uma execução, gravado e lido em fluxo.
+ *
+ * Layout (inteiros big-endian): MAGICO, VERSAO e uma sequência de registros,
+ * cada um começando pelo tipo (1 byte):
+ *   COMMIT: posição no programa, ciclos de issue, início da execução,
+ *           escrita e commit (em ordem de commit, isto é, de programa)
+ *   SLOT:   causa (ordinal de ComponenteCPI, 1 byte) e posição da instrução
+ *           que não pôde ser emitida; instruções canceladas aparecem como
+ *           SLOT de FLUSH_DESVIO (desvio) ou REPLAY_MEMORIA (violação de
+ *           ordem de memória)
+ *   FIM:    total de ciclos da execução (Simulador.getTotalCiclos), último
+ *           registro do trace
+ */
+public class TraceExecucao {
+    public static final int MAGICO = 0x544F4D54; // "TOMT"
+    public static final int VERSAO = 3;
+    public static final String EXTENSAO = ".trace";
+
+    public static final byte TIPO_COMMIT = 1;
+    public static final byte TIPO_SLOT = 2;
+    public static final byte TIPO_FIM = 3;
+
+    private static final ComponenteCPI[] COMPONENTES = ComponenteCPI.values();
+
+    /**
+     * Um registro do trace
+     */
+    public static class Registro {
+        private final byte tipo;
+        private final int indicePrograma;
+        private final ComponenteCPI causa;
+        private final int cicloIssue;
+        private final int cicloExecucao;
+        private final int cicloEscrita;
+        private final int cicloCommit;
+
+        Registro(byte tipo, int indicePrograma, ComponenteCPI causa,
+                 int cicloIssue, int cicloExecucao, int cicloEscrita, int cicloCommit) {
+            this.tipo = tipo;
+            this.indicePrograma = indicePrograma;
+            this.causa = causa;
+            this.cicloIssue = cicloIssue;
+            this.cicloExecucao = cicloExecucao;
+            this.cicloEscrita = cicloEscrita;
+            this.cicloCommit = cicloCommit;
+        }
+
+        static Registro commit(ReorderBufferSlot slot, int ciclo) {
+            return new Registro(TIPO_COMMIT, slot.getIndicePrograma(), null, slot.getCicloIssue(),
+                    slot.getCicloExecucao(), slot.getCicloEscrita(), ciclo);
+        }
+
+        static Registro slot(ComponenteCPI causa, int indicePrograma) {
+            return new Registro(TIPO_SLOT, indicePrograma, causa, -1, -1, -1, -1);
+        }
+
+        public boolean isCommit() {
+            return tipo == TIPO_COMMIT;
+        }
+
+        public int getIndicePrograma() {
+            return indicePrograma;
+        }
+
+        public ComponenteCPI getCausa() {
+            return causa;
+        }
+
+        public int getCicloIssue() {
+            return cicloIssue;
+        }
+
+        public int getCicloExecucao() {
+            return cicloExecucao;
+        }
+
+        public int getCicloEscrita() {
+            return cicloEscrita;
+        }
+
+        public int getCicloCommit() {
+            return cicloCommit;
+        }
+    }
+
+    /**
+     * Sequência de registros de uma execução (arquivo ou simulação ao vivo)
+     */
+    public interface Fonte {
+        /** Próximo registro, ou null no fim da execução */
+        Registro proximo() throws IOException;
+
+        /** Total de ciclos da execução (Simulador.getTotalCiclos), depois que proximo devolve null */
+        int getTotalCiclos();
+    }
+
+    /**
+     * Observador que grava o trace de uma simulação
+     */
+    public static class Gravador implements ObservadorPipeline, Closeable {
+        private final DataOutputStream saida;
+        private IOException erro;
+
+        public Gravador(String arquivo) throws IOException {
+            saida = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(arquivo), 1 << 16));
+            saida.writeInt(MAGICO);
+            saida.writeInt(VERSAO);
+        }
+
+        @Override
+        public void aoCommit(ReorderBufferSlot slot, int ciclo) {
+            if (erro != null) {
+                return;
+            }
+            try {
+                saida.writeByte(TIPO_COMMIT);
+                saida.writeInt(slot.getIndicePrograma());
+                saida.writeInt(slot.getCicloIssue());
+                saida.writeInt(slot.getCicloExecucao());
+                saida.writeInt(slot.getCicloEscrita());
+                saida.writeInt(ciclo);
+            } catch (IOException e) {
+                erro = e;
+            }
+        }
+
+        @Override
+        public void aoPerderSlot(ComponenteCPI causa, int indicePrograma, int ciclo) {
+            gravarSlot(causa, indicePrograma);
+        }
+
+        @Override
+        public void aoCancelar(ReorderBufferSlot slot, int ciclo, ComponenteCPI causa) {
+            gravarSlot(causa, slot.getIndicePrograma());
+        }
+
+        private void gravarSlot(ComponenteCPI causa, int indicePrograma) {
+            if (erro != null) {
+                return;
+            }
+            try {
+                saida.writeByte(TIPO_SLOT);
+                saida.writeByte(causa.ordinal());
+                saida.writeInt(indicePrograma);
+            } catch (IOException e) {
+                erro = e;
+            }
+        }
+
+        /**
+         * Grava o registro final com o total de ciclos da simulação
+         */
+        public void gravarFim(int totalCiclos) {
+            if (erro != null) {
+                return;
+            }
+            try {
+                saida.writeByte(TIPO_FIM);
+                saida.writeInt(totalCiclos);
+            } catch (IOException e) {
+                erro = e;
+            }
+        }
+
+        /**
+         * @throws IOException Se alguma escrita durante a simulação falhou
+         */
+        @Override
+        public void close() throws IOException {
+            saida.close();
+            if (erro != null) {
+                throw erro;
+            }
+        }
+    }
+
+    /**
+     * Leitura sequencial de um trace gravado
+     */
+    public static class Leitor implements Fonte, Closeable {
+        private final DataInputStream entrada;
+        private int totalCiclos = -1;
+
+        public Leitor(String arquivo) throws IOException {
+            entrada = new DataInputStream(new BufferedInputStream(new FileInputStream(arquivo), 1 << 16));
+            if (entrada.readInt() != MAGICO) {
+                entrada.close();
+                throw new IOException("Arquivo não é um trace de execução: " + arquivo);
+            }
+            int versao = entrada.readInt();
+            if (versao != VERSAO) {
+                entrada.close();
+                throw new IOException("Versão de trace não suportada: " + versao);
+            }
+        }
+
+        @Override
+        public Registro proximo() throws IOException {
+            if (totalCiclos >= 0) {
+                return null;
+            }
+            int tipo = entrada.read();
+            if (tipo < 0) {
+                throw new IOException("Trace truncado: falta o registro final");
+            }
+            try {
+                if (tipo == TIPO_FIM) {
+                    totalCiclos = entrada.readInt();
+                    return null;
+                } else if (tipo == TIPO_COMMIT) {
+                    return new Registro(TIPO_COMMIT, entrada.readInt(), null, entrada.readInt(),
+                            entrada.readInt(), entrada.readInt(), entrada.readInt());
+                } else if (tipo == TIPO_SLOT) {
+                    int causa = entrada.readUnsignedByte();
+                    if (causa >= COMPONENTES.length) {
+                        throw new IOException("Causa de slot inválida no trace: " + causa);
+                    }
+                    return Registro.slot(COMPONENTES[causa], entrada.readInt());
+                }
+            } catch (EOFException e) {
+                throw new IOException("Trace truncado", e);
+            }
+            throw new IOException("Tipo de registro inválido no trace: " + tipo);
+        }
+
+        @Override
+        public int getTotalCiclos() {
+            return totalCiclos;
+        }
+
+        @Override
+        public void close() throws IOException {
+            entrada.close();
+        }
+    }
+}
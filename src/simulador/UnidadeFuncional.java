@@ -0,0 +1,78 @@
+package simulador;
+
+/**
+ * Unidade funcional de uma classe de operação, disputada pelas estações de
+ * reserva da classe.
+ *
+ * Uma unidade pipelined aceita uma nova operação a cada intervaloIniciacao
+ * ciclos; uma não pipelined (intervalo 0) fica ocupada pela latência inteira
+ * da operação. A latência continua sendo a da instrução e a contagem dos
+ * ciclos restantes fica na estação, que também guarda o resultado até ele
+ * ganhar um CDB.
+ */
+public class UnidadeFuncional {
+    private final String nome;
+    private final int intervaloIniciacao; // 0 = não pipelined
+    private int cicloLivre; // primeiro ciclo em que aceita uma nova operação
+    private EstacaoDeReserva ocupante; // estação da última operação aceita
+
+    public UnidadeFuncional(String nome, int intervaloIniciacao) {
+        this.nome = nome;
+        this.intervaloIniciacao = intervaloIniciacao;
+        this.cicloLivre = 0;
+        this.ocupante = null;
+    }
+
+    /**
+     * Indica se a unidade aceita uma operação no ciclo
+     */
+    public boolean isLivre(int ciclo) {
+        return ciclo >= cicloLivre;
+    }
+
+    /*
+     * Aceita a operação da estação, com a latência dada
+     * @return ciclos em que a unidade deixa de aceitar operações
+     */
+    int iniciar(EstacaoDeReserva estacao, int ciclo, int latencia) {
+        int ocupada = intervaloIniciacao == 0 ? latencia : intervaloIniciacao;
+        cicloLivre = ciclo + ocupada;
+        ocupante = estacao;
+        return ocupada;
+    }
+
+    /*
+     * A operação da estação foi cancelada por um desvio: se ela ainda ocupa a
+     * entrada da unidade, a unidade é liberada
+     * @return ciclos de ocupação devolvidos (0 se a unidade já estava livre)
+     */
+    int cancelar(EstacaoDeReserva estacao, int ciclo) {
+        if (ocupante == estacao && cicloLivre > ciclo) {
+            int devolvidos = cicloLivre - ciclo;
+            cicloLivre = ciclo;
+            return devolvidos;
+        }
+        return 0;
+    }
+
+    void restaurar(int cicloLivre, EstacaoDeReserva ocupante) {
+        this.cicloLivre = cicloLivre;
+        this.ocupante = ocupante;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public int getIntervaloIniciacao() {
+        return intervaloIniciacao;
+    }
+
+    public int getCicloLivre() {
+        return cicloLivre;
+    }
+
+    EstacaoDeReserva getOcupante() {
+        return ocupante;
+    }
+}